@@ -4,25 +4,58 @@ import com.sun.net.httpserver.HttpServer;
 import ru.ikozlov.kanban.http.handler.*;
 import ru.ikozlov.kanban.manager.Managers;
 import ru.ikozlov.kanban.manager.TaskManager;
+import ru.ikozlov.kanban.manager.concurrent.AsyncHistoryManager;
+import ru.ikozlov.kanban.manager.concurrent.ConcurrentTaskManager;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class HttpTaskServer {
     private static final int PORT = 8080;
+    private static final int HISTORY_VIEWS = 1_000_000;
+    private static final Duration HISTORY_IDLE_TIMEOUT = Duration.ofHours(1);
     private final HttpServer server;
+    private final ExecutorService executor;
+    private final AsyncHistoryManager history;
 
     public HttpTaskServer(TaskManager taskManager) throws IOException {
+        this(taskManager, null);
+    }
+
+    public HttpTaskServer(TaskManager taskManager, ExecutorService executor) throws IOException {
+        this(taskManager, executor, null);
+    }
+
+    /**
+     * The history, if given, is the one the server started for its own task manager and closes on {@link #stop}.
+     */
+    private HttpTaskServer(TaskManager taskManager, ExecutorService executor, AsyncHistoryManager history)
+            throws IOException {
+        this.executor = executor;
+        this.history = history;
         server = HttpServer.create(new InetSocketAddress(PORT), 0);
+        server.setExecutor(executor);
         server.createContext("/tasks", new TasksHandler(taskManager));
         server.createContext("/subtasks", new SubtasksHandler(taskManager));
         server.createContext("/epics", new EpicsHandler(taskManager));
         server.createContext("/history", new HistoryHandler(taskManager));
         server.createContext("/prioritized", new PrioritizedHandler(taskManager));
+        server.createContext("/search", new SearchHandler(taskManager));
+        server.createContext("/slots", new SlotsHandler(taskManager));
+        server.createContext("/workload", new WorkloadHandler(taskManager));
+        server.createContext("/dependencies", new DependenciesHandler(taskManager));
     }
 
     public HttpTaskServer() throws IOException {
-        this(Managers.getDefault());
+        this(AsyncHistoryManager.start(Managers.getSessionHistory(HISTORY_VIEWS, HISTORY_IDLE_TIMEOUT)));
+    }
+
+    private HttpTaskServer(AsyncHistoryManager history) throws IOException {
+        this(new ConcurrentTaskManager(history),
+                Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors()), history);
     }
 
     public void start() {
@@ -31,6 +64,12 @@ public class HttpTaskServer {
 
     public void stop() {
         server.stop(0);
+        if (executor != null) {
+            executor.shutdown();
+        }
+        if (history != null) {
+            history.close();
+        }
     }
 
     public static void main(String[] args) throws IOException {
@@ -6,21 +6,34 @@ import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import ru.ikozlov.kanban.http.util.DurationTypeAdapter;
 import ru.ikozlov.kanban.http.util.EpicAdapter;
+import ru.ikozlov.kanban.http.util.LocalDateAdapter;
 import ru.ikozlov.kanban.http.util.LocalDateTimeAdapter;
+import ru.ikozlov.kanban.manager.HistorySession;
 import ru.ikozlov.kanban.manager.NotFoundException;
 import ru.ikozlov.kanban.manager.TaskManager;
+import ru.ikozlov.kanban.manager.TaskQuery;
+import ru.ikozlov.kanban.manager.TaskType;
 import ru.ikozlov.kanban.manager.TimeIntersectionException;
 import ru.ikozlov.kanban.task.Epic;
+import ru.ikozlov.kanban.task.Task;
 
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.function.BiFunction;
 
 public abstract class BaseHttpHandler implements HttpHandler {
     protected static final Charset DEFAULT_CHARSET = StandardCharsets.UTF_8;
+    protected static final String NEXT_CURSOR_HEADER = "Next-Cursor";
+    protected static final String SESSION_HEADER = "Session-Id";
+    protected static final int DEFAULT_PAGE_SIZE = 100;
+    protected static final int MAX_PAGE_SIZE = 1000;
     protected TaskManager taskManager;
     protected Gson gson;
 
@@ -34,15 +47,23 @@ public abstract class BaseHttpHandler implements HttpHandler {
         try {
             String method = exchange.getRequestMethod();
             String path = exchange.getRequestURI().getPath();
-            Endpoint endpoint = Endpoint.create(method, path);
+            String query = exchange.getRequestURI().getRawQuery();
+            Endpoint endpoint = Endpoint.create(method, path, query);
             if (endpoint.type == Endpoint.Type.UNKNOWN) {
                 sendNotFound(exchange);
             }
-            handle(exchange, endpoint);
+            String previousSession = HistorySession.enter(exchange.getRequestHeaders().getFirst(SESSION_HEADER));
+            try {
+                handle(exchange, endpoint);
+            } finally {
+                HistorySession.exit(previousSession);
+            }
         } catch (NotFoundException e) {
             sendNotFound(exchange);
         } catch (TimeIntersectionException e) {
             sendHasInteractions(exchange);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            sendText(exchange, gson.toJson(new InternalError(e.getMessage())), 400);
         } catch (Exception e) {
             sendText(exchange, gson.toJson(new InternalError(e.getMessage())), 500);
         }
@@ -50,6 +71,73 @@ public abstract class BaseHttpHandler implements HttpHandler {
 
     protected abstract void handle(HttpExchange exchange, Endpoint endpoint) throws IOException;
 
+    /**
+     * Filter from the status, epicId, from and to parameters of a list request, or null when none are given.
+     */
+    protected TaskQuery parseTaskQuery(Endpoint endpoint, TaskType type) {
+        String status = endpoint.params.get("status");
+        Integer epicId = endpoint.getIntParam("epicId");
+        LocalDateTime from = endpoint.getDateTimeParam("from");
+        LocalDateTime to = endpoint.getDateTimeParam("to");
+        if (status == null && epicId == null && from == null && to == null) {
+            return null;
+        }
+        return new TaskQuery()
+                .type(type)
+                .status(status != null ? Task.Status.valueOf(status) : null)
+                .epicId(epicId)
+                .from(from)
+                .to(to);
+    }
+
+    /**
+     * Whether a list request asks for one page through the cursor or limit parameter.
+     */
+    protected boolean isPageRequest(Endpoint endpoint) {
+        return endpoint.params.containsKey("cursor") || endpoint.params.containsKey("limit");
+    }
+
+    protected int getPageLimit(Endpoint endpoint) {
+        Integer limit = endpoint.getIntParam("limit");
+        if (limit == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Page of a list ordered by id; the cursor is the id of the last task of the previous page. One extra task is
+     * requested to tell whether another page follows.
+     */
+    protected void sendPageAfterId(HttpExchange exchange, Endpoint endpoint,
+                                   BiFunction<Integer, Integer, List<? extends Task>> source) throws IOException {
+        if (parseTaskQuery(endpoint, null) != null) {
+            throw new IllegalArgumentException("Filters can't be combined with a cursor");
+        }
+        int limit = getPageLimit(endpoint);
+        Integer cursor = endpoint.getIntParam("cursor");
+        List<? extends Task> tasks = source.apply(cursor != null ? cursor : 0, limit + 1);
+        String nextCursor = null;
+        if (tasks.size() > limit) {
+            tasks = tasks.subList(0, limit);
+            nextCursor = String.valueOf(tasks.getLast().getId());
+        }
+        sendPage(exchange, tasks, nextCursor);
+    }
+
+    /**
+     * Sends the items as a JSON array; the cursor of the next page, if there is one, goes to the Next-Cursor header.
+     */
+    protected void sendPage(HttpExchange exchange, List<?> items, String nextCursor) throws IOException {
+        if (nextCursor != null) {
+            exchange.getResponseHeaders().set(NEXT_CURSOR_HEADER, nextCursor);
+        }
+        sendText(exchange, gson.toJson(items), 200);
+    }
+
     protected void sendText(HttpExchange exchange, String responseText, int statusCode) throws IOException {
         try (OutputStream os = exchange.getResponseBody()) {
             exchange.sendResponseHeaders(statusCode, 0);
@@ -72,6 +160,7 @@ public abstract class BaseHttpHandler implements HttpHandler {
                 .serializeNulls()
                 .registerTypeAdapter(Duration.class, new DurationTypeAdapter())
                 .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter().nullSafe())
+                .registerTypeAdapter(LocalDate.class, new LocalDateAdapter().nullSafe())
                 .registerTypeAdapter(Epic.class, new EpicAdapter())
                 .create();
     }
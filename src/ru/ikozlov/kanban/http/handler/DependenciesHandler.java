@@ -0,0 +1,41 @@
+package ru.ikozlov.kanban.http.handler;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import ru.ikozlov.kanban.manager.TaskManager;
+
+import java.io.IOException;
+
+public class DependenciesHandler extends BaseHttpHandler implements HttpHandler {
+    public DependenciesHandler(TaskManager taskManager) {
+        super(taskManager);
+    }
+
+    @Override
+    protected void handle(HttpExchange exchange, Endpoint endpoint) throws IOException {
+        switch (endpoint.type) {
+            case POST_DEPENDENCY -> {
+                taskManager.addDependency(getId(endpoint, "blockerId"), getId(endpoint, "blockedId"));
+                sendText(exchange, "", 201);
+            }
+            case DELETE_DEPENDENCY -> {
+                taskManager.removeDependency(getId(endpoint, "blockerId"), getId(endpoint, "blockedId"));
+                sendText(exchange, "", 200);
+            }
+            case GET_DEPENDENCY_ID_BLOCKERS ->
+                    sendText(exchange, gson.toJson(taskManager.getBlockers(endpoint.taskId)), 200);
+            case GET_DEPENDENCY_ID_BLOCKED ->
+                    sendText(exchange, gson.toJson(taskManager.getBlocked(endpoint.taskId)), 200);
+            case GET_DEPENDENCY_ID_PATH ->
+                    sendText(exchange, gson.toJson(taskManager.getCriticalPath(endpoint.taskId)), 200);
+        }
+    }
+
+    private static int getId(Endpoint endpoint, String name) {
+        Integer id = endpoint.getIntParam(name);
+        if (id == null) {
+            throw new IllegalArgumentException(name + " must be specified");
+        }
+        return id;
+    }
+}
@@ -1,5 +1,12 @@
 package ru.ikozlov.kanban.http.handler;
 
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -8,19 +15,57 @@ public class Endpoint {
     private static final Pattern subtasksIdPattern = Pattern.compile("^/subtasks/(?<taskId>\\d+)$");
     private static final Pattern epicIdPattern = Pattern.compile("^/epics/(?<taskId>\\d+)$");
     private static final Pattern epicIdSubtasksPattern = Pattern.compile("^/epics/(?<taskId>\\d+)/subtasks$");
+    private static final Pattern dependenciesIdPattern =
+            Pattern.compile("^/dependencies/(?<taskId>\\d+)/(?<relation>blockers|blocked|path)$");
     protected final Type type;
     protected final Integer taskId;
+    protected final Map<String, String> params = new HashMap<>();
 
     private Endpoint(Type type, Integer taskId) {
         this.type = type;
         this.taskId = taskId;
     }
 
+    public static Endpoint create(String method, String path, String query) {
+        Endpoint endpoint = create(method, path);
+        if (query != null && !query.isEmpty()) {
+            for (String pair : query.split("&")) {
+                int separator = pair.indexOf('=');
+                String name = separator >= 0 ? pair.substring(0, separator) : pair;
+                String value = separator >= 0 ? pair.substring(separator + 1) : "";
+                endpoint.params.put(URLDecoder.decode(name, StandardCharsets.UTF_8),
+                        URLDecoder.decode(value, StandardCharsets.UTF_8));
+            }
+        }
+        return endpoint;
+    }
+
+    protected LocalDateTime getDateTimeParam(String name) {
+        String value = params.get(name);
+        return value != null ? LocalDateTime.parse(value) : null;
+    }
+
+    protected LocalDate getDateParam(String name) {
+        String value = params.get(name);
+        return value != null ? LocalDate.parse(value) : null;
+    }
+
+    protected Duration getDurationParam(String name) {
+        String value = params.get(name);
+        return value != null ? Duration.parse(value) : null;
+    }
+
+    protected Integer getIntParam(String name) {
+        String value = params.get(name);
+        return value != null ? Integer.parseInt(value) : null;
+    }
+
     public static Endpoint create(String method, String path) {
         Matcher tasksIdMatcher = tasksIdPattern.matcher(path);
         Matcher subtasksIdMatcher = subtasksIdPattern.matcher(path);
         Matcher epicsIdMatcher = epicIdPattern.matcher(path);
         Matcher epicIdSubtasksMatcher = epicIdSubtasksPattern.matcher(path);
+        Matcher dependenciesIdMatcher = dependenciesIdPattern.matcher(path);
         if (path.equals("/tasks")) {
             if (method.equals("GET")) {
                 return new Endpoint(Type.GET_TASKS, null);
@@ -82,6 +127,31 @@ public class Endpoint {
         if (path.equals("/prioritized")) {
             return new Endpoint(Type.GET_PRIORITIZED, null);
         }
+        if (path.equals("/search") && method.equals("GET")) {
+            return new Endpoint(Type.GET_SEARCH, null);
+        }
+        if (path.equals("/slots") && method.equals("GET")) {
+            return new Endpoint(Type.GET_SLOTS, null);
+        }
+        if (path.equals("/workload") && method.equals("GET")) {
+            return new Endpoint(Type.GET_WORKLOAD, null);
+        }
+        if (path.equals("/dependencies")) {
+            if (method.equals("POST")) {
+                return new Endpoint(Type.POST_DEPENDENCY, null);
+            }
+            if (method.equals("DELETE")) {
+                return new Endpoint(Type.DELETE_DEPENDENCY, null);
+            }
+        }
+        if (dependenciesIdMatcher.matches() && method.equals("GET")) {
+            int taskId = Integer.parseInt(dependenciesIdMatcher.group("taskId"));
+            return new Endpoint(switch (dependenciesIdMatcher.group("relation")) {
+                case "blockers" -> Type.GET_DEPENDENCY_ID_BLOCKERS;
+                case "blocked" -> Type.GET_DEPENDENCY_ID_BLOCKED;
+                default -> Type.GET_DEPENDENCY_ID_PATH;
+            }, taskId);
+        }
         return new Endpoint(Type.UNKNOWN, null);
     }
 
@@ -101,6 +171,14 @@ public class Endpoint {
         DELETE_EPIC_ID,
         GET_HISTORY,
         GET_PRIORITIZED,
+        GET_SEARCH,
+        GET_SLOTS,
+        GET_WORKLOAD,
+        POST_DEPENDENCY,
+        DELETE_DEPENDENCY,
+        GET_DEPENDENCY_ID_BLOCKERS,
+        GET_DEPENDENCY_ID_BLOCKED,
+        GET_DEPENDENCY_ID_PATH,
         UNKNOWN
     }
 }
@@ -3,6 +3,8 @@ package ru.ikozlov.kanban.http.handler;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import ru.ikozlov.kanban.manager.TaskManager;
+import ru.ikozlov.kanban.manager.TaskQuery;
+import ru.ikozlov.kanban.manager.TaskType;
 import ru.ikozlov.kanban.task.Epic;
 import ru.ikozlov.kanban.task.Subtask;
 
@@ -19,7 +21,12 @@ public class EpicsHandler extends BaseHttpHandler implements HttpHandler {
     protected void handle(HttpExchange exchange, Endpoint endpoint) throws IOException {
         switch (endpoint.type) {
             case GET_EPICS -> {
-                String response = gson.toJson(taskManager.getAllEpics());
+                if (isPageRequest(endpoint)) {
+                    sendPageAfterId(exchange, endpoint, taskManager::getEpicsAfter);
+                    return;
+                }
+                TaskQuery query = parseTaskQuery(endpoint, TaskType.EPIC);
+                String response = gson.toJson(query != null ? taskManager.findTasks(query) : taskManager.getAllEpics());
                 sendText(exchange, response, 200);
             }
             case GET_EPIC_ID -> {
@@ -2,7 +2,9 @@ package ru.ikozlov.kanban.http.handler;
 
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
+import ru.ikozlov.kanban.manager.Page;
 import ru.ikozlov.kanban.manager.TaskManager;
+import ru.ikozlov.kanban.task.Task;
 
 import java.io.IOException;
 
@@ -14,6 +16,11 @@ public class HistoryHandler extends BaseHttpHandler implements HttpHandler {
     @Override
     protected void handle(HttpExchange exchange, Endpoint endpoint) throws IOException {
         if (endpoint.type == Endpoint.Type.GET_HISTORY) {
+            if (isPageRequest(endpoint)) {
+                Page<Task> page = taskManager.getHistory(endpoint.params.get("cursor"), getPageLimit(endpoint));
+                sendPage(exchange, page.getItems(), page.getNextCursor());
+                return;
+            }
             String response = gson.toJson(taskManager.getHistory());
             sendText(exchange, response, 200);
         }
@@ -3,8 +3,11 @@ package ru.ikozlov.kanban.http.handler;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import ru.ikozlov.kanban.manager.TaskManager;
+import ru.ikozlov.kanban.task.Task;
 
 import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
 
 public class PrioritizedHandler extends BaseHttpHandler implements HttpHandler {
     public PrioritizedHandler(TaskManager taskManager) {
@@ -14,8 +17,49 @@ public class PrioritizedHandler extends BaseHttpHandler implements HttpHandler {
     @Override
     protected void handle(HttpExchange exchange, Endpoint endpoint) throws IOException {
         if (endpoint.type == Endpoint.Type.GET_PRIORITIZED) {
-            String response = gson.toJson(taskManager.getPrioritizedTasks());
-            sendText(exchange, response, 200);
+            LocalDateTime from = endpoint.getDateTimeParam("from");
+            LocalDateTime to = endpoint.getDateTimeParam("to");
+            List<Task> tasks;
+            if (from != null || to != null) {
+                if (from == null || to == null) {
+                    throw new IllegalArgumentException("Both from and to must be specified");
+                }
+                if (isPageRequest(endpoint)) {
+                    throw new IllegalArgumentException("A range can't be combined with a cursor or limit");
+                }
+                tasks = taskManager.getPrioritizedTasks(from, to);
+            } else if (isPageRequest(endpoint)) {
+                sendPrioritizedPage(exchange, endpoint);
+                return;
+            } else {
+                tasks = taskManager.getPrioritizedTasks();
+            }
+            sendText(exchange, gson.toJson(tasks), 200);
         }
     }
+
+    /**
+     * The cursor is the start time and id of the last task of the previous page, separated by a comma.
+     */
+    private void sendPrioritizedPage(HttpExchange exchange, Endpoint endpoint) throws IOException {
+        LocalDateTime afterTime = null;
+        int afterId = 0;
+        String cursor = endpoint.params.get("cursor");
+        if (cursor != null) {
+            int separator = cursor.lastIndexOf(',');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            afterTime = LocalDateTime.parse(cursor.substring(0, separator));
+            afterId = Integer.parseInt(cursor.substring(separator + 1));
+        }
+        int limit = getPageLimit(endpoint);
+        List<Task> tasks = taskManager.getPrioritizedTasksAfter(afterTime, afterId, limit + 1);
+        String nextCursor = null;
+        if (tasks.size() > limit) {
+            tasks = tasks.subList(0, limit);
+            nextCursor = tasks.getLast().getStartTime() + "," + tasks.getLast().getId();
+        }
+        sendPage(exchange, tasks, nextCursor);
+    }
 }
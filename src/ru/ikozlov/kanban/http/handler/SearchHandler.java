@@ -0,0 +1,28 @@
+package ru.ikozlov.kanban.http.handler;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import ru.ikozlov.kanban.manager.TaskManager;
+
+import java.io.IOException;
+
+public class SearchHandler extends BaseHttpHandler implements HttpHandler {
+    private static final int DEFAULT_LIMIT = 50;
+
+    public SearchHandler(TaskManager taskManager) {
+        super(taskManager);
+    }
+
+    @Override
+    protected void handle(HttpExchange exchange, Endpoint endpoint) throws IOException {
+        if (endpoint.type == Endpoint.Type.GET_SEARCH) {
+            String query = endpoint.params.get("q");
+            if (query == null) {
+                throw new IllegalArgumentException("Query parameter q must be specified");
+            }
+            Integer limit = endpoint.getIntParam("limit");
+            String response = gson.toJson(taskManager.search(query, limit != null ? limit : DEFAULT_LIMIT));
+            sendText(exchange, response, 200);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package ru.ikozlov.kanban.http.handler;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import ru.ikozlov.kanban.manager.TaskManager;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+public class SlotsHandler extends BaseHttpHandler implements HttpHandler {
+    private static final int DEFAULT_LIMIT = 10;
+
+    public SlotsHandler(TaskManager taskManager) {
+        super(taskManager);
+    }
+
+    @Override
+    protected void handle(HttpExchange exchange, Endpoint endpoint) throws IOException {
+        if (endpoint.type == Endpoint.Type.GET_SLOTS) {
+            Duration duration = endpoint.getDurationParam("duration");
+            if (duration == null || duration.isNegative()) {
+                throw new IllegalArgumentException("Non-negative duration must be specified");
+            }
+            LocalDateTime from = endpoint.getDateTimeParam("from");
+            LocalDateTime to = endpoint.getDateTimeParam("to");
+            String response;
+            if (from != null || to != null) {
+                if (from == null || to == null) {
+                    throw new IllegalArgumentException("Both from and to must be specified");
+                }
+                Integer limit = endpoint.getIntParam("limit");
+                response = gson.toJson(taskManager.findFreeSlots(from, to, duration,
+                        limit != null ? limit : DEFAULT_LIMIT));
+            } else {
+                LocalDateTime after = endpoint.getDateTimeParam("after");
+                response = gson.toJson(taskManager.findFreeSlot(after != null ? after : LocalDateTime.now(),
+                        duration));
+            }
+            sendText(exchange, response, 200);
+        }
+    }
+}
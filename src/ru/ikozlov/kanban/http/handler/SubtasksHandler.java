@@ -3,6 +3,8 @@ package ru.ikozlov.kanban.http.handler;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import ru.ikozlov.kanban.manager.TaskManager;
+import ru.ikozlov.kanban.manager.TaskQuery;
+import ru.ikozlov.kanban.manager.TaskType;
 import ru.ikozlov.kanban.task.Subtask;
 
 import java.io.IOException;
@@ -17,7 +19,14 @@ public class SubtasksHandler extends BaseHttpHandler implements HttpHandler {
     protected void handle(HttpExchange exchange, Endpoint endpoint) throws IOException {
         switch (endpoint.type) {
             case GET_SUBTASKS -> {
-                String response = gson.toJson(taskManager.getAllSubtasks());
+                if (isPageRequest(endpoint)) {
+                    sendPageAfterId(exchange, endpoint, taskManager::getSubtasksAfter);
+                    return;
+                }
+                TaskQuery query = parseTaskQuery(endpoint, TaskType.SUBTASK);
+                String response = gson.toJson(query != null
+                        ? taskManager.findTasks(query)
+                        : taskManager.getAllSubtasks());
                 sendText(exchange, response, 200);
             }
             case GET_SUBTASK_ID -> {
@@ -3,6 +3,8 @@ package ru.ikozlov.kanban.http.handler;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import ru.ikozlov.kanban.manager.TaskManager;
+import ru.ikozlov.kanban.manager.TaskQuery;
+import ru.ikozlov.kanban.manager.TaskType;
 import ru.ikozlov.kanban.task.Task;
 
 import java.io.IOException;
@@ -18,7 +20,12 @@ public class TasksHandler extends BaseHttpHandler implements HttpHandler {
     protected void handle(HttpExchange exchange, Endpoint endpoint) throws IOException {
         switch (endpoint.type) {
             case GET_TASKS -> {
-                String response = gson.toJson(taskManager.getAllTasks());
+                if (isPageRequest(endpoint)) {
+                    sendPageAfterId(exchange, endpoint, taskManager::getTasksAfter);
+                    return;
+                }
+                TaskQuery query = parseTaskQuery(endpoint, TaskType.TASK);
+                String response = gson.toJson(query != null ? taskManager.findTasks(query) : taskManager.getAllTasks());
                 sendText(exchange, response, 200);
             }
             case GET_TASK_ID -> {
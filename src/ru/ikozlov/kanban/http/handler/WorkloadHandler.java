@@ -0,0 +1,32 @@
+package ru.ikozlov.kanban.http.handler;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import ru.ikozlov.kanban.manager.TaskManager;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+public class WorkloadHandler extends BaseHttpHandler implements HttpHandler {
+    private static final int MAX_DAYS = 366;
+
+    public WorkloadHandler(TaskManager taskManager) {
+        super(taskManager);
+    }
+
+    @Override
+    protected void handle(HttpExchange exchange, Endpoint endpoint) throws IOException {
+        if (endpoint.type == Endpoint.Type.GET_WORKLOAD) {
+            LocalDate from = endpoint.getDateParam("from");
+            LocalDate to = endpoint.getDateParam("to");
+            if (from == null || to == null) {
+                throw new IllegalArgumentException("Both from and to must be specified");
+            }
+            if (ChronoUnit.DAYS.between(from, to) > MAX_DAYS) {
+                throw new IllegalArgumentException("The range can't be longer than " + MAX_DAYS + " days");
+            }
+            sendText(exchange, gson.toJson(taskManager.getWorkload(from, to)), 200);
+        }
+    }
+}
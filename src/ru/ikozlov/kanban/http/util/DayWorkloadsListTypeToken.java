@@ -0,0 +1,9 @@
+package ru.ikozlov.kanban.http.util;
+
+import com.google.gson.reflect.TypeToken;
+import ru.ikozlov.kanban.manager.DayWorkload;
+
+import java.util.List;
+
+public class DayWorkloadsListTypeToken extends TypeToken<List<DayWorkload>> {
+}
@@ -0,0 +1,29 @@
+package ru.ikozlov.kanban.http.util;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+public class LocalDateAdapter extends TypeAdapter<LocalDate> {
+
+    @Override
+    public void write(JsonWriter writer, LocalDate localDate) throws IOException {
+        if (localDate == null) {
+            writer.nullValue();
+            return;
+        }
+        writer.value(localDate.toString());
+    }
+
+    @Override
+    public LocalDate read(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            return null;
+        }
+        return LocalDate.parse(reader.nextString());
+    }
+}
\ No newline at end of file
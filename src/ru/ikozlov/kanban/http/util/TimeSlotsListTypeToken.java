@@ -0,0 +1,9 @@
+package ru.ikozlov.kanban.http.util;
+
+import com.google.gson.reflect.TypeToken;
+import ru.ikozlov.kanban.manager.TimeSlot;
+
+import java.util.List;
+
+public class TimeSlotsListTypeToken extends TypeToken<List<TimeSlot>> {
+}
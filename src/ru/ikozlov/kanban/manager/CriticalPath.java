@@ -0,0 +1,58 @@
+package ru.ikozlov.kanban.manager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Longest chain of blocking tasks that ends at a task, from the first blocker to the task itself. Its length is the
+ * sum of the durations along the chain. The earliest finish takes the start times of the scheduled tasks on every
+ * chain leading to the task into account and is null if none of them is scheduled.
+ */
+public class CriticalPath {
+    private final List<Integer> taskIds;
+    private final Duration length;
+    private final LocalDateTime earliestFinish;
+
+    public CriticalPath(List<Integer> taskIds, Duration length, LocalDateTime earliestFinish) {
+        this.taskIds = List.copyOf(taskIds);
+        this.length = length;
+        this.earliestFinish = earliestFinish;
+    }
+
+    public List<Integer> getTaskIds() {
+        return taskIds;
+    }
+
+    public Duration getLength() {
+        return length;
+    }
+
+    public LocalDateTime getEarliestFinish() {
+        return earliestFinish;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        CriticalPath that = (CriticalPath) o;
+        return Objects.equals(taskIds, that.taskIds) && Objects.equals(length, that.length)
+                && Objects.equals(earliestFinish, that.earliestFinish);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(taskIds, length, earliestFinish);
+    }
+
+    @Override
+    public String toString() {
+        return "CriticalPath{taskIds=" + taskIds + ", length=" + length + ", earliestFinish=" + earliestFinish + '}';
+    }
+}
@@ -0,0 +1,56 @@
+package ru.ikozlov.kanban.manager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Scheduled time of one calendar day: the part of every task's duration that falls on the day and the number of
+ * tasks that touch it.
+ */
+public class DayWorkload {
+    private final LocalDate date;
+    private final Duration duration;
+    private final int tasksCount;
+
+    public DayWorkload(LocalDate date, Duration duration, int tasksCount) {
+        this.date = date;
+        this.duration = duration;
+        this.tasksCount = tasksCount;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public int getTasksCount() {
+        return tasksCount;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        DayWorkload that = (DayWorkload) o;
+        return tasksCount == that.tasksCount && Objects.equals(date, that.date)
+                && Objects.equals(duration, that.duration);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(date, duration, tasksCount);
+    }
+
+    @Override
+    public String toString() {
+        return "DayWorkload{date=" + date + ", duration=" + duration + ", tasksCount=" + tasksCount + '}';
+    }
+}
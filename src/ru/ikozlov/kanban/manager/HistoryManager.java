@@ -10,4 +10,9 @@ public interface HistoryManager {
     void remove(int id);
 
     List<Task> getHistory();
+
+    /**
+     * Newest views first, starting after the view the cursor points at; a null cursor starts from the newest.
+     */
+    Page<Task> getHistory(String cursor, int limit);
 }
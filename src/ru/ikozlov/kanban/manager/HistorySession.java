@@ -0,0 +1,37 @@
+package ru.ikozlov.kanban.manager;
+
+/**
+ * Id of the client session the current thread works for. A history that keeps sessions apart records views into and
+ * reads from this session; other histories ignore it. Threads start without a session.
+ */
+public final class HistorySession {
+    public static final int MAX_ID_LENGTH = 128;
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private HistorySession() {
+    }
+
+    public static String current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Makes the session current and returns the previous one, which the caller must hand to {@link #exit} when done.
+     */
+    public static String enter(String id) {
+        if (id != null && id.length() > MAX_ID_LENGTH) {
+            throw new IllegalArgumentException("Session id is longer than " + MAX_ID_LENGTH + " characters");
+        }
+        String previous = CURRENT.get();
+        CURRENT.set(id);
+        return previous;
+    }
+
+    public static void exit(String previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
@@ -1,14 +1,51 @@
 package ru.ikozlov.kanban.manager;
 
+import ru.ikozlov.kanban.manager.columnar.ColumnarTaskManager;
+import ru.ikozlov.kanban.manager.concurrent.AsyncHistoryManager;
+import ru.ikozlov.kanban.manager.concurrent.ConcurrentTaskManager;
+import ru.ikozlov.kanban.manager.inmemory.BoundedHistoryManager;
 import ru.ikozlov.kanban.manager.inmemory.InMemoryHistoryManager;
 import ru.ikozlov.kanban.manager.inmemory.InMemoryTaskManager;
+import ru.ikozlov.kanban.manager.inmemory.SessionHistoryManager;
+import ru.ikozlov.kanban.manager.offheap.OffHeapTaskManager;
+import ru.ikozlov.kanban.manager.snapshot.SnapshotTaskManager;
+
+import java.time.Duration;
 
 public class Managers {
     public static TaskManager getDefault() {
         return new InMemoryTaskManager();
     }
 
+    public static TaskManager getConcurrent() {
+        return new ConcurrentTaskManager();
+    }
+
+    public static TaskManager getSnapshot() {
+        return new SnapshotTaskManager();
+    }
+
+    public static TaskManager getColumnar() {
+        return new ColumnarTaskManager();
+    }
+
+    public static TaskManager getOffHeap() {
+        return new OffHeapTaskManager();
+    }
+
     public static HistoryManager getDefaultHistory() {
         return new InMemoryHistoryManager();
     }
+
+    public static HistoryManager getBoundedHistory(int capacity) {
+        return new BoundedHistoryManager(capacity);
+    }
+
+    public static HistoryManager getSessionHistory(int maxViews, Duration idleTimeout) {
+        return new SessionHistoryManager(maxViews, idleTimeout);
+    }
+
+    public static HistoryManager getAsyncHistory(int capacity) {
+        return AsyncHistoryManager.start(getBoundedHistory(capacity));
+    }
 }
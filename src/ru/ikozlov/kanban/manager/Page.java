@@ -0,0 +1,48 @@
+package ru.ikozlov.kanban.manager;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * One page of a list whose order can't be resumed from its last item alone. The cursor is opaque and null on the
+ * last page.
+ */
+public class Page<T> {
+    private final List<T> items;
+    private final String nextCursor;
+
+    public Page(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        Page<?> page = (Page<?>) o;
+        return Objects.equals(items, page.items) && Objects.equals(nextCursor, page.nextCursor);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(items, nextCursor);
+    }
+
+    @Override
+    public String toString() {
+        return "Page{items=" + items + ", nextCursor='" + nextCursor + "'}";
+    }
+}
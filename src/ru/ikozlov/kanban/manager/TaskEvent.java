@@ -0,0 +1,72 @@
+package ru.ikozlov.kanban.manager;
+
+import ru.ikozlov.kanban.task.Task;
+
+import java.util.Objects;
+
+/**
+ * Change of one task, epic or subtask. The task is a copy taken when the change happened: the new state for
+ * CREATED, UPDATED and STATUS_CHANGED, the last state for DELETED. STATUS_CHANGED is published for an epic whose
+ * status changed because of its subtasks and carries the status the epic had before.
+ */
+public class TaskEvent {
+    private final Kind kind;
+    private final Task task;
+    private final Task.Status previousStatus;
+
+    public TaskEvent(Kind kind, Task task) {
+        this(kind, task, null);
+    }
+
+    public TaskEvent(Kind kind, Task task, Task.Status previousStatus) {
+        this.kind = kind;
+        this.task = task;
+        this.previousStatus = previousStatus;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public TaskType getType() {
+        return TaskType.of(task);
+    }
+
+    public Task getTask() {
+        return task;
+    }
+
+    public Task.Status getPreviousStatus() {
+        return previousStatus;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        TaskEvent taskEvent = (TaskEvent) o;
+        return kind == taskEvent.kind && Objects.equals(task, taskEvent.task)
+                && previousStatus == taskEvent.previousStatus;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(kind, task, previousStatus);
+    }
+
+    @Override
+    public String toString() {
+        return "TaskEvent{kind=" + kind + ", task=" + task + ", previousStatus=" + previousStatus + '}';
+    }
+
+    public enum Kind {
+        CREATED,
+        UPDATED,
+        DELETED,
+        STATUS_CHANGED
+    }
+}
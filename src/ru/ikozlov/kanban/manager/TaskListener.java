@@ -0,0 +1,16 @@
+package ru.ikozlov.kanban.manager;
+
+import java.util.List;
+
+/**
+ * Receives the changes made by a task manager. Listeners are called on the thread that made the change, possibly
+ * from several threads at once, unless wrapped into an
+ * {@link ru.ikozlov.kanban.manager.event.AsyncTaskListener}.
+ */
+@FunctionalInterface
+public interface TaskListener {
+    /**
+     * Events of one operation in the order the changes were made.
+     */
+    void onEvents(List<TaskEvent> events);
+}
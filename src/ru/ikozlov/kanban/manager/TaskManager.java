@@ -4,13 +4,44 @@ import ru.ikozlov.kanban.task.Epic;
 import ru.ikozlov.kanban.task.Subtask;
 import ru.ikozlov.kanban.task.Task;
 
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
-
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Every task, subtask and epic a manager returns is a frozen version: its setters throw IllegalStateException and it
+ * keeps the state it was read in. A change goes through the update methods, so edit a {@link Task#copy()} and pass
+ * that in.
+ */
 public interface TaskManager {
     List<Task> getPrioritizedTasks();
 
+    List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to);
+
+    List<Task> getPrioritizedTasksAfter(LocalDateTime startTime, int id, int limit);
+
+    List<Task> getTasksAt(LocalDateTime time);
+
+    List<Task> getTasksOverlapping(LocalDateTime from, LocalDateTime to);
+
+    TimeSlot findFreeSlot(LocalDateTime after, Duration duration);
+
+    List<TimeSlot> findFreeSlots(LocalDateTime from, LocalDateTime to, Duration duration, int limit);
+
+    List<DayWorkload> getWorkload(LocalDate from, LocalDate to);
+
     List<Task> getAllTasks();
 
+    List<Task> getTasksAfter(int id, int limit);
+
+    /**
+     * Tasks straight from the storage, without a list copy; the stream splits for parallel processing.
+     */
+    Stream<Task> streamTasks();
+
     void clearTasks();
 
     Task getTask(int id);
@@ -23,6 +54,10 @@ public interface TaskManager {
 
     List<Epic> getAllEpics();
 
+    List<Epic> getEpicsAfter(int id, int limit);
+
+    Stream<Epic> streamEpics();
+
     void clearEpics();
 
     Epic getEpic(int id);
@@ -37,6 +72,10 @@ public interface TaskManager {
 
     List<Subtask> getAllSubtasks();
 
+    List<Subtask> getSubtasksAfter(int id, int limit);
+
+    Stream<Subtask> streamSubtasks();
+
     void clearSubtasks();
 
     Subtask getSubtask(int id);
@@ -47,6 +86,34 @@ public interface TaskManager {
 
     Subtask deleteSubtask(int id);
 
+    List<Task> findTasks(TaskQuery query);
+
+    List<Task> search(String query, int limit);
+
+    List<Task> createTasks(List<? extends Task> tasks);
+
+    List<Task> updateTasks(List<? extends Task> tasks);
+
+    List<Task> deleteIf(Predicate<Task> filter);
+
+    List<Task> scheduleTasks(List<Integer> ids, LocalDateTime from, LocalDateTime to);
+
+    void addDependency(int blockerId, int blockedId);
+
+    void removeDependency(int blockerId, int blockedId);
+
+    List<Task> getBlockers(int id);
+
+    List<Task> getBlocked(int id);
+
+    CriticalPath getCriticalPath(int id);
+
     List<Task> getHistory();
 
+    Page<Task> getHistory(String cursor, int limit);
+
+    void addListener(TaskListener listener);
+
+    void removeListener(TaskListener listener);
+
 }
\ No newline at end of file
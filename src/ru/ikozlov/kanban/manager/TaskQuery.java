@@ -0,0 +1,90 @@
+package ru.ikozlov.kanban.manager;
+
+import ru.ikozlov.kanban.task.Subtask;
+import ru.ikozlov.kanban.task.Task;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filter for {@link TaskManager#findTasks}. Unset criteria match everything; the time range selects tasks starting
+ * in [from, to), so unscheduled tasks never match it.
+ */
+public class TaskQuery {
+    private TaskType type;
+    private Task.Status status;
+    private Integer epicId;
+    private LocalDateTime from;
+    private LocalDateTime to;
+
+    public TaskQuery type(TaskType type) {
+        this.type = type;
+        return this;
+    }
+
+    public TaskQuery status(Task.Status status) {
+        this.status = status;
+        return this;
+    }
+
+    public TaskQuery epicId(Integer epicId) {
+        this.epicId = epicId;
+        return this;
+    }
+
+    public TaskQuery from(LocalDateTime from) {
+        this.from = from;
+        return this;
+    }
+
+    public TaskQuery to(LocalDateTime to) {
+        this.to = to;
+        return this;
+    }
+
+    public TaskType getType() {
+        return type;
+    }
+
+    public Task.Status getStatus() {
+        return status;
+    }
+
+    public Integer getEpicId() {
+        return epicId;
+    }
+
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    public boolean hasTimeRange() {
+        return from != null || to != null;
+    }
+
+    public boolean matches(Task task) {
+        if (type != null && TaskType.of(task) != type) {
+            return false;
+        }
+        if (status != null && task.getStatus() != status) {
+            return false;
+        }
+        if (epicId != null && !(task instanceof Subtask subtask && subtask.getEpicId() == epicId)) {
+            return false;
+        }
+        if (hasTimeRange()) {
+            LocalDateTime startTime = task.getStartTime();
+            if (startTime == null) {
+                return false;
+            }
+            if (from != null && startTime.isBefore(from)) {
+                return false;
+            }
+            return to == null || startTime.isBefore(to);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,39 @@
+package ru.ikozlov.kanban.manager;
+
+import ru.ikozlov.kanban.task.Task;
+
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+public interface TaskStorage {
+    Task get(TaskType type, int id);
+
+    Task put(TaskType type, Task task);
+
+    Task remove(TaskType type, int id);
+
+    int size(TaskType type);
+
+    /**
+     * Ids in increasing order.
+     */
+    int[] getIds(TaskType type);
+
+    /**
+     * Up to limit tasks with ids greater than the given one, in id order.
+     */
+    List<Task> getAfter(TaskType type, int id, int limit);
+
+    /**
+     * Tasks in id order.
+     */
+    void forEach(TaskType type, Consumer<Task> action);
+
+    /**
+     * Tasks in id order.
+     */
+    Spliterator<Task> spliterator(TaskType type);
+
+    void clear(TaskType type);
+}
@@ -1,7 +1,21 @@
 package ru.ikozlov.kanban.manager;
 
+import ru.ikozlov.kanban.task.Epic;
+import ru.ikozlov.kanban.task.Subtask;
+import ru.ikozlov.kanban.task.Task;
+
 public enum TaskType {
     TASK,
     SUBTASK,
-    EPIC
+    EPIC;
+
+    public static TaskType of(Task task) {
+        if (task instanceof Epic) {
+            return EPIC;
+        }
+        if (task instanceof Subtask) {
+            return SUBTASK;
+        }
+        return TASK;
+    }
 }
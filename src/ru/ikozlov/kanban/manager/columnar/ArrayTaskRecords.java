@@ -0,0 +1,300 @@
+package ru.ikozlov.kanban.manager.columnar;
+
+import java.util.Arrays;
+
+/**
+ * Struct-of-arrays records: one primitive array per field, indexed by row.
+ */
+public class ArrayTaskRecords implements TaskRecords {
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+    private int[] ids = new int[0];
+    private byte[] types = new byte[0];
+    private byte[] statuses = new byte[0];
+    private long[] starts = new long[0];
+    private long[] durations = new long[0];
+    private int[] titles = new int[0];
+    private int[] descriptions = new int[0];
+    private int[] epicIds = new int[0];
+    private int[] subtaskRoots = new int[0];
+    private int[] subtaskLefts = new int[0];
+    private int[] subtaskRights = new int[0];
+    private byte[] subtaskHeights = new byte[0];
+    private long[] subtaskMinStarts = new long[0];
+    private long[] subtaskMaxEnds = new long[0];
+    private int[] subtaskCounts = new int[0];
+    private int[] newSubtaskCounts = new int[0];
+    private int[] doneSubtaskCounts = new int[0];
+    private int[] lefts = new int[0];
+    private int[] rights = new int[0];
+    private byte[] heights = new byte[0];
+    private long[] maxEnds = new long[0];
+    private long[] minStarts = new long[0];
+    private long[] maxGaps = new long[0];
+
+    @Override
+    public int capacity() {
+        return ids.length;
+    }
+
+    @Override
+    public int maxCapacity() {
+        return MAX_CAPACITY;
+    }
+
+    @Override
+    public void grow(int capacity) {
+        ids = Arrays.copyOf(ids, capacity);
+        types = Arrays.copyOf(types, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+        starts = Arrays.copyOf(starts, capacity);
+        durations = Arrays.copyOf(durations, capacity);
+        titles = Arrays.copyOf(titles, capacity);
+        descriptions = Arrays.copyOf(descriptions, capacity);
+        epicIds = Arrays.copyOf(epicIds, capacity);
+        subtaskRoots = Arrays.copyOf(subtaskRoots, capacity);
+        subtaskLefts = Arrays.copyOf(subtaskLefts, capacity);
+        subtaskRights = Arrays.copyOf(subtaskRights, capacity);
+        subtaskHeights = Arrays.copyOf(subtaskHeights, capacity);
+        subtaskMinStarts = Arrays.copyOf(subtaskMinStarts, capacity);
+        subtaskMaxEnds = Arrays.copyOf(subtaskMaxEnds, capacity);
+        subtaskCounts = Arrays.copyOf(subtaskCounts, capacity);
+        newSubtaskCounts = Arrays.copyOf(newSubtaskCounts, capacity);
+        doneSubtaskCounts = Arrays.copyOf(doneSubtaskCounts, capacity);
+        lefts = Arrays.copyOf(lefts, capacity);
+        rights = Arrays.copyOf(rights, capacity);
+        heights = Arrays.copyOf(heights, capacity);
+        maxEnds = Arrays.copyOf(maxEnds, capacity);
+        minStarts = Arrays.copyOf(minStarts, capacity);
+        maxGaps = Arrays.copyOf(maxGaps, capacity);
+    }
+
+    @Override
+    public int id(int row) {
+        return ids[row];
+    }
+
+    @Override
+    public void setId(int row, int id) {
+        ids[row] = id;
+    }
+
+    @Override
+    public byte type(int row) {
+        return types[row];
+    }
+
+    @Override
+    public void setType(int row, byte type) {
+        types[row] = type;
+    }
+
+    @Override
+    public byte status(int row) {
+        return statuses[row];
+    }
+
+    @Override
+    public void setStatus(int row, byte status) {
+        statuses[row] = status;
+    }
+
+    @Override
+    public long start(int row) {
+        return starts[row];
+    }
+
+    @Override
+    public void setStart(int row, long start) {
+        starts[row] = start;
+    }
+
+    @Override
+    public long duration(int row) {
+        return durations[row];
+    }
+
+    @Override
+    public void setDuration(int row, long duration) {
+        durations[row] = duration;
+    }
+
+    @Override
+    public int title(int row) {
+        return titles[row];
+    }
+
+    @Override
+    public void setTitle(int row, int title) {
+        titles[row] = title;
+    }
+
+    @Override
+    public int description(int row) {
+        return descriptions[row];
+    }
+
+    @Override
+    public void setDescription(int row, int description) {
+        descriptions[row] = description;
+    }
+
+    @Override
+    public int epicId(int row) {
+        return epicIds[row];
+    }
+
+    @Override
+    public void setEpicId(int row, int epicId) {
+        epicIds[row] = epicId;
+    }
+
+    @Override
+    public int subtaskRoot(int row) {
+        return subtaskRoots[row];
+    }
+
+    @Override
+    public void setSubtaskRoot(int row, int subtaskRoot) {
+        subtaskRoots[row] = subtaskRoot;
+    }
+
+    @Override
+    public int subtaskLeft(int row) {
+        return subtaskLefts[row];
+    }
+
+    @Override
+    public void setSubtaskLeft(int row, int subtaskLeft) {
+        subtaskLefts[row] = subtaskLeft;
+    }
+
+    @Override
+    public int subtaskRight(int row) {
+        return subtaskRights[row];
+    }
+
+    @Override
+    public void setSubtaskRight(int row, int subtaskRight) {
+        subtaskRights[row] = subtaskRight;
+    }
+
+    @Override
+    public byte subtaskHeight(int row) {
+        return subtaskHeights[row];
+    }
+
+    @Override
+    public void setSubtaskHeight(int row, byte subtaskHeight) {
+        subtaskHeights[row] = subtaskHeight;
+    }
+
+    @Override
+    public long subtaskMinStart(int row) {
+        return subtaskMinStarts[row];
+    }
+
+    @Override
+    public void setSubtaskMinStart(int row, long subtaskMinStart) {
+        subtaskMinStarts[row] = subtaskMinStart;
+    }
+
+    @Override
+    public long subtaskMaxEnd(int row) {
+        return subtaskMaxEnds[row];
+    }
+
+    @Override
+    public void setSubtaskMaxEnd(int row, long subtaskMaxEnd) {
+        subtaskMaxEnds[row] = subtaskMaxEnd;
+    }
+
+    @Override
+    public int subtaskCount(int row) {
+        return subtaskCounts[row];
+    }
+
+    @Override
+    public void setSubtaskCount(int row, int subtaskCount) {
+        subtaskCounts[row] = subtaskCount;
+    }
+
+    @Override
+    public int newSubtasks(int row) {
+        return newSubtaskCounts[row];
+    }
+
+    @Override
+    public void setNewSubtasks(int row, int newSubtasks) {
+        newSubtaskCounts[row] = newSubtasks;
+    }
+
+    @Override
+    public int doneSubtasks(int row) {
+        return doneSubtaskCounts[row];
+    }
+
+    @Override
+    public void setDoneSubtasks(int row, int doneSubtasks) {
+        doneSubtaskCounts[row] = doneSubtasks;
+    }
+
+    @Override
+    public int left(int row) {
+        return lefts[row];
+    }
+
+    @Override
+    public void setLeft(int row, int left) {
+        lefts[row] = left;
+    }
+
+    @Override
+    public int right(int row) {
+        return rights[row];
+    }
+
+    @Override
+    public void setRight(int row, int right) {
+        rights[row] = right;
+    }
+
+    @Override
+    public byte height(int row) {
+        return heights[row];
+    }
+
+    @Override
+    public void setHeight(int row, byte height) {
+        heights[row] = height;
+    }
+
+    @Override
+    public long maxEnd(int row) {
+        return maxEnds[row];
+    }
+
+    @Override
+    public void setMaxEnd(int row, long maxEnd) {
+        maxEnds[row] = maxEnd;
+    }
+
+    @Override
+    public long minStart(int row) {
+        return minStarts[row];
+    }
+
+    @Override
+    public void setMinStart(int row, long minStart) {
+        minStarts[row] = minStart;
+    }
+
+    @Override
+    public long maxGap(int row) {
+        return maxGaps[row];
+    }
+
+    @Override
+    public void setMaxGap(int row, long maxGap) {
+        maxGaps[row] = maxGap;
+    }
+}
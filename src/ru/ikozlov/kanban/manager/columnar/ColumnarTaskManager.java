@@ -0,0 +1,821 @@
+package ru.ikozlov.kanban.manager.columnar;
+
+import ru.ikozlov.kanban.manager.*;
+import ru.ikozlov.kanban.manager.event.TaskEventPublisher;
+import ru.ikozlov.kanban.manager.inmemory.DependencyGraph;
+import ru.ikozlov.kanban.manager.inmemory.FirstFitPlanner;
+import ru.ikozlov.kanban.manager.inmemory.IdAllocator;
+import ru.ikozlov.kanban.manager.inmemory.TextIndex;
+import ru.ikozlov.kanban.manager.inmemory.WorkloadIndex;
+import ru.ikozlov.kanban.task.Epic;
+import ru.ikozlov.kanban.task.Subtask;
+import ru.ikozlov.kanban.task.Task;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Task manager for very large boards. Tasks live in a {@link TaskTable} and Task objects are only created at the
+ * API boundary, as fresh frozen versions like the other managers return. Epic rows keep their status, time and
+ * duration up to date as aggregates of their subtask rows. Free slot queries skip crowded parts of the table's
+ * timeline by its gap bounds, workload is kept per day in a {@link WorkloadIndex} and filter queries walk the ids of
+ * the requested type and status.
+ */
+public class ColumnarTaskManager implements TaskManager {
+    private final IdAllocator idAllocator = new IdAllocator();
+    private final TaskTable table;
+    private final TextIndex textIndex = new TextIndex();
+    private final WorkloadIndex workloadIndex = new WorkloadIndex();
+    private final DependencyGraph dependencyGraph = new DependencyGraph();
+    private final HistoryManager historyManager;
+    private final TaskEventPublisher events = new TaskEventPublisher();
+
+    public ColumnarTaskManager() {
+        this(Managers.getDefaultHistory());
+    }
+
+    public ColumnarTaskManager(HistoryManager historyManager) {
+        this(new TaskTable(), historyManager);
+    }
+
+    protected ColumnarTaskManager(TaskTable table, HistoryManager historyManager) {
+        this.table = table;
+        this.historyManager = historyManager;
+    }
+
+    @Override
+    public void addListener(TaskListener listener) {
+        events.addListener(listener);
+    }
+
+    @Override
+    public void removeListener(TaskListener listener) {
+        events.removeListener(listener);
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        return getPrioritizedTasksAfter(null, 0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to) {
+        long end = TaskTable.toNanosSaturated(to);
+        List<Task> result = new ArrayList<>();
+        table.visitAfter(TaskTable.toNanosSaturated(from), 0, row -> {
+            if (table.start(row) >= end) {
+                return false;
+            }
+            result.add(materialize(row));
+            return true;
+        });
+        return result;
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasksAfter(LocalDateTime startTime, int id, int limit) {
+        List<Task> result = new ArrayList<>();
+        if (limit <= 0) {
+            return result;
+        }
+        long start = startTime != null ? TaskTable.toNanosSaturated(startTime) : TaskTable.NO_TIME;
+        table.visitAfter(start, startTime != null ? id : Integer.MIN_VALUE, row -> {
+            result.add(materialize(row));
+            return result.size() < limit;
+        });
+        return result;
+    }
+
+    @Override
+    public List<Task> getTasksAt(LocalDateTime time) {
+        long at = TaskTable.toNanosSaturated(time);
+        List<Task> result = new ArrayList<>();
+        table.visitOverlapping(at, at, row -> {
+            if (table.end(row) > at || table.start(row) >= at) {
+                result.add(materialize(row));
+            }
+            return true;
+        });
+        return result;
+    }
+
+    @Override
+    public List<Task> getTasksOverlapping(LocalDateTime from, LocalDateTime to) {
+        long start = TaskTable.toNanosSaturated(from);
+        long end = TaskTable.toNanosSaturated(to);
+        List<Task> result = new ArrayList<>();
+        table.visitOverlapping(start, end, row -> {
+            if (table.start(row) >= end) {
+                return false;
+            }
+            if (table.end(row) > start || table.start(row) >= start) {
+                result.add(materialize(row));
+            }
+            return true;
+        });
+        return result;
+    }
+
+    @Override
+    public TimeSlot findFreeSlot(LocalDateTime after, Duration duration) {
+        long from = TaskTable.toNanosSaturated(after);
+        long[] gap = table.findFirstGap(from, duration.toNanos());
+        return new TimeSlot(slotStart(after, from, gap[0]), TaskTable.toTime(gap[1]));
+    }
+
+    @Override
+    public List<TimeSlot> findFreeSlots(LocalDateTime from, LocalDateTime to, Duration duration, int limit) {
+        if (limit <= 0 || !to.isAfter(from)) {
+            return List.of();
+        }
+        long start = TaskTable.toNanosSaturated(from);
+        long end = TaskTable.toNanosSaturated(to);
+        List<TimeSlot> result = new ArrayList<>();
+        for (long[] gap : table.findGaps(start, end, limit, duration.toNanos())) {
+            result.add(new TimeSlot(slotStart(from, start, gap[0]), gap[1] == end ? to : TaskTable.toTime(gap[1])));
+        }
+        return result;
+    }
+
+    @Override
+    public List<DayWorkload> getWorkload(LocalDate from, LocalDate to) {
+        return workloadIndex.get(from, to);
+    }
+
+    @Override
+    public List<Task> getAllTasks() {
+        List<Task> tasks = new ArrayList<>(table.size(TaskType.TASK));
+        table.visitAfterId(TaskType.TASK, 0, row -> tasks.add(materialize(row)));
+        return tasks;
+    }
+
+    @Override
+    public List<Task> getTasksAfter(int id, int limit) {
+        return pageAfter(TaskType.TASK, id, limit);
+    }
+
+    /**
+     * Materializes the rows lazily; no writes may happen until the stream is consumed.
+     */
+    @Override
+    public Stream<Task> streamTasks() {
+        return stream(TaskType.TASK);
+    }
+
+    @Override
+    public void clearTasks() {
+        events.batch(() -> {
+            List<Integer> rows = rows(TaskType.TASK);
+            emitDeleted(rows);
+            rows.forEach(this::remove);
+        });
+    }
+
+    @Override
+    public Task getTask(int id) {
+        return get(TaskType.TASK, id);
+    }
+
+    @Override
+    public Task createTask(Task task) {
+        if (intersectsWithOtherTasks(task, null)) {
+            throw new TimeIntersectionException();
+        }
+        return materialize(insert(task));
+    }
+
+    @Override
+    public Task updateTask(int id, Task task) {
+        int row = table.row(TaskType.TASK, id);
+        if (row == TaskTable.NIL) {
+            throw new NotFoundException();
+        }
+        if (intersectsWithOtherTasks(task, id)) {
+            throw new TimeIntersectionException();
+        }
+        update(row, task);
+        return materialize(row);
+    }
+
+    @Override
+    public Task deleteTask(int id) {
+        return delete(TaskType.TASK, id);
+    }
+
+    @Override
+    public List<Epic> getAllEpics() {
+        List<Epic> epics = new ArrayList<>(table.size(TaskType.EPIC));
+        table.visitAfterId(TaskType.EPIC, 0, row -> epics.add((Epic) materialize(row)));
+        return epics;
+    }
+
+    @Override
+    public List<Epic> getEpicsAfter(int id, int limit) {
+        return pageAfter(TaskType.EPIC, id, limit).stream().map(x -> (Epic) x).toList();
+    }
+
+    @Override
+    public Stream<Epic> streamEpics() {
+        return stream(TaskType.EPIC).map(Epic.class::cast);
+    }
+
+    @Override
+    public void clearEpics() {
+        events.batch(() -> {
+            List<Integer> epicRows = rows(TaskType.EPIC);
+            List<Integer> subtaskRows = rows(TaskType.SUBTASK);
+            emitDeleted(epicRows);
+            emitDeleted(subtaskRows);
+            subtaskRows.forEach(this::remove);
+            epicRows.forEach(this::remove);
+        });
+    }
+
+    @Override
+    public Epic getEpic(int id) {
+        return (Epic) get(TaskType.EPIC, id);
+    }
+
+    @Override
+    public Epic createEpic(Epic epic) {
+        int id = idAllocator.next();
+        int row = table.insert(id, TaskType.EPIC, epic.getTitle(), epic.getDescription(), Task.Status.NEW,
+                TaskTable.NO_TIME, 0, 0);
+        textIndex.put(id, epic.getTitle(), epic.getDescription());
+        Epic newEpic = (Epic) materialize(row);
+        events.emit(TaskEvent.Kind.CREATED, newEpic);
+        return newEpic;
+    }
+
+    @Override
+    public Epic updateEpic(int id, Epic epic) {
+        int row = table.row(TaskType.EPIC, id);
+        if (row == TaskTable.NIL) {
+            throw new NotFoundException();
+        }
+        table.rename(row, epic.getTitle(), epic.getDescription());
+        textIndex.put(id, epic.getTitle(), epic.getDescription());
+        Epic updated = (Epic) materialize(row);
+        events.emit(TaskEvent.Kind.UPDATED, updated);
+        return updated;
+    }
+
+    @Override
+    public Epic deleteEpic(int id) {
+        return (Epic) events.batch(() -> delete(TaskType.EPIC, id));
+    }
+
+    @Override
+    public List<Subtask> getEpicSubtasks(int id) {
+        int row = table.row(TaskType.EPIC, id);
+        if (row == TaskTable.NIL) {
+            throw new NotFoundException();
+        }
+        return Collections.unmodifiableList(subtasks(row));
+    }
+
+    @Override
+    public List<Subtask> getAllSubtasks() {
+        List<Subtask> subtasks = new ArrayList<>(table.size(TaskType.SUBTASK));
+        table.visitAfterId(TaskType.SUBTASK, 0, row -> subtasks.add((Subtask) materialize(row)));
+        return subtasks;
+    }
+
+    @Override
+    public List<Subtask> getSubtasksAfter(int id, int limit) {
+        return pageAfter(TaskType.SUBTASK, id, limit).stream().map(x -> (Subtask) x).toList();
+    }
+
+    @Override
+    public Stream<Subtask> streamSubtasks() {
+        return stream(TaskType.SUBTASK).map(Subtask.class::cast);
+    }
+
+    @Override
+    public void clearSubtasks() {
+        events.batch(() -> {
+            List<Integer> rows = rows(TaskType.SUBTASK);
+            List<Integer> epicRows = rows(TaskType.EPIC);
+            Task.Status[] statuses = epicStatuses(epicRows);
+            emitDeleted(rows);
+            rows.forEach(this::remove);
+            for (int i = 0; i < epicRows.size(); i++) {
+                emitStatusChange(epicRows.get(i), statuses[i]);
+            }
+        });
+    }
+
+    @Override
+    public Subtask getSubtask(int id) {
+        return (Subtask) get(TaskType.SUBTASK, id);
+    }
+
+    @Override
+    public Subtask createSubtask(Subtask subtask) {
+        if (intersectsWithOtherTasks(subtask, null)) {
+            throw new TimeIntersectionException();
+        }
+        if (table.row(TaskType.EPIC, subtask.getEpicId()) == TaskTable.NIL) {
+            throw new NotFoundException();
+        }
+        return (Subtask) events.batch(() -> materialize(insert(subtask)));
+    }
+
+    @Override
+    public Subtask updateSubtask(int id, Subtask subtask) {
+        int row = table.row(TaskType.SUBTASK, id);
+        if (row == TaskTable.NIL) {
+            throw new NotFoundException();
+        }
+        if (intersectsWithOtherTasks(subtask, id)) {
+            throw new TimeIntersectionException();
+        }
+        if (table.row(TaskType.EPIC, subtask.getEpicId()) == TaskTable.NIL) {
+            throw new NotFoundException();
+        }
+        events.batch(() -> update(row, subtask));
+        return (Subtask) materialize(row);
+    }
+
+    @Override
+    public Subtask deleteSubtask(int id) {
+        return (Subtask) events.batch(() -> delete(TaskType.SUBTASK, id));
+    }
+
+    @Override
+    public List<Task> findTasks(TaskQuery query) {
+        List<Task> result = new ArrayList<>();
+        TaskType type = query.getType();
+        if (query.getEpicId() != null) {
+            int epicRow = table.row(TaskType.EPIC, query.getEpicId());
+            if (epicRow != TaskTable.NIL && (type == null || type == TaskType.SUBTASK)) {
+                table.forEachSubtask(epicRow, row -> {
+                    if (matches(query, row)) {
+                        result.add(materialize(row));
+                    }
+                });
+            }
+            return result;
+        }
+        List<TaskType> types = type != null ? List.of(type) : List.of(TaskType.values());
+        if (query.hasTimeRange()) {
+            if (type != TaskType.EPIC) {
+                long from = query.getFrom() != null ? TaskTable.toNanosSaturated(query.getFrom()) : TaskTable.NO_TIME;
+                table.visitAfter(from, Integer.MIN_VALUE, row -> {
+                    if (query.getTo() != null && table.start(row) >= TaskTable.toNanosSaturated(query.getTo())) {
+                        return false;
+                    }
+                    if (matches(query, row)) {
+                        result.add(materialize(row));
+                    }
+                    return true;
+                });
+            }
+            if (!types.contains(TaskType.EPIC)) {
+                return result;
+            }
+            types = List.of(TaskType.EPIC);
+        }
+        IntConsumer collector = row -> {
+            if (matches(query, row)) {
+                result.add(materialize(row));
+            }
+        };
+        for (TaskType candidate : types) {
+            if (query.getStatus() != null) {
+                table.forEach(candidate, query.getStatus(), collector);
+            } else {
+                table.visitAfterId(candidate, 0, row -> {
+                    collector.accept(row);
+                    return true;
+                });
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<Task> search(String query, int limit) {
+        int[] ids = textIndex.search(query, limit);
+        List<Task> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            result.add(materialize(table.row(id)));
+        }
+        return result;
+    }
+
+    @Override
+    public List<Task> createTasks(List<? extends Task> tasks) {
+        for (Task task : tasks) {
+            if (task instanceof Epic) {
+                throw new IllegalArgumentException("Epics can't be created in a batch");
+            }
+            if (task instanceof Subtask subtask && table.row(TaskType.EPIC, subtask.getEpicId()) == TaskTable.NIL) {
+                throw new NotFoundException();
+            }
+        }
+        checkBatchIntersections(tasks, id -> false);
+        return events.batch(() -> {
+            List<Task> created = new ArrayList<>(tasks.size());
+            for (Task task : tasks) {
+                created.add(materialize(insert(task)));
+            }
+            return created;
+        });
+    }
+
+    @Override
+    public List<Task> updateTasks(List<? extends Task> tasks) {
+        Set<Integer> ids = new HashSet<>();
+        int[] rows = new int[tasks.size()];
+        for (int i = 0; i < tasks.size(); i++) {
+            Task task = tasks.get(i);
+            if (task instanceof Epic) {
+                throw new IllegalArgumentException("Epics can't be updated in a batch");
+            }
+            if (task.getId() == null || !ids.add(task.getId())) {
+                throw new IllegalArgumentException("Every task in a batch needs its own id");
+            }
+            rows[i] = table.row(task instanceof Subtask ? TaskType.SUBTASK : TaskType.TASK, task.getId());
+            if (rows[i] == TaskTable.NIL) {
+                throw new NotFoundException();
+            }
+            if (task instanceof Subtask subtask && table.row(TaskType.EPIC, subtask.getEpicId()) == TaskTable.NIL) {
+                throw new NotFoundException();
+            }
+        }
+        checkBatchIntersections(tasks, ids::contains);
+        events.batch(() -> {
+            for (int i = 0; i < tasks.size(); i++) {
+                update(rows[i], tasks.get(i));
+            }
+        });
+        List<Task> updated = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            updated.add(materialize(row));
+        }
+        return updated;
+    }
+
+    @Override
+    public List<Task> deleteIf(Predicate<Task> filter) {
+        List<Task> matched = new ArrayList<>();
+        for (TaskType type : List.of(TaskType.EPIC, TaskType.SUBTASK, TaskType.TASK)) {
+            table.forEach(type, row -> {
+                Task task = materialize(row);
+                if (filter.test(task)) {
+                    matched.add(task);
+                }
+            });
+        }
+        return events.batch(() -> {
+            List<Task> deleted = new ArrayList<>(matched.size());
+            for (Task task : matched) {
+                Task removed = delete(TaskType.of(task), task.getId());
+                if (removed != null) {
+                    deleted.add(removed);
+                }
+            }
+            return deleted;
+        });
+    }
+
+    @Override
+    public List<Task> scheduleTasks(List<Integer> ids, LocalDateTime from, LocalDateTime to) {
+        List<Task> busy = new ArrayList<>();
+        table.visitOverlapping(TaskTable.toNanosSaturated(from), TaskTable.toNanosSaturated(to), row -> {
+            busy.add(materialize(row));
+            return true;
+        });
+        FirstFitPlanner planner = new FirstFitPlanner(busy, from, to);
+        List<Task> scheduled = new ArrayList<>();
+        for (int id : new LinkedHashSet<>(ids)) {
+            int row = table.row(id);
+            if (row == TaskTable.NIL) {
+                throw new NotFoundException();
+            }
+            if (table.type(row) == TaskType.EPIC) {
+                throw new IllegalArgumentException("Epics can't be scheduled");
+            }
+            if (table.start(row) != TaskTable.NO_TIME) {
+                continue;
+            }
+            Task placed = planner.place(materialize(row));
+            if (placed != null) {
+                scheduled.add(placed);
+            }
+        }
+        return updateTasks(scheduled);
+    }
+
+    @Override
+    public void addDependency(int blockerId, int blockedId) {
+        Task blocker = materialize(dependencyRow(blockerId));
+        Task blocked = materialize(dependencyRow(blockedId));
+        dependencyGraph.addEdge(blocker, blocked);
+    }
+
+    @Override
+    public void removeDependency(int blockerId, int blockedId) {
+        dependencyRow(blockerId);
+        dependencyRow(blockedId);
+        dependencyGraph.removeEdge(blockerId, blockedId);
+    }
+
+    @Override
+    public List<Task> getBlockers(int id) {
+        dependencyRow(id);
+        return materialize(dependencyGraph.getBlockers(id));
+    }
+
+    @Override
+    public List<Task> getBlocked(int id) {
+        dependencyRow(id);
+        return materialize(dependencyGraph.getBlocked(id));
+    }
+
+    @Override
+    public CriticalPath getCriticalPath(int id) {
+        return dependencyGraph.getCriticalPath(materialize(dependencyRow(id)));
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return historyManager.getHistory();
+    }
+
+    @Override
+    public Page<Task> getHistory(String cursor, int limit) {
+        return historyManager.getHistory(cursor, limit);
+    }
+
+    private Stream<Task> stream(TaskType type) {
+        return StreamSupport.intStream(table.rows(type), false).mapToObj(this::materialize);
+    }
+
+    private List<Task> pageAfter(TaskType type, int id, int limit) {
+        List<Task> result = new ArrayList<>();
+        if (limit <= 0) {
+            return result;
+        }
+        table.visitAfterId(type, id, row -> {
+            result.add(materialize(row));
+            return result.size() < limit;
+        });
+        return result;
+    }
+
+    private Task get(TaskType type, int id) {
+        int row = table.row(type, id);
+        if (row == TaskTable.NIL) {
+            throw new NotFoundException();
+        }
+        Task task = materialize(row);
+        historyManager.add(task);
+        return task;
+    }
+
+    private int insert(Task task) {
+        int epicRow = task instanceof Subtask subtask ? table.row(TaskType.EPIC, subtask.getEpicId()) : TaskTable.NIL;
+        Task.Status epicStatus = epicStatus(epicRow);
+        int id = idAllocator.next();
+        int row = table.insert(id, TaskType.of(task), task.getTitle(), task.getDescription(), task.getStatus(),
+                TaskTable.toNanos(task.getStartTime()), TaskTable.toNanos(task.getDuration()),
+                task instanceof Subtask subtask ? subtask.getEpicId() : 0);
+        textIndex.put(id, task.getTitle(), task.getDescription());
+        updateWorkload(row, true);
+        if (events.hasListeners()) {
+            events.emit(TaskEvent.Kind.CREATED, materialize(row));
+            emitStatusChange(epicRow, epicStatus);
+        }
+        return row;
+    }
+
+    private void update(int row, Task task) {
+        int oldEpicRow = table.type(row) == TaskType.SUBTASK ? table.row(table.epicId(row)) : TaskTable.NIL;
+        int newEpicRow = task instanceof Subtask subtask ? table.row(subtask.getEpicId()) : TaskTable.NIL;
+        Task.Status oldEpicStatus = epicStatus(oldEpicRow);
+        Task.Status newEpicStatus = epicStatus(newEpicRow);
+        updateWorkload(row, false);
+        table.update(row, task.getTitle(), task.getDescription(), task.getStatus(),
+                TaskTable.toNanos(task.getStartTime()), TaskTable.toNanos(task.getDuration()),
+                task instanceof Subtask subtask ? subtask.getEpicId() : 0);
+        updateWorkload(row, true);
+        textIndex.put(table.id(row), task.getTitle(), task.getDescription());
+        if (dependencyGraph.contains(table.id(row))) {
+            dependencyGraph.update(materialize(row));
+        }
+        if (events.hasListeners()) {
+            events.emit(TaskEvent.Kind.UPDATED, materialize(row));
+            if (oldEpicRow != newEpicRow) {
+                emitStatusChange(oldEpicRow, oldEpicStatus);
+            }
+            emitStatusChange(newEpicRow, newEpicStatus);
+        }
+    }
+
+    private Task delete(TaskType type, int id) {
+        int row = table.row(type, id);
+        if (row == TaskTable.NIL) {
+            return null;
+        }
+        Task task = materialize(row);
+        int epicRow = type == TaskType.SUBTASK ? table.row(table.epicId(row)) : TaskTable.NIL;
+        Task.Status epicStatus = epicStatus(epicRow);
+        events.emit(TaskEvent.Kind.DELETED, task);
+        if (type == TaskType.EPIC) {
+            for (int subtaskRow : subtaskRows(row)) {
+                if (events.hasListeners()) {
+                    events.emit(TaskEvent.Kind.DELETED, materialize(subtaskRow));
+                }
+                remove(subtaskRow);
+            }
+        }
+        remove(row);
+        emitStatusChange(epicRow, epicStatus);
+        return task;
+    }
+
+    private void remove(int row) {
+        historyManager.remove(table.id(row));
+        textIndex.remove(table.id(row));
+        dependencyGraph.remove(table.id(row));
+        updateWorkload(row, false);
+        table.remove(row);
+    }
+
+    /**
+     * Adds the interval of a scheduled task or subtask row to the workload, or takes it away before the row changes.
+     */
+    private void updateWorkload(int row, boolean added) {
+        if (table.type(row) == TaskType.EPIC || table.start(row) == TaskTable.NO_TIME) {
+            return;
+        }
+        LocalDateTime start = TaskTable.toTime(table.start(row));
+        LocalDateTime end = TaskTable.toTime(table.end(row));
+        if (added) {
+            workloadIndex.add(start, end);
+        } else {
+            workloadIndex.remove(start, end);
+        }
+    }
+
+    private List<Integer> rows(TaskType type) {
+        List<Integer> rows = new ArrayList<>(table.size(type));
+        table.forEach(type, rows::add);
+        return rows;
+    }
+
+    private void emitDeleted(List<Integer> rows) {
+        if (events.hasListeners()) {
+            rows.forEach(row -> events.emit(TaskEvent.Kind.DELETED, materialize(row)));
+        }
+    }
+
+    /**
+     * Status of the epic for a later {@link #emitStatusChange}, or null if nobody listens.
+     */
+    private Task.Status epicStatus(int epicRow) {
+        return epicRow != TaskTable.NIL && events.hasListeners() ? table.status(epicRow) : null;
+    }
+
+    private Task.Status[] epicStatuses(List<Integer> epicRows) {
+        Task.Status[] statuses = new Task.Status[epicRows.size()];
+        for (int i = 0; i < statuses.length; i++) {
+            statuses[i] = epicStatus(epicRows.get(i));
+        }
+        return statuses;
+    }
+
+    private void emitStatusChange(int epicRow, Task.Status previousStatus) {
+        if (previousStatus != null && table.status(epicRow) != previousStatus) {
+            events.emit(TaskEvent.Kind.STATUS_CHANGED, materialize(epicRow), previousStatus);
+        }
+    }
+
+    /**
+     * Also fails with IllegalArgumentException if the time or the duration of the task can't be stored, so a write
+     * that passes this check changes the table without failing halfway.
+     */
+    private boolean intersectsWithOtherTasks(Task task, Integer excludedId) {
+        long duration = TaskTable.toNanos(task.getDuration());
+        if (task.getStartTime() == null) {
+            return false;
+        }
+        long start = TaskTable.toNanos(task.getStartTime());
+        return table.intersects(start, TaskTable.occupiedEnd(start, duration),
+                id -> excludedId != null && id == excludedId);
+    }
+
+    /**
+     * Sorts the scheduled part of the batch by start time and sweeps it: every task is checked against the running
+     * maximum occupied end of the batch and against the timeline, ignoring the entries the batch itself replaces. Like
+     * {@link #intersectsWithOtherTasks}, it fails on every time or duration the table can't store.
+     */
+    private void checkBatchIntersections(List<? extends Task> tasks, IntPredicate replaced) {
+        List<long[]> scheduled = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            long duration = TaskTable.toNanos(task.getDuration());
+            if (task.getStartTime() != null) {
+                long start = TaskTable.toNanos(task.getStartTime());
+                scheduled.add(new long[]{start, TaskTable.occupiedEnd(start, duration)});
+            }
+        }
+        scheduled.sort(Comparator.comparingLong(x -> x[0]));
+        long maxEnd = TaskTable.NO_TIME;
+        for (long[] interval : scheduled) {
+            if (maxEnd != TaskTable.NO_TIME && interval[0] < maxEnd) {
+                throw new TimeIntersectionException();
+            }
+            if (table.intersects(interval[0], interval[1], replaced)) {
+                throw new TimeIntersectionException();
+            }
+            maxEnd = Math.max(maxEnd, interval[1]);
+        }
+    }
+
+    private boolean matches(TaskQuery query, int row) {
+        TaskType type = table.type(row);
+        if (query.getType() != null && type != query.getType()) {
+            return false;
+        }
+        if (query.getStatus() != null && table.status(row) != query.getStatus()) {
+            return false;
+        }
+        if (query.getEpicId() != null && !(type == TaskType.SUBTASK && table.epicId(row) == query.getEpicId())) {
+            return false;
+        }
+        if (query.hasTimeRange()) {
+            long start = table.start(row);
+            if (start == TaskTable.NO_TIME) {
+                return false;
+            }
+            if (query.getFrom() != null && start < TaskTable.toNanosSaturated(query.getFrom())) {
+                return false;
+            }
+            return query.getTo() == null || start < TaskTable.toNanosSaturated(query.getTo());
+        }
+        return true;
+    }
+
+    private int[] subtaskRows(int epicRow) {
+        int[] rows = new int[table.subtaskCount(epicRow)];
+        int[] count = {0};
+        table.forEachSubtask(epicRow, row -> rows[count[0]++] = row);
+        return rows;
+    }
+
+    private List<Subtask> subtasks(int epicRow) {
+        List<Subtask> subtasks = new ArrayList<>(table.subtaskCount(epicRow));
+        table.forEachSubtask(epicRow, row -> subtasks.add((Subtask) materialize(row)));
+        return subtasks;
+    }
+
+    private int dependencyRow(int id) {
+        int row = table.row(id);
+        if (row == TaskTable.NIL) {
+            throw new NotFoundException();
+        }
+        if (table.type(row) == TaskType.EPIC) {
+            throw new IllegalArgumentException("Epics can't have dependencies");
+        }
+        return row;
+    }
+
+    private List<Task> materialize(int[] ids) {
+        List<Task> tasks = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            tasks.add(materialize(table.row(id)));
+        }
+        return tasks;
+    }
+
+    private Task materialize(int row) {
+        Task task = switch (table.type(row)) {
+            case TASK -> new Task(table.title(row), table.description(row), table.status(row),
+                    TaskTable.toDuration(table.duration(row)), TaskTable.toTime(table.start(row)));
+            case SUBTASK -> new Subtask(table.title(row), table.description(row), table.status(row),
+                    table.epicId(row), TaskTable.toDuration(table.duration(row)), TaskTable.toTime(table.start(row)));
+            case EPIC -> {
+                List<Subtask> subtasks = subtasks(row);
+                yield new Epic(table.title(row), table.description(row), subtasks, table.status(row),
+                        TaskTable.toDuration(table.duration(row)), TaskTable.toTime(table.start(row)),
+                        TaskTable.toTime(table.epicEnd(row)));
+            }
+        };
+        task.setId(table.id(row));
+        task.freeze();
+        return task;
+    }
+
+    private static LocalDateTime slotStart(LocalDateTime from, long fromNanos, long start) {
+        return start == fromNanos ? from : TaskTable.toTime(start);
+    }
+}
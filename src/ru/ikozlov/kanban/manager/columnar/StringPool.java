@@ -0,0 +1,67 @@
+package ru.ikozlov.kanban.manager.columnar;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reference-counted string storage. Boards repeat the same titles and descriptions over and over, so every
+ * distinct string is kept once and rows hold an int handle to it; -1 stands for null.
+ */
+public class StringPool implements StringStore {
+    private final Map<String, Integer> handles = new HashMap<>();
+    private String[] strings = new String[16];
+    private int[] counts = new int[16];
+    private int[] freeHandles = new int[16];
+    private int freeCount = 0;
+    private int used = 0;
+
+    @Override
+    public int size() {
+        return handles.size();
+    }
+
+    @Override
+    public int acquire(String string) {
+        if (string == null) {
+            return NULL;
+        }
+        Integer handle = handles.get(string);
+        if (handle != null) {
+            counts[handle]++;
+            return handle;
+        }
+        int free;
+        if (freeCount > 0) {
+            free = freeHandles[--freeCount];
+        } else {
+            if (used == strings.length) {
+                strings = Arrays.copyOf(strings, used * 2);
+                counts = Arrays.copyOf(counts, used * 2);
+            }
+            free = used++;
+        }
+        strings[free] = string;
+        counts[free] = 1;
+        handles.put(string, free);
+        return free;
+    }
+
+    @Override
+    public String get(int handle) {
+        return handle == NULL ? null : strings[handle];
+    }
+
+    @Override
+    public void release(int handle) {
+        if (handle == NULL || --counts[handle] > 0) {
+            return;
+        }
+        handles.remove(strings[handle]);
+        strings[handle] = null;
+        if (freeCount == freeHandles.length) {
+            freeHandles = Arrays.copyOf(freeHandles, freeCount * 2);
+        }
+        freeHandles[freeCount++] = handle;
+    }
+}
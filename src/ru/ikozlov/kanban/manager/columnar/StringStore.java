@@ -0,0 +1,16 @@
+package ru.ikozlov.kanban.manager.columnar;
+
+/**
+ * Storage for the strings of a {@link TaskTable}. Rows hold int handles; every acquired handle is released once.
+ */
+public interface StringStore {
+    int NULL = -1;
+
+    int acquire(String string);
+
+    String get(int handle);
+
+    void release(int handle);
+
+    int size();
+}
@@ -0,0 +1,112 @@
+package ru.ikozlov.kanban.manager.columnar;
+
+/**
+ * Fixed-width fields of {@link TaskTable} rows. Strings are handles into a {@link StringStore}, links to other rows
+ * are row numbers. The subtask fields link a subtask row into the tree of its epic and keep the aggregates of its
+ * subtree there; the subtask counts are only used by epic rows.
+ */
+public interface TaskRecords {
+    int capacity();
+
+    /**
+     * The most rows these records can hold.
+     */
+    int maxCapacity();
+
+    /**
+     * Makes room for the given number of rows, keeping the content of the existing ones.
+     */
+    void grow(int capacity);
+
+    int id(int row);
+
+    void setId(int row, int id);
+
+    byte type(int row);
+
+    void setType(int row, byte type);
+
+    byte status(int row);
+
+    void setStatus(int row, byte status);
+
+    long start(int row);
+
+    void setStart(int row, long start);
+
+    long duration(int row);
+
+    void setDuration(int row, long duration);
+
+    int title(int row);
+
+    void setTitle(int row, int title);
+
+    int description(int row);
+
+    void setDescription(int row, int description);
+
+    int epicId(int row);
+
+    void setEpicId(int row, int epicId);
+
+    int subtaskRoot(int row);
+
+    void setSubtaskRoot(int row, int subtaskRoot);
+
+    int subtaskLeft(int row);
+
+    void setSubtaskLeft(int row, int subtaskLeft);
+
+    int subtaskRight(int row);
+
+    void setSubtaskRight(int row, int subtaskRight);
+
+    byte subtaskHeight(int row);
+
+    void setSubtaskHeight(int row, byte subtaskHeight);
+
+    long subtaskMinStart(int row);
+
+    void setSubtaskMinStart(int row, long subtaskMinStart);
+
+    long subtaskMaxEnd(int row);
+
+    void setSubtaskMaxEnd(int row, long subtaskMaxEnd);
+
+    int subtaskCount(int row);
+
+    void setSubtaskCount(int row, int subtaskCount);
+
+    int newSubtasks(int row);
+
+    void setNewSubtasks(int row, int newSubtasks);
+
+    int doneSubtasks(int row);
+
+    void setDoneSubtasks(int row, int doneSubtasks);
+
+    int left(int row);
+
+    void setLeft(int row, int left);
+
+    int right(int row);
+
+    void setRight(int row, int right);
+
+    byte height(int row);
+
+    void setHeight(int row, byte height);
+
+    long maxEnd(int row);
+
+    void setMaxEnd(int row, long maxEnd);
+
+    long minStart(int row);
+
+    void setMinStart(int row, long minStart);
+
+    long maxGap(int row);
+
+    void setMaxGap(int row, long maxGap);
+}
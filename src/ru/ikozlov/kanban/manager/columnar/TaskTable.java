@@ -0,0 +1,879 @@
+package ru.ikozlov.kanban.manager.columnar;
+
+import ru.ikozlov.kanban.manager.TaskType;
+import ru.ikozlov.kanban.task.Task;
+import ru.ikozlov.kanban.util.IntIntMap;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+
+/**
+ * Tasks stored as rows of primitive fields and no object per task. Times are nanoseconds since the epoch of the
+ * local time line, durations are nanoseconds, {@link #NO_TIME} and {@link #NO_DURATION} stand for a missing time or
+ * duration, and strings are handles into a {@link StringStore}. Scheduled tasks and subtasks are linked into an AVL
+ * tree ordered by (start, id) whose node fields, including the maximum end, the minimum start and the widest gap of
+ * the subtree, are row fields too. Like in the heap interval index, the tree measures ends as occupied ends: a task
+ * takes up [start, end), and a zero-length task its start instant. Every epic row holds the root of an AVL tree of
+ * its subtask rows ordered by id, whose nodes keep the earliest start and the latest end of their subtree, and keeps
+ * its status, start and duration as aggregates of its subtasks. Freed rows are reused. Bit sets of ids per type and
+ * per type and status give the id order. By default the fields are kept column-wise in {@link ArrayTaskRecords} and
+ * strings in a {@link StringPool}.
+ */
+public class TaskTable {
+    public static final int NIL = -1;
+    public static final long NO_TIME = Long.MIN_VALUE;
+    public static final long NO_DURATION = Long.MIN_VALUE;
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final Task.Status[] STATUSES = Task.Status.values();
+    private static final byte FREE = -1;
+
+    private final IntIntMap rowsById = new IntIntMap();
+    private final TaskRecords records;
+    private final StringStore strings;
+    private final int[] sizes = new int[TYPES.length];
+    private final BitSet[] idsByType = new BitSet[TYPES.length];
+    private final BitSet[] idsByStatus = new BitSet[TYPES.length * STATUSES.length];
+    private int[] freeRows = new int[16];
+    private int freeCount = 0;
+    private int used = 0;
+    private int root = NIL;
+
+    public TaskTable() {
+        this(new ArrayTaskRecords(), new StringPool());
+    }
+
+    public TaskTable(TaskRecords records, StringStore strings) {
+        this.records = records;
+        this.strings = strings;
+        records.grow(16);
+        for (int i = 0; i < TYPES.length; i++) {
+            idsByType[i] = new BitSet();
+        }
+        for (int i = 0; i < idsByStatus.length; i++) {
+            idsByStatus[i] = new BitSet();
+        }
+    }
+
+    public int size(TaskType type) {
+        return sizes[type.ordinal()];
+    }
+
+    public int row(int id) {
+        return rowsById.get(id, NIL);
+    }
+
+    public int row(TaskType type, int id) {
+        int row = row(id);
+        return row != NIL && records.type(row) == type.ordinal() ? row : NIL;
+    }
+
+    public int id(int row) {
+        return records.id(row);
+    }
+
+    public TaskType type(int row) {
+        return TYPES[records.type(row)];
+    }
+
+    /**
+     * For an epic row, the status derived from its subtasks.
+     */
+    public Task.Status status(int row) {
+        return STATUSES[records.status(row)];
+    }
+
+    /**
+     * For an epic row, the earliest start of its subtasks.
+     */
+    public long start(int row) {
+        return records.start(row);
+    }
+
+    public long end(int row) {
+        return records.start(row) + length(row);
+    }
+
+    /**
+     * For an epic row, the total duration of its subtasks, where a subtask without a duration counts as zero.
+     */
+    public long duration(int row) {
+        return records.duration(row);
+    }
+
+    /**
+     * Latest end of the subtasks of the epic row, or {@link #NO_TIME} if none of them is scheduled.
+     */
+    public long epicEnd(int epicRow) {
+        int root = records.subtaskRoot(epicRow);
+        return root != NIL ? records.subtaskMaxEnd(root) : NO_TIME;
+    }
+
+    public String title(int row) {
+        return strings.get(records.title(row));
+    }
+
+    public String description(int row) {
+        return strings.get(records.description(row));
+    }
+
+    public int epicId(int row) {
+        return records.epicId(row);
+    }
+
+    public int subtaskCount(int epicRow) {
+        return records.subtaskCount(epicRow);
+    }
+
+    /**
+     * Subtask rows of the epic row in id order. The table must not change while they are visited.
+     */
+    public void forEachSubtask(int epicRow, IntConsumer action) {
+        visitSubtasks(records.subtaskRoot(epicRow), action);
+    }
+
+    /**
+     * Rows of one type in row order.
+     */
+    public void forEach(TaskType type, IntConsumer action) {
+        for (int row = 0; row < used; row++) {
+            if (records.type(row) == type.ordinal()) {
+                action.accept(row);
+            }
+        }
+    }
+
+    /**
+     * Rows of one type and status in id order. The table must not change while they are visited.
+     */
+    public void forEach(TaskType type, Task.Status status, IntConsumer action) {
+        BitSet ids = idsByStatus[type.ordinal() * STATUSES.length + status.ordinal()];
+        for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+            action.accept(row(id));
+        }
+    }
+
+    /**
+     * Rows of one type in id order, split by halves of the id range. Only the whole range knows its exact size; a
+     * half estimates its own as half of its parent's. The table must not change while it is traversed.
+     */
+    public Spliterator.OfInt rows(TaskType type) {
+        BitSet ids = idsByType[type.ordinal()];
+        return new RowSpliterator(ids, 0, ids.length(), sizes[type.ordinal()], true);
+    }
+
+    /**
+     * Rows of one type with ids greater than the given one, in id order. Stops once the action returns false.
+     */
+    public void visitAfterId(TaskType type, int id, IntPredicate action) {
+        BitSet ids = idsByType[type.ordinal()];
+        for (int next = ids.nextSetBit(Math.max(id, 0) + 1); next >= 0; next = ids.nextSetBit(next + 1)) {
+            if (!action.test(row(next))) {
+                return;
+            }
+        }
+    }
+
+    public int insert(int id, TaskType type, String title, String description, Task.Status status, long start,
+                      long duration, int epicId) {
+        int row = allocateRow();
+        records.setId(row, id);
+        records.setType(row, (byte) type.ordinal());
+        records.setTitle(row, strings.acquire(title));
+        records.setDescription(row, strings.acquire(description));
+        records.setSubtaskRoot(row, NIL);
+        records.setSubtaskCount(row, 0);
+        records.setNewSubtasks(row, 0);
+        records.setDoneSubtasks(row, 0);
+        rowsById.put(id, row);
+        sizes[type.ordinal()]++;
+        idsByType[type.ordinal()].set(id);
+        set(row, status, start, duration, epicId);
+        return row;
+    }
+
+    /**
+     * Replaces the fields of a task or subtask row.
+     */
+    public void update(int row, String title, String description, Task.Status status, long start, long duration,
+                       int epicId) {
+        rename(row, title, description);
+        unset(row);
+        set(row, status, start, duration, epicId);
+    }
+
+    /**
+     * Replaces the strings of a row only. This is the only update of an epic row, the rest of which follows its
+     * subtasks.
+     */
+    public void rename(int row, String title, String description) {
+        int oldTitle = records.title(row);
+        int oldDescription = records.description(row);
+        records.setTitle(row, strings.acquire(title));
+        records.setDescription(row, strings.acquire(description));
+        strings.release(oldTitle);
+        strings.release(oldDescription);
+    }
+
+    public void remove(int row) {
+        unset(row);
+        strings.release(records.title(row));
+        strings.release(records.description(row));
+        rowsById.remove(records.id(row));
+        sizes[records.type(row)]--;
+        idsByType[records.type(row)].clear(records.id(row));
+        records.setType(row, FREE);
+        if (freeCount == freeRows.length) {
+            freeRows = Arrays.copyOf(freeRows, freeCount * 2);
+        }
+        freeRows[freeCount++] = row;
+    }
+
+    /**
+     * In-order walk over the scheduled rows ordered strictly after the (start, id) key. Stops once the action
+     * returns false.
+     */
+    public void visitAfter(long start, int id, IntPredicate action) {
+        visitAfter(root, start, id, action);
+    }
+
+    /**
+     * In-order walk over the scheduled rows with end >= minEnd and start <= maxStart. Subtrees ending before minEnd
+     * are skipped. Stops once the action returns false.
+     */
+    public void visitOverlapping(long minEnd, long maxStart, IntPredicate action) {
+        visitOverlapping(root, minEnd, maxStart, action);
+    }
+
+    /**
+     * Earliest gap between the scheduled rows that ends after from and holds a task of the given length, as a
+     * {start, end} pair. The gap after the last row never ends; its end is {@link #NO_TIME}.
+     */
+    public long[] findFirstGap(long from, long length) {
+        GapSearch search = new GapSearch(from, NO_TIME, 1, length);
+        findGaps(root, search);
+        return search.finish().getFirst();
+    }
+
+    /**
+     * Up to limit widest gaps between the scheduled rows that hold a task of the given length, clipped to
+     * [from, to], as {start, end} pairs ordered by start. Subtrees whose widest gap is too narrow are skipped without
+     * a visit.
+     */
+    public List<long[]> findGaps(long from, long to, int limit, long length) {
+        GapSearch search = new GapSearch(from, to, limit, length);
+        findGaps(root, search);
+        return search.finish();
+    }
+
+    /**
+     * Whether a scheduled row other than the excluded ones takes up some instant of [start, end), where end is an
+     * occupied end as given by {@link #occupiedEnd(long, long)}. Same rule as {@link Task#intersectsWith}.
+     */
+    public boolean intersects(long start, long end, IntPredicate excluded) {
+        boolean[] found = {false};
+        visitOverlapping(start, end, row -> {
+            found[0] = records.start(row) < end && occupiedEnd(row) > start && !excluded.test(records.id(row));
+            return !found[0];
+        });
+        return found[0];
+    }
+
+    public static long toNanos(LocalDateTime time) {
+        if (time == null) {
+            return NO_TIME;
+        }
+        try {
+            return Math.addExact(Math.multiplyExact(time.toEpochSecond(ZoneOffset.UTC), NANOS_PER_SECOND),
+                    time.getNano());
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Time is out of range: " + time);
+        }
+    }
+
+    /**
+     * Like {@link #toNanos} but saturates instead of failing, for query bounds such as LocalDateTime.MIN.
+     */
+    public static long toNanosSaturated(LocalDateTime time) {
+        try {
+            return toNanos(time);
+        } catch (IllegalArgumentException e) {
+            return time.getYear() < 1970 ? NO_TIME + 1 : Long.MAX_VALUE;
+        }
+    }
+
+    public static long toNanos(Duration duration) {
+        if (duration == null) {
+            return NO_DURATION;
+        }
+        try {
+            return duration.toNanos();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Duration is out of range: " + duration);
+        }
+    }
+
+    /**
+     * End of a task starting at start, or the instant after its start if it has no length. Fails like
+     * {@link #toNanos} if it is out of range.
+     */
+    public static long occupiedEnd(long start, long duration) {
+        try {
+            return Math.addExact(start, duration != NO_DURATION ? Math.max(duration, 1) : 1);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("End time is out of range");
+        }
+    }
+
+    public static Duration toDuration(long nanos) {
+        return nanos != NO_DURATION ? Duration.ofNanos(nanos) : null;
+    }
+
+    public static LocalDateTime toTime(long nanos) {
+        if (nanos == NO_TIME) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(nanos, NANOS_PER_SECOND),
+                (int) Math.floorMod(nanos, NANOS_PER_SECOND), ZoneOffset.UTC);
+    }
+
+    private void set(int row, Task.Status status, long start, long duration, int epicId) {
+        if (start != NO_TIME) {
+            occupiedEnd(start, duration);
+        }
+        records.setStatus(row, (byte) status.ordinal());
+        records.setStart(row, start);
+        records.setDuration(row, duration);
+        records.setEpicId(row, epicId);
+        statusIds(row).set(records.id(row));
+        if (records.type(row) == TaskType.SUBTASK.ordinal()) {
+            int epicRow = row(epicId);
+            records.setSubtaskLeft(row, NIL);
+            records.setSubtaskRight(row, NIL);
+            records.setSubtaskHeight(row, (byte) 1);
+            updateSubtaskNode(row);
+            records.setSubtaskRoot(epicRow, insertSubtask(records.subtaskRoot(epicRow), row));
+            countSubtask(epicRow, row, 1);
+        }
+        if (start != NO_TIME && records.type(row) != TaskType.EPIC.ordinal()) {
+            records.setLeft(row, NIL);
+            records.setRight(row, NIL);
+            records.setHeight(row, (byte) 1);
+            updateNode(row);
+            root = insertNode(root, row);
+        }
+    }
+
+    private void unset(int row) {
+        if (records.start(row) != NO_TIME && records.type(row) != TaskType.EPIC.ordinal()) {
+            root = deleteNode(root, row);
+        }
+        if (records.type(row) == TaskType.SUBTASK.ordinal()) {
+            int epicRow = row(records.epicId(row));
+            records.setSubtaskRoot(epicRow, deleteSubtask(records.subtaskRoot(epicRow), row));
+            countSubtask(epicRow, row, -1);
+        }
+        statusIds(row).clear(records.id(row));
+    }
+
+    private BitSet statusIds(int row) {
+        return idsByStatus[records.type(row) * STATUSES.length + records.status(row)];
+    }
+
+    /**
+     * Adds the subtask row to the aggregates of its epic row, or takes it away with sign -1, and derives the epic
+     * status and start again.
+     */
+    private void countSubtask(int epicRow, int row, int sign) {
+        int count = records.subtaskCount(epicRow) + sign;
+        records.setSubtaskCount(epicRow, count);
+        if (records.status(row) == Task.Status.NEW.ordinal()) {
+            records.setNewSubtasks(epicRow, records.newSubtasks(epicRow) + sign);
+        } else if (records.status(row) == Task.Status.DONE.ordinal()) {
+            records.setDoneSubtasks(epicRow, records.doneSubtasks(epicRow) + sign);
+        }
+        records.setDuration(epicRow, records.duration(epicRow) + sign * length(row));
+        Task.Status status;
+        if (count == records.newSubtasks(epicRow)) {
+            status = Task.Status.NEW;
+        } else if (count == records.doneSubtasks(epicRow)) {
+            status = Task.Status.DONE;
+        } else {
+            status = Task.Status.IN_PROGRESS;
+        }
+        if (status.ordinal() != records.status(epicRow)) {
+            statusIds(epicRow).clear(records.id(epicRow));
+            records.setStatus(epicRow, (byte) status.ordinal());
+            statusIds(epicRow).set(records.id(epicRow));
+        }
+        int subtaskRoot = records.subtaskRoot(epicRow);
+        records.setStart(epicRow, subtaskRoot != NIL ? records.subtaskMinStart(subtaskRoot) : NO_TIME);
+    }
+
+    private long occupiedEnd(int row) {
+        return records.start(row) + Math.max(length(row), 1);
+    }
+
+    private long length(int row) {
+        long duration = records.duration(row);
+        return duration != NO_DURATION ? duration : 0;
+    }
+
+    private void visitSubtasks(int node, IntConsumer action) {
+        if (node == NIL) {
+            return;
+        }
+        visitSubtasks(records.subtaskLeft(node), action);
+        action.accept(node);
+        visitSubtasks(records.subtaskRight(node), action);
+    }
+
+    private void findGaps(int node, GapSearch search) {
+        if (node == NIL || search.isDone()) {
+            return;
+        }
+        if (search.bounded && records.minStart(node) >= search.to) {
+            search.stopped = true;
+            return;
+        }
+        if (records.maxEnd(node) <= search.from || records.maxGap(node) <= search.threshold()
+                && search.gapBefore(records.minStart(node)) <= search.threshold()) {
+            search.pass(records.maxEnd(node));
+            return;
+        }
+        findGaps(records.left(node), search);
+        if (search.isDone()) {
+            return;
+        }
+        if (search.bounded && records.start(node) >= search.to) {
+            search.stopped = true;
+            return;
+        }
+        search.offer(records.start(node));
+        search.pass(occupiedEnd(node));
+        findGaps(records.right(node), search);
+    }
+
+    private boolean visitAfter(int node, long start, int id, IntPredicate action) {
+        if (node == NIL) {
+            return true;
+        }
+        if (compare(records.start(node), records.id(node), start, id) <= 0) {
+            return visitAfter(records.right(node), start, id, action);
+        }
+        return visitAfter(records.left(node), start, id, action) && action.test(node)
+                && visitAfter(records.right(node), start, id, action);
+    }
+
+    private boolean visitOverlapping(int node, long minEnd, long maxStart, IntPredicate action) {
+        if (node == NIL || records.maxEnd(node) < minEnd) {
+            return true;
+        }
+        if (!visitOverlapping(records.left(node), minEnd, maxStart, action)) {
+            return false;
+        }
+        if (records.start(node) > maxStart) {
+            return false;
+        }
+        if (end(node) >= minEnd && !action.test(node)) {
+            return false;
+        }
+        return visitOverlapping(records.right(node), minEnd, maxStart, action);
+    }
+
+    private int compare(int a, int b) {
+        return compare(records.start(a), records.id(a), records.start(b), records.id(b));
+    }
+
+    private static int compare(long startA, int idA, long startB, int idB) {
+        int cmp = Long.compare(startA, startB);
+        return cmp != 0 ? cmp : Integer.compare(idA, idB);
+    }
+
+    private int insertNode(int node, int row) {
+        if (node == NIL) {
+            return row;
+        }
+        if (compare(row, node) < 0) {
+            records.setLeft(node, insertNode(records.left(node), row));
+        } else {
+            records.setRight(node, insertNode(records.right(node), row));
+        }
+        return balance(node);
+    }
+
+    private int deleteNode(int node, int row) {
+        if (node == NIL) {
+            return NIL;
+        }
+        int cmp = compare(row, node);
+        if (cmp < 0) {
+            records.setLeft(node, deleteNode(records.left(node), row));
+        } else if (cmp > 0) {
+            records.setRight(node, deleteNode(records.right(node), row));
+        } else {
+            if (records.left(node) == NIL) {
+                return records.right(node);
+            }
+            if (records.right(node) == NIL) {
+                return records.left(node);
+            }
+            int successor = records.right(node);
+            while (records.left(successor) != NIL) {
+                successor = records.left(successor);
+            }
+            records.setRight(successor, deleteMin(records.right(node)));
+            records.setLeft(successor, records.left(node));
+            node = successor;
+        }
+        return balance(node);
+    }
+
+    private int deleteMin(int node) {
+        if (records.left(node) == NIL) {
+            return records.right(node);
+        }
+        records.setLeft(node, deleteMin(records.left(node)));
+        return balance(node);
+    }
+
+    private int height(int node) {
+        return node == NIL ? 0 : records.height(node);
+    }
+
+    /**
+     * Gaps inside a subtree are measured from the subtree's own rows only, so maxGap is an upper bound that only
+     * serves to skip subtrees, as in the interval index of the in-memory manager.
+     */
+    private void updateNode(int node) {
+        int height = 1 + Math.max(height(records.left(node)), height(records.right(node)));
+        records.setHeight(node, (byte) height);
+        long minStart = records.start(node);
+        long maxEnd = occupiedEnd(node);
+        long maxGap = 0;
+        int left = records.left(node);
+        int right = records.right(node);
+        if (left != NIL) {
+            minStart = records.minStart(left);
+            maxGap = Math.max(records.maxGap(left), gap(records.maxEnd(left), records.start(node)));
+            maxEnd = Math.max(maxEnd, records.maxEnd(left));
+        }
+        if (right != NIL) {
+            maxGap = Math.max(maxGap, Math.max(records.maxGap(right), gap(maxEnd, records.minStart(right))));
+            maxEnd = Math.max(maxEnd, records.maxEnd(right));
+        }
+        records.setMinStart(node, minStart);
+        records.setMaxEnd(node, maxEnd);
+        records.setMaxGap(node, maxGap);
+    }
+
+    private int balance(int node) {
+        updateNode(node);
+        int factor = height(records.left(node)) - height(records.right(node));
+        if (factor > 1) {
+            if (height(records.left(records.left(node))) < height(records.right(records.left(node)))) {
+                records.setLeft(node, rotateLeft(records.left(node)));
+            }
+            return rotateRight(node);
+        }
+        if (factor < -1) {
+            if (height(records.right(records.right(node))) < height(records.left(records.right(node)))) {
+                records.setRight(node, rotateRight(records.right(node)));
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private int rotateLeft(int node) {
+        int right = records.right(node);
+        records.setRight(node, records.left(right));
+        records.setLeft(right, node);
+        updateNode(node);
+        updateNode(right);
+        return right;
+    }
+
+    private int rotateRight(int node) {
+        int left = records.left(node);
+        records.setLeft(node, records.right(left));
+        records.setRight(left, node);
+        updateNode(node);
+        updateNode(left);
+        return left;
+    }
+
+    private int insertSubtask(int node, int row) {
+        if (node == NIL) {
+            return row;
+        }
+        if (records.id(row) < records.id(node)) {
+            records.setSubtaskLeft(node, insertSubtask(records.subtaskLeft(node), row));
+        } else {
+            records.setSubtaskRight(node, insertSubtask(records.subtaskRight(node), row));
+        }
+        return balanceSubtask(node);
+    }
+
+    private int deleteSubtask(int node, int row) {
+        if (node == NIL) {
+            return NIL;
+        }
+        if (records.id(row) < records.id(node)) {
+            records.setSubtaskLeft(node, deleteSubtask(records.subtaskLeft(node), row));
+        } else if (records.id(row) > records.id(node)) {
+            records.setSubtaskRight(node, deleteSubtask(records.subtaskRight(node), row));
+        } else {
+            if (records.subtaskLeft(node) == NIL) {
+                return records.subtaskRight(node);
+            }
+            if (records.subtaskRight(node) == NIL) {
+                return records.subtaskLeft(node);
+            }
+            int successor = records.subtaskRight(node);
+            while (records.subtaskLeft(successor) != NIL) {
+                successor = records.subtaskLeft(successor);
+            }
+            records.setSubtaskRight(successor, deleteMinSubtask(records.subtaskRight(node)));
+            records.setSubtaskLeft(successor, records.subtaskLeft(node));
+            node = successor;
+        }
+        return balanceSubtask(node);
+    }
+
+    private int deleteMinSubtask(int node) {
+        if (records.subtaskLeft(node) == NIL) {
+            return records.subtaskRight(node);
+        }
+        records.setSubtaskLeft(node, deleteMinSubtask(records.subtaskLeft(node)));
+        return balanceSubtask(node);
+    }
+
+    private int subtaskHeight(int node) {
+        return node == NIL ? 0 : records.subtaskHeight(node);
+    }
+
+    private void updateSubtaskNode(int node) {
+        int left = records.subtaskLeft(node);
+        int right = records.subtaskRight(node);
+        records.setSubtaskHeight(node, (byte) (1 + Math.max(subtaskHeight(left), subtaskHeight(right))));
+        long minStart = records.start(node);
+        long maxEnd = minStart != NO_TIME ? end(node) : NO_TIME;
+        if (left != NIL) {
+            minStart = earlier(minStart, records.subtaskMinStart(left));
+            maxEnd = Math.max(maxEnd, records.subtaskMaxEnd(left));
+        }
+        if (right != NIL) {
+            minStart = earlier(minStart, records.subtaskMinStart(right));
+            maxEnd = Math.max(maxEnd, records.subtaskMaxEnd(right));
+        }
+        records.setSubtaskMinStart(node, minStart);
+        records.setSubtaskMaxEnd(node, maxEnd);
+    }
+
+    private int balanceSubtask(int node) {
+        updateSubtaskNode(node);
+        int left = records.subtaskLeft(node);
+        int right = records.subtaskRight(node);
+        int factor = subtaskHeight(left) - subtaskHeight(right);
+        if (factor > 1) {
+            if (subtaskHeight(records.subtaskLeft(left)) < subtaskHeight(records.subtaskRight(left))) {
+                records.setSubtaskLeft(node, rotateSubtaskLeft(left));
+            }
+            return rotateSubtaskRight(node);
+        }
+        if (factor < -1) {
+            if (subtaskHeight(records.subtaskRight(right)) < subtaskHeight(records.subtaskLeft(right))) {
+                records.setSubtaskRight(node, rotateSubtaskRight(right));
+            }
+            return rotateSubtaskLeft(node);
+        }
+        return node;
+    }
+
+    private int rotateSubtaskLeft(int node) {
+        int right = records.subtaskRight(node);
+        records.setSubtaskRight(node, records.subtaskLeft(right));
+        records.setSubtaskLeft(right, node);
+        updateSubtaskNode(node);
+        updateSubtaskNode(right);
+        return right;
+    }
+
+    private int rotateSubtaskRight(int node) {
+        int left = records.subtaskLeft(node);
+        records.setSubtaskLeft(node, records.subtaskRight(left));
+        records.setSubtaskRight(left, node);
+        updateSubtaskNode(node);
+        updateSubtaskNode(left);
+        return left;
+    }
+
+    private static long earlier(long start, long other) {
+        if (start == NO_TIME) {
+            return other;
+        }
+        return other == NO_TIME ? start : Math.min(start, other);
+    }
+
+    private static long gap(long start, long end) {
+        if (end <= start) {
+            return 0;
+        }
+        long gap = end - start;
+        return gap < 0 ? Long.MAX_VALUE : gap;
+    }
+
+    /**
+     * State of an in-order walk over the gaps: the latest end seen so far and the widest gaps found. Gaps no longer
+     * than the threshold are skipped; once limit gaps are kept the threshold rises to the narrowest of them. Without
+     * an upper bound the walk stops at the first gap. A gap holds a task as long as itself, and a zero-length task
+     * needs one free instant, so the initial threshold is one nanosecond short of the length.
+     */
+    private static final class GapSearch {
+        private final long from;
+        private final long to;
+        private final boolean bounded;
+        private final int limit;
+        private final long minGap;
+        private final PriorityQueue<long[]> gaps = new PriorityQueue<>(Comparator.comparingLong((long[] x) -> x[2])
+                .thenComparing((long[] x) -> x[0], Comparator.reverseOrder()));
+        private long lastEnd = NO_TIME;
+        private boolean stopped = false;
+
+        GapSearch(long from, long to, int limit, long length) {
+            this.from = from;
+            this.to = to;
+            this.bounded = to != NO_TIME;
+            this.limit = limit;
+            this.minGap = Math.max(length, 1) - 1;
+        }
+
+        boolean isDone() {
+            return stopped || !bounded && !gaps.isEmpty();
+        }
+
+        long threshold() {
+            return gaps.size() < limit ? minGap : Math.max(minGap, gaps.peek()[2]);
+        }
+
+        long gapBefore(long next) {
+            return gap(start(), bounded ? Math.min(to, next) : next);
+        }
+
+        void pass(long end) {
+            lastEnd = Math.max(lastEnd, end);
+        }
+
+        void offer(long next) {
+            long end = bounded ? Math.min(to, next) : next;
+            add(end, gap(start(), end));
+        }
+
+        List<long[]> finish() {
+            if (bounded) {
+                add(to, gap(start(), to));
+            } else if (gaps.isEmpty()) {
+                add(NO_TIME, Long.MAX_VALUE);
+            }
+            List<long[]> sorted = new ArrayList<>(gaps);
+            sorted.sort(Comparator.comparingLong(x -> x[0]));
+            return sorted;
+        }
+
+        private void add(long end, long length) {
+            if (length > threshold()) {
+                if (gaps.size() == limit) {
+                    gaps.poll();
+                }
+                gaps.add(new long[]{start(), end, length});
+            }
+        }
+
+        private long start() {
+            return Math.max(lastEnd, from);
+        }
+    }
+
+    private final class RowSpliterator implements Spliterator.OfInt {
+        private final BitSet ids;
+        private final int fence;
+        private int id;
+        private long estimate;
+        private boolean exact;
+
+        RowSpliterator(BitSet ids, int id, int fence, long estimate, boolean exact) {
+            this.ids = ids;
+            this.id = id;
+            this.fence = fence;
+            this.estimate = estimate;
+            this.exact = exact;
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            int next = id < fence ? ids.nextSetBit(id) : -1;
+            if (next < 0 || next >= fence) {
+                id = fence;
+                return false;
+            }
+            id = next + 1;
+            action.accept(row(next));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            for (int next = ids.nextSetBit(id); next >= 0 && next < fence; next = ids.nextSetBit(next + 1)) {
+                action.accept(row(next));
+            }
+            id = fence;
+        }
+
+        @Override
+        public Spliterator.OfInt trySplit() {
+            int middle = (id + fence) >>> 1;
+            if (middle <= id) {
+                return null;
+            }
+            estimate >>>= 1;
+            exact = false;
+            Spliterator.OfInt prefix = new RowSpliterator(ids, id, middle, estimate, false);
+            id = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return estimate;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL | (exact ? Spliterator.SIZED : 0);
+        }
+    }
+
+    private int allocateRow() {
+        if (freeCount > 0) {
+            return freeRows[--freeCount];
+        }
+        if (used == records.capacity()) {
+            if (used == records.maxCapacity()) {
+                throw new IllegalStateException("The table can't hold more than " + used + " rows");
+            }
+            records.grow((int) Math.min(2L * used, records.maxCapacity()));
+        }
+        return used++;
+    }
+}
@@ -0,0 +1,146 @@
+package ru.ikozlov.kanban.manager.concurrent;
+
+import ru.ikozlov.kanban.manager.HistoryManager;
+import ru.ikozlov.kanban.manager.HistorySession;
+import ru.ikozlov.kanban.manager.Page;
+import ru.ikozlov.kanban.task.Task;
+
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Records views off the read path. add() only puts a version of the task into a lock-free ring; a thread of its own
+ * takes everything put so far and applies it to the wrapped history as one batch, under a lock. Reads and removals
+ * take the same lock and apply the pending views first, so they see every view that has been recorded and the
+ * wrapped history keeps its order and its single entry per task. A view is applied in the {@link HistorySession}
+ * it was made in. If the ring is full, add() applies the pending views itself. Instances are made by
+ * {@link #start}, which starts the thread once the manager is fully built.
+ */
+public class AsyncHistoryManager implements HistoryManager, AutoCloseable {
+    private static final int RING_CAPACITY = 1 << 14;
+    private final HistoryManager delegate;
+    private final ViewRing<PendingView> ring = new ViewRing<>(RING_CAPACITY);
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Thread thread;
+    private volatile boolean parked = false;
+    private volatile boolean closed = false;
+
+    private AsyncHistoryManager(HistoryManager delegate) {
+        this.delegate = delegate;
+        thread = new Thread(this::run, "history-views");
+        thread.setDaemon(true);
+    }
+
+    public static AsyncHistoryManager start(HistoryManager delegate) {
+        AsyncHistoryManager manager = new AsyncHistoryManager(delegate);
+        manager.thread.start();
+        return manager;
+    }
+
+    @Override
+    public void add(Task task) {
+        if (closed) {
+            throw new IllegalStateException("History is closed");
+        }
+        PendingView view = new PendingView(HistorySession.current(), task.version());
+        while (!ring.offer(view)) {
+            lock.lock();
+            try {
+                applyPending();
+            } finally {
+                lock.unlock();
+            }
+        }
+        if (parked) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    @Override
+    public void remove(int id) {
+        lock.lock();
+        try {
+            applyPending();
+            delegate.remove(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        lock.lock();
+        try {
+            applyPending();
+            return delegate.getHistory();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Page<Task> getHistory(String cursor, int limit) {
+        lock.lock();
+        try {
+            applyPending();
+            return delegate.getHistory(cursor, limit);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Applies the pending views and stops the thread. If the caller is interrupted while waiting, it stops waiting
+     * with its interrupt flag set and the thread applies the views on its own.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void applyPending() {
+        ring.drain(view -> {
+            String previous = HistorySession.enter(view.session());
+            try {
+                delegate.add(view.task());
+            } finally {
+                HistorySession.exit(previous);
+            }
+        });
+    }
+
+    private void run() {
+        while (!closed) {
+            lock.lock();
+            try {
+                applyPending();
+            } finally {
+                lock.unlock();
+            }
+            parked = true;
+            if (ring.isEmpty() && !closed) {
+                LockSupport.park(this);
+            }
+            parked = false;
+        }
+        lock.lock();
+        try {
+            applyPending();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private record PendingView(String session, Task task) {
+    }
+}
@@ -0,0 +1,324 @@
+package ru.ikozlov.kanban.manager.concurrent;
+
+import ru.ikozlov.kanban.manager.CriticalPath;
+import ru.ikozlov.kanban.manager.DayWorkload;
+import ru.ikozlov.kanban.manager.HistoryManager;
+import ru.ikozlov.kanban.manager.Managers;
+import ru.ikozlov.kanban.manager.NotFoundException;
+import ru.ikozlov.kanban.manager.TaskQuery;
+import ru.ikozlov.kanban.manager.TaskType;
+import ru.ikozlov.kanban.manager.TimeSlot;
+import ru.ikozlov.kanban.manager.inmemory.InMemoryTaskManager;
+import ru.ikozlov.kanban.task.Epic;
+import ru.ikozlov.kanban.task.Subtask;
+import ru.ikozlov.kanban.task.Task;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Task manager safe for concurrent use. Tasks are locked by their own id and subtasks by the id of their epic,
+ * so writes to independent tasks and to different epics run in parallel. The timeline lock guards the time, workload,
+ * status and text indexes and the dependency graph; it is held across the intersection check and the insert of a
+ * scheduled task, and across cascades. Dependency edges are changed exclusively, so both ends stay stored. Stored
+ * tasks, subtasks and epics are frozen versions that writers replace, so reads take no stripe lock: an epic read
+ * while its subtasks change shows the status and metrics of one version, together with that version's subtasks.
+ */
+public class ConcurrentTaskManager extends InMemoryTaskManager {
+    private static final int STRIPES_COUNT = 64;
+    private final LockStripes stripes = new LockStripes(STRIPES_COUNT);
+    private final ReentrantReadWriteLock timelineLock = new ReentrantReadWriteLock();
+
+    public ConcurrentTaskManager() {
+        this(new SynchronizedHistoryManager(Managers.getDefaultHistory()));
+    }
+
+    /**
+     * The history is called from many threads at once, so it must be thread-safe itself.
+     */
+    public ConcurrentTaskManager(HistoryManager historyManager) {
+        super(historyManager, new ConcurrentTaskStorage());
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        return readTimeline(super::getPrioritizedTasks);
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to) {
+        return readTimeline(() -> super.getPrioritizedTasks(from, to));
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasksAfter(LocalDateTime startTime, int id, int limit) {
+        return readTimeline(() -> super.getPrioritizedTasksAfter(startTime, id, limit));
+    }
+
+    @Override
+    public List<Task> getTasksAt(LocalDateTime time) {
+        return readTimeline(() -> super.getTasksAt(time));
+    }
+
+    @Override
+    public List<Task> getTasksOverlapping(LocalDateTime from, LocalDateTime to) {
+        return readTimeline(() -> super.getTasksOverlapping(from, to));
+    }
+
+    @Override
+    public TimeSlot findFreeSlot(LocalDateTime after, Duration duration) {
+        return readTimeline(() -> super.findFreeSlot(after, duration));
+    }
+
+    @Override
+    public List<TimeSlot> findFreeSlots(LocalDateTime from, LocalDateTime to, Duration duration, int limit) {
+        return readTimeline(() -> super.findFreeSlots(from, to, duration, limit));
+    }
+
+    @Override
+    public List<DayWorkload> getWorkload(LocalDate from, LocalDate to) {
+        return readTimeline(() -> super.getWorkload(from, to));
+    }
+
+    @Override
+    protected void updateIndexes(Task task) {
+        timelineLock.writeLock().lock();
+        try {
+            super.updateIndexes(task);
+        } finally {
+            timelineLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    protected void removeFromIndexes(Task task) {
+        timelineLock.writeLock().lock();
+        try {
+            super.removeFromIndexes(task);
+        } finally {
+            timelineLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    protected boolean intersectsWithOtherTasks(Task task, Integer excludedId) {
+        return readTimeline(() -> super.intersectsWithOtherTasks(task, excludedId));
+    }
+
+    @Override
+    public void clearTasks() {
+        exclusively(super::clearTasks);
+    }
+
+    @Override
+    public Task createTask(Task task) {
+        return writeTimeline(task, () -> super.createTask(task));
+    }
+
+    @Override
+    public Task updateTask(int id, Task task) {
+        int[] held = stripes.lock(id);
+        try {
+            return writeTimeline(task, () -> super.updateTask(id, task));
+        } finally {
+            stripes.unlock(held);
+        }
+    }
+
+    @Override
+    public Task deleteTask(int id) {
+        int[] held = stripes.lock(id);
+        try {
+            return super.deleteTask(id);
+        } finally {
+            stripes.unlock(held);
+        }
+    }
+
+    @Override
+    public void clearEpics() {
+        exclusively(super::clearEpics);
+    }
+
+    @Override
+    public Epic updateEpic(int id, Epic epic) {
+        int[] held = stripes.lock(id);
+        try {
+            return super.updateEpic(id, epic);
+        } finally {
+            stripes.unlock(held);
+        }
+    }
+
+    @Override
+    public Epic deleteEpic(int id) {
+        int[] held = stripes.lock(id);
+        timelineLock.writeLock().lock();
+        try {
+            return super.deleteEpic(id);
+        } finally {
+            timelineLock.writeLock().unlock();
+            stripes.unlock(held);
+        }
+    }
+
+    @Override
+    public void clearSubtasks() {
+        exclusively(super::clearSubtasks);
+    }
+
+    @Override
+    public Subtask createSubtask(Subtask subtask) {
+        int[] held = stripes.lock(subtask.getEpicId());
+        try {
+            return writeTimeline(subtask, () -> super.createSubtask(subtask));
+        } finally {
+            stripes.unlock(held);
+        }
+    }
+
+    @Override
+    public Subtask updateSubtask(int id, Subtask subtask) {
+        while (true) {
+            int epicId = storedSubtask(id).getEpicId();
+            int[] held = stripes.lock(epicId, subtask.getEpicId());
+            try {
+                if (storedSubtask(id).getEpicId() == epicId) {
+                    return writeTimeline(subtask, () -> super.updateSubtask(id, subtask));
+                }
+            } finally {
+                stripes.unlock(held);
+            }
+        }
+    }
+
+    @Override
+    public Subtask deleteSubtask(int id) {
+        while (true) {
+            Subtask subtask = (Subtask) taskStorage.get(TaskType.SUBTASK, id);
+            if (subtask == null) {
+                return null;
+            }
+            int epicId = subtask.getEpicId();
+            int[] held = stripes.lock(epicId);
+            try {
+                Subtask stored = (Subtask) taskStorage.get(TaskType.SUBTASK, id);
+                if (stored == null) {
+                    return null;
+                }
+                if (stored.getEpicId() == epicId) {
+                    return super.deleteSubtask(id);
+                }
+            } finally {
+                stripes.unlock(held);
+            }
+        }
+    }
+
+    @Override
+    public List<Task> findTasks(TaskQuery query) {
+        return readTimeline(() -> super.findTasks(query));
+    }
+
+    @Override
+    public List<Task> search(String query, int limit) {
+        return readTimeline(() -> super.search(query, limit));
+    }
+
+    @Override
+    public List<Task> createTasks(List<? extends Task> tasks) {
+        return exclusively(() -> super.createTasks(tasks));
+    }
+
+    @Override
+    public List<Task> updateTasks(List<? extends Task> tasks) {
+        return exclusively(() -> super.updateTasks(tasks));
+    }
+
+    @Override
+    public List<Task> deleteIf(Predicate<Task> filter) {
+        return exclusively(() -> super.deleteIf(filter));
+    }
+
+    @Override
+    public List<Task> scheduleTasks(List<Integer> ids, LocalDateTime from, LocalDateTime to) {
+        return exclusively(() -> super.scheduleTasks(ids, from, to));
+    }
+
+    @Override
+    public void addDependency(int blockerId, int blockedId) {
+        exclusively(() -> super.addDependency(blockerId, blockedId));
+    }
+
+    @Override
+    public void removeDependency(int blockerId, int blockedId) {
+        exclusively(() -> super.removeDependency(blockerId, blockedId));
+    }
+
+    @Override
+    public List<Task> getBlockers(int id) {
+        return readTimeline(() -> super.getBlockers(id));
+    }
+
+    @Override
+    public List<Task> getBlocked(int id) {
+        return readTimeline(() -> super.getBlocked(id));
+    }
+
+    @Override
+    public CriticalPath getCriticalPath(int id) {
+        return readTimeline(() -> super.getCriticalPath(id));
+    }
+
+    private Subtask storedSubtask(int id) {
+        Subtask subtask = (Subtask) taskStorage.get(TaskType.SUBTASK, id);
+        if (subtask == null) {
+            throw new NotFoundException();
+        }
+        return subtask;
+    }
+
+    private <T> T readTimeline(Supplier<T> action) {
+        timelineLock.readLock().lock();
+        try {
+            return action.get();
+        } finally {
+            timelineLock.readLock().unlock();
+        }
+    }
+
+    private <T> T writeTimeline(Task task, Supplier<T> action) {
+        if (task.getStartTime() == null) {
+            return action.get();
+        }
+        timelineLock.writeLock().lock();
+        try {
+            return action.get();
+        } finally {
+            timelineLock.writeLock().unlock();
+        }
+    }
+
+    private void exclusively(Runnable action) {
+        exclusively(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    private <T> T exclusively(Supplier<T> action) {
+        int[] held = stripes.lockAll();
+        timelineLock.writeLock().lock();
+        try {
+            return action.get();
+        } finally {
+            timelineLock.writeLock().unlock();
+            stripes.unlock(held);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package ru.ikozlov.kanban.manager.concurrent;
+
+import ru.ikozlov.kanban.manager.TaskStorage;
+import ru.ikozlov.kanban.manager.TaskType;
+import ru.ikozlov.kanban.task.Task;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Consumer;
+
+/**
+ * Tasks in concurrent hash maps by type, with a sorted set of the ids next to each map. Listings and pages by id
+ * walk the set, which stays consistent while other threads insert and delete; ids whose task is already gone are
+ * skipped.
+ */
+public class ConcurrentTaskStorage implements TaskStorage {
+    private final Map<TaskType, ConcurrentHashMap<Integer, Task>> mapsByType = new EnumMap<>(TaskType.class);
+    private final Map<TaskType, ConcurrentSkipListSet<Integer>> idsByType = new EnumMap<>(TaskType.class);
+
+    public ConcurrentTaskStorage() {
+        for (TaskType type : TaskType.values()) {
+            mapsByType.put(type, new ConcurrentHashMap<>());
+            idsByType.put(type, new ConcurrentSkipListSet<>());
+        }
+    }
+
+    @Override
+    public Task get(TaskType type, int id) {
+        return mapsByType.get(type).get(id);
+    }
+
+    @Override
+    public Task put(TaskType type, Task task) {
+        Task previous = mapsByType.get(type).put(task.getId(), task);
+        idsByType.get(type).add(task.getId());
+        return previous;
+    }
+
+    @Override
+    public Task remove(TaskType type, int id) {
+        Task task = mapsByType.get(type).remove(id);
+        if (task != null) {
+            idsByType.get(type).remove(id);
+        }
+        return task;
+    }
+
+    @Override
+    public int size(TaskType type) {
+        return mapsByType.get(type).size();
+    }
+
+    @Override
+    public int[] getIds(TaskType type) {
+        return idsByType.get(type).stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    @Override
+    public List<Task> getAfter(TaskType type, int id, int limit) {
+        List<Task> tasks = new ArrayList<>();
+        Map<Integer, Task> map = mapsByType.get(type);
+        for (int next : idsByType.get(type).tailSet(id, false)) {
+            if (tasks.size() >= limit) {
+                break;
+            }
+            Task task = map.get(next);
+            if (task != null) {
+                tasks.add(task);
+            }
+        }
+        return tasks;
+    }
+
+    @Override
+    public void forEach(TaskType type, Consumer<Task> action) {
+        Map<Integer, Task> map = mapsByType.get(type);
+        for (int id : idsByType.get(type)) {
+            Task task = map.get(id);
+            if (task != null) {
+                action.accept(task);
+            }
+        }
+    }
+
+    @Override
+    public Spliterator<Task> spliterator(TaskType type) {
+        Map<Integer, Task> map = mapsByType.get(type);
+        return idsByType.get(type).stream().map(map::get).filter(Objects::nonNull).spliterator();
+    }
+
+    @Override
+    public void clear(TaskType type) {
+        mapsByType.get(type).clear();
+        idsByType.get(type).clear();
+    }
+}
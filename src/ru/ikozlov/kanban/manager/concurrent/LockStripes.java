@@ -0,0 +1,43 @@
+package ru.ikozlov.kanban.manager.concurrent;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class LockStripes {
+    private final ReentrantLock[] locks;
+
+    public LockStripes(int size) {
+        locks = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    public int[] lock(int... keys) {
+        int[] indexes = Arrays.stream(keys).map(this::indexOf).distinct().sorted().toArray();
+        for (int index : indexes) {
+            locks[index].lock();
+        }
+        return indexes;
+    }
+
+    public void unlock(int[] indexes) {
+        for (int i = indexes.length - 1; i >= 0; i--) {
+            locks[indexes[i]].unlock();
+        }
+    }
+
+    public int[] lockAll() {
+        int[] indexes = new int[locks.length];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i].lock();
+            indexes[i] = i;
+        }
+        return indexes;
+    }
+
+    private int indexOf(int key) {
+        int hash = key * 0x9E3779B9;
+        return Math.floorMod(hash ^ (hash >>> 16), locks.length);
+    }
+}
@@ -0,0 +1,35 @@
+package ru.ikozlov.kanban.manager.concurrent;
+
+import ru.ikozlov.kanban.manager.HistoryManager;
+import ru.ikozlov.kanban.manager.Page;
+import ru.ikozlov.kanban.task.Task;
+
+import java.util.List;
+
+public class SynchronizedHistoryManager implements HistoryManager {
+    private final HistoryManager delegate;
+
+    public SynchronizedHistoryManager(HistoryManager delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public synchronized void add(Task task) {
+        delegate.add(task);
+    }
+
+    @Override
+    public synchronized void remove(int id) {
+        delegate.remove(id);
+    }
+
+    @Override
+    public synchronized List<Task> getHistory() {
+        return delegate.getHistory();
+    }
+
+    @Override
+    public synchronized Page<Task> getHistory(String cursor, int limit) {
+        return delegate.getHistory(cursor, limit);
+    }
+}
@@ -0,0 +1,80 @@
+package ru.ikozlov.kanban.manager.concurrent;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock-free queue for many producers and one consumer. Every cell carries a sequence number telling whose
+ * turn it is: a producer claims the cell at the tail by a compare-and-set of the tail and publishes its element by
+ * advancing the cell's sequence, the consumer frees the cell by advancing it once more, by a whole lap.
+ */
+class ViewRing<E> {
+    private final Object[] elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private final int mask;
+    private volatile long head = 0;
+
+    ViewRing(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring capacity must be a power of two");
+        }
+        elements = new Object[capacity];
+        sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+        mask = capacity - 1;
+    }
+
+    /**
+     * False if the ring is full.
+     */
+    boolean offer(E element) {
+        while (true) {
+            long position = tail.get();
+            int cell = (int) position & mask;
+            long sequence = sequences.getAcquire(cell);
+            if (sequence == position) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements[cell] = element;
+                    sequences.set(cell, position + 1);
+                    return true;
+                }
+            } else if (sequence < position) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Hands the published elements over in order and returns their count. Stops at a cell that is claimed but not
+     * published yet. Only one thread at a time may drain.
+     */
+    @SuppressWarnings("unchecked")
+    int drain(Consumer<E> action) {
+        int count = 0;
+        while (true) {
+            int cell = (int) head & mask;
+            if (sequences.getAcquire(cell) != head + 1) {
+                return count;
+            }
+            E element = (E) elements[cell];
+            elements[cell] = null;
+            sequences.setRelease(cell, head + elements.length);
+            head++;
+            count++;
+            action.accept(element);
+        }
+    }
+
+    /**
+     * Whether no element is published at the head; a claimed but unpublished cell counts as empty. Publishing and
+     * this check are volatile accesses, so a consumer that flags itself idle before the check and a producer that
+     * reads the flag after publishing can't both miss each other.
+     */
+    boolean isEmpty() {
+        return sequences.get((int) head & mask) != head + 1;
+    }
+}
@@ -0,0 +1,88 @@
+package ru.ikozlov.kanban.manager.event;
+
+import ru.ikozlov.kanban.manager.TaskEvent;
+import ru.ikozlov.kanban.manager.TaskListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Delivers events to the wrapped listener on a thread of its own. Operations only enqueue their events; the thread
+ * takes everything queued so far and hands it over as one batch, so a listener that falls behind gets fewer, larger
+ * batches instead of slowing the task manager down. Failures of the listener go to the thread's uncaught exception
+ * handler and don't stop the delivery. Queueing and closing share a lock, so no events are queued after the close
+ * marker and every accepted batch is delivered.
+ */
+public class AsyncTaskListener implements TaskListener, AutoCloseable {
+    private static final List<TaskEvent> CLOSE = Collections.unmodifiableList(new ArrayList<>());
+    private final LinkedBlockingQueue<List<TaskEvent>> queue = new LinkedBlockingQueue<>();
+    private final TaskListener listener;
+    private final Thread thread;
+    private boolean closed = false;
+
+    public AsyncTaskListener(TaskListener listener) {
+        this.listener = listener;
+        thread = new Thread(this::run, "task-events");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public synchronized void onEvents(List<TaskEvent> events) {
+        if (closed) {
+            throw new IllegalStateException("Listener is closed");
+        }
+        queue.add(events);
+    }
+
+    /**
+     * Delivers the events queued so far and stops the thread. If the caller is interrupted while waiting, it stops
+     * waiting with its interrupt flag set and the thread finishes the delivery on its own.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            queue.add(CLOSE);
+        }
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        List<List<TaskEvent>> drained = new ArrayList<>();
+        while (true) {
+            try {
+                drained.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(drained);
+            List<TaskEvent> batch = new ArrayList<>();
+            boolean last = false;
+            for (List<TaskEvent> events : drained) {
+                last |= events == CLOSE;
+                batch.addAll(events);
+            }
+            drained.clear();
+            if (!batch.isEmpty()) {
+                try {
+                    listener.onEvents(batch);
+                } catch (RuntimeException e) {
+                    thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+                }
+            }
+            if (last) {
+                return;
+            }
+        }
+    }
+}
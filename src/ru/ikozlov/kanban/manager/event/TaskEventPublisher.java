@@ -0,0 +1,116 @@
+package ru.ikozlov.kanban.manager.event;
+
+import ru.ikozlov.kanban.manager.TaskEvent;
+import ru.ikozlov.kanban.manager.TaskListener;
+import ru.ikozlov.kanban.task.Task;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+/**
+ * Delivers task events to the registered listeners. Events emitted inside {@link #batch} are collected per thread and
+ * delivered together when the outermost batch ends; outside of one they are delivered at once. Nothing is copied or
+ * collected while there are no listeners. Every listener gets the events even if one before it fails; the first
+ * failure is thrown once all of them are done, with the others suppressed in it.
+ */
+public class TaskEventPublisher {
+    private final List<TaskListener> listeners = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<Batch> batches = ThreadLocal.withInitial(Batch::new);
+
+    public void addListener(TaskListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(TaskListener listener) {
+        listeners.remove(listener);
+    }
+
+    public boolean hasListeners() {
+        return !listeners.isEmpty();
+    }
+
+    /**
+     * Runs a change that may emit several events, so listeners get them at once. The events are delivered even if
+     * the change fails half way, since what it did so far stays applied; then the change's exception is thrown, with
+     * the failures of listeners suppressed in it.
+     */
+    public <T> T batch(Supplier<T> change) {
+        batches.get().depth++;
+        T result;
+        try {
+            result = change.get();
+        } catch (RuntimeException | Error e) {
+            end(e);
+            throw e;
+        }
+        end(null);
+        return result;
+    }
+
+    public void batch(Runnable change) {
+        batch(() -> {
+            change.run();
+            return null;
+        });
+    }
+
+    private void end(Throwable failure) {
+        Batch batch = batches.get();
+        if (--batch.depth > 0 || batch.events.isEmpty()) {
+            return;
+        }
+        List<TaskEvent> events = List.copyOf(batch.events);
+        batch.events.clear();
+        deliver(events, failure);
+    }
+
+    public void emit(TaskEvent.Kind kind, Task task) {
+        emit(kind, task, null);
+    }
+
+    /**
+     * The event gets a frozen version of the task, so later changes of the stored task don't leak into it.
+     */
+    public void emit(TaskEvent.Kind kind, Task task, Task.Status previousStatus) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        TaskEvent event = new TaskEvent(kind, task.version(), previousStatus);
+        Batch batch = batches.get();
+        if (batch.depth > 0) {
+            batch.events.add(event);
+        } else {
+            deliver(List.of(event), null);
+        }
+    }
+
+    /**
+     * Failures of listeners are added to the given failure of the change if there is one, and thrown otherwise.
+     */
+    private void deliver(List<TaskEvent> events, Throwable failure) {
+        RuntimeException first = null;
+        for (TaskListener listener : listeners) {
+            try {
+                listener.onEvents(events);
+            } catch (RuntimeException e) {
+                if (failure != null) {
+                    failure.addSuppressed(e);
+                } else if (first == null) {
+                    first = e;
+                } else {
+                    first.addSuppressed(e);
+                }
+            }
+        }
+        if (first != null) {
+            throw first;
+        }
+    }
+
+    private static class Batch {
+        private final List<TaskEvent> events = new ArrayList<>();
+        private int depth = 0;
+    }
+}
@@ -1,6 +1,6 @@
 package ru.ikozlov.kanban.manager.filebacked;
 
-import ru.ikozlov.kanban.manager.TaskManager;
+import ru.ikozlov.kanban.manager.Managers;
 import ru.ikozlov.kanban.manager.TaskType;
 import ru.ikozlov.kanban.manager.inmemory.InMemoryTaskManager;
 import ru.ikozlov.kanban.task.Epic;
@@ -9,15 +9,35 @@ import ru.ikozlov.kanban.task.Task;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Predicate;
 
-public class FileBackedTaskManager extends InMemoryTaskManager {
+/**
+ * Saves the tasks to a CSV file after every change. The view history goes to an append-only log next to it, see
+ * {@link LoggedHistoryManager}, which stays open until {@link #close}.
+ */
+public class FileBackedTaskManager extends InMemoryTaskManager implements AutoCloseable {
     public static final String HEADER = "id,type,name,status,description,epic,duration,startTime";
+    public static final String LAST_ID_PREFIX = "lastId,";
+    public static final String DEPENDENCY_PREFIX = "dependency,";
+    public static final String HISTORY_SUFFIX = ".history";
     private final File file;
+    private final LoggedHistoryManager history;
 
+    /**
+     * Starts with no tasks and an empty history log.
+     */
     public FileBackedTaskManager(File file) {
+        this(file, new LoggedHistoryManager(Managers.getDefaultHistory(), historyLog(file)));
+        history.compact();
+    }
+
+    private FileBackedTaskManager(File file, LoggedHistoryManager history) {
+        super(history);
         if (!file.exists()) {
             try {
                 file.createNewFile();
@@ -26,39 +46,45 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
             }
         }
         this.file = file;
+        this.history = history;
+    }
+
+    public static Path historyLog(File file) {
+        return Path.of(file.getPath() + HISTORY_SUFFIX);
     }
 
     public static void main(String[] args) {
         File file = new File("taskmanager.csv");
-        TaskManager manager = new FileBackedTaskManager(file);
-        manager.createTask(new Task("Task1", "Task1", Task.Status.NEW, Duration.ofHours(1),
-                LocalDateTime.now()));
-        manager.createTask(new Task("Task2", "Task2", Task.Status.IN_PROGRESS, Duration.ofHours(2),
-                LocalDateTime.now().minusHours(2)));
-        Epic epic1 = manager.createEpic(new Epic("Epic1", "Epic1"));
-        manager.createSubtask(new Subtask("Subtask1", "Subtask1", Task.Status.NEW, epic1.getId(),
-                Duration.ofMinutes(30), LocalDateTime.now().plusHours(1)));
-        manager.createSubtask(new Subtask("Subtask2", "Subtask2", Task.Status.IN_PROGRESS, epic1.getId(),
-                Duration.ofMinutes(90), LocalDateTime.now().plusHours(2)));
-        manager.createSubtask(new Subtask("Subtask3", "Subtask3", Task.Status.DONE, epic1.getId(),
-                Duration.ofMinutes(121), LocalDateTime.now().plusHours(5)));
-        manager.createEpic(new Epic("Epic2", "Epic2"));
-
-        TaskManager managerLoaded = FileBackedTaskManager.loadFromFile(file);
-
-        for (Task task : manager.getAllTasks()) {
-            System.out.println(task);
-            System.out.println(managerLoaded.getTask(task.getId()));
-        }
+        try (FileBackedTaskManager manager = new FileBackedTaskManager(file)) {
+            manager.createTask(new Task("Task1", "Task1", Task.Status.NEW, Duration.ofHours(1),
+                    LocalDateTime.now()));
+            manager.createTask(new Task("Task2", "Task2", Task.Status.IN_PROGRESS, Duration.ofHours(2),
+                    LocalDateTime.now().minusHours(2)));
+            Epic epic1 = manager.createEpic(new Epic("Epic1", "Epic1"));
+            manager.createSubtask(new Subtask("Subtask1", "Subtask1", Task.Status.NEW, epic1.getId(),
+                    Duration.ofMinutes(30), LocalDateTime.now().plusHours(1)));
+            manager.createSubtask(new Subtask("Subtask2", "Subtask2", Task.Status.IN_PROGRESS, epic1.getId(),
+                    Duration.ofMinutes(90), LocalDateTime.now().plusHours(2)));
+            manager.createSubtask(new Subtask("Subtask3", "Subtask3", Task.Status.DONE, epic1.getId(),
+                    Duration.ofMinutes(121), LocalDateTime.now().plusHours(5)));
+            manager.createEpic(new Epic("Epic2", "Epic2"));
 
-        for (Epic epic : manager.getAllEpics()) {
-            System.out.println(epic);
-            System.out.println(managerLoaded.getEpic(epic.getId()));
-        }
+            try (FileBackedTaskManager managerLoaded = FileBackedTaskManager.loadFromFile(file)) {
+                for (Task task : manager.getAllTasks()) {
+                    System.out.println(task);
+                    System.out.println(managerLoaded.getTask(task.getId()));
+                }
+
+                for (Epic epic : manager.getAllEpics()) {
+                    System.out.println(epic);
+                    System.out.println(managerLoaded.getEpic(epic.getId()));
+                }
 
-        for (Subtask subtask : manager.getAllSubtasks()) {
-            System.out.println(subtask);
-            System.out.println(managerLoaded.getSubtask(subtask.getId()));
+                for (Subtask subtask : manager.getAllSubtasks()) {
+                    System.out.println(subtask);
+                    System.out.println(managerLoaded.getSubtask(subtask.getId()));
+                }
+            }
         }
     }
 
@@ -66,6 +92,8 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
         try (BufferedWriter writer = new BufferedWriter(new FileWriter(file, StandardCharsets.UTF_8))) {
             writer.write(HEADER);
             writer.newLine();
+            writer.write(LAST_ID_PREFIX + idAllocator.getLastId());
+            writer.newLine();
             for (Task task : getAllTasks()) {
                 writer.write(task.toString());
                 writer.newLine();
@@ -78,47 +106,97 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
                 writer.write(subtask.toString());
                 writer.newLine();
             }
+            for (int[] edge : getDependencies()) {
+                writer.write(DEPENDENCY_PREFIX + edge[0] + "," + edge[1]);
+                writer.newLine();
+            }
         } catch (IOException e) {
             throw new ManagerSaveException(e.getMessage());
         }
     }
 
     public static FileBackedTaskManager loadFromFile(File file) {
-        FileBackedTaskManager taskManager = new FileBackedTaskManager(file);
+        FileBackedTaskManager taskManager = new FileBackedTaskManager(file,
+                new LoggedHistoryManager(Managers.getDefaultHistory(), historyLog(file)));
 
         try (BufferedReader reader = new BufferedReader(new FileReader(file, StandardCharsets.UTF_8))) {
             reader.readLine();
             while (reader.ready()) {
-                CSVTaskData data = new CSVTaskData(reader.readLine());
+                String line = reader.readLine();
+                if (line.startsWith(LAST_ID_PREFIX)) {
+                    taskManager.idAllocator.advanceTo(Integer.parseInt(line.substring(LAST_ID_PREFIX.length())));
+                    continue;
+                }
+                if (line.startsWith(DEPENDENCY_PREFIX)) {
+                    String[] ids = line.substring(DEPENDENCY_PREFIX.length()).split(",");
+                    taskManager.dependencyGraph.addEdge(taskManager.getStored(Integer.parseInt(ids[0])),
+                            taskManager.getStored(Integer.parseInt(ids[1])));
+                    continue;
+                }
+                CSVTaskData data = new CSVTaskData(line);
+                taskManager.idAllocator.advanceTo(data.id);
                 switch (data.type) {
                     case TASK -> {
                         Task task = new Task(data.title, data.description, data.status, data.duration, data.startTime);
                         task.setId(data.id);
-                        taskManager.taskStorageByType.get(TaskType.TASK).put(data.id, task);
+                        task.freeze();
+                        taskManager.taskStorage.put(TaskType.TASK, task);
+                        taskManager.updateIndexes(task);
                     }
                     case EPIC -> {
                         Epic epic = new Epic(data.title, data.description);
                         epic.setId(data.id);
-                        taskManager.taskStorageByType.get(TaskType.EPIC).put(data.id, epic);
+                        epic.freeze();
+                        taskManager.taskStorage.put(TaskType.EPIC, epic);
+                        taskManager.updateIndexes(epic);
                     }
                     case SUBTASK -> {
-                        Epic epic = (Epic) taskManager.taskStorageByType.get(TaskType.EPIC).get(data.epicId);
+                        Epic epic = (Epic) taskManager.taskStorage.get(TaskType.EPIC, data.epicId);
                         Subtask subtask = new Subtask(data.title, data.description, data.status, epic.getId(),
                                 data.duration, data.startTime);
                         subtask.setId(data.id);
-                        List<Subtask> subtasks = epic.getSubtasks();
-                        subtasks.add(subtask);
-                        epic.setSubtasks(subtasks);
-                        taskManager.taskStorageByType.get(TaskType.SUBTASK).put(data.id, subtask);
+                        subtask.freeze();
+                        Epic newEpic = taskManager.changeEpic(epic, x -> x.addSubtask(subtask));
+                        taskManager.taskStorage.put(TaskType.SUBTASK, subtask);
+                        taskManager.updateIndexes(subtask);
+                        taskManager.updateIndexes(newEpic);
                     }
                 }
             }
         } catch (IOException e) {
             throw new ManagerSaveException(e.getMessage());
         }
+        taskManager.history.restore(id -> {
+            Task task = taskManager.getStored(id);
+            return task != null ? task : taskManager.taskStorage.get(TaskType.EPIC, id);
+        });
+        taskManager.history.compact();
         return taskManager;
     }
 
+    /**
+     * Edges as (blocker, blocked) pairs; they are written after all tasks, so loading finds both ends.
+     */
+    private List<int[]> getDependencies() {
+        List<int[]> edges = new ArrayList<>();
+        dependencyGraph.forEachEdge((blockerId, blockedId) -> edges.add(new int[]{blockerId, blockedId}));
+        return edges;
+    }
+
+    /**
+     * Closes the history log. The tasks file is written whole on every change, so it needs no closing; reading a task
+     * after this fails, since the view can no longer be logged.
+     */
+    @Override
+    public void close() {
+        history.close();
+    }
+
+    private Task getStored(int id) {
+        Task task = taskStorage.get(TaskType.TASK, id);
+        return task != null ? task : taskStorage.get(TaskType.SUBTASK, id);
+    }
+
 
     @Override
     public void clearTasks() {
@@ -216,4 +294,39 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
         return subtask;
     }
 
+    @Override
+    public List<Task> createTasks(List<? extends Task> tasks) {
+        List<Task> created = super.createTasks(tasks);
+        save();
+        return created;
+    }
+
+    @Override
+    public List<Task> updateTasks(List<? extends Task> tasks) {
+        List<Task> updated = super.updateTasks(tasks);
+        save();
+        return updated;
+    }
+
+    @Override
+    public void addDependency(int blockerId, int blockedId) {
+        super.addDependency(blockerId, blockedId);
+        save();
+    }
+
+    @Override
+    public void removeDependency(int blockerId, int blockedId) {
+        super.removeDependency(blockerId, blockedId);
+        save();
+    }
+
+    @Override
+    public List<Task> deleteIf(Predicate<Task> filter) {
+        List<Task> deleted = super.deleteIf(filter);
+        if (!deleted.isEmpty()) {
+            save();
+        }
+        return deleted;
+    }
+
 }
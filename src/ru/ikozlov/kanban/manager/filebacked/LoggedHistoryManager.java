@@ -0,0 +1,179 @@
+package ru.ikozlov.kanban.manager.filebacked;
+
+import ru.ikozlov.kanban.manager.HistoryManager;
+import ru.ikozlov.kanban.manager.Page;
+import ru.ikozlov.kanban.task.Task;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Appends every history change to a log of fixed-size records, so the history can be rebuilt after a restart by
+ * replaying it. A record is handed to the operating system right away but not forced to disk. Once the log holds
+ * twice as many records as it was last compacted to, it is replaced by one view record per entry of the current
+ * history, so its length, and the time to replay it, stays proportional to the history size. The log stays open for
+ * appending until {@link #close}. Not thread-safe.
+ */
+class LoggedHistoryManager implements HistoryManager, AutoCloseable {
+    private static final byte VIEW = 'V';
+    private static final byte REMOVAL = 'R';
+    private static final int RECORD_SIZE = Byte.BYTES + Integer.BYTES;
+    private static final int MIN_COMPACTION_RECORDS = 1024;
+    private final HistoryManager delegate;
+    private final Path log;
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+    private FileChannel channel = null;
+    private long records = 0;
+    private long compactedRecords = 0;
+
+    LoggedHistoryManager(HistoryManager delegate, Path log) {
+        this.delegate = delegate;
+        this.log = log;
+    }
+
+    @Override
+    public void add(Task task) {
+        delegate.add(task);
+        append(VIEW, task.getId());
+    }
+
+    @Override
+    public void remove(int id) {
+        delegate.remove(id);
+        append(REMOVAL, id);
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return delegate.getHistory();
+    }
+
+    @Override
+    public Page<Task> getHistory(String cursor, int limit) {
+        return delegate.getHistory(cursor, limit);
+    }
+
+    /**
+     * Replays the log into the wrapped history, oldest change first. Tasks the lookup no longer finds are skipped,
+     * and so is a record a crash cut short.
+     */
+    void restore(IntFunction<Task> lookup) {
+        if (!Files.exists(log)) {
+            return;
+        }
+        LinkedHashSet<Integer> ids = new LinkedHashSet<>();
+        try (DataInputStream reader = new DataInputStream(new BufferedInputStream(Files.newInputStream(log)))) {
+            while (true) {
+                byte kind = reader.readByte();
+                int id = reader.readInt();
+                if (kind != VIEW && kind != REMOVAL) {
+                    throw new ManagerSaveException("Unknown history record " + kind);
+                }
+                ids.remove(id);
+                if (kind == VIEW) {
+                    ids.add(id);
+                }
+            }
+        } catch (EOFException e) {
+            // end of the log, possibly inside a record that was never finished
+        } catch (IOException e) {
+            throw new ManagerSaveException(e.getMessage());
+        }
+        for (int id : ids) {
+            Task task = lookup.apply(id);
+            if (task != null) {
+                delegate.add(task);
+            }
+        }
+    }
+
+    /**
+     * Replaces the log with the current history and appends to the new one from then on. The new log is forced to
+     * disk before it takes the old one's place, so a crash leaves one of them whole. The new log is written through
+     * the channel that then appends to it, and the old channel is only closed once the new log is in place, so a
+     * failed compaction leaves the old log open and in use.
+     */
+    void compact() {
+        List<Task> history = delegate.getHistory();
+        Path temp = log.resolveSibling(log.getFileName() + ".tmp");
+        FileChannel next = null;
+        try {
+            next = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            DataOutputStream writer = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(next)));
+            for (Task task : history.reversed()) {
+                writer.writeByte(VIEW);
+                writer.writeInt(task.getId());
+            }
+            writer.flush();
+            next.force(false);
+            Files.move(temp, log, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            if (next != null) {
+                try {
+                    next.close();
+                } catch (IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+            }
+            throw new ManagerSaveException(e.getMessage());
+        }
+        FileChannel previous = channel;
+        channel = next;
+        records = history.size();
+        compactedRecords = records;
+        if (previous != null) {
+            try {
+                previous.close();
+            } catch (IOException e) {
+                throw new ManagerSaveException(e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Closes the log; changes after that fail. Closing again does nothing.
+     */
+    @Override
+    public void close() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new ManagerSaveException(e.getMessage());
+        } finally {
+            channel = null;
+        }
+    }
+
+    private void append(byte kind, int id) {
+        if (channel == null) {
+            throw new ManagerSaveException("History log " + log + " is closed");
+        }
+        record.clear();
+        record.put(kind).putInt(id).flip();
+        try {
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException(e.getMessage());
+        }
+        if (++records > 2 * Math.max(compactedRecords, MIN_COMPACTION_RECORDS)) {
+            // if compaction fails, the next attempt waits until the log doubles again
+            compactedRecords = records;
+            compact();
+        }
+    }
+}
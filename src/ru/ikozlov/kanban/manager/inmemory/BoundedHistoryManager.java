@@ -0,0 +1,220 @@
+package ru.ikozlov.kanban.manager.inmemory;
+
+import ru.ikozlov.kanban.manager.HistoryManager;
+import ru.ikozlov.kanban.manager.Page;
+import ru.ikozlov.kanban.manager.TaskType;
+import ru.ikozlov.kanban.util.IntIntMap;
+import ru.ikozlov.kanban.task.Epic;
+import ru.ikozlov.kanban.task.Subtask;
+import ru.ikozlov.kanban.task.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * History of at most capacity views; a new view over capacity evicts the oldest one. Views live in preallocated
+ * slots linked oldest first, and an id to slot map finds the view of a task. A slot keeps the task's fields rather
+ * than a copy of the task, so adding a view allocates nothing, and the tasks are built when a page is read. An epic
+ * slot keeps the epic's subtasks in an array that is reused while it is large enough.
+ */
+public class BoundedHistoryManager implements HistoryManager {
+    private static final int NIL = -1;
+    private static final Subtask[] NO_SUBTASKS = new Subtask[0];
+    private final IntIntMap slotsById;
+    private final int[] ids;
+    private final long[] sequences;
+    private final int[] prev;
+    private final int[] next;
+    private final TaskType[] types;
+    private final String[] titles;
+    private final String[] descriptions;
+    private final Task.Status[] statuses;
+    private final Duration[] durations;
+    private final LocalDateTime[] startTimes;
+    private final int[] epicIds;
+    private final Subtask[][] subtasks;
+    private final int[] subtasksCounts;
+    private int head = NIL;
+    private int tail = NIL;
+    private int firstFree = 0;
+    private int size = 0;
+    private long nextSequence = 0;
+
+    public BoundedHistoryManager(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("History capacity must be positive");
+        }
+        slotsById = new IntIntMap(capacity);
+        ids = new int[capacity];
+        sequences = new long[capacity];
+        prev = new int[capacity];
+        next = new int[capacity];
+        types = new TaskType[capacity];
+        titles = new String[capacity];
+        descriptions = new String[capacity];
+        statuses = new Task.Status[capacity];
+        durations = new Duration[capacity];
+        startTimes = new LocalDateTime[capacity];
+        epicIds = new int[capacity];
+        subtasks = new Subtask[capacity][];
+        Arrays.fill(subtasks, NO_SUBTASKS);
+        subtasksCounts = new int[capacity];
+        for (int slot = 0; slot < capacity; slot++) {
+            next[slot] = slot + 1 < capacity ? slot + 1 : NIL;
+        }
+    }
+
+    public int getCapacity() {
+        return ids.length;
+    }
+
+    @Override
+    public void add(Task task) {
+        int id = task.getId();
+        int slot = slotsById.get(id, NIL);
+        if (slot != NIL) {
+            unlink(slot);
+        } else {
+            if (size == ids.length) {
+                slotsById.remove(ids[head]);
+                slot = head;
+                unlink(slot);
+            } else {
+                slot = firstFree;
+                firstFree = next[slot];
+                size++;
+            }
+            slotsById.put(id, slot);
+        }
+        record(slot, task);
+        sequences[slot] = nextSequence++;
+        linkLast(slot);
+    }
+
+    @Override
+    public void remove(int id) {
+        int slot = slotsById.get(id, NIL);
+        if (slot == NIL) {
+            return;
+        }
+        slotsById.remove(id);
+        unlink(slot);
+        release(slot);
+        next[slot] = firstFree;
+        firstFree = slot;
+        size--;
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        List<Task> records = new ArrayList<>(size);
+        for (int slot = tail; slot != NIL; slot = prev[slot]) {
+            records.add(materialize(slot));
+        }
+        return records;
+    }
+
+    @Override
+    public Page<Task> getHistory(String cursor, int limit) {
+        int slot = cursor != null ? slotBefore(cursor) : tail;
+        int last = NIL;
+        List<Task> records = new ArrayList<>(Math.min(limit, size));
+        while (slot != NIL && records.size() < limit) {
+            records.add(materialize(slot));
+            last = slot;
+            slot = prev[slot];
+        }
+        return new Page<>(records, slot != NIL && last != NIL
+                ? HistoryCursor.format(sequences[last], ids[last]) : null);
+    }
+
+    /**
+     * The slot viewed right before the one the cursor was made from. If that view moved, was removed or evicted, the
+     * newest slot viewed before it.
+     */
+    private int slotBefore(String cursor) {
+        HistoryCursor position = HistoryCursor.parse(cursor);
+        int slot = slotsById.get(position.id(), NIL);
+        if (slot != NIL && sequences[slot] == position.sequence()) {
+            return prev[slot];
+        }
+        slot = tail;
+        while (slot != NIL && sequences[slot] >= position.sequence()) {
+            slot = prev[slot];
+        }
+        return slot;
+    }
+
+    private void record(int slot, Task task) {
+        ids[slot] = task.getId();
+        types[slot] = TaskType.of(task);
+        titles[slot] = task.getTitle();
+        descriptions[slot] = task.getDescription();
+        statuses[slot] = task.getStatus();
+        durations[slot] = task.getDuration();
+        startTimes[slot] = task.getStartTime();
+        epicIds[slot] = task instanceof Subtask subtask ? subtask.getEpicId() : 0;
+        Arrays.fill(subtasks[slot], 0, subtasksCounts[slot], null);
+        subtasksCounts[slot] = 0;
+        if (task instanceof Epic epic) {
+            int count = epic.getSubtasksCount();
+            if (subtasks[slot].length < count) {
+                subtasks[slot] = new Subtask[Math.max(count, subtasks[slot].length * 2)];
+            }
+            int i = 0;
+            for (Subtask subtask : epic.getSubtasks()) {
+                subtasks[slot][i++] = subtask;
+            }
+            subtasksCounts[slot] = count;
+        }
+    }
+
+    private Task materialize(int slot) {
+        Task task = switch (types[slot]) {
+            case TASK -> new Task(titles[slot], descriptions[slot], statuses[slot], durations[slot], startTimes[slot]);
+            case SUBTASK -> new Subtask(titles[slot], descriptions[slot], statuses[slot], epicIds[slot],
+                    durations[slot], startTimes[slot]);
+            case EPIC -> new Epic(titles[slot], descriptions[slot],
+                    Arrays.asList(subtasks[slot]).subList(0, subtasksCounts[slot]));
+        };
+        task.setId(ids[slot]);
+        return task;
+    }
+
+    private void release(int slot) {
+        titles[slot] = null;
+        descriptions[slot] = null;
+        statuses[slot] = null;
+        durations[slot] = null;
+        startTimes[slot] = null;
+        Arrays.fill(subtasks[slot], 0, subtasksCounts[slot], null);
+        subtasksCounts[slot] = 0;
+    }
+
+    private void linkLast(int slot) {
+        prev[slot] = tail;
+        next[slot] = NIL;
+        if (tail == NIL) {
+            head = slot;
+        } else {
+            next[tail] = slot;
+        }
+        tail = slot;
+    }
+
+    private void unlink(int slot) {
+        if (prev[slot] == NIL) {
+            head = next[slot];
+        } else {
+            next[prev[slot]] = next[slot];
+        }
+        if (next[slot] == NIL) {
+            tail = prev[slot];
+        } else {
+            prev[next[slot]] = prev[slot];
+        }
+    }
+}
@@ -0,0 +1,330 @@
+package ru.ikozlov.kanban.manager.inmemory;
+
+import ru.ikozlov.kanban.manager.CriticalPath;
+import ru.ikozlov.kanban.task.Task;
+
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * "Blocks" relation between tasks kept acyclic. Only tasks with at least one edge are nodes. Every node has a
+ * position in a topological order that an inserted edge repairs locally (Pearce-Kelly): only the nodes between the
+ * two ends of the edge are searched and renumbered, and reaching the blocker from the blocked task means a cycle.
+ * Each node caches the length of the longest blocking chain ending at it and its earliest finish. A change of a
+ * duration, a start time or an edge recomputes the changed node and walks its dependents in topological order,
+ * stopping wherever the cached values stay the same. A task without a duration counts as zero length, and lengths
+ * and finishes too large to represent stop at the largest one, so no task the managers accept makes the graph fail.
+ */
+public class DependencyGraph {
+    private final Map<Integer, Node> nodes = new HashMap<>();
+    private int firstOrder = 0;
+    private int nextOrder = 0;
+    private int searchMark = 0;
+
+    public int size() {
+        return nodes.size();
+    }
+
+    public boolean contains(int id) {
+        return nodes.containsKey(id);
+    }
+
+    /**
+     * Adds the edge unless it is there already. Fails if the edge would close a cycle.
+     */
+    public boolean addEdge(Task blocker, Task blocked) {
+        if (blocker.getId().equals(blocked.getId())) {
+            throw new IllegalArgumentException("Task can't block itself");
+        }
+        Node from = nodes.get(blocker.getId());
+        Node to = nodes.get(blocked.getId());
+        if (from != null && to != null && from.blocked.contains(to)) {
+            return false;
+        }
+        if (from != null && to != null) {
+            reorder(from, to);
+        }
+        from = from != null ? from : addNode(blocker, --firstOrder);
+        to = to != null ? to : addNode(blocked, nextOrder++);
+        from.blocked.add(to);
+        to.blockers.add(from);
+        propagate(List.of(to));
+        return true;
+    }
+
+    public boolean removeEdge(int blockerId, int blockedId) {
+        Node from = nodes.get(blockerId);
+        Node to = nodes.get(blockedId);
+        if (from == null || to == null || !from.blocked.remove(to)) {
+            return false;
+        }
+        to.blockers.remove(from);
+        removeIfIsolated(from);
+        if (!removeIfIsolated(to)) {
+            propagate(List.of(to));
+        }
+        return true;
+    }
+
+    public int[] getBlockers(int id) {
+        Node node = nodes.get(id);
+        return node != null ? sortedIds(node.blockers) : new int[0];
+    }
+
+    public int[] getBlocked(int id) {
+        Node node = nodes.get(id);
+        return node != null ? sortedIds(node.blocked) : new int[0];
+    }
+
+    /**
+     * Takes the new duration and start time of a task that may be a node.
+     */
+    public void update(Task task) {
+        Node node = nodes.get(task.getId());
+        if (node == null) {
+            return;
+        }
+        long duration = nanos(task.getDuration());
+        if (node.duration == duration && Objects.equals(node.start, task.getStartTime())) {
+            return;
+        }
+        node.duration = duration;
+        node.start = task.getStartTime();
+        propagate(List.of(node));
+    }
+
+    public void remove(int id) {
+        Node node = nodes.remove(id);
+        if (node == null) {
+            return;
+        }
+        for (Node blocker : node.blockers) {
+            blocker.blocked.remove(node);
+            removeIfIsolated(blocker);
+        }
+        List<Node> affected = new ArrayList<>();
+        for (Node blocked : node.blocked) {
+            blocked.blockers.remove(node);
+            if (!removeIfIsolated(blocked)) {
+                affected.add(blocked);
+            }
+        }
+        propagate(affected);
+    }
+
+    public void clear() {
+        nodes.clear();
+    }
+
+    /**
+     * Critical path ending at the task. Among equally long blocking chains the one through the smallest id wins.
+     */
+    public CriticalPath getCriticalPath(Task task) {
+        Node node = nodes.get(task.getId());
+        if (node == null) {
+            Duration duration = task.getDuration() != null ? task.getDuration() : Duration.ZERO;
+            return new CriticalPath(List.of(task.getId()), duration, finish(task.getStartTime(), nanos(duration)));
+        }
+        List<Integer> ids = new ArrayList<>();
+        for (Node current = node; current != null; current = current.criticalBlocker()) {
+            ids.add(current.id);
+        }
+        Collections.reverse(ids);
+        return new CriticalPath(ids, Duration.ofNanos(node.length), node.finish);
+    }
+
+    public void forEachEdge(EdgeConsumer action) {
+        for (Node node : nodes.values()) {
+            for (Node blocked : node.blocked) {
+                action.accept(node.id, blocked.id);
+            }
+        }
+    }
+
+    /**
+     * A new blocker goes before and a new blocked task after every node, which keeps the order valid.
+     */
+    private Node addNode(Task task, int order) {
+        Node node = new Node(task.getId(), order, nanos(task.getDuration()), task.getStartTime());
+        node.recompute();
+        nodes.put(node.id, node);
+        return node;
+    }
+
+    private boolean removeIfIsolated(Node node) {
+        if (!node.blockers.isEmpty() || !node.blocked.isEmpty()) {
+            return false;
+        }
+        nodes.remove(node.id);
+        return true;
+    }
+
+    /**
+     * Moves the nodes between the ends of a new edge so that the blocker comes first. Nodes reachable from the
+     * blocked one and ordered before the blocker, and nodes reaching the blocker and ordered after the blocked one,
+     * swap their positions among themselves; the rest of the order is untouched.
+     */
+    private void reorder(Node blocker, Node blocked) {
+        if (blocker.order < blocked.order) {
+            return;
+        }
+        List<Node> forward = search(blocked, blocker.order, true);
+        if (forward.contains(blocker)) {
+            throw new IllegalArgumentException("Dependency would create a cycle");
+        }
+        List<Node> backward = search(blocker, blocked.order, false);
+        Comparator<Node> byOrder = Comparator.comparingInt(x -> x.order);
+        forward.sort(byOrder);
+        backward.sort(byOrder);
+        int[] orders = new int[forward.size() + backward.size()];
+        int i = 0;
+        for (Node node : backward) {
+            orders[i++] = node.order;
+        }
+        for (Node node : forward) {
+            orders[i++] = node.order;
+        }
+        Arrays.sort(orders);
+        i = 0;
+        for (Node node : backward) {
+            node.order = orders[i++];
+        }
+        for (Node node : forward) {
+            node.order = orders[i++];
+        }
+    }
+
+    /**
+     * Nodes reachable from the start through edges in one direction without leaving the (bound, start] or
+     * [start, bound) range of the order.
+     */
+    private List<Node> search(Node start, int bound, boolean forward) {
+        int mark = ++searchMark;
+        List<Node> found = new ArrayList<>();
+        ArrayDeque<Node> stack = new ArrayDeque<>();
+        start.mark = mark;
+        stack.push(start);
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            found.add(node);
+            for (Node next : forward ? node.blocked : node.blockers) {
+                boolean inRange = forward ? next.order <= bound : next.order >= bound;
+                if (next.mark != mark && inRange) {
+                    next.mark = mark;
+                    stack.push(next);
+                }
+            }
+        }
+        return found;
+    }
+
+    private void propagate(List<Node> changed) {
+        PriorityQueue<Node> queue = new PriorityQueue<>(Comparator.comparingInt(x -> x.order));
+        for (Node node : changed) {
+            node.queued = true;
+            queue.add(node);
+        }
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            node.queued = false;
+            if (!node.recompute()) {
+                continue;
+            }
+            for (Node next : node.blocked) {
+                if (!next.queued) {
+                    next.queued = true;
+                    queue.add(next);
+                }
+            }
+        }
+    }
+
+    private static long nanos(Duration duration) {
+        if (duration == null) {
+            return 0;
+        }
+        try {
+            return duration.toNanos();
+        } catch (ArithmeticException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private static LocalDateTime finish(LocalDateTime start, long duration) {
+        if (start == null) {
+            return null;
+        }
+        try {
+            return start.plusNanos(duration);
+        } catch (DateTimeException e) {
+            return LocalDateTime.MAX;
+        }
+    }
+
+    private static int[] sortedIds(Collection<Node> nodes) {
+        int[] ids = new int[nodes.size()];
+        int i = 0;
+        for (Node node : nodes) {
+            ids[i++] = node.id;
+        }
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    public interface EdgeConsumer {
+        void accept(int blockerId, int blockedId);
+    }
+
+    private static class Node {
+        private final int id;
+        private final Set<Node> blockers = new LinkedHashSet<>();
+        private final Set<Node> blocked = new LinkedHashSet<>();
+        private int order;
+        private long duration;
+        private LocalDateTime start;
+        private long length;
+        private LocalDateTime finish;
+        private int mark;
+        private boolean queued;
+
+        Node(int id, int order, long duration, LocalDateTime start) {
+            this.id = id;
+            this.order = order;
+            this.duration = duration;
+            this.start = start;
+        }
+
+        /**
+         * Returns whether the cached length or earliest finish changed.
+         */
+        boolean recompute() {
+            long longest = 0;
+            LocalDateTime earliestStart = start;
+            for (Node blocker : blockers) {
+                longest = Math.max(longest, blocker.length);
+                if (blocker.finish != null && (earliestStart == null || blocker.finish.isAfter(earliestStart))) {
+                    earliestStart = blocker.finish;
+                }
+            }
+            long newLength = longest > Long.MAX_VALUE - duration ? Long.MAX_VALUE : longest + duration;
+            LocalDateTime newFinish = finish(earliestStart, duration);
+            boolean changed = newLength != length || !Objects.equals(newFinish, finish);
+            length = newLength;
+            finish = newFinish;
+            return changed;
+        }
+
+        Node criticalBlocker() {
+            Node critical = null;
+            for (Node blocker : blockers) {
+                if (critical == null || blocker.length > critical.length
+                        || blocker.length == critical.length && blocker.id < critical.id) {
+                    critical = blocker;
+                }
+            }
+            return critical;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package ru.ikozlov.kanban.manager.inmemory;
+
+import ru.ikozlov.kanban.task.Task;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Places tasks one by one into the earliest free slot of a horizon they fit into. A free slot starts where a task
+ * can be created, so a placed task starts right at it. A task without a duration has no length to place and is
+ * left as it is.
+ */
+public class FirstFitPlanner {
+    private final IntervalIndex plan = new IntervalIndex();
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+
+    /**
+     * The busy tasks must include every scheduled task occupying some instant of [from, to].
+     */
+    public FirstFitPlanner(List<Task> busy, LocalDateTime from, LocalDateTime to) {
+        this.from = from;
+        this.to = to;
+        for (Task task : busy) {
+            plan.put(task);
+        }
+    }
+
+    /**
+     * Returns a copy of the task with the start time it got, or null if it has no duration or fits nowhere in the
+     * horizon.
+     */
+    public Task place(Task task) {
+        if (task.getDuration() == null) {
+            return null;
+        }
+        LocalDateTime start = plan.findFreeSlot(from, task.getDuration()).getStart();
+        if (start.plus(task.getDuration()).isAfter(to)) {
+            return null;
+        }
+        Task copy = task.copy();
+        copy.setStartTime(start);
+        plan.put(copy);
+        return copy;
+    }
+}
@@ -0,0 +1,21 @@
+package ru.ikozlov.kanban.manager.inmemory;
+
+/**
+ * Page cursor of a history: the sequence number of the last view on the page and the id of the viewed task.
+ */
+record HistoryCursor(long sequence, int id) {
+
+    static HistoryCursor parse(String cursor) {
+        try {
+            int separator = cursor.indexOf('-');
+            return new HistoryCursor(Long.parseLong(cursor.substring(0, separator)),
+                    Integer.parseInt(cursor.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    static String format(long sequence, int id) {
+        return sequence + "-" + id;
+    }
+}
@@ -0,0 +1,25 @@
+package ru.ikozlov.kanban.manager.inmemory;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lock-free id sequence. The high-water mark is the last id handed out; ids are never reused, even after deletion.
+ */
+public class IdAllocator {
+    private final AtomicInteger lastId = new AtomicInteger();
+
+    public int next() {
+        return lastId.incrementAndGet();
+    }
+
+    public int getLastId() {
+        return lastId.get();
+    }
+
+    /**
+     * Makes sure the next id is greater than the given one, e.g. for records restored from a file.
+     */
+    public void advanceTo(int id) {
+        lastId.accumulateAndGet(id, Math::max);
+    }
+}
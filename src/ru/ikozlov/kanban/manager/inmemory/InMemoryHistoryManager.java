@@ -1,6 +1,7 @@
 package ru.ikozlov.kanban.manager.inmemory;
 
 import ru.ikozlov.kanban.manager.HistoryManager;
+import ru.ikozlov.kanban.manager.Page;
 import ru.ikozlov.kanban.task.Task;
 
 import java.util.ArrayList;
@@ -8,17 +9,23 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * Views in a linked list, oldest first. Every view gets the next sequence number, so a page cursor made of the
+ * number and the task id still finds its place after the task is viewed again or removed.
+ */
 public class InMemoryHistoryManager implements HistoryManager {
     private final Map<Integer, Node<Task>> idToNodeMap = new HashMap<>();
     private Node<Task> head = null;
     private Node<Task> tail = null;
     private int size = 0;
+    private long nextSequence = 0;
 
     @Override
     public void add(Task task) {
         int taskId = task.getId();
         remove(taskId);
-        Node<Task> node = new Node<>(task.copy());
+        Node<Task> node = new Node<>(task.version());
+        node.sequence = nextSequence++;
         if (size == 0) {
             head = tail = node;
         } else {
@@ -62,8 +69,40 @@ public class InMemoryHistoryManager implements HistoryManager {
         return records;
     }
 
+    @Override
+    public Page<Task> getHistory(String cursor, int limit) {
+        Node<Task> current = cursor != null ? nodeBefore(cursor) : tail;
+        Node<Task> last = null;
+        List<Task> records = new ArrayList<>();
+        while (current != null && records.size() < limit) {
+            records.add(current.data);
+            last = current;
+            current = current.prev;
+        }
+        return new Page<>(records, current != null && last != null
+                ? HistoryCursor.format(last.sequence, last.data.getId()) : null);
+    }
+
+    /**
+     * The node viewed right before the one the cursor was made from. If that one moved or is gone, the newest node
+     * viewed before it.
+     */
+    private Node<Task> nodeBefore(String cursor) {
+        HistoryCursor position = HistoryCursor.parse(cursor);
+        Node<Task> node = idToNodeMap.get(position.id());
+        if (node != null && node.sequence == position.sequence()) {
+            return node.prev;
+        }
+        Node<Task> current = tail;
+        while (current != null && current.sequence >= position.sequence()) {
+            current = current.prev;
+        }
+        return current;
+    }
+
     static class Node<T> {
         T data;
+        long sequence;
         Node<T> next = null;
         Node<T> prev = null;
 
@@ -1,59 +1,172 @@
 package ru.ikozlov.kanban.manager.inmemory;
 
 import ru.ikozlov.kanban.manager.*;
+import ru.ikozlov.kanban.manager.event.TaskEventPublisher;
 import ru.ikozlov.kanban.task.Epic;
 import ru.ikozlov.kanban.task.Subtask;
 import ru.ikozlov.kanban.task.Task;
 
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class InMemoryTaskManager implements TaskManager {
-    protected int tasksCount = 0;
-    protected final HashMap<TaskType, HashMap<Integer, Task>> taskStorageByType;
+    protected final IdAllocator idAllocator = new IdAllocator();
+    protected final TaskStorage taskStorage;
     protected final HistoryManager historyManager;
-    protected final TreeSet<Task> prioritizedTasks;
+    protected final IntervalIndex intervalIndex;
+    protected final StatusIndex statusIndex;
+    protected final TextIndex textIndex;
+    protected final WorkloadIndex workloadIndex;
+    protected final DependencyGraph dependencyGraph;
+    protected final TaskEventPublisher events = new TaskEventPublisher();
 
     public InMemoryTaskManager() {
-        taskStorageByType = new HashMap<>();
-        taskStorageByType.put(TaskType.TASK, new HashMap<>());
-        taskStorageByType.put(TaskType.SUBTASK, new HashMap<>());
-        taskStorageByType.put(TaskType.EPIC, new HashMap<>());
-        historyManager = Managers.getDefaultHistory();
-        prioritizedTasks = new TreeSet<>(Comparator.comparing(Task::getStartTime));
+        this(Managers.getDefaultHistory());
+    }
+
+    public InMemoryTaskManager(HistoryManager historyManager) {
+        this(historyManager, new InMemoryTaskStorage());
+    }
+
+    protected InMemoryTaskManager(HistoryManager historyManager, TaskStorage taskStorage) {
+        this.taskStorage = taskStorage;
+        this.historyManager = historyManager;
+        intervalIndex = new IntervalIndex();
+        statusIndex = new StatusIndex();
+        textIndex = new TextIndex();
+        workloadIndex = new WorkloadIndex();
+        dependencyGraph = new DependencyGraph();
     }
 
     @Override
     public List<Task> getPrioritizedTasks() {
-        return new ArrayList<>(prioritizedTasks);
+        return intervalIndex.getAll();
     }
 
-    protected void updatePriority(Task task) {
-        prioritizedTasks.removeIf(x -> x.getId().equals(task.getId()));
-        if (task.getStartTime() != null) {
-            prioritizedTasks.add(task);
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to) {
+        return intervalIndex.getStartingBetween(from, to);
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasksAfter(LocalDateTime startTime, int id, int limit) {
+        return intervalIndex.getAfter(startTime, id, limit);
+    }
+
+    @Override
+    public List<Task> getTasksAt(LocalDateTime time) {
+        return intervalIndex.getAt(time);
+    }
+
+    @Override
+    public List<Task> getTasksOverlapping(LocalDateTime from, LocalDateTime to) {
+        return intervalIndex.getOverlapping(from, to);
+    }
+
+    @Override
+    public TimeSlot findFreeSlot(LocalDateTime after, Duration duration) {
+        return intervalIndex.findFreeSlot(after, duration);
+    }
+
+    @Override
+    public List<TimeSlot> findFreeSlots(LocalDateTime from, LocalDateTime to, Duration duration, int limit) {
+        return intervalIndex.findFreeSlots(from, to, duration, limit);
+    }
+
+    @Override
+    public List<DayWorkload> getWorkload(LocalDate from, LocalDate to) {
+        return workloadIndex.get(from, to);
+    }
+
+    @Override
+    public void addListener(TaskListener listener) {
+        events.addListener(listener);
+    }
+
+    @Override
+    public void removeListener(TaskListener listener) {
+        events.removeListener(listener);
+    }
+
+    protected void updateIndexes(Task task) {
+        if (!(task instanceof Epic)) {
+            dependencyGraph.update(task);
+            intervalIndex.put(task);
+            workloadIndex.put(task);
         }
+        statusIndex.put(TaskType.of(task), task);
+        textIndex.put(task.getId(), task.getTitle(), task.getDescription());
     }
 
-    private boolean intersectsWithOtherTasks(Task task) {
-        return getPrioritizedTasks().stream().anyMatch(task::intersectsWith);
+    protected void removeFromIndexes(Task task) {
+        intervalIndex.remove(task.getId());
+        workloadIndex.remove(task.getId());
+        statusIndex.remove(TaskType.of(task), task.getId());
+        textIndex.remove(task.getId());
+        dependencyGraph.remove(task.getId());
+    }
+
+    protected boolean intersectsWithOtherTasks(Task task, Integer excludedId) {
+        if (task.getStartTime() == null) {
+            return false;
+        }
+        return intervalIndex.intersects(task.getStartTime(), task.getEndTime(), excludedId);
+    }
+
+    protected int nextId() {
+        return idAllocator.next();
     }
 
     @Override
     public List<Task> getAllTasks() {
-        return taskStorageByType.get(TaskType.TASK).values().stream().toList();
+        List<Task> tasks = new ArrayList<>(taskStorage.size(TaskType.TASK));
+        taskStorage.forEach(TaskType.TASK, tasks::add);
+        return tasks;
+    }
+
+    @Override
+    public List<Task> getTasksAfter(int id, int limit) {
+        return taskStorage.getAfter(TaskType.TASK, id, limit);
+    }
+
+    /**
+     * Runs over the live tasks, so no writes may happen until the stream is consumed.
+     */
+    @Override
+    public Stream<Task> streamTasks() {
+        return StreamSupport.stream(taskStorage.spliterator(TaskType.TASK), false);
     }
 
     @Override
     public void clearTasks() {
-        Set<Integer> taskIds = taskStorageByType.get(TaskType.TASK).keySet();
-        taskIds.forEach(historyManager::remove);
-        prioritizedTasks.removeIf(x -> taskIds.contains(x.getId()));
-        taskStorageByType.put(TaskType.TASK, new HashMap<>());
+        events.batch(() -> {
+            taskStorage.forEach(TaskType.TASK, x -> events.emit(TaskEvent.Kind.DELETED, x));
+            removeAllTasks();
+        });
+    }
+
+    private void removeAllTasks() {
+        for (int id : taskStorage.getIds(TaskType.TASK)) {
+            historyManager.remove(id);
+            intervalIndex.remove(id);
+            workloadIndex.remove(id);
+            textIndex.remove(id);
+            dependencyGraph.remove(id);
+        }
+        statusIndex.clear(TaskType.TASK);
+        taskStorage.clear(TaskType.TASK);
     }
 
     @Override
     public Task getTask(int id) {
-        Task task = taskStorageByType.get(TaskType.TASK).get(id);
+        Task task = taskStorage.get(TaskType.TASK, id);
         if (task == null) {
             throw new NotFoundException();
         }
@@ -63,63 +176,100 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public Task createTask(Task task) {
-        if (intersectsWithOtherTasks(task)) {
+        if (intersectsWithOtherTasks(task, null)) {
             throw new TimeIntersectionException();
         }
-        tasksCount++;
-        Task newTask = new Task(task.getTitle(), task.getDescription(), task.getStatus(), task.getDuration(),
-                task.getStartTime());
-        newTask.setId(tasksCount);
-        updatePriority(newTask);
-        taskStorageByType.get(TaskType.TASK).put(newTask.getId(), newTask);
-        return newTask;
+        return insertTask(task);
     }
 
     @Override
     public Task updateTask(int id, Task task) {
-        Task oldTask = taskStorageByType.get(TaskType.TASK).get(id);
+        Task oldTask = taskStorage.get(TaskType.TASK, id);
         if (oldTask == null) {
             throw new NotFoundException();
         }
-        if (intersectsWithOtherTasks(task)) {
+        if (intersectsWithOtherTasks(task, id)) {
             throw new TimeIntersectionException();
         }
-        oldTask.setTitle(task.getTitle());
-        oldTask.setDescription(task.getDescription());
-        oldTask.setStatus(task.getStatus());
-        oldTask.setDuration(task.getDuration());
-        oldTask.setStartTime(task.getStartTime());
-        updatePriority(oldTask);
-        return oldTask;
+        return applyTaskUpdate(oldTask, task);
     }
 
     @Override
     public Task deleteTask(int id) {
-        Task task = taskStorageByType.get(TaskType.TASK).remove(id);
+        return removeTask(id);
+    }
+
+    private Task insertTask(Task task) {
+        Task newTask = new Task(task.getTitle(), task.getDescription(), task.getStatus(), task.getDuration(),
+                task.getStartTime());
+        newTask.setId(nextId());
+        newTask.freeze();
+        updateIndexes(newTask);
+        taskStorage.put(TaskType.TASK, newTask);
+        events.emit(TaskEvent.Kind.CREATED, newTask);
+        return newTask;
+    }
+
+    /**
+     * Stored tasks are frozen, so an update stores a new version and whoever holds the old one keeps it unchanged.
+     */
+    private Task applyTaskUpdate(Task oldTask, Task task) {
+        Task newTask = new Task(task.getTitle(), task.getDescription(), task.getStatus(), task.getDuration(),
+                task.getStartTime());
+        newTask.setId(oldTask.getId());
+        newTask.freeze();
+        updateIndexes(newTask);
+        taskStorage.put(TaskType.TASK, newTask);
+        events.emit(TaskEvent.Kind.UPDATED, newTask);
+        return newTask;
+    }
+
+    private Task removeTask(int id) {
+        Task task = taskStorage.remove(TaskType.TASK, id);
         if (task == null) {
             return null;
         }
         historyManager.remove(task.getId());
-        prioritizedTasks.remove(task);
+        removeFromIndexes(task);
+        events.emit(TaskEvent.Kind.DELETED, task);
         return task;
     }
 
     @Override
     public List<Epic> getAllEpics() {
-        return taskStorageByType.get(TaskType.EPIC).values().stream()
-                .map(x -> (Epic) x).toList();
+        List<Epic> epics = new ArrayList<>(taskStorage.size(TaskType.EPIC));
+        taskStorage.forEach(TaskType.EPIC, x -> epics.add((Epic) x));
+        return epics;
+    }
+
+    @Override
+    public List<Epic> getEpicsAfter(int id, int limit) {
+        return taskStorage.getAfter(TaskType.EPIC, id, limit).stream().map(x -> (Epic) x).toList();
+    }
+
+    @Override
+    public Stream<Epic> streamEpics() {
+        return StreamSupport.stream(taskStorage.spliterator(TaskType.EPIC), false).map(Epic.class::cast);
     }
 
     @Override
     public void clearEpics() {
-        taskStorageByType.get(TaskType.EPIC).keySet().forEach(historyManager::remove);
-        taskStorageByType.put(TaskType.EPIC, new HashMap<>());
-        clearSubtasks();
+        events.batch(() -> {
+            taskStorage.forEach(TaskType.EPIC, x -> events.emit(TaskEvent.Kind.DELETED, x));
+            taskStorage.forEach(TaskType.SUBTASK, x -> events.emit(TaskEvent.Kind.DELETED, x));
+            for (int id : taskStorage.getIds(TaskType.EPIC)) {
+                historyManager.remove(id);
+                textIndex.remove(id);
+            }
+            statusIndex.clear(TaskType.EPIC);
+            taskStorage.clear(TaskType.EPIC);
+            removeAllSubtasks();
+        });
     }
 
     @Override
     public Epic getEpic(int id) {
-        Epic epic = (Epic) taskStorageByType.get(TaskType.EPIC).get(id);
+        Epic epic = (Epic) taskStorage.get(TaskType.EPIC, id);
         if (epic == null) {
             throw new NotFoundException();
         }
@@ -129,42 +279,67 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public Epic createEpic(Epic epic) {
-        tasksCount++;
         Epic newEpic = new Epic(epic.getTitle(), epic.getDescription());
-        newEpic.setId(tasksCount);
-        taskStorageByType.get(TaskType.EPIC).put(newEpic.getId(), newEpic);
+        newEpic.setId(nextId());
+        newEpic.freeze();
+        taskStorage.put(TaskType.EPIC, newEpic);
+        updateIndexes(newEpic);
+        events.emit(TaskEvent.Kind.CREATED, newEpic);
         return newEpic;
     }
 
     @Override
     public Epic updateEpic(int id, Epic epic) {
-        Epic oldEpic = (Epic) taskStorageByType.get(TaskType.EPIC).get(id);
+        Epic oldEpic = (Epic) taskStorage.get(TaskType.EPIC, id);
         if (oldEpic == null) {
             throw new NotFoundException();
         }
-        oldEpic.setTitle(epic.getTitle());
-        oldEpic.setDescription(epic.getDescription());
-        oldEpic.setSubtasks(epic.getSubtasks());
-        return oldEpic;
+        Epic newEpic = changeEpic(oldEpic, x -> {
+            x.setTitle(epic.getTitle());
+            x.setDescription(epic.getDescription());
+        });
+        updateIndexes(newEpic);
+        events.emit(TaskEvent.Kind.UPDATED, newEpic);
+        return newEpic;
+    }
+
+    /**
+     * Stored epics are frozen like tasks: a change is made to the next version of the epic, which replaces it in
+     * storage, so whoever holds the previous version keeps it unchanged.
+     */
+    protected Epic changeEpic(Epic epic, Consumer<Epic> change) {
+        Epic next = epic.next();
+        change.accept(next);
+        next.freeze();
+        taskStorage.put(TaskType.EPIC, next);
+        return next;
     }
 
     @Override
     public Epic deleteEpic(int id) {
-        Epic epic = (Epic) taskStorageByType.get(TaskType.EPIC).remove(id);
+        return events.batch(() -> removeEpic(id));
+    }
+
+    private Epic removeEpic(int id) {
+        Epic epic = (Epic) taskStorage.remove(TaskType.EPIC, id);
         if (epic == null) {
             return null;
         }
         historyManager.remove(epic.getId());
+        removeFromIndexes(epic);
+        events.emit(TaskEvent.Kind.DELETED, epic);
         epic.getSubtasks().forEach(x -> {
-            Task subtask = taskStorageByType.get(TaskType.SUBTASK).remove(x.getId());
+            Task subtask = taskStorage.remove(TaskType.SUBTASK, x.getId());
             historyManager.remove(subtask.getId());
+            removeFromIndexes(subtask);
+            events.emit(TaskEvent.Kind.DELETED, subtask);
         });
         return epic;
     }
 
     @Override
     public List<Subtask> getEpicSubtasks(int id) {
-        Epic epic = (Epic) taskStorageByType.get(TaskType.EPIC).get(id);
+        Epic epic = (Epic) taskStorage.get(TaskType.EPIC, id);
         if (epic == null) {
             throw new NotFoundException();
         }
@@ -173,22 +348,50 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public List<Subtask> getAllSubtasks() {
-        return taskStorageByType.get(TaskType.SUBTASK).values().stream()
-                .map(x -> (Subtask) x).toList();
+        List<Subtask> subtasks = new ArrayList<>(taskStorage.size(TaskType.SUBTASK));
+        taskStorage.forEach(TaskType.SUBTASK, x -> subtasks.add((Subtask) x));
+        return subtasks;
+    }
+
+    @Override
+    public List<Subtask> getSubtasksAfter(int id, int limit) {
+        return taskStorage.getAfter(TaskType.SUBTASK, id, limit).stream().map(x -> (Subtask) x).toList();
+    }
+
+    @Override
+    public Stream<Subtask> streamSubtasks() {
+        return StreamSupport.stream(taskStorage.spliterator(TaskType.SUBTASK), false).map(Subtask.class::cast);
     }
 
     @Override
     public void clearSubtasks() {
-        Set<Integer> taskIds = taskStorageByType.get(TaskType.SUBTASK).keySet();
-        taskIds.forEach(historyManager::remove);
-        taskStorageByType.put(TaskType.SUBTASK, new HashMap<>());
-        prioritizedTasks.removeIf(x -> taskIds.contains(x.getId()));
-        getAllEpics().forEach(e -> e.setSubtasks(new ArrayList<>()));
+        events.batch(() -> {
+            taskStorage.forEach(TaskType.SUBTASK, x -> events.emit(TaskEvent.Kind.DELETED, x));
+            removeAllSubtasks();
+        });
+    }
+
+    private void removeAllSubtasks() {
+        for (int id : taskStorage.getIds(TaskType.SUBTASK)) {
+            historyManager.remove(id);
+            intervalIndex.remove(id);
+            workloadIndex.remove(id);
+            textIndex.remove(id);
+            dependencyGraph.remove(id);
+        }
+        statusIndex.clear(TaskType.SUBTASK);
+        taskStorage.clear(TaskType.SUBTASK);
+        for (int id : taskStorage.getIds(TaskType.EPIC)) {
+            Epic epic = (Epic) taskStorage.get(TaskType.EPIC, id);
+            Epic newEpic = changeEpic(epic, x -> x.setSubtasks(List.of()));
+            updateIndexes(newEpic);
+            emitStatusChange(newEpic, epic.getStatus());
+        }
     }
 
     @Override
     public Subtask getSubtask(int id) {
-        Subtask subtask = (Subtask) taskStorageByType.get(TaskType.SUBTASK).get(id);
+        Subtask subtask = (Subtask) taskStorage.get(TaskType.SUBTASK, id);
         if (subtask == null) {
             throw new NotFoundException();
         }
@@ -198,62 +401,339 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public Subtask createSubtask(Subtask subtask) {
-        if (intersectsWithOtherTasks(subtask)) {
+        if (intersectsWithOtherTasks(subtask, null)) {
             throw new TimeIntersectionException();
         }
-        Epic epic = (Epic) taskStorageByType.get(TaskType.EPIC).get(subtask.getEpicId());
-        if (epic == null) {
+        if (taskStorage.get(TaskType.EPIC, subtask.getEpicId()) == null) {
             throw new NotFoundException();
         }
-        tasksCount++;
+        return events.batch(() -> insertSubtask(subtask));
+    }
+
+    private Subtask insertSubtask(Subtask subtask) {
+        Epic epic = (Epic) taskStorage.get(TaskType.EPIC, subtask.getEpicId());
         Subtask newSubtask = new Subtask(subtask.getTitle(), subtask.getDescription(), subtask.getStatus(),
                 subtask.getEpicId(), subtask.getDuration(), subtask.getStartTime());
-        newSubtask.setId(tasksCount);
-        updatePriority(newSubtask);
-        List<Subtask> subtasks = epic.getSubtasks();
-        subtasks.add(newSubtask);
-        epic.setSubtasks(subtasks);
-        taskStorageByType.get(TaskType.SUBTASK).put(newSubtask.getId(), newSubtask);
+        newSubtask.setId(nextId());
+        newSubtask.freeze();
+        updateIndexes(newSubtask);
+        Epic newEpic = changeEpic(epic, x -> x.addSubtask(newSubtask));
+        taskStorage.put(TaskType.SUBTASK, newSubtask);
+        updateIndexes(newEpic);
+        events.emit(TaskEvent.Kind.CREATED, newSubtask);
+        emitStatusChange(newEpic, epic.getStatus());
         return newSubtask;
     }
 
     @Override
     public Subtask updateSubtask(int id, Subtask subtask) {
-        Subtask oldSubtask = (Subtask) taskStorageByType.get(TaskType.SUBTASK).get(id);
+        Subtask oldSubtask = (Subtask) taskStorage.get(TaskType.SUBTASK, id);
         if (oldSubtask == null) {
             throw new NotFoundException();
         }
-        if (intersectsWithOtherTasks(subtask)) {
+        if (intersectsWithOtherTasks(subtask, id)) {
             throw new TimeIntersectionException();
         }
-        oldSubtask.setTitle(subtask.getTitle());
-        oldSubtask.setDescription(subtask.getDescription());
-        oldSubtask.setStatus(subtask.getStatus());
-        oldSubtask.setEpicId(subtask.getEpicId());
-        oldSubtask.setDuration(subtask.getDuration());
-        oldSubtask.setStartTime(subtask.getStartTime());
-        updatePriority(oldSubtask);
-        Epic epic = (Epic) taskStorageByType.get(TaskType.EPIC).get(oldSubtask.getEpicId());
-        epic.updateStatus();
-        return oldSubtask;
+        if (taskStorage.get(TaskType.EPIC, subtask.getEpicId()) == null) {
+            throw new NotFoundException();
+        }
+        return events.batch(() -> applySubtaskUpdate(oldSubtask, subtask));
+    }
+
+    private Subtask applySubtaskUpdate(Subtask oldSubtask, Subtask subtask) {
+        Epic oldEpic = (Epic) taskStorage.get(TaskType.EPIC, oldSubtask.getEpicId());
+        Subtask newSubtask = new Subtask(subtask.getTitle(), subtask.getDescription(), subtask.getStatus(),
+                subtask.getEpicId(), subtask.getDuration(), subtask.getStartTime());
+        newSubtask.setId(oldSubtask.getId());
+        newSubtask.freeze();
+        updateIndexes(newSubtask);
+        taskStorage.put(TaskType.SUBTASK, newSubtask);
+        boolean moved = oldSubtask.getEpicId() != newSubtask.getEpicId();
+        Epic changedOldEpic = null;
+        if (moved) {
+            changedOldEpic = changeEpic(oldEpic, x -> x.removeSubtask(oldSubtask));
+            updateIndexes(changedOldEpic);
+        }
+        Epic newEpic = (Epic) taskStorage.get(TaskType.EPIC, newSubtask.getEpicId());
+        Epic changedNewEpic = changeEpic(newEpic, x -> x.addSubtask(newSubtask));
+        updateIndexes(changedNewEpic);
+        events.emit(TaskEvent.Kind.UPDATED, newSubtask);
+        if (moved) {
+            emitStatusChange(changedOldEpic, oldEpic.getStatus());
+        }
+        emitStatusChange(changedNewEpic, newEpic.getStatus());
+        return newSubtask;
     }
 
     @Override
     public Subtask deleteSubtask(int id) {
-        Subtask subtask = (Subtask) taskStorageByType.get(TaskType.SUBTASK).remove(id);
+        return events.batch(() -> removeSubtask(id));
+    }
+
+    private Subtask removeSubtask(int id) {
+        Subtask subtask = (Subtask) taskStorage.get(TaskType.SUBTASK, id);
         if (subtask == null) {
             return null;
         }
+        Epic epic = (Epic) taskStorage.get(TaskType.EPIC, subtask.getEpicId());
+        Epic newEpic = changeEpic(epic, x -> x.removeSubtask(subtask));
+        taskStorage.remove(TaskType.SUBTASK, id);
         historyManager.remove(subtask.getId());
-        prioritizedTasks.remove(subtask);
-        Epic epic = (Epic) taskStorageByType.get(TaskType.EPIC).get(subtask.getEpicId());
-        epic.setSubtasks(epic.getSubtasks().stream().filter(x -> x != subtask).toList());
+        removeFromIndexes(subtask);
+        updateIndexes(newEpic);
+        events.emit(TaskEvent.Kind.DELETED, subtask);
+        emitStatusChange(newEpic, epic.getStatus());
         return subtask;
     }
 
+    @Override
+    public List<Task> findTasks(TaskQuery query) {
+        List<Task> result = new ArrayList<>();
+        Consumer<Task> collector = x -> {
+            if (query.matches(x)) {
+                result.add(x);
+            }
+        };
+        TaskType type = query.getType();
+        if (query.getEpicId() != null) {
+            Epic epic = (Epic) taskStorage.get(TaskType.EPIC, query.getEpicId());
+            if (epic != null && (type == null || type == TaskType.SUBTASK)) {
+                epic.getSubtasks().forEach(collector);
+            }
+            return result;
+        }
+        List<TaskType> types = type != null ? List.of(type) : List.of(TaskType.values());
+        if (query.hasTimeRange()) {
+            LocalDateTime from = query.getFrom() != null ? query.getFrom() : LocalDateTime.MIN;
+            LocalDateTime to = query.getTo() != null ? query.getTo() : LocalDateTime.MAX;
+            if (type != TaskType.EPIC) {
+                intervalIndex.getStartingBetween(from, to).forEach(collector);
+            }
+            if (!types.contains(TaskType.EPIC)) {
+                return result;
+            }
+            types = List.of(TaskType.EPIC);
+        }
+        for (TaskType candidate : types) {
+            if (query.getStatus() != null) {
+                statusIndex.forEach(candidate, query.getStatus(), collector);
+            } else {
+                taskStorage.forEach(candidate, collector);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<Task> search(String query, int limit) {
+        int[] ids = textIndex.search(query, limit);
+        List<Task> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            for (TaskType type : TaskType.values()) {
+                Task task = taskStorage.get(type, id);
+                if (task != null) {
+                    result.add(task);
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<Task> createTasks(List<? extends Task> tasks) {
+        for (Task task : tasks) {
+            if (task instanceof Epic) {
+                throw new IllegalArgumentException("Epics can't be created in a batch");
+            }
+            if (task instanceof Subtask subtask && taskStorage.get(TaskType.EPIC, subtask.getEpicId()) == null) {
+                throw new NotFoundException();
+            }
+        }
+        checkBatchIntersections(tasks, id -> false);
+        return events.batch(() -> {
+            List<Task> created = new ArrayList<>(tasks.size());
+            for (Task task : tasks) {
+                created.add(task instanceof Subtask subtask ? insertSubtask(subtask) : insertTask(task));
+            }
+            return created;
+        });
+    }
+
+    @Override
+    public List<Task> updateTasks(List<? extends Task> tasks) {
+        Set<Integer> ids = new HashSet<>();
+        List<Task> stored = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            if (task instanceof Epic) {
+                throw new IllegalArgumentException("Epics can't be updated in a batch");
+            }
+            if (task.getId() == null || !ids.add(task.getId())) {
+                throw new IllegalArgumentException("Every task in a batch needs its own id");
+            }
+            Task oldTask = taskStorage.get(task instanceof Subtask ? TaskType.SUBTASK : TaskType.TASK, task.getId());
+            if (oldTask == null) {
+                throw new NotFoundException();
+            }
+            if (task instanceof Subtask subtask && taskStorage.get(TaskType.EPIC, subtask.getEpicId()) == null) {
+                throw new NotFoundException();
+            }
+            stored.add(oldTask);
+        }
+        checkBatchIntersections(tasks, ids::contains);
+        return events.batch(() -> {
+            List<Task> updated = new ArrayList<>(tasks.size());
+            for (int i = 0; i < tasks.size(); i++) {
+                if (stored.get(i) instanceof Subtask oldSubtask) {
+                    updated.add(applySubtaskUpdate(oldSubtask, (Subtask) tasks.get(i)));
+                } else {
+                    updated.add(applyTaskUpdate(stored.get(i), tasks.get(i)));
+                }
+            }
+            return updated;
+        });
+    }
+
+    @Override
+    public List<Task> deleteIf(Predicate<Task> filter) {
+        List<Task> matched = new ArrayList<>();
+        for (TaskType type : List.of(TaskType.EPIC, TaskType.SUBTASK, TaskType.TASK)) {
+            taskStorage.forEach(type, x -> {
+                if (filter.test(x)) {
+                    matched.add(x);
+                }
+            });
+        }
+        return events.batch(() -> {
+            List<Task> deleted = new ArrayList<>(matched.size());
+            for (Task task : matched) {
+                Task removed = switch (task) {
+                    case Epic epic -> removeEpic(epic.getId());
+                    case Subtask subtask -> removeSubtask(subtask.getId());
+                    default -> removeTask(task.getId());
+                };
+                if (removed != null) {
+                    deleted.add(removed);
+                }
+            }
+            return deleted;
+        });
+    }
+
+    /**
+     * First fit in priority order; tasks that fit nowhere stay unscheduled and a repeated id is scheduled once. The
+     * plan is committed through {@link #updateTasks}.
+     */
+    @Override
+    public List<Task> scheduleTasks(List<Integer> ids, LocalDateTime from, LocalDateTime to) {
+        FirstFitPlanner planner = new FirstFitPlanner(intervalIndex.getIntersecting(from, to), from, to);
+        List<Task> scheduled = new ArrayList<>();
+        for (int id : new LinkedHashSet<>(ids)) {
+            Task task = getTaskOrSubtask(id, "Epics can't be scheduled");
+            if (task.getStartTime() != null) {
+                continue;
+            }
+            Task placed = planner.place(task);
+            if (placed != null) {
+                scheduled.add(placed);
+            }
+        }
+        return updateTasks(scheduled);
+    }
+
+    @Override
+    public void addDependency(int blockerId, int blockedId) {
+        Task blocker = getTaskOrSubtask(blockerId, "Epics can't have dependencies");
+        Task blocked = getTaskOrSubtask(blockedId, "Epics can't have dependencies");
+        dependencyGraph.addEdge(blocker, blocked);
+    }
+
+    @Override
+    public void removeDependency(int blockerId, int blockedId) {
+        getTaskOrSubtask(blockerId, "Epics can't have dependencies");
+        getTaskOrSubtask(blockedId, "Epics can't have dependencies");
+        dependencyGraph.removeEdge(blockerId, blockedId);
+    }
+
+    @Override
+    public List<Task> getBlockers(int id) {
+        getTaskOrSubtask(id, "Epics can't have dependencies");
+        return resolve(dependencyGraph.getBlockers(id));
+    }
+
+    @Override
+    public List<Task> getBlocked(int id) {
+        getTaskOrSubtask(id, "Epics can't have dependencies");
+        return resolve(dependencyGraph.getBlocked(id));
+    }
+
+    @Override
+    public CriticalPath getCriticalPath(int id) {
+        return dependencyGraph.getCriticalPath(getTaskOrSubtask(id, "Epics can't have dependencies"));
+    }
+
+    private Task getTaskOrSubtask(int id, String epicMessage) {
+        Task task = taskStorage.get(TaskType.TASK, id);
+        if (task == null) {
+            task = taskStorage.get(TaskType.SUBTASK, id);
+        }
+        if (task == null) {
+            throw taskStorage.get(TaskType.EPIC, id) != null
+                    ? new IllegalArgumentException(epicMessage) : new NotFoundException();
+        }
+        return task;
+    }
+
+    private List<Task> resolve(int[] ids) {
+        List<Task> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            Task task = taskStorage.get(TaskType.TASK, id);
+            result.add(task != null ? task : taskStorage.get(TaskType.SUBTASK, id));
+        }
+        return result;
+    }
+
+    /**
+     * Sorts the scheduled part of the batch by start time and sweeps it: every task is checked against the running
+     * maximum occupied end of the batch and against the timeline, ignoring the entries the batch itself replaces.
+     */
+    private void checkBatchIntersections(List<? extends Task> tasks, IntPredicate replaced) {
+        List<Task> scheduled = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            if (task.getStartTime() != null) {
+                scheduled.add(task);
+            }
+        }
+        scheduled.sort(Comparator.comparing(Task::getStartTime));
+        LocalDateTime maxEnd = null;
+        for (Task task : scheduled) {
+            LocalDateTime end = IntervalIndex.occupiedEnd(task.getStartTime(), task.getEndTime());
+            if (maxEnd != null && task.getStartTime().isBefore(maxEnd)) {
+                throw new TimeIntersectionException();
+            }
+            if (intervalIndex.intersects(task.getStartTime(), task.getEndTime(), replaced)) {
+                throw new TimeIntersectionException();
+            }
+            if (maxEnd == null || end.isAfter(maxEnd)) {
+                maxEnd = end;
+            }
+        }
+    }
+
     @Override
     public List<Task> getHistory() {
         return historyManager.getHistory();
     }
 
+    @Override
+    public Page<Task> getHistory(String cursor, int limit) {
+        return historyManager.getHistory(cursor, limit);
+    }
+
+    private void emitStatusChange(Epic epic, Task.Status previousStatus) {
+        if (epic.getStatus() != previousStatus) {
+            events.emit(TaskEvent.Kind.STATUS_CHANGED, epic, previousStatus);
+        }
+    }
+
 }
@@ -0,0 +1,68 @@
+package ru.ikozlov.kanban.manager.inmemory;
+
+import ru.ikozlov.kanban.manager.TaskStorage;
+import ru.ikozlov.kanban.manager.TaskType;
+import ru.ikozlov.kanban.task.Task;
+
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Tasks in hash maps by type. The maps list their tasks in id order.
+ */
+public class InMemoryTaskStorage implements TaskStorage {
+    private final IntTaskMap[] mapsByType;
+
+    public InMemoryTaskStorage() {
+        mapsByType = new IntTaskMap[TaskType.values().length];
+        for (TaskType type : TaskType.values()) {
+            mapsByType[type.ordinal()] = new IntTaskMap();
+        }
+    }
+
+    @Override
+    public Task get(TaskType type, int id) {
+        return mapsByType[type.ordinal()].get(id);
+    }
+
+    @Override
+    public Task put(TaskType type, Task task) {
+        return mapsByType[type.ordinal()].put(task.getId(), task);
+    }
+
+    @Override
+    public Task remove(TaskType type, int id) {
+        return mapsByType[type.ordinal()].remove(id);
+    }
+
+    @Override
+    public int size(TaskType type) {
+        return mapsByType[type.ordinal()].size();
+    }
+
+    @Override
+    public int[] getIds(TaskType type) {
+        return mapsByType[type.ordinal()].keys();
+    }
+
+    @Override
+    public List<Task> getAfter(TaskType type, int id, int limit) {
+        return mapsByType[type.ordinal()].valuesAfter(id, limit);
+    }
+
+    @Override
+    public void forEach(TaskType type, Consumer<Task> action) {
+        mapsByType[type.ordinal()].forEach(action);
+    }
+
+    @Override
+    public Spliterator<Task> spliterator(TaskType type) {
+        return mapsByType[type.ordinal()].spliterator();
+    }
+
+    @Override
+    public void clear(TaskType type) {
+        mapsByType[type.ordinal()].clear();
+    }
+}
@@ -0,0 +1,247 @@
+package ru.ikozlov.kanban.manager.inmemory;
+
+import ru.ikozlov.kanban.task.Task;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Open addressing map from int id to task with linear probing. Keys and values live in two parallel arrays,
+ * so an entry costs two array slots instead of a HashMap.Node and a boxed Integer. The slots are in scrambled
+ * order, so a bit set of the keys gives the id order for listing; ids come from a counter, so the set stays dense.
+ * Keys must not be negative.
+ */
+public class IntTaskMap {
+    private static final int MIN_CAPACITY = 16;
+    private final BitSet keySet = new BitSet();
+    private int[] keys;
+    private Task[] values;
+    private int size = 0;
+    private int resizeThreshold;
+
+    public IntTaskMap() {
+        this(MIN_CAPACITY);
+    }
+
+    public IntTaskMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public Task get(int key) {
+        int mask = keys.length - 1;
+        for (int i = slot(key, mask); values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return values[i];
+            }
+        }
+        return null;
+    }
+
+    public Task put(int key, Task value) {
+        if (value == null) {
+            throw new IllegalArgumentException("null values are not supported");
+        }
+        if (key < 0) {
+            throw new IllegalArgumentException("negative keys are not supported");
+        }
+        int mask = keys.length - 1;
+        int i = slot(key, mask);
+        for (; values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                Task previous = values[i];
+                values[i] = value;
+                return previous;
+            }
+        }
+        keys[i] = key;
+        values[i] = value;
+        keySet.set(key);
+        if (++size > resizeThreshold) {
+            resize(keys.length << 1);
+        }
+        return null;
+    }
+
+    public Task remove(int key) {
+        int mask = keys.length - 1;
+        for (int i = slot(key, mask); values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                Task removed = values[i];
+                shiftBack(i, mask);
+                keySet.clear(key);
+                size--;
+                return removed;
+            }
+        }
+        return null;
+    }
+
+    public void clear() {
+        allocate(MIN_CAPACITY);
+        keySet.clear();
+        size = 0;
+    }
+
+    /**
+     * Keys in increasing order.
+     */
+    public int[] keys() {
+        return keySet.stream().toArray();
+    }
+
+    /**
+     * Values in key order.
+     */
+    public void forEach(Consumer<Task> action) {
+        for (int key = keySet.nextSetBit(0); key >= 0; key = keySet.nextSetBit(key + 1)) {
+            action.accept(get(key));
+        }
+    }
+
+    /**
+     * Up to limit values with keys greater than the given one, in key order.
+     */
+    public List<Task> valuesAfter(int key, int limit) {
+        List<Task> result = new ArrayList<>();
+        for (int next = keySet.nextSetBit(Math.max(key, -1) + 1); next >= 0 && result.size() < limit;
+             next = keySet.nextSetBit(next + 1)) {
+            result.add(get(next));
+        }
+        return result;
+    }
+
+    /**
+     * Values in key order, split by halves of the key range. Only the whole map knows its exact size; a half
+     * estimates its own as half of its parent's, which the dense ids keep close. The map must not change while it is
+     * traversed.
+     */
+    public Spliterator<Task> spliterator() {
+        return new KeySpliterator(0, keySet.length(), size, true);
+    }
+
+    private void shiftBack(int hole, int mask) {
+        int i = hole;
+        while (true) {
+            i = (i + 1) & mask;
+            if (values[i] == null) {
+                break;
+            }
+            int home = slot(keys[i], mask);
+            boolean canMove = hole <= i ? home <= hole || home > i : home <= hole && home > i;
+            if (canMove) {
+                keys[hole] = keys[i];
+                values[hole] = values[i];
+                hole = i;
+            }
+        }
+        values[hole] = null;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        Task[] oldValues = values;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int j = 0; j < oldValues.length; j++) {
+            if (oldValues[j] != null) {
+                int i = slot(oldKeys[j], mask);
+                while (values[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Task[capacity];
+        resizeThreshold = capacity / 4 * 3;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity / 4 * 3 < expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private final class KeySpliterator implements Spliterator<Task> {
+        private final int fence;
+        private int key;
+        private long estimate;
+        private boolean exact;
+
+        KeySpliterator(int key, int fence, long estimate, boolean exact) {
+            this.key = key;
+            this.fence = fence;
+            this.estimate = estimate;
+            this.exact = exact;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Task> action) {
+            int next = key < fence ? keySet.nextSetBit(key) : -1;
+            if (next < 0 || next >= fence) {
+                key = fence;
+                return false;
+            }
+            key = next + 1;
+            action.accept(get(next));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Task> action) {
+            for (int next = keySet.nextSetBit(key); next >= 0 && next < fence; next = keySet.nextSetBit(next + 1)) {
+                action.accept(get(next));
+            }
+            key = fence;
+        }
+
+        @Override
+        public Spliterator<Task> trySplit() {
+            int middle = (key + fence) >>> 1;
+            if (middle <= key) {
+                return null;
+            }
+            estimate >>>= 1;
+            exact = false;
+            Spliterator<Task> prefix = new KeySpliterator(key, middle, estimate, false);
+            key = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return estimate;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.DISTINCT | (exact ? Spliterator.SIZED : 0);
+        }
+    }
+
+    /**
+     * Ids are sequential, so they are scrambled first: kept in order they would form one cluster, and every removal
+     * would shift the whole run back.
+     */
+    private static int slot(int key, int mask) {
+        int hash = key * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,483 @@
+package ru.ikozlov.kanban.manager.inmemory;
+
+import ru.ikozlov.kanban.manager.TimeSlot;
+import ru.ikozlov.kanban.task.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.IntPredicate;
+
+/**
+ * AVL tree of scheduled tasks ordered by (startTime, id). Every node keeps the maximum end time of its subtree,
+ * so overlap lookups skip whole subtrees that end before the requested window. It also keeps the widest free gap
+ * between the subtree's own tasks, so free slot lookups skip subtrees too crowded to hold the requested duration.
+ * Tasks occupy the half-open interval [start, end), and a zero-length task occupies its start instant; the tree keeps
+ * these occupied ends, so a free slot is exactly a place where a task can be created.
+ */
+public class IntervalIndex {
+    private final Map<Integer, Node> idToNodeMap = new HashMap<>();
+    private Node root = null;
+
+    public int size() {
+        return idToNodeMap.size();
+    }
+
+    public void put(Task task) {
+        remove(task.getId());
+        if (task.getStartTime() == null) {
+            return;
+        }
+        Node node = new Node(task);
+        root = insert(root, node);
+        idToNodeMap.put(node.id, node);
+    }
+
+    public void remove(int id) {
+        Node node = idToNodeMap.remove(id);
+        if (node != null) {
+            root = delete(root, node);
+        }
+    }
+
+    public void clear() {
+        idToNodeMap.clear();
+        root = null;
+    }
+
+    /**
+     * Same rule as {@link Task#intersectsWith}: a task ending when another starts doesn't intersect it, tasks
+     * starting at the same time always do.
+     */
+    public boolean intersects(LocalDateTime start, LocalDateTime end, Integer excludedId) {
+        return intersects(start, end, id -> excludedId != null && id == excludedId);
+    }
+
+    public boolean intersects(LocalDateTime start, LocalDateTime end, IntPredicate excluded) {
+        return intersects(root, start, occupiedEnd(start, end), excluded);
+    }
+
+    public List<Task> getAt(LocalDateTime time) {
+        List<Task> result = new ArrayList<>();
+        collect(root, time, time, true, result);
+        return result;
+    }
+
+    public List<Task> getOverlapping(LocalDateTime from, LocalDateTime to) {
+        List<Task> result = new ArrayList<>();
+        collect(root, from, to, false, result);
+        return result;
+    }
+
+    /**
+     * Tasks occupying some instant of [start, end], in (startTime, id) order. They include every task that a task
+     * placed inside [start, end] can intersect.
+     */
+    public List<Task> getIntersecting(LocalDateTime start, LocalDateTime end) {
+        List<Task> result = new ArrayList<>();
+        collectIntersecting(root, start, end, result);
+        return result;
+    }
+
+    public List<Task> getAll() {
+        List<Task> result = new ArrayList<>(idToNodeMap.size());
+        collectAll(root, result);
+        return result;
+    }
+
+    /**
+     * Tasks starting in [from, to), in (startTime, id) order.
+     */
+    public List<Task> getStartingBetween(LocalDateTime from, LocalDateTime to) {
+        List<Task> result = new ArrayList<>();
+        collectStarting(root, from, to, result);
+        return result;
+    }
+
+    /**
+     * Up to limit tasks ordered strictly after the (startTime, id) cursor, or from the beginning when startTime is
+     * null.
+     */
+    public List<Task> getAfter(LocalDateTime startTime, int id, int limit) {
+        List<Task> result = new ArrayList<>(Math.min(limit, idToNodeMap.size()));
+        collectAfter(root, startTime, id, limit, result);
+        return result;
+    }
+
+    /**
+     * Earliest slot ending after the given time that a task of the given duration fits into when it starts at the
+     * slot's start. The last slot never ends, so there is always one.
+     */
+    public TimeSlot findFreeSlot(LocalDateTime after, Duration duration) {
+        GapSearch search = new GapSearch(after, null, 1, duration);
+        findGaps(root, search);
+        return search.finish().getFirst();
+    }
+
+    /**
+     * Up to limit widest slots a task of the given duration fits into, clipped to [from, to] and ordered by start.
+     */
+    public List<TimeSlot> findFreeSlots(LocalDateTime from, LocalDateTime to, Duration duration, int limit) {
+        if (limit <= 0 || !to.isAfter(from)) {
+            return List.of();
+        }
+        GapSearch search = new GapSearch(from, to, limit, duration);
+        findGaps(root, search);
+        return search.finish();
+    }
+
+    private void findGaps(Node node, GapSearch search) {
+        if (node == null || search.isDone()) {
+            return;
+        }
+        if (search.to != null && !node.minStart.isBefore(search.to)) {
+            search.stopped = true;
+            return;
+        }
+        if (!node.maxEnd.isAfter(search.from) || node.maxGap <= search.threshold()
+                && search.gapBefore(node.minStart) <= search.threshold()) {
+            search.pass(node.maxEnd);
+            return;
+        }
+        findGaps(node.left, search);
+        if (search.isDone()) {
+            return;
+        }
+        if (search.to != null && !node.start.isBefore(search.to)) {
+            search.stopped = true;
+            return;
+        }
+        search.offer(node.start);
+        search.pass(node.end);
+        findGaps(node.right, search);
+    }
+
+    private void collectAll(Node node, List<Task> result) {
+        if (node == null) {
+            return;
+        }
+        collectAll(node.left, result);
+        result.add(node.task);
+        collectAll(node.right, result);
+    }
+
+    private void collectStarting(Node node, LocalDateTime from, LocalDateTime to, List<Task> result) {
+        if (node == null) {
+            return;
+        }
+        if (node.start.isBefore(from)) {
+            collectStarting(node.right, from, to, result);
+            return;
+        }
+        if (!node.start.isBefore(to)) {
+            collectStarting(node.left, from, to, result);
+            return;
+        }
+        collectStarting(node.left, from, to, result);
+        result.add(node.task);
+        collectStarting(node.right, from, to, result);
+    }
+
+    private void collectAfter(Node node, LocalDateTime startTime, int id, int limit, List<Task> result) {
+        if (node == null || result.size() >= limit) {
+            return;
+        }
+        if (startTime != null) {
+            int cmp = node.start.compareTo(startTime);
+            if (cmp < 0 || cmp == 0 && node.id <= id) {
+                collectAfter(node.right, startTime, id, limit, result);
+                return;
+            }
+        }
+        collectAfter(node.left, startTime, id, limit, result);
+        if (result.size() < limit) {
+            result.add(node.task);
+            collectAfter(node.right, startTime, id, limit, result);
+        }
+    }
+
+    /**
+     * Whether a task of the tree other than the excluded ones occupies some instant of [start, end).
+     */
+    private boolean intersects(Node node, LocalDateTime start, LocalDateTime end, IntPredicate excluded) {
+        if (node == null || !node.maxEnd.isAfter(start)) {
+            return false;
+        }
+        if (intersects(node.left, start, end, excluded)) {
+            return true;
+        }
+        if (!node.start.isBefore(end)) {
+            return false;
+        }
+        if (node.end.isAfter(start) && !excluded.test(node.id)) {
+            return true;
+        }
+        return intersects(node.right, start, end, excluded);
+    }
+
+    private void collectIntersecting(Node node, LocalDateTime start, LocalDateTime end, List<Task> result) {
+        if (node == null || !node.maxEnd.isAfter(start)) {
+            return;
+        }
+        collectIntersecting(node.left, start, end, result);
+        if (node.start.isAfter(end)) {
+            return;
+        }
+        if (node.end.isAfter(start)) {
+            result.add(node.task);
+        }
+        collectIntersecting(node.right, start, end, result);
+    }
+
+    private void collect(Node node, LocalDateTime from, LocalDateTime to, boolean toInclusive, List<Task> result) {
+        if (node == null || node.maxEnd.isBefore(from)) {
+            return;
+        }
+        collect(node.left, from, to, toInclusive, result);
+        boolean startsInWindow = toInclusive ? !node.start.isAfter(to) : node.start.isBefore(to);
+        if (!startsInWindow) {
+            return;
+        }
+        if (node.end.isAfter(from) || !node.start.isBefore(from)) {
+            result.add(node.task);
+        }
+        collect(node.right, from, to, toInclusive, result);
+    }
+
+    /**
+     * The end of a task, or the instant right after its start if it has no length.
+     */
+    static LocalDateTime occupiedEnd(LocalDateTime start, LocalDateTime end) {
+        return end.isAfter(start) ? end : start.plusNanos(1);
+    }
+
+    private static int compare(Node a, Node b) {
+        int cmp = a.start.compareTo(b.start);
+        return cmp != 0 ? cmp : Integer.compare(a.id, b.id);
+    }
+
+    private static Node insert(Node root, Node node) {
+        if (root == null) {
+            return node;
+        }
+        if (compare(node, root) < 0) {
+            root.left = insert(root.left, node);
+        } else {
+            root.right = insert(root.right, node);
+        }
+        return balance(root);
+    }
+
+    private static Node delete(Node root, Node node) {
+        if (root == null) {
+            return null;
+        }
+        int cmp = compare(node, root);
+        if (cmp < 0) {
+            root.left = delete(root.left, node);
+        } else if (cmp > 0) {
+            root.right = delete(root.right, node);
+        } else {
+            if (root.left == null) {
+                return root.right;
+            }
+            if (root.right == null) {
+                return root.left;
+            }
+            Node successor = root.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            successor.right = deleteMin(root.right);
+            successor.left = root.left;
+            root = successor;
+        }
+        return balance(root);
+    }
+
+    private static Node deleteMin(Node root) {
+        if (root.left == null) {
+            return root.right;
+        }
+        root.left = deleteMin(root.left);
+        return balance(root);
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    /**
+     * Gaps inside a subtree are measured from the subtree's own tasks only. Tasks before it may end later and
+     * shrink them, so maxGap is an upper bound that only serves to skip subtrees.
+     */
+    private static void update(Node node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        LocalDateTime maxEnd = node.end;
+        long maxGap = 0;
+        node.minStart = node.start;
+        if (node.left != null) {
+            node.minStart = node.left.minStart;
+            maxGap = Math.max(node.left.maxGap, gapNanos(node.left.maxEnd, node.start));
+            if (node.left.maxEnd.isAfter(maxEnd)) {
+                maxEnd = node.left.maxEnd;
+            }
+        }
+        if (node.right != null) {
+            maxGap = Math.max(maxGap, Math.max(node.right.maxGap, gapNanos(maxEnd, node.right.minStart)));
+            if (node.right.maxEnd.isAfter(maxEnd)) {
+                maxEnd = node.right.maxEnd;
+            }
+        }
+        node.maxEnd = maxEnd;
+        node.maxGap = maxGap;
+    }
+
+    private static long gapNanos(LocalDateTime start, LocalDateTime end) {
+        if (!end.isAfter(start)) {
+            return 0;
+        }
+        try {
+            return Duration.between(start, end).toNanos();
+        } catch (ArithmeticException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private static Node balance(Node node) {
+        update(node);
+        int factor = height(node.left) - height(node.right);
+        if (factor > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (factor < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node left = node.left;
+        node.left = left.right;
+        left.right = node;
+        update(node);
+        update(left);
+        return left;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node right = node.right;
+        node.right = right.left;
+        right.left = node;
+        update(node);
+        update(right);
+        return right;
+    }
+
+    static class Node {
+        final int id;
+        final LocalDateTime start;
+        final LocalDateTime end;
+        final Task task;
+        LocalDateTime maxEnd;
+        LocalDateTime minStart;
+        long maxGap = 0;
+        int height = 1;
+        Node left = null;
+        Node right = null;
+
+        public Node(Task task) {
+            this.id = task.getId();
+            this.start = task.getStartTime();
+            this.end = occupiedEnd(start, task.getEndTime());
+            this.task = task;
+            this.maxEnd = end;
+            this.minStart = start;
+        }
+    }
+
+    /**
+     * State of an in-order walk over the gaps: the latest end seen so far and the widest gaps found. Gaps no longer
+     * than the threshold are skipped; once limit gaps are kept the threshold rises to the narrowest of them. A gap
+     * holds a task as long as itself, and a zero-length task needs one free instant, so the initial threshold is one
+     * nanosecond short of the duration.
+     */
+    private static class GapSearch {
+        private final LocalDateTime from;
+        private final LocalDateTime to;
+        private final int limit;
+        private final long minNanos;
+        private final PriorityQueue<Gap> gaps = new PriorityQueue<>(Comparator.comparingLong((Gap x) -> x.nanos)
+                .thenComparing((Gap x) -> x.start, Comparator.reverseOrder()));
+        private LocalDateTime lastEnd = null;
+        private boolean stopped = false;
+
+        GapSearch(LocalDateTime from, LocalDateTime to, int limit, Duration duration) {
+            this.from = from;
+            this.to = to;
+            this.limit = limit;
+            this.minNanos = Math.max(duration.toNanos(), 1) - 1;
+        }
+
+        boolean isDone() {
+            return stopped || to == null && !gaps.isEmpty();
+        }
+
+        long threshold() {
+            return gaps.size() < limit ? minNanos : Math.max(minNanos, gaps.peek().nanos);
+        }
+
+        long gapBefore(LocalDateTime next) {
+            return gapNanos(start(), to != null && to.isBefore(next) ? to : next);
+        }
+
+        void pass(LocalDateTime end) {
+            if (lastEnd == null || end.isAfter(lastEnd)) {
+                lastEnd = end;
+            }
+        }
+
+        void offer(LocalDateTime next) {
+            LocalDateTime start = start();
+            LocalDateTime end = next == null || to != null && to.isBefore(next) ? to : next;
+            long nanos = end == null ? Long.MAX_VALUE : gapNanos(start, end);
+            if (nanos > threshold()) {
+                if (gaps.size() == limit) {
+                    gaps.poll();
+                }
+                gaps.add(new Gap(start, end, nanos));
+            }
+        }
+
+        List<TimeSlot> finish() {
+            if (to != null || gaps.isEmpty()) {
+                offer(null);
+            }
+            List<Gap> sorted = new ArrayList<>(gaps);
+            sorted.sort(Comparator.comparing((Gap x) -> x.start));
+            List<TimeSlot> result = new ArrayList<>(sorted.size());
+            for (Gap gap : sorted) {
+                result.add(new TimeSlot(gap.start, gap.end));
+            }
+            return result;
+        }
+
+        private LocalDateTime start() {
+            return lastEnd == null || lastEnd.isBefore(from) ? from : lastEnd;
+        }
+    }
+
+    private record Gap(LocalDateTime start, LocalDateTime end, long nanos) {
+    }
+}
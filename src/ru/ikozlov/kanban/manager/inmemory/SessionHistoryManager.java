@@ -0,0 +1,250 @@
+package ru.ikozlov.kanban.manager.inmemory;
+
+import ru.ikozlov.kanban.manager.HistoryManager;
+import ru.ikozlov.kanban.manager.HistorySession;
+import ru.ikozlov.kanban.manager.Page;
+import ru.ikozlov.kanban.task.Task;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.InstantSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A separate history for every {@link HistorySession}; threads without a session share one. Each session keeps its
+ * views in a linked list with an id to view map, as InMemoryHistoryManager does. All sessions together hold at most
+ * maxViews views: going over evicts the oldest view of the least recently active session. A session inactive for
+ * longer than the idle timeout is dropped. Every view is also linked into a chain of the views of its task, so
+ * removing a task visits only the sessions that viewed it. Not thread-safe.
+ */
+public class SessionHistoryManager implements HistoryManager {
+    private static final String SHARED_SESSION = "";
+    private final int maxViews;
+    private final Duration idleTimeout;
+    private final InstantSource clock;
+    private final LinkedHashMap<String, Session> sessions = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Integer, View> viewsByTask = new HashMap<>();
+    private int size = 0;
+    private long nextSequence = 0;
+
+    public SessionHistoryManager(int maxViews, Duration idleTimeout) {
+        this(maxViews, idleTimeout, InstantSource.system());
+    }
+
+    public SessionHistoryManager(int maxViews, Duration idleTimeout, InstantSource clock) {
+        if (maxViews <= 0) {
+            throw new IllegalArgumentException("History capacity must be positive");
+        }
+        this.maxViews = maxViews;
+        this.idleTimeout = idleTimeout;
+        this.clock = clock;
+    }
+
+    public int getSessionsCount() {
+        return sessions.size();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void add(Task task) {
+        Instant now = clock.instant();
+        dropIdleSessions(now);
+        Session session = session(now, true);
+        int id = task.getId();
+        View view = session.viewsById.get(id);
+        if (view != null) {
+            session.unlink(view);
+        } else {
+            view = new View(session, id);
+            session.viewsById.put(id, view);
+            View first = viewsByTask.put(id, view);
+            if (first != null) {
+                view.nextOfTask = first;
+                first.prevOfTask = view;
+            }
+            size++;
+        }
+        view.task = task.version();
+        view.sequence = nextSequence++;
+        session.linkLast(view);
+        while (size > maxViews) {
+            Session eldest = sessions.values().iterator().next();
+            removeView(eldest.head);
+        }
+    }
+
+    @Override
+    public void remove(int id) {
+        View view = viewsByTask.remove(id);
+        while (view != null) {
+            View next = view.nextOfTask;
+            view.session.unlink(view);
+            view.session.viewsById.remove(id);
+            dropIfEmpty(view.session);
+            size--;
+            view = next;
+        }
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        Session session = currentSession();
+        List<Task> records = new ArrayList<>();
+        for (View view = session != null ? session.tail : null; view != null; view = view.prev) {
+            records.add(view.task);
+        }
+        return records;
+    }
+
+    @Override
+    public Page<Task> getHistory(String cursor, int limit) {
+        Session session = currentSession();
+        View current = session == null ? null : cursor != null ? viewBefore(session, cursor) : session.tail;
+        View last = null;
+        List<Task> records = new ArrayList<>();
+        while (current != null && records.size() < limit) {
+            records.add(current.task);
+            last = current;
+            current = current.prev;
+        }
+        return new Page<>(records, current != null && last != null
+                ? HistoryCursor.format(last.sequence, last.taskId) : null);
+    }
+
+    private Session currentSession() {
+        Instant now = clock.instant();
+        dropIdleSessions(now);
+        return session(now, false);
+    }
+
+    private Session session(Instant now, boolean create) {
+        String id = HistorySession.current();
+        String key = id != null ? id : SHARED_SESSION;
+        Session session = sessions.get(key);
+        if (session == null && create) {
+            session = new Session(key);
+            sessions.put(key, session);
+        }
+        if (session != null) {
+            session.lastActive = now;
+        }
+        return session;
+    }
+
+    /**
+     * Sessions are in order of activity, so only the idle ones at the front are visited.
+     */
+    private void dropIdleSessions(Instant now) {
+        Instant activeSince = now.minus(idleTimeout);
+        while (!sessions.isEmpty()) {
+            Session eldest = sessions.values().iterator().next();
+            if (!eldest.lastActive.isBefore(activeSince)) {
+                return;
+            }
+            while (eldest.head != null) {
+                removeView(eldest.head);
+            }
+            sessions.remove(eldest.id);
+        }
+    }
+
+    private void removeView(View view) {
+        Session session = view.session;
+        session.unlink(view);
+        session.viewsById.remove(view.taskId);
+        if (view.prevOfTask != null) {
+            view.prevOfTask.nextOfTask = view.nextOfTask;
+        } else if (view.nextOfTask != null) {
+            viewsByTask.put(view.taskId, view.nextOfTask);
+        } else {
+            viewsByTask.remove(view.taskId);
+        }
+        if (view.nextOfTask != null) {
+            view.nextOfTask.prevOfTask = view.prevOfTask;
+        }
+        dropIfEmpty(session);
+        size--;
+    }
+
+    private void dropIfEmpty(Session session) {
+        if (session.head == null) {
+            sessions.remove(session.id);
+        }
+    }
+
+    /**
+     * The view made right before the one the cursor was made from. If that one moved or is gone, the newest view of
+     * the session made before it.
+     */
+    private static View viewBefore(Session session, String cursor) {
+        HistoryCursor position = HistoryCursor.parse(cursor);
+        View view = session.viewsById.get(position.id());
+        if (view != null && view.sequence == position.sequence()) {
+            return view.prev;
+        }
+        View current = session.tail;
+        while (current != null && current.sequence >= position.sequence()) {
+            current = current.prev;
+        }
+        return current;
+    }
+
+    private static class Session {
+        final String id;
+        final Map<Integer, View> viewsById = new HashMap<>();
+        View head = null;
+        View tail = null;
+        Instant lastActive;
+
+        Session(String id) {
+            this.id = id;
+        }
+
+        void linkLast(View view) {
+            view.prev = tail;
+            view.next = null;
+            if (tail == null) {
+                head = view;
+            } else {
+                tail.next = view;
+            }
+            tail = view;
+        }
+
+        void unlink(View view) {
+            if (view.prev == null) {
+                head = view.next;
+            } else {
+                view.prev.next = view.next;
+            }
+            if (view.next == null) {
+                tail = view.prev;
+            } else {
+                view.next.prev = view.prev;
+            }
+        }
+    }
+
+    private static class View {
+        final Session session;
+        final int taskId;
+        Task task;
+        long sequence;
+        View prev = null;
+        View next = null;
+        View prevOfTask = null;
+        View nextOfTask = null;
+
+        View(Session session, int taskId) {
+            this.session = session;
+            this.taskId = taskId;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package ru.ikozlov.kanban.manager.inmemory;
+
+import ru.ikozlov.kanban.manager.TaskType;
+import ru.ikozlov.kanban.task.Task;
+
+import java.util.function.Consumer;
+
+/**
+ * Tasks of every type grouped by status. Each task is in exactly one group of its type, the one for the status it
+ * had when it was last put.
+ */
+public class StatusIndex {
+    private static final int STATUSES_COUNT = Task.Status.values().length;
+    private final IntTaskMap[] maps;
+
+    public StatusIndex() {
+        maps = new IntTaskMap[TaskType.values().length * STATUSES_COUNT];
+        for (int i = 0; i < maps.length; i++) {
+            maps[i] = new IntTaskMap();
+        }
+    }
+
+    public void put(TaskType type, Task task) {
+        remove(type, task.getId());
+        map(type, task.getStatus()).put(task.getId(), task);
+    }
+
+    public void remove(TaskType type, int id) {
+        for (Task.Status status : Task.Status.values()) {
+            if (map(type, status).remove(id) != null) {
+                return;
+            }
+        }
+    }
+
+    public void clear(TaskType type) {
+        for (Task.Status status : Task.Status.values()) {
+            map(type, status).clear();
+        }
+    }
+
+    public int size(TaskType type, Task.Status status) {
+        return map(type, status).size();
+    }
+
+    public void forEach(TaskType type, Task.Status status, Consumer<Task> action) {
+        map(type, status).forEach(action);
+    }
+
+    private IntTaskMap map(TaskType type, Task.Status status) {
+        return maps[type.ordinal() * STATUSES_COUNT + status.ordinal()];
+    }
+}
@@ -0,0 +1,279 @@
+package ru.ikozlov.kanban.manager.inmemory;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Inverted index over task titles and descriptions. Terms are kept in a sorted map, so a prefix query expands to a
+ * contiguous range of terms. Each posting list maps a task id to the term's weight in that task; title occurrences
+ * weigh more than description ones. Queries are AND-ed terms, a trailing '*' makes a term a prefix, and results are
+ * ranked by the sum of weight times inverse document frequency. A document is just the posting lists of its terms,
+ * keyed by task id, so the index holds neither task objects nor their strings.
+ */
+public class TextIndex {
+    private static final Pattern SEPARATOR = Pattern.compile("[^\\p{L}\\p{Nd}*]+");
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final int TITLE_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private final TreeMap<String, Postings> postingsByTerm = new TreeMap<>();
+    private final Map<Integer, Postings[]> documents = new HashMap<>();
+
+    public int size() {
+        return documents.size();
+    }
+
+    public void put(int id, String title, String description) {
+        Map<String, Integer> weights = new HashMap<>();
+        addTerms(weights, title, TITLE_WEIGHT);
+        addTerms(weights, description, DESCRIPTION_WEIGHT);
+        Postings[] document = documents.get(id);
+        if (document != null) {
+            if (hasWeights(id, document, weights)) {
+                return;
+            }
+            remove(id);
+        }
+        document = new Postings[weights.size()];
+        int i = 0;
+        for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+            Postings postings = postingsByTerm.computeIfAbsent(entry.getKey(), Postings::new);
+            postings.put(id, entry.getValue());
+            document[i++] = postings;
+        }
+        documents.put(id, document);
+    }
+
+    public void remove(int id) {
+        Postings[] document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        for (Postings postings : document) {
+            postings.remove(id);
+            if (postings.size() == 0) {
+                postingsByTerm.remove(postings.term);
+            }
+        }
+    }
+
+    public void clear() {
+        postingsByTerm.clear();
+        documents.clear();
+    }
+
+    /**
+     * Ids of the best matches, best first.
+     */
+    public int[] search(String query, int limit) {
+        List<QueryTerm> terms = new ArrayList<>();
+        for (String token : SEPARATOR.split(query.toLowerCase(Locale.ROOT))) {
+            boolean prefix = token.endsWith("*");
+            String term = NON_WORD.matcher(token).replaceAll("");
+            if (term.isEmpty()) {
+                continue;
+            }
+            List<Postings> matches = new ArrayList<>();
+            if (prefix) {
+                matches.addAll(postingsByTerm.subMap(term, term + Character.MAX_VALUE).values());
+            } else if (postingsByTerm.containsKey(term)) {
+                matches.add(postingsByTerm.get(term));
+            }
+            if (matches.isEmpty()) {
+                return new int[0];
+            }
+            terms.add(new QueryTerm(matches, documents.size()));
+        }
+        if (terms.isEmpty() || limit <= 0) {
+            return new int[0];
+        }
+        terms.sort(Comparator.comparingLong(x -> x.size));
+
+        QueryTerm first = terms.getFirst();
+        List<QueryTerm> rest = terms.subList(1, terms.size());
+        PriorityQueue<Hit> top = new PriorityQueue<>(Comparator.comparingDouble((Hit x) -> x.score)
+                .thenComparing((Hit x) -> x.id, Comparator.reverseOrder()));
+        for (int i = 0; i < first.postings.length; i++) {
+            int expansion = i;
+            first.postings[i].forEach((id, weight) -> {
+                for (int j = 0; j < expansion; j++) {
+                    if (first.postings[j].get(id) != 0) {
+                        return;
+                    }
+                }
+                double score = first.score(id);
+                for (QueryTerm term : rest) {
+                    double termScore = term.score(id);
+                    if (termScore == 0) {
+                        return;
+                    }
+                    score += termScore;
+                }
+                if (top.size() < limit) {
+                    top.add(new Hit(id, score));
+                } else if (score > top.peek().score || score == top.peek().score && id < top.peek().id) {
+                    top.poll();
+                    top.add(new Hit(id, score));
+                }
+            });
+        }
+        int[] result = new int[top.size()];
+        for (int i = result.length - 1; i >= 0; i--) {
+            result[i] = top.poll().id;
+        }
+        return result;
+    }
+
+    private static boolean hasWeights(int id, Postings[] document, Map<String, Integer> weights) {
+        if (document.length != weights.size()) {
+            return false;
+        }
+        for (Postings postings : document) {
+            if (!Objects.equals(weights.get(postings.term), postings.get(id))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void addTerms(Map<String, Integer> weights, String text, int weight) {
+        if (text == null) {
+            return;
+        }
+        for (String term : NON_WORD.split(text.toLowerCase(Locale.ROOT))) {
+            if (!term.isEmpty()) {
+                weights.merge(term, weight, Integer::sum);
+            }
+        }
+    }
+
+    private record Hit(int id, double score) {
+    }
+
+    /**
+     * Posting lists one query term expands to, with their inverse document frequencies.
+     */
+    private static class QueryTerm {
+        private final Postings[] postings;
+        private final double[] idf;
+        private final long size;
+
+        QueryTerm(List<Postings> matches, int documentsCount) {
+            postings = matches.toArray(new Postings[0]);
+            idf = new double[postings.length];
+            long total = 0;
+            for (int i = 0; i < postings.length; i++) {
+                idf[i] = Math.log(1 + (double) documentsCount / postings[i].size());
+                total += postings[i].size();
+            }
+            size = total;
+        }
+
+        double score(int id) {
+            double score = 0;
+            for (int i = 0; i < postings.length; i++) {
+                int weight = postings[i].get(id);
+                if (weight != 0) {
+                    score += weight * idf[i];
+                }
+            }
+            return score;
+        }
+    }
+
+    /**
+     * Open-addressing map from task id to the weight of one term. Ids are positive, so 0 marks a free slot.
+     */
+    private static class Postings {
+        private final String term;
+        private int[] ids = new int[4];
+        private int[] weights = new int[4];
+        private int size = 0;
+
+        Postings(String term) {
+            this.term = term;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int get(int id) {
+            int mask = ids.length - 1;
+            for (int i = hash(id) & mask; ids[i] != 0; i = (i + 1) & mask) {
+                if (ids[i] == id) {
+                    return weights[i];
+                }
+            }
+            return 0;
+        }
+
+        void put(int id, int weight) {
+            if ((size + 1) * 4 > ids.length * 3) {
+                resize(ids.length * 2);
+            }
+            int mask = ids.length - 1;
+            int i = hash(id) & mask;
+            while (ids[i] != 0 && ids[i] != id) {
+                i = (i + 1) & mask;
+            }
+            if (ids[i] == 0) {
+                size++;
+            }
+            ids[i] = id;
+            weights[i] = weight;
+        }
+
+        void remove(int id) {
+            int mask = ids.length - 1;
+            int i = hash(id) & mask;
+            while (ids[i] != id) {
+                if (ids[i] == 0) {
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+            size--;
+            int free = i;
+            for (int j = (i + 1) & mask; ids[j] != 0; j = (j + 1) & mask) {
+                int home = hash(ids[j]) & mask;
+                if (((j - home) & mask) >= ((j - free) & mask)) {
+                    ids[free] = ids[j];
+                    weights[free] = weights[j];
+                    free = j;
+                }
+            }
+            ids[free] = 0;
+            weights[free] = 0;
+        }
+
+        void forEach(IdWeightConsumer action) {
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] != 0) {
+                    action.accept(ids[i], weights[i]);
+                }
+            }
+        }
+
+        private void resize(int capacity) {
+            int[] oldIds = ids;
+            int[] oldWeights = weights;
+            ids = new int[capacity];
+            weights = new int[capacity];
+            size = 0;
+            for (int i = 0; i < oldIds.length; i++) {
+                if (oldIds[i] != 0) {
+                    put(oldIds[i], oldWeights[i]);
+                }
+            }
+        }
+
+        private static int hash(int id) {
+            int hash = id * 0x9E3779B9;
+            return hash ^ (hash >>> 16);
+        }
+    }
+
+    private interface IdWeightConsumer {
+        void accept(int id, int weight);
+    }
+}
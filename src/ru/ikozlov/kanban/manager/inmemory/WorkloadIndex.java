@@ -0,0 +1,105 @@
+package ru.ikozlov.kanban.manager.inmemory;
+
+import ru.ikozlov.kanban.manager.DayWorkload;
+import ru.ikozlov.kanban.task.Task;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Scheduled duration and task count per calendar day. A task adds to every day its [start, end) interval covers
+ * the part of its duration that falls on that day; a zero-length task counts on its start day only. The interval
+ * each task was put with is kept, so updates subtract exactly what was added even after the task has changed.
+ * Callers that keep the intervals themselves add and remove them directly instead.
+ */
+public class WorkloadIndex {
+    private final Map<Integer, Span> spans = new HashMap<>();
+    private final TreeMap<LocalDate, Bucket> buckets = new TreeMap<>();
+
+    public void put(Task task) {
+        remove(task.getId());
+        if (task.getStartTime() == null) {
+            return;
+        }
+        Span span = new Span(task.getStartTime(), task.getEndTime());
+        spans.put(task.getId(), span);
+        apply(span.start, span.end, 1);
+    }
+
+    public void remove(int id) {
+        Span span = spans.remove(id);
+        if (span != null) {
+            apply(span.start, span.end, -1);
+        }
+    }
+
+    public void add(LocalDateTime start, LocalDateTime end) {
+        apply(start, end, 1);
+    }
+
+    /**
+     * Takes away an interval added with {@link #add} before.
+     */
+    public void remove(LocalDateTime start, LocalDateTime end) {
+        apply(start, end, -1);
+    }
+
+    public void clear() {
+        spans.clear();
+        buckets.clear();
+    }
+
+    /**
+     * One entry per day of [from, to), idle days included.
+     */
+    public List<DayWorkload> get(LocalDate from, LocalDate to) {
+        if (!to.isAfter(from)) {
+            return List.of();
+        }
+        List<DayWorkload> result = new ArrayList<>();
+        LocalDate day = from;
+        for (Map.Entry<LocalDate, Bucket> entry : buckets.subMap(from, to).entrySet()) {
+            for (; day.isBefore(entry.getKey()); day = day.plusDays(1)) {
+                result.add(new DayWorkload(day, Duration.ZERO, 0));
+            }
+            Bucket bucket = entry.getValue();
+            result.add(new DayWorkload(day, Duration.ofNanos(bucket.nanos), bucket.count));
+            day = day.plusDays(1);
+        }
+        for (; day.isBefore(to); day = day.plusDays(1)) {
+            result.add(new DayWorkload(day, Duration.ZERO, 0));
+        }
+        return result;
+    }
+
+    private void apply(LocalDateTime start, LocalDateTime end, int sign) {
+        LocalDate day = start.toLocalDate();
+        LocalDateTime from = start;
+        do {
+            LocalDateTime next = day.plusDays(1).atStartOfDay();
+            LocalDateTime until = end.isBefore(next) ? end : next;
+            Bucket bucket = buckets.computeIfAbsent(day, x -> new Bucket());
+            bucket.nanos += sign * Duration.between(from, until).toNanos();
+            bucket.count += sign;
+            if (bucket.count == 0) {
+                buckets.remove(day);
+            }
+            day = day.plusDays(1);
+            from = next;
+        } while (end.isAfter(from));
+    }
+
+    private record Span(LocalDateTime start, LocalDateTime end) {
+    }
+
+    private static class Bucket {
+        private long nanos = 0;
+        private int count = 0;
+    }
+}
@@ -0,0 +1,21 @@
+package ru.ikozlov.kanban.manager.offheap;
+
+import ru.ikozlov.kanban.manager.HistoryManager;
+import ru.ikozlov.kanban.manager.Managers;
+import ru.ikozlov.kanban.manager.columnar.ColumnarTaskManager;
+import ru.ikozlov.kanban.manager.columnar.TaskTable;
+
+/**
+ * Columnar task manager whose rows and strings live outside the heap, so the garbage collector does not see
+ * per-task objects. Only the id-to-row map, the string handle table and the text index stay on the heap.
+ */
+public class OffHeapTaskManager extends ColumnarTaskManager {
+
+    public OffHeapTaskManager() {
+        this(Managers.getDefaultHistory());
+    }
+
+    public OffHeapTaskManager(HistoryManager historyManager) {
+        super(new TaskTable(new OffHeapTaskRecords(), new StringArena()), historyManager);
+    }
+}
@@ -0,0 +1,317 @@
+package ru.ikozlov.kanban.manager.offheap;
+
+import ru.ikozlov.kanban.manager.columnar.TaskRecords;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Records kept outside the heap: one fixed 112-byte record per row in direct buffers of {@value #CHUNK_ROWS} rows
+ * each, so the store isn't limited to the 2 GB a single buffer can hold. Longs come first and the record size is a
+ * multiple of eight, so every field is aligned. While the store fits in one chunk, growing copies it to a larger
+ * buffer; beyond that it adds chunks and never copies.
+ */
+public class OffHeapTaskRecords implements TaskRecords {
+    private static final int START = 0;
+    private static final int DURATION = 8;
+    private static final int MAX_END = 16;
+    private static final int MIN_START = 24;
+    private static final int MAX_GAP = 32;
+    private static final int SUBTASK_MIN_START = 40;
+    private static final int SUBTASK_MAX_END = 48;
+    private static final int ID = 56;
+    private static final int TITLE = 60;
+    private static final int DESCRIPTION = 64;
+    private static final int EPIC_ID = 68;
+    private static final int SUBTASK_ROOT = 72;
+    private static final int SUBTASK_LEFT = 76;
+    private static final int SUBTASK_RIGHT = 80;
+    private static final int LEFT = 84;
+    private static final int RIGHT = 88;
+    private static final int SUBTASK_COUNT = 92;
+    private static final int NEW_SUBTASKS = 96;
+    private static final int DONE_SUBTASKS = 100;
+    private static final int TYPE = 104;
+    private static final int STATUS = 105;
+    private static final int HEIGHT = 106;
+    private static final int SUBTASK_HEIGHT = 107;
+    private static final int RECORD_SIZE = 112;
+    private static final int CHUNK_SHIFT = 14;
+    private static final int CHUNK_ROWS = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_ROWS - 1;
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE & ~CHUNK_MASK;
+    private ByteBuffer[] chunks = {ByteBuffer.allocateDirect(0)};
+
+    @Override
+    public int capacity() {
+        return (chunks.length - 1) * CHUNK_ROWS + chunks[chunks.length - 1].capacity() / RECORD_SIZE;
+    }
+
+    @Override
+    public int maxCapacity() {
+        return MAX_CAPACITY;
+    }
+
+    @Override
+    public void grow(int capacity) {
+        if (capacity > MAX_CAPACITY) {
+            throw new IllegalStateException("Off-heap records can't hold more than " + MAX_CAPACITY + " rows");
+        }
+        if (chunks.length == 1 && chunks[0].capacity() < CHUNK_ROWS * RECORD_SIZE) {
+            ByteBuffer grown = allocate(Math.min(capacity, CHUNK_ROWS));
+            grown.put(0, chunks[0], 0, chunks[0].capacity());
+            chunks[0] = grown;
+        }
+        int count = (capacity + CHUNK_MASK) >>> CHUNK_SHIFT;
+        if (count > chunks.length) {
+            ByteBuffer[] grown = Arrays.copyOf(chunks, count);
+            for (int i = chunks.length; i < count; i++) {
+                grown[i] = allocate(CHUNK_ROWS);
+            }
+            chunks = grown;
+        }
+    }
+
+    private static ByteBuffer allocate(int rows) {
+        return ByteBuffer.allocateDirect(rows * RECORD_SIZE).order(ByteOrder.nativeOrder());
+    }
+
+    private ByteBuffer chunk(int row) {
+        return chunks[row >>> CHUNK_SHIFT];
+    }
+
+    private static int offset(int row) {
+        return (row & CHUNK_MASK) * RECORD_SIZE;
+    }
+
+    @Override
+    public int id(int row) {
+        return chunk(row).getInt(offset(row) + ID);
+    }
+
+    @Override
+    public void setId(int row, int id) {
+        chunk(row).putInt(offset(row) + ID, id);
+    }
+
+    @Override
+    public byte type(int row) {
+        return chunk(row).get(offset(row) + TYPE);
+    }
+
+    @Override
+    public void setType(int row, byte type) {
+        chunk(row).put(offset(row) + TYPE, type);
+    }
+
+    @Override
+    public byte status(int row) {
+        return chunk(row).get(offset(row) + STATUS);
+    }
+
+    @Override
+    public void setStatus(int row, byte status) {
+        chunk(row).put(offset(row) + STATUS, status);
+    }
+
+    @Override
+    public long start(int row) {
+        return chunk(row).getLong(offset(row) + START);
+    }
+
+    @Override
+    public void setStart(int row, long start) {
+        chunk(row).putLong(offset(row) + START, start);
+    }
+
+    @Override
+    public long duration(int row) {
+        return chunk(row).getLong(offset(row) + DURATION);
+    }
+
+    @Override
+    public void setDuration(int row, long duration) {
+        chunk(row).putLong(offset(row) + DURATION, duration);
+    }
+
+    @Override
+    public int title(int row) {
+        return chunk(row).getInt(offset(row) + TITLE);
+    }
+
+    @Override
+    public void setTitle(int row, int title) {
+        chunk(row).putInt(offset(row) + TITLE, title);
+    }
+
+    @Override
+    public int description(int row) {
+        return chunk(row).getInt(offset(row) + DESCRIPTION);
+    }
+
+    @Override
+    public void setDescription(int row, int description) {
+        chunk(row).putInt(offset(row) + DESCRIPTION, description);
+    }
+
+    @Override
+    public int epicId(int row) {
+        return chunk(row).getInt(offset(row) + EPIC_ID);
+    }
+
+    @Override
+    public void setEpicId(int row, int epicId) {
+        chunk(row).putInt(offset(row) + EPIC_ID, epicId);
+    }
+
+    @Override
+    public int subtaskRoot(int row) {
+        return chunk(row).getInt(offset(row) + SUBTASK_ROOT);
+    }
+
+    @Override
+    public void setSubtaskRoot(int row, int subtaskRoot) {
+        chunk(row).putInt(offset(row) + SUBTASK_ROOT, subtaskRoot);
+    }
+
+    @Override
+    public int subtaskLeft(int row) {
+        return chunk(row).getInt(offset(row) + SUBTASK_LEFT);
+    }
+
+    @Override
+    public void setSubtaskLeft(int row, int subtaskLeft) {
+        chunk(row).putInt(offset(row) + SUBTASK_LEFT, subtaskLeft);
+    }
+
+    @Override
+    public int subtaskRight(int row) {
+        return chunk(row).getInt(offset(row) + SUBTASK_RIGHT);
+    }
+
+    @Override
+    public void setSubtaskRight(int row, int subtaskRight) {
+        chunk(row).putInt(offset(row) + SUBTASK_RIGHT, subtaskRight);
+    }
+
+    @Override
+    public byte subtaskHeight(int row) {
+        return chunk(row).get(offset(row) + SUBTASK_HEIGHT);
+    }
+
+    @Override
+    public void setSubtaskHeight(int row, byte subtaskHeight) {
+        chunk(row).put(offset(row) + SUBTASK_HEIGHT, subtaskHeight);
+    }
+
+    @Override
+    public long subtaskMinStart(int row) {
+        return chunk(row).getLong(offset(row) + SUBTASK_MIN_START);
+    }
+
+    @Override
+    public void setSubtaskMinStart(int row, long subtaskMinStart) {
+        chunk(row).putLong(offset(row) + SUBTASK_MIN_START, subtaskMinStart);
+    }
+
+    @Override
+    public long subtaskMaxEnd(int row) {
+        return chunk(row).getLong(offset(row) + SUBTASK_MAX_END);
+    }
+
+    @Override
+    public void setSubtaskMaxEnd(int row, long subtaskMaxEnd) {
+        chunk(row).putLong(offset(row) + SUBTASK_MAX_END, subtaskMaxEnd);
+    }
+
+    @Override
+    public int subtaskCount(int row) {
+        return chunk(row).getInt(offset(row) + SUBTASK_COUNT);
+    }
+
+    @Override
+    public void setSubtaskCount(int row, int subtaskCount) {
+        chunk(row).putInt(offset(row) + SUBTASK_COUNT, subtaskCount);
+    }
+
+    @Override
+    public int newSubtasks(int row) {
+        return chunk(row).getInt(offset(row) + NEW_SUBTASKS);
+    }
+
+    @Override
+    public void setNewSubtasks(int row, int newSubtasks) {
+        chunk(row).putInt(offset(row) + NEW_SUBTASKS, newSubtasks);
+    }
+
+    @Override
+    public int doneSubtasks(int row) {
+        return chunk(row).getInt(offset(row) + DONE_SUBTASKS);
+    }
+
+    @Override
+    public void setDoneSubtasks(int row, int doneSubtasks) {
+        chunk(row).putInt(offset(row) + DONE_SUBTASKS, doneSubtasks);
+    }
+
+    @Override
+    public int left(int row) {
+        return chunk(row).getInt(offset(row) + LEFT);
+    }
+
+    @Override
+    public void setLeft(int row, int left) {
+        chunk(row).putInt(offset(row) + LEFT, left);
+    }
+
+    @Override
+    public int right(int row) {
+        return chunk(row).getInt(offset(row) + RIGHT);
+    }
+
+    @Override
+    public void setRight(int row, int right) {
+        chunk(row).putInt(offset(row) + RIGHT, right);
+    }
+
+    @Override
+    public byte height(int row) {
+        return chunk(row).get(offset(row) + HEIGHT);
+    }
+
+    @Override
+    public void setHeight(int row, byte height) {
+        chunk(row).put(offset(row) + HEIGHT, height);
+    }
+
+    @Override
+    public long maxEnd(int row) {
+        return chunk(row).getLong(offset(row) + MAX_END);
+    }
+
+    @Override
+    public void setMaxEnd(int row, long maxEnd) {
+        chunk(row).putLong(offset(row) + MAX_END, maxEnd);
+    }
+
+    @Override
+    public long minStart(int row) {
+        return chunk(row).getLong(offset(row) + MIN_START);
+    }
+
+    @Override
+    public void setMinStart(int row, long minStart) {
+        chunk(row).putLong(offset(row) + MIN_START, minStart);
+    }
+
+    @Override
+    public long maxGap(int row) {
+        return chunk(row).getLong(offset(row) + MAX_GAP);
+    }
+
+    @Override
+    public void setMaxGap(int row, long maxGap) {
+        chunk(row).putLong(offset(row) + MAX_GAP, maxGap);
+    }
+}
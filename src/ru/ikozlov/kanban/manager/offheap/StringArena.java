@@ -0,0 +1,123 @@
+package ru.ikozlov.kanban.manager.offheap;
+
+import ru.ikozlov.kanban.manager.columnar.StringStore;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Strings kept outside the heap as UTF-8 bytes appended to a direct buffer. A handle indexes an on-heap table of
+ * (offset, length) pairs packed into longs, so the heap holds no object per string. Released strings leave garbage
+ * behind; it is dropped when the buffer runs out of room and the live strings are copied to a new one.
+ */
+public class StringArena implements StringStore {
+    private static final int MIN_CAPACITY = 1024;
+    private static final long FREE_SLOT = -1;
+    private ByteBuffer bytes = ByteBuffer.allocateDirect(MIN_CAPACITY);
+    private long[] slots = new long[16];
+    private int[] freeHandles = new int[16];
+    private int freeCount = 0;
+    private int used = 0;
+    private int size = 0;
+    private int top = 0;
+    private long garbage = 0;
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Bytes taken by live strings.
+     */
+    public long liveBytes() {
+        return top - garbage;
+    }
+
+    @Override
+    public int acquire(String string) {
+        if (string == null) {
+            return NULL;
+        }
+        byte[] data = string.getBytes(StandardCharsets.UTF_8);
+        reserve(data.length);
+        bytes.put(top, data);
+        int handle;
+        if (freeCount > 0) {
+            handle = freeHandles[--freeCount];
+        } else {
+            if (used == slots.length) {
+                slots = Arrays.copyOf(slots, used * 2);
+            }
+            handle = used++;
+        }
+        slots[handle] = (long) top << 32 | data.length;
+        top += data.length;
+        size++;
+        return handle;
+    }
+
+    @Override
+    public String get(int handle) {
+        if (handle == NULL) {
+            return null;
+        }
+        byte[] data = new byte[length(slots[handle])];
+        bytes.get(offset(slots[handle]), data);
+        return new String(data, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void release(int handle) {
+        if (handle == NULL) {
+            return;
+        }
+        garbage += length(slots[handle]);
+        slots[handle] = FREE_SLOT;
+        size--;
+        if (freeCount == freeHandles.length) {
+            freeHandles = Arrays.copyOf(freeHandles, freeCount * 2);
+        }
+        freeHandles[freeCount++] = handle;
+    }
+
+    private void reserve(int length) {
+        if ((long) top + length <= bytes.capacity()) {
+            return;
+        }
+        long needed = liveBytes() + length;
+        long capacity = bytes.capacity();
+        if (needed > capacity / 2) {
+            capacity = Math.max(capacity * 2, needed);
+        }
+        if (capacity > Integer.MAX_VALUE) {
+            throw new IllegalStateException("String arena can't hold more than " + Integer.MAX_VALUE + " bytes");
+        }
+        compact((int) capacity);
+    }
+
+    private void compact(int capacity) {
+        ByteBuffer compacted = ByteBuffer.allocateDirect(capacity);
+        int position = 0;
+        for (int handle = 0; handle < used; handle++) {
+            if (slots[handle] != FREE_SLOT) {
+                int length = length(slots[handle]);
+                compacted.put(position, bytes, offset(slots[handle]), length);
+                slots[handle] = (long) position << 32 | length;
+                position += length;
+            }
+        }
+        bytes = compacted;
+        top = position;
+        garbage = 0;
+    }
+
+    private static int offset(long slot) {
+        return (int) (slot >>> 32);
+    }
+
+    private static int length(long slot) {
+        return (int) slot;
+    }
+}
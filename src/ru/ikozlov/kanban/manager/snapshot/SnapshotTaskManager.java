@@ -0,0 +1,365 @@
+package ru.ikozlov.kanban.manager.snapshot;
+
+import ru.ikozlov.kanban.manager.CriticalPath;
+import ru.ikozlov.kanban.manager.DayWorkload;
+import ru.ikozlov.kanban.manager.Managers;
+import ru.ikozlov.kanban.manager.NotFoundException;
+import ru.ikozlov.kanban.manager.TaskQuery;
+import ru.ikozlov.kanban.manager.TaskType;
+import ru.ikozlov.kanban.manager.TimeSlot;
+import ru.ikozlov.kanban.manager.concurrent.SynchronizedHistoryManager;
+import ru.ikozlov.kanban.manager.inmemory.InMemoryTaskManager;
+import ru.ikozlov.kanban.manager.inmemory.InMemoryTaskStorage;
+import ru.ikozlov.kanban.task.Epic;
+import ru.ikozlov.kanban.task.Subtask;
+import ru.ikozlov.kanban.task.Task;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Task manager with lock-free reads. Writers are serialized and, before releasing the lock, publish a new
+ * {@link TaskSnapshot} that shares everything but the changed entries with the previous one. The storage records
+ * the entries a write touches, so batches and cascades are published entry by entry too. Lookups and list
+ * reads take the current snapshot with a single volatile read and never copy or block. Objects returned by reads
+ * belong to the snapshot and must not be modified.
+ */
+public class SnapshotTaskManager extends InMemoryTaskManager {
+    private final ChangeTrackingStorage storage;
+    private volatile TaskSnapshot snapshot = TaskSnapshot.EMPTY;
+
+    public SnapshotTaskManager() {
+        this(new ChangeTrackingStorage());
+    }
+
+    private SnapshotTaskManager(ChangeTrackingStorage storage) {
+        super(new SynchronizedHistoryManager(Managers.getDefaultHistory()), storage);
+        this.storage = storage;
+    }
+
+    public TaskSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    @Override
+    public List<Task> getAllTasks() {
+        return snapshot.getTasks();
+    }
+
+    @Override
+    public List<Task> getTasksAfter(int id, int limit) {
+        return snapshot.getTasksAfter(id, limit);
+    }
+
+    @Override
+    public Stream<Task> streamTasks() {
+        return snapshot.getTasks().stream();
+    }
+
+    @Override
+    public Task getTask(int id) {
+        Task task = snapshot.getTask(id);
+        if (task == null) {
+            throw new NotFoundException();
+        }
+        historyManager.add(task);
+        return task;
+    }
+
+    @Override
+    public List<Epic> getAllEpics() {
+        return snapshot.getEpics();
+    }
+
+    @Override
+    public List<Epic> getEpicsAfter(int id, int limit) {
+        return snapshot.getEpicsAfter(id, limit);
+    }
+
+    @Override
+    public Stream<Epic> streamEpics() {
+        return snapshot.getEpics().stream();
+    }
+
+    @Override
+    public Epic getEpic(int id) {
+        Epic epic = snapshot.getEpic(id);
+        if (epic == null) {
+            throw new NotFoundException();
+        }
+        historyManager.add(epic);
+        return epic;
+    }
+
+    @Override
+    public List<Subtask> getEpicSubtasks(int id) {
+        Epic epic = snapshot.getEpic(id);
+        if (epic == null) {
+            throw new NotFoundException();
+        }
+        return epic.getSubtasks();
+    }
+
+    @Override
+    public List<Subtask> getAllSubtasks() {
+        return snapshot.getSubtasks();
+    }
+
+    @Override
+    public List<Subtask> getSubtasksAfter(int id, int limit) {
+        return snapshot.getSubtasksAfter(id, limit);
+    }
+
+    @Override
+    public Stream<Subtask> streamSubtasks() {
+        return snapshot.getSubtasks().stream();
+    }
+
+    @Override
+    public Subtask getSubtask(int id) {
+        Subtask subtask = snapshot.getSubtask(id);
+        if (subtask == null) {
+            throw new NotFoundException();
+        }
+        historyManager.add(subtask);
+        return subtask;
+    }
+
+    @Override
+    public synchronized List<Task> getPrioritizedTasks() {
+        return super.getPrioritizedTasks();
+    }
+
+    @Override
+    public synchronized List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to) {
+        return super.getPrioritizedTasks(from, to);
+    }
+
+    @Override
+    public synchronized List<Task> getPrioritizedTasksAfter(LocalDateTime startTime, int id, int limit) {
+        return super.getPrioritizedTasksAfter(startTime, id, limit);
+    }
+
+    @Override
+    public synchronized List<Task> getTasksAt(LocalDateTime time) {
+        return super.getTasksAt(time);
+    }
+
+    @Override
+    public synchronized List<Task> getTasksOverlapping(LocalDateTime from, LocalDateTime to) {
+        return super.getTasksOverlapping(from, to);
+    }
+
+    @Override
+    public synchronized TimeSlot findFreeSlot(LocalDateTime after, Duration duration) {
+        return super.findFreeSlot(after, duration);
+    }
+
+    @Override
+    public synchronized List<TimeSlot> findFreeSlots(LocalDateTime from, LocalDateTime to, Duration duration,
+                                                     int limit) {
+        return super.findFreeSlots(from, to, duration, limit);
+    }
+
+    @Override
+    public synchronized List<DayWorkload> getWorkload(LocalDate from, LocalDate to) {
+        return super.getWorkload(from, to);
+    }
+
+    @Override
+    public synchronized List<Task> findTasks(TaskQuery query) {
+        return super.findTasks(query);
+    }
+
+    @Override
+    public synchronized List<Task> search(String query, int limit) {
+        return super.search(query, limit);
+    }
+
+    @Override
+    public synchronized void clearTasks() {
+        publishing(super::clearTasks);
+    }
+
+    @Override
+    public synchronized Task createTask(Task task) {
+        return publishing(() -> super.createTask(task));
+    }
+
+    @Override
+    public synchronized Task updateTask(int id, Task task) {
+        return publishing(() -> super.updateTask(id, task));
+    }
+
+    @Override
+    public synchronized Task deleteTask(int id) {
+        return publishing(() -> super.deleteTask(id));
+    }
+
+    @Override
+    public synchronized void clearEpics() {
+        publishing(super::clearEpics);
+    }
+
+    @Override
+    public synchronized Epic createEpic(Epic epic) {
+        return publishing(() -> super.createEpic(epic));
+    }
+
+    @Override
+    public synchronized Epic updateEpic(int id, Epic epic) {
+        return publishing(() -> super.updateEpic(id, epic));
+    }
+
+    @Override
+    public synchronized Epic deleteEpic(int id) {
+        return publishing(() -> super.deleteEpic(id));
+    }
+
+    @Override
+    public synchronized void clearSubtasks() {
+        publishing(super::clearSubtasks);
+    }
+
+    @Override
+    public synchronized Subtask createSubtask(Subtask subtask) {
+        return publishing(() -> super.createSubtask(subtask));
+    }
+
+    @Override
+    public synchronized Subtask updateSubtask(int id, Subtask subtask) {
+        return publishing(() -> super.updateSubtask(id, subtask));
+    }
+
+    @Override
+    public synchronized Subtask deleteSubtask(int id) {
+        return publishing(() -> super.deleteSubtask(id));
+    }
+
+    @Override
+    public synchronized List<Task> createTasks(List<? extends Task> tasks) {
+        return publishing(() -> super.createTasks(tasks));
+    }
+
+    @Override
+    public synchronized List<Task> updateTasks(List<? extends Task> tasks) {
+        return publishing(() -> super.updateTasks(tasks));
+    }
+
+    @Override
+    public synchronized List<Task> deleteIf(Predicate<Task> filter) {
+        return publishing(() -> super.deleteIf(filter));
+    }
+
+    @Override
+    public synchronized List<Task> scheduleTasks(List<Integer> ids, LocalDateTime from, LocalDateTime to) {
+        return super.scheduleTasks(ids, from, to);
+    }
+
+    @Override
+    public synchronized void addDependency(int blockerId, int blockedId) {
+        super.addDependency(blockerId, blockedId);
+    }
+
+    @Override
+    public synchronized void removeDependency(int blockerId, int blockedId) {
+        super.removeDependency(blockerId, blockedId);
+    }
+
+    @Override
+    public synchronized List<Task> getBlockers(int id) {
+        return super.getBlockers(id);
+    }
+
+    @Override
+    public synchronized List<Task> getBlocked(int id) {
+        return super.getBlocked(id);
+    }
+
+    @Override
+    public synchronized CriticalPath getCriticalPath(int id) {
+        return super.getCriticalPath(id);
+    }
+
+    private void publishing(Runnable write) {
+        publishing(() -> {
+            write.run();
+            return null;
+        });
+    }
+
+    /**
+     * Publishes whatever the write changed, also when it fails halfway.
+     */
+    private <T> T publishing(Supplier<T> write) {
+        try {
+            return write.get();
+        } finally {
+            publish();
+        }
+    }
+
+    private void publish() {
+        TaskSnapshot next = snapshot;
+        for (TaskType type : TaskType.values()) {
+            if (storage.cleared[type.ordinal()]) {
+                next = next.withoutAll(type);
+            }
+            int[] ids = storage.changedIds[type.ordinal()];
+            for (int i = 0; i < storage.changedCounts[type.ordinal()]; i++) {
+                next = next.with(type, ids[i], storage.get(type, ids[i]));
+            }
+        }
+        storage.reset();
+        snapshot = next;
+    }
+
+    /**
+     * Storage that records which entries writes touched since the last publish, so publishing costs O(log n) per
+     * changed entry. A clear drops the entries recorded before it; a touched entry is published as it is stored
+     * at the end of the write.
+     */
+    private static final class ChangeTrackingStorage extends InMemoryTaskStorage {
+        private final int[][] changedIds = new int[TaskType.values().length][16];
+        private final int[] changedCounts = new int[TaskType.values().length];
+        private final boolean[] cleared = new boolean[TaskType.values().length];
+
+        @Override
+        public Task put(TaskType type, Task task) {
+            touch(type, task.getId());
+            return super.put(type, task);
+        }
+
+        @Override
+        public Task remove(TaskType type, int id) {
+            touch(type, id);
+            return super.remove(type, id);
+        }
+
+        @Override
+        public void clear(TaskType type) {
+            cleared[type.ordinal()] = true;
+            changedCounts[type.ordinal()] = 0;
+            super.clear(type);
+        }
+
+        private void touch(TaskType type, int id) {
+            int t = type.ordinal();
+            if (changedCounts[t] == changedIds[t].length) {
+                changedIds[t] = Arrays.copyOf(changedIds[t], changedIds[t].length * 2);
+            }
+            changedIds[t][changedCounts[t]++] = id;
+        }
+
+        private void reset() {
+            Arrays.fill(changedCounts, 0);
+            Arrays.fill(cleared, false);
+        }
+    }
+}
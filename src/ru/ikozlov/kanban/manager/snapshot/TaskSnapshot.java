@@ -0,0 +1,88 @@
+package ru.ikozlov.kanban.manager.snapshot;
+
+import ru.ikozlov.kanban.manager.TaskType;
+import ru.ikozlov.kanban.task.Epic;
+import ru.ikozlov.kanban.task.Subtask;
+import ru.ikozlov.kanban.task.Task;
+import ru.ikozlov.kanban.util.PersistentIntMap;
+
+import java.util.List;
+
+/**
+ * Immutable version of the manager's tasks. Entries are the frozen versions the manager stores, so an epic lists
+ * the same subtask objects the snapshot holds, and any change to a subtask republishes its epic.
+ */
+public final class TaskSnapshot {
+    static final TaskSnapshot EMPTY = new TaskSnapshot(PersistentIntMap.empty(), PersistentIntMap.empty(),
+            PersistentIntMap.empty());
+    private final PersistentIntMap<Task> tasks;
+    private final PersistentIntMap<Epic> epics;
+    private final PersistentIntMap<Subtask> subtasks;
+
+    private TaskSnapshot(PersistentIntMap<Task> tasks, PersistentIntMap<Epic> epics,
+                         PersistentIntMap<Subtask> subtasks) {
+        this.tasks = tasks;
+        this.epics = epics;
+        this.subtasks = subtasks;
+    }
+
+    public Task getTask(int id) {
+        return tasks.get(id);
+    }
+
+    public Epic getEpic(int id) {
+        return epics.get(id);
+    }
+
+    public Subtask getSubtask(int id) {
+        return subtasks.get(id);
+    }
+
+    public List<Task> getTasks() {
+        return tasks.values();
+    }
+
+    public List<Epic> getEpics() {
+        return epics.values();
+    }
+
+    public List<Subtask> getSubtasks() {
+        return subtasks.values();
+    }
+
+    public List<Task> getTasksAfter(int id, int limit) {
+        return tasks.valuesAfter(id, limit);
+    }
+
+    public List<Epic> getEpicsAfter(int id, int limit) {
+        return epics.valuesAfter(id, limit);
+    }
+
+    public List<Subtask> getSubtasksAfter(int id, int limit) {
+        return subtasks.valuesAfter(id, limit);
+    }
+
+    /**
+     * Puts the stored version of the entry, or removes the entry when task is null. Stored tasks of every type are
+     * frozen versions, so they are published as they are; an epic holds the very subtask versions published next
+     * to it.
+     */
+    TaskSnapshot with(TaskType type, int id, Task task) {
+        return switch (type) {
+            case TASK -> new TaskSnapshot(task != null ? tasks.put(id, task.version()) : tasks.remove(id), epics,
+                    subtasks);
+            case EPIC -> new TaskSnapshot(tasks,
+                    task != null ? epics.put(id, ((Epic) task).version()) : epics.remove(id), subtasks);
+            case SUBTASK -> new TaskSnapshot(tasks, epics,
+                    task != null ? subtasks.put(id, ((Subtask) task).version()) : subtasks.remove(id));
+        };
+    }
+
+    TaskSnapshot withoutAll(TaskType type) {
+        return switch (type) {
+            case TASK -> new TaskSnapshot(PersistentIntMap.empty(), epics, subtasks);
+            case EPIC -> new TaskSnapshot(tasks, PersistentIntMap.empty(), subtasks);
+            case SUBTASK -> new TaskSnapshot(tasks, epics, PersistentIntMap.empty());
+        };
+    }
+}
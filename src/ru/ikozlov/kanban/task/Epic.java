@@ -1,36 +1,121 @@
 package ru.ikozlov.kanban.task;
 
 import ru.ikozlov.kanban.manager.TaskType;
+import ru.ikozlov.kanban.util.PersistentIntMap;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.TreeSet;
+import java.util.TreeMap;
 
+/**
+ * Keeps its subtasks in a persistent map by id, so adding or removing one costs O(log n) and a view already handed
+ * out keeps the subtask set it was taken from. The epic holds the frozen versions of the subtasks it was given.
+ */
 public class Epic extends Task {
-    private List<Subtask> subtasks;
+    private PersistentIntMap<Subtask> subtasks = PersistentIntMap.empty();
+    private int[] statusCounts;
+    private TreeMap<LocalDateTime, Integer> startTimes;
+    private TreeMap<LocalDateTime, Integer> endTimes;
     private LocalDateTime endTime;
 
     public Epic(String title, String description) {
         super(title, description, Status.NEW, Duration.ZERO, null);
         this.endTime = null;
-        this.subtasks = new ArrayList<>();
+        this.statusCounts = new int[Status.values().length];
+        this.startTimes = new TreeMap<>();
+        this.endTimes = new TreeMap<>();
     }
 
     public Epic(String title, String description, List<Subtask> subtasks) {
-        super(title, description, Status.NEW, Duration.ZERO, null);
+        this(title, description);
         setSubtasks(subtasks);
     }
 
+    /**
+     * An epic whose aggregates the caller has already computed from the given subtasks, which must be in id order
+     * without repeated ids. The counters behind the aggregates are only built once the epic is changed.
+     */
+    public Epic(String title, String description, List<Subtask> subtasks, Status status, Duration duration,
+                LocalDateTime startTime, LocalDateTime endTime) {
+        super(title, description, status, duration, startTime);
+        this.endTime = endTime;
+        List<Subtask> versions = new ArrayList<>(subtasks.size());
+        for (Subtask subtask : subtasks) {
+            versions.add(subtask.version());
+        }
+        this.subtasks = PersistentIntMap.ofSorted(versions, Subtask::getId);
+    }
+
+    /**
+     * Shares the subtasks and takes the aggregates as they are; the counters behind them are left to the caller.
+     */
+    private Epic(Epic source) {
+        super(source.title, source.description, source.status, source.duration, source.startTime);
+        this.id = source.id;
+        this.subtasks = source.subtasks;
+        this.endTime = source.endTime;
+    }
+
+    /**
+     * Read-only view in id order. It keeps showing the subtask set the epic had when the view was taken.
+     */
     public List<Subtask> getSubtasks() {
-        return new ArrayList<>(subtasks);
+        return subtasks.values();
+    }
+
+    public int getSubtasksCount() {
+        return subtasks.size();
+    }
+
+    public boolean hasSubtask(int id) {
+        return subtasks.get(id) != null;
     }
 
     public void setSubtasks(List<Subtask> subtasks) {
-        this.subtasks = new TreeSet<>(subtasks).stream().toList();
-        updateStatus();
-        updateMetrics();
+        checkNotFrozen();
+        PersistentIntMap<Subtask> unique = PersistentIntMap.empty();
+        for (Subtask subtask : subtasks) {
+            if (unique.get(subtask.getId()) == null) {
+                unique = unique.put(subtask.getId(), subtask.version());
+            }
+        }
+        this.subtasks = unique;
+        count();
+        refresh();
+    }
+
+    /**
+     * Adding an id the epic already has replaces the subtask stored under it.
+     */
+    public void addSubtask(Subtask subtask) {
+        checkNotFrozen();
+        if (statusCounts == null) {
+            count();
+        }
+        Subtask version = subtask.version();
+        Subtask previous = subtasks.get(version.getId());
+        if (previous != null) {
+            exclude(previous);
+        }
+        subtasks = subtasks.put(version.getId(), version);
+        include(version);
+        refresh();
+    }
+
+    public void removeSubtask(Subtask subtask) {
+        checkNotFrozen();
+        Subtask previous = subtasks.get(subtask.getId());
+        if (previous == null) {
+            return;
+        }
+        if (statusCounts == null) {
+            count();
+        }
+        subtasks = subtasks.remove(subtask.getId());
+        exclude(previous);
+        refresh();
     }
 
     @Override
@@ -52,45 +137,36 @@ public class Epic extends Task {
         return endTime;
     }
 
-    public void updateStatus() {
-        int newSubtasks = 0;
-        int doneSubtasks = 0;
-        for (Subtask subtask : subtasks) {
-            switch (subtask.status) {
-                case NEW -> newSubtasks++;
-                case DONE -> doneSubtasks++;
-            }
-        }
-        if (subtasks.isEmpty() || newSubtasks == subtasks.size()) {
-            status = Task.Status.NEW;
-        } else if (doneSubtasks == subtasks.size()) {
-            status = Task.Status.DONE;
-        } else {
-            status = Task.Status.IN_PROGRESS;
+    private void include(Subtask subtask) {
+        statusCounts[subtask.status.ordinal()]++;
+        duration = duration.plus(subtask.duration);
+        if (subtask.startTime != null) {
+            startTimes.merge(subtask.startTime, 1, Integer::sum);
+            endTimes.merge(subtask.getEndTime(), 1, Integer::sum);
         }
     }
 
-    public void updateMetrics() {
-        duration = Duration.ZERO;
-        LocalDateTime minStartTime = null;
-        LocalDateTime maxEndTime = null;
-        for (Subtask subtask : subtasks) {
-            duration = duration.plus(subtask.duration);
-            if (minStartTime == null) {
-                minStartTime = subtask.startTime;
-            } else if (subtask.startTime != null && subtask.startTime.isBefore(minStartTime)) {
-                minStartTime = subtask.startTime;
-            }
-            if (maxEndTime == null) {
-                maxEndTime = subtask.getEndTime();
-            } else if (subtask.getEndTime() != null && subtask.getEndTime().isAfter(maxEndTime)) {
-                maxEndTime = subtask.getEndTime();
-            }
+    private void exclude(Subtask subtask) {
+        statusCounts[subtask.status.ordinal()]--;
+        duration = duration.minus(subtask.duration);
+        if (subtask.startTime != null) {
+            startTimes.computeIfPresent(subtask.startTime, (time, count) -> count > 1 ? count - 1 : null);
+            endTimes.computeIfPresent(subtask.getEndTime(), (time, count) -> count > 1 ? count - 1 : null);
         }
-        startTime = minStartTime;
-        endTime = maxEndTime;
     }
 
+    private void refresh() {
+        int size = subtasks.size();
+        if (size == 0 || statusCounts[Status.NEW.ordinal()] == size) {
+            status = Status.NEW;
+        } else if (statusCounts[Status.DONE.ordinal()] == size) {
+            status = Status.DONE;
+        } else {
+            status = Status.IN_PROGRESS;
+        }
+        startTime = startTimes.isEmpty() ? null : startTimes.firstKey();
+        endTime = endTimes.isEmpty() ? null : endTimes.lastKey();
+    }
 
     @Override
     public String toString() {
@@ -98,11 +174,55 @@ public class Epic extends Task {
                 startTime);
     }
 
+    /**
+     * A frozen copy sharing the subtasks, which are frozen versions already. The aggregates are taken as they are
+     * instead of summing the subtasks again.
+     */
+    @Override
+    public Epic version() {
+        if (frozen) {
+            return this;
+        }
+        Epic version = new Epic(this);
+        version.freeze();
+        return version;
+    }
+
+    /**
+     * The next version of this epic: an unfrozen copy that takes over the counters behind the aggregates instead of
+     * counting the subtasks again. This epic is frozen and gives the counters up, so it is the latest version that
+     * should be advanced; advancing an older one counts its subtasks again.
+     */
+    public Epic next() {
+        freeze();
+        Epic next = new Epic(this);
+        if (statusCounts == null) {
+            next.count();
+            return next;
+        }
+        next.statusCounts = statusCounts;
+        next.startTimes = startTimes;
+        next.endTimes = endTimes;
+        statusCounts = null;
+        startTimes = null;
+        endTimes = null;
+        return next;
+    }
+
     public Epic copy() {
-        Epic copy = new Epic(title, description);
-        copy.setId(id);
-        copy.setSubtasks(getSubtasks());
+        Epic copy = new Epic(this);
+        copy.count();
         return copy;
     }
 
+    private void count() {
+        statusCounts = new int[Status.values().length];
+        startTimes = new TreeMap<>();
+        endTimes = new TreeMap<>();
+        duration = Duration.ZERO;
+        for (Subtask subtask : subtasks.values()) {
+            include(subtask);
+        }
+    }
+
 }
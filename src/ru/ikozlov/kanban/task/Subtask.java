@@ -19,6 +19,7 @@ public class Subtask extends Task {
     }
 
     public void setEpicId(int epicId) {
+        checkNotFrozen();
         this.epicId = epicId;
     }
 
@@ -28,6 +29,11 @@ public class Subtask extends Task {
                 status, description, epicId, duration, startTime);
     }
 
+    @Override
+    public Subtask version() {
+        return (Subtask) super.version();
+    }
+
     public Subtask copy() {
         Subtask copy = new Subtask(title, description, status, epicId, duration, startTime);
         copy.setId(getId());
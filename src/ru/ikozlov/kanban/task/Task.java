@@ -13,6 +13,7 @@ public class Task implements Comparable<Task> {
     protected Status status;
     protected Duration duration;
     protected LocalDateTime startTime;
+    protected transient boolean frozen = false;
 
     public Task(String title, String description, Status status, Duration duration, LocalDateTime startTime) {
         this.id = null;
@@ -38,6 +39,7 @@ public class Task implements Comparable<Task> {
     }
 
     public void setTitle(String title) {
+        checkNotFrozen();
         this.title = title;
     }
 
@@ -46,6 +48,7 @@ public class Task implements Comparable<Task> {
     }
 
     public void setDescription(String description) {
+        checkNotFrozen();
         this.description = description;
     }
 
@@ -54,6 +57,7 @@ public class Task implements Comparable<Task> {
     }
 
     public void setStatus(Status status) {
+        checkNotFrozen();
         this.status = status;
     }
 
@@ -62,6 +66,7 @@ public class Task implements Comparable<Task> {
     }
 
     public void setDuration(Duration duration) {
+        checkNotFrozen();
         this.duration = duration;
     }
 
@@ -70,9 +75,40 @@ public class Task implements Comparable<Task> {
     }
 
     public void setStartTime(LocalDateTime startTime) {
+        checkNotFrozen();
         this.startTime = startTime;
     }
 
+    /**
+     * Makes the task a version that never changes again, so it can be shared where a copy was needed before.
+     * Setters of a frozen task throw IllegalStateException; an update makes a new version instead.
+     */
+    public void freeze() {
+        frozen = true;
+    }
+
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    /**
+     * The current state as a frozen task: this task if it is frozen already, a frozen copy otherwise.
+     */
+    public Task version() {
+        if (frozen) {
+            return this;
+        }
+        Task version = copy();
+        version.freeze();
+        return version;
+    }
+
+    protected void checkNotFrozen() {
+        if (frozen) {
+            throw new IllegalStateException("Task version can't be changed");
+        }
+    }
+
     public LocalDateTime getEndTime() {
         return startTime.plus(duration);
     }
@@ -107,6 +143,10 @@ public class Task implements Comparable<Task> {
         return copy;
     }
 
+    /**
+     * Tasks take up [start, end), so one may start when another ends. Tasks starting at the same time always
+     * intersect, even when one of them has no length.
+     */
     public boolean intersectsWith(Task other) {
         if (id != null && other.id != null && equals(other)) {
             return false;
@@ -114,14 +154,8 @@ public class Task implements Comparable<Task> {
         if (startTime == null || other.startTime == null) {
             return false;
         }
-        return dateBetween(startTime, other.startTime, other.getEndTime()) ||
-                dateBetween(getEndTime(), other.startTime, other.getEndTime()) ||
-                dateBetween(other.startTime, startTime, getEndTime()) ||
-                dateBetween(other.getEndTime(), startTime, getEndTime());
-    }
-
-    private boolean dateBetween(LocalDateTime d, LocalDateTime start, LocalDateTime end) {
-        return d.isEqual(start) || d.isAfter(start) && d.isBefore(end);
+        return startTime.isEqual(other.startTime)
+                || startTime.isBefore(other.getEndTime()) && other.startTime.isBefore(getEndTime());
     }
 
     public enum Status {
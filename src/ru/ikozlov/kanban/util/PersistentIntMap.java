@@ -0,0 +1,334 @@
+package ru.ikozlov.kanban.util;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * Immutable AVL tree keyed by int. Every update copies only the path from the root to the changed node, so
+ * versions share all untouched subtrees.
+ */
+public final class PersistentIntMap<V> {
+    private static final PersistentIntMap<?> EMPTY = new PersistentIntMap<>(null);
+    private final Node<V> root;
+    private final List<V> values;
+
+    private PersistentIntMap(Node<V> root) {
+        this.root = root;
+        this.values = new ValuesView<>(root);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <V> PersistentIntMap<V> empty() {
+        return (PersistentIntMap<V>) EMPTY;
+    }
+
+    /**
+     * Builds a balanced map from values already in strictly increasing key order in O(n), without rebalancing.
+     */
+    public static <V> PersistentIntMap<V> ofSorted(List<? extends V> values, ToIntFunction<? super V> key) {
+        if (values.isEmpty()) {
+            return empty();
+        }
+        return new PersistentIntMap<>(build(values, key, 0, values.size()));
+    }
+
+    public int size() {
+        return size(root);
+    }
+
+    public V get(int key) {
+        Node<V> node = root;
+        while (node != null) {
+            if (key < node.key) {
+                node = node.left;
+            } else if (key > node.key) {
+                node = node.right;
+            } else {
+                return node.value;
+            }
+        }
+        return null;
+    }
+
+    public PersistentIntMap<V> put(int key, V value) {
+        return new PersistentIntMap<>(insert(root, key, value));
+    }
+
+    public PersistentIntMap<V> remove(int key) {
+        if (get(key) == null) {
+            return this;
+        }
+        return new PersistentIntMap<>(delete(root, key));
+    }
+
+    /**
+     * Read-only values in key order.
+     */
+    public List<V> values() {
+        return values;
+    }
+
+    /**
+     * Read-only view of up to limit values with keys greater than the given one, in key order.
+     */
+    public List<V> valuesAfter(int key, int limit) {
+        int from = 0;
+        Node<V> node = root;
+        while (node != null) {
+            if (key < node.key) {
+                node = node.left;
+            } else {
+                from += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return values.subList(from, (int) Math.min((long) from + Math.max(limit, 0), values.size()));
+    }
+
+    private static <V> Node<V> build(List<? extends V> values, ToIntFunction<? super V> key, int from, int to) {
+        if (from == to) {
+            return null;
+        }
+        int middle = (from + to) >>> 1;
+        V value = values.get(middle);
+        return new Node<>(key.applyAsInt(value), value, build(values, key, from, middle),
+                build(values, key, middle + 1, to));
+    }
+
+    private static <V> int size(Node<V> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static <V> int height(Node<V> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static <V> Node<V> insert(Node<V> node, int key, V value) {
+        if (node == null) {
+            return new Node<>(key, value, null, null);
+        }
+        if (key < node.key) {
+            return balance(node.key, node.value, insert(node.left, key, value), node.right);
+        }
+        if (key > node.key) {
+            return balance(node.key, node.value, node.left, insert(node.right, key, value));
+        }
+        return new Node<>(key, value, node.left, node.right);
+    }
+
+    private static <V> Node<V> delete(Node<V> node, int key) {
+        if (key < node.key) {
+            return balance(node.key, node.value, delete(node.left, key), node.right);
+        }
+        if (key > node.key) {
+            return balance(node.key, node.value, node.left, delete(node.right, key));
+        }
+        if (node.left == null) {
+            return node.right;
+        }
+        if (node.right == null) {
+            return node.left;
+        }
+        Node<V> successor = node.right;
+        while (successor.left != null) {
+            successor = successor.left;
+        }
+        return balance(successor.key, successor.value, node.left, delete(node.right, successor.key));
+    }
+
+    private static <V> Node<V> balance(int key, V value, Node<V> left, Node<V> right) {
+        int factor = height(left) - height(right);
+        if (factor > 1) {
+            if (height(left.left) < height(left.right)) {
+                left = rotateLeft(left);
+            }
+            return new Node<>(left.key, left.value, left.left, new Node<>(key, value, left.right, right));
+        }
+        if (factor < -1) {
+            if (height(right.right) < height(right.left)) {
+                right = rotateRight(right);
+            }
+            return new Node<>(right.key, right.value, new Node<>(key, value, left, right.left), right.right);
+        }
+        return new Node<>(key, value, left, right);
+    }
+
+    private static <V> Node<V> rotateLeft(Node<V> node) {
+        Node<V> right = node.right;
+        return new Node<>(right.key, right.value, new Node<>(node.key, node.value, node.left, right.left),
+                right.right);
+    }
+
+    private static <V> Node<V> rotateRight(Node<V> node) {
+        Node<V> left = node.left;
+        return new Node<>(left.key, left.value, left.left,
+                new Node<>(node.key, node.value, left.right, node.right));
+    }
+
+    private static final class Node<V> {
+        final int key;
+        final V value;
+        final Node<V> left;
+        final Node<V> right;
+        final int height;
+        final int size;
+
+        Node(int key, V value, Node<V> left, Node<V> right) {
+            this.key = key;
+            this.value = value;
+            this.left = left;
+            this.right = right;
+            this.height = 1 + Math.max(PersistentIntMap.height(left), PersistentIntMap.height(right));
+            this.size = 1 + PersistentIntMap.size(left) + PersistentIntMap.size(right);
+        }
+    }
+
+    private static final class ValuesView<V> extends AbstractList<V> {
+        private final Node<V> root;
+
+        ValuesView(Node<V> root) {
+            this.root = root;
+        }
+
+        @Override
+        public V get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            Node<V> node = root;
+            while (true) {
+                int leftSize = PersistentIntMap.size(node.left);
+                if (index < leftSize) {
+                    node = node.left;
+                } else if (index > leftSize) {
+                    index -= leftSize + 1;
+                    node = node.right;
+                } else {
+                    return node.value;
+                }
+            }
+        }
+
+        @Override
+        public int size() {
+            return PersistentIntMap.size(root);
+        }
+
+        @Override
+        public Iterator<V> iterator() {
+            Deque<Node<V>> path = new ArrayDeque<>();
+            for (Node<V> node = root; node != null; node = node.left) {
+                path.push(node);
+            }
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return !path.isEmpty();
+                }
+
+                @Override
+                public V next() {
+                    if (path.isEmpty()) {
+                        throw new NoSuchElementException();
+                    }
+                    Node<V> node = path.pop();
+                    for (Node<V> next = node.right; next != null; next = next.left) {
+                        path.push(next);
+                    }
+                    return node.value;
+                }
+            };
+        }
+
+        @Override
+        public Spliterator<V> spliterator() {
+            return new RangeSpliterator<>(root, 0, size());
+        }
+    }
+
+    /**
+     * Values with ranks in [from, to). Subtree sizes give exact sizes for both halves of a split; traversal seeks
+     * the first rank once and then walks the tree in order.
+     */
+    private static final class RangeSpliterator<V> implements Spliterator<V> {
+        private final Node<V> root;
+        private final int to;
+        private int from;
+        private Deque<Node<V>> path;
+
+        RangeSpliterator(Node<V> root, int from, int to) {
+            this.root = root;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super V> action) {
+            if (from >= to) {
+                return false;
+            }
+            if (path == null) {
+                seek();
+            }
+            Node<V> node = path.pop();
+            for (Node<V> next = node.right; next != null; next = next.left) {
+                path.push(next);
+            }
+            from++;
+            action.accept(node.value);
+            return true;
+        }
+
+        @Override
+        public Spliterator<V> trySplit() {
+            int middle = (from + to) >>> 1;
+            if (middle <= from) {
+                return null;
+            }
+            Spliterator<V> prefix = new RangeSpliterator<>(root, from, middle);
+            from = middle;
+            path = null;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return to - from;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.IMMUTABLE
+                    | Spliterator.NONNULL;
+        }
+
+        /**
+         * Stacks the ancestors that follow the node of rank from, with that node on top.
+         */
+        private void seek() {
+            path = new ArrayDeque<>();
+            Node<V> node = root;
+            int index = from;
+            while (node != null) {
+                int leftSize = PersistentIntMap.size(node.left);
+                if (index < leftSize) {
+                    path.push(node);
+                    node = node.left;
+                } else if (index > leftSize) {
+                    index -= leftSize + 1;
+                    node = node.right;
+                } else {
+                    path.push(node);
+                    return;
+                }
+            }
+        }
+    }
+}
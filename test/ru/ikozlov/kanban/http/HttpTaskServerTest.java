@@ -6,10 +6,16 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import ru.ikozlov.kanban.http.handler.BaseHttpHandler;
+import ru.ikozlov.kanban.http.util.DayWorkloadsListTypeToken;
 import ru.ikozlov.kanban.http.util.EpicsListTypeToken;
 import ru.ikozlov.kanban.http.util.SubtasksListTypeToken;
 import ru.ikozlov.kanban.http.util.TasksListTypeToken;
+import ru.ikozlov.kanban.http.util.TimeSlotsListTypeToken;
+import ru.ikozlov.kanban.manager.CriticalPath;
+import ru.ikozlov.kanban.manager.DayWorkload;
+import ru.ikozlov.kanban.manager.Managers;
 import ru.ikozlov.kanban.manager.TaskManager;
+import ru.ikozlov.kanban.manager.TimeSlot;
 import ru.ikozlov.kanban.manager.inmemory.InMemoryTaskManager;
 import ru.ikozlov.kanban.task.Epic;
 import ru.ikozlov.kanban.task.Subtask;
@@ -20,8 +26,11 @@ import ru.ikozlov.kanban.testdata.SubtaskBuilder;
 import ru.ikozlov.kanban.testdata.TaskBuilder;
 
 import java.io.IOException;
+import java.net.URLEncoder;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -45,6 +54,20 @@ public class HttpTaskServerTest {
     }
 
 
+    @Test
+    void defaultServerStopsItsHistoryThread() throws IOException {
+        taskServer.stop();
+        long before = historyThreads();
+        taskServer = new HttpTaskServer();
+        taskServer.start();
+        Assertions.assertEquals(before + 1, historyThreads());
+        taskServer.stop();
+
+        Assertions.assertEquals(before, historyThreads());
+        taskServer = new HttpTaskServer(taskManager);
+        taskServer.start();
+    }
+
     @Test
     void getTasksList() throws IOException, InterruptedException {
         taskManager.createTask(new TaskBuilder(1).build());
@@ -453,4 +476,283 @@ public class HttpTaskServerTest {
         Assertions.assertEquals(2, obtainedTasks.get(2).getId());
         Assertions.assertEquals(3, obtainedTasks.getLast().getId());
     }
+
+    @Test
+    void getPrioritizedWindow() throws IOException, InterruptedException {
+        LocalDateTime now = LocalDateTime.of(2024, 1, 1, 10, 0);
+        taskManager.createTask(new TaskBuilder(1).startTime(now).build());
+        taskManager.createTask(new TaskBuilder(2).startTime(now.plusHours(2)).build());
+        taskManager.createTask(new TaskBuilder(3).startTime(now.plusHours(4)).build());
+        HttpResponse<String> response = taskClient.getPrioritized("from=" + now.plusHours(1) + "&to="
+                + now.plusHours(4));
+
+        Assertions.assertEquals(200, response.statusCode());
+        List<Task> obtainedTasks = gson.fromJson(response.body(), new TasksListTypeToken().getType());
+        Assertions.assertEquals(1, obtainedTasks.size());
+        Assertions.assertEquals(2, obtainedTasks.getFirst().getId());
+    }
+
+    @Test
+    void getPrioritizedPage() throws IOException, InterruptedException {
+        LocalDateTime now = LocalDateTime.of(2024, 1, 1, 10, 0);
+        taskManager.createTask(new TaskBuilder(1).startTime(now).build());
+        taskManager.createTask(new TaskBuilder(2).startTime(now.plusHours(2)).build());
+        taskManager.createTask(new TaskBuilder(3).startTime(now.plusHours(4)).build());
+        HttpResponse<String> response = taskClient.getPrioritized("limit=2");
+
+        Assertions.assertEquals(200, response.statusCode());
+        List<Task> firstPage = gson.fromJson(response.body(), new TasksListTypeToken().getType());
+        Assertions.assertEquals(2, firstPage.size());
+        String cursor = firstPage.getLast().getStartTime() + "," + firstPage.getLast().getId();
+        Assertions.assertEquals(cursor, response.headers().firstValue("Next-Cursor").orElseThrow());
+        response = taskClient.getPrioritized("limit=2&cursor=" + URLEncoder.encode(cursor, StandardCharsets.UTF_8));
+        List<Task> secondPage = gson.fromJson(response.body(), new TasksListTypeToken().getType());
+        Assertions.assertEquals(1, secondPage.size());
+        Assertions.assertEquals(3, secondPage.getFirst().getId());
+    }
+
+    @Test
+    void getPrioritizedRangeWithLimit() throws IOException, InterruptedException {
+        LocalDateTime now = LocalDateTime.of(2024, 1, 1, 10, 0);
+        HttpResponse<String> response = taskClient.getPrioritized("from=" + now + "&to=" + now.plusHours(4)
+                + "&limit=2");
+
+        Assertions.assertEquals(400, response.statusCode());
+    }
+
+    @Test
+    void getPrioritizedWithInvalidParams() throws IOException, InterruptedException {
+        HttpResponse<String> response = taskClient.getPrioritized("from=yesterday&to=today");
+
+        Assertions.assertEquals(400, response.statusCode());
+    }
+
+    @Test
+    void getSubtasksFiltered() throws IOException, InterruptedException {
+        Epic epic = taskManager.createEpic(new EpicBuilder(1).build());
+        taskManager.createSubtask(new SubtaskBuilder(2, epic.getId()).status(Task.Status.DONE).build());
+        taskManager.createSubtask(new SubtaskBuilder(3, epic.getId()).build());
+        HttpResponse<String> response = taskClient.getSubtasks("status=DONE&epicId=1");
+
+        Assertions.assertEquals(200, response.statusCode());
+        List<Subtask> obtainedSubtasks = gson.fromJson(response.body(), new SubtasksListTypeToken().getType());
+        Assertions.assertEquals(1, obtainedSubtasks.size());
+        Assertions.assertEquals(2, obtainedSubtasks.getFirst().getId());
+        Assertions.assertEquals(epic.getId(), obtainedSubtasks.getFirst().getEpicId());
+    }
+
+    @Test
+    void search() throws IOException, InterruptedException {
+        taskManager.createTask(new TaskBuilder(1).title("Write release notes").build());
+        taskManager.createTask(new TaskBuilder(2).title("Plan release").build());
+        taskManager.createTask(new TaskBuilder(3).title("Write tests").build());
+        HttpResponse<String> response = taskClient.search("q=write%20rel*");
+
+        Assertions.assertEquals(200, response.statusCode());
+        List<Task> obtainedTasks = gson.fromJson(response.body(), new TasksListTypeToken().getType());
+        Assertions.assertEquals(1, obtainedTasks.size());
+        Assertions.assertEquals(1, obtainedTasks.getFirst().getId());
+    }
+
+    @Test
+    void searchWithoutQuery() throws IOException, InterruptedException {
+        HttpResponse<String> response = taskClient.search("limit=10");
+
+        Assertions.assertEquals(400, response.statusCode());
+    }
+
+    @Test
+    void getFreeSlot() throws IOException, InterruptedException {
+        LocalDateTime now = LocalDateTime.of(2024, 3, 1, 9, 0);
+        taskManager.createTask(new TaskBuilder(1).startTime(now).duration(Duration.ofHours(1)).build());
+        taskManager.createTask(new TaskBuilder(2).startTime(now.plusHours(2)).duration(Duration.ofHours(1)).build());
+        HttpResponse<String> response = taskClient.getSlots("after=" + now + "&duration=PT90M");
+
+        Assertions.assertEquals(200, response.statusCode());
+        TimeSlot slot = gson.fromJson(response.body(), TimeSlot.class);
+        Assertions.assertEquals(new TimeSlot(now.plusHours(3), null), slot);
+    }
+
+    @Test
+    void getFreeSlotsInWindow() throws IOException, InterruptedException {
+        LocalDateTime now = LocalDateTime.of(2024, 3, 1, 9, 0);
+        taskManager.createTask(new TaskBuilder(1).startTime(now).duration(Duration.ofHours(1)).build());
+        taskManager.createTask(new TaskBuilder(2).startTime(now.plusHours(2)).duration(Duration.ofHours(1)).build());
+        HttpResponse<String> response = taskClient.getSlots("from=" + now + "&to=" + now.plusHours(8)
+                + "&duration=PT30M&limit=1");
+
+        Assertions.assertEquals(200, response.statusCode());
+        List<TimeSlot> slots = gson.fromJson(response.body(), new TimeSlotsListTypeToken().getType());
+        Assertions.assertEquals(List.of(new TimeSlot(now.plusHours(3), now.plusHours(8))), slots);
+    }
+
+    @Test
+    void getFreeSlotWithInvalidDuration() throws IOException, InterruptedException {
+        Assertions.assertEquals(400, taskClient.getSlots("duration=hour").statusCode());
+        Assertions.assertEquals(400, taskClient.getSlots("after=2024-03-01T09:00").statusCode());
+    }
+
+    @Test
+    void getWorkload() throws IOException, InterruptedException {
+        LocalDate day = LocalDate.of(2024, 3, 1);
+        taskManager.createTask(new TaskBuilder(1).startTime(day.atTime(23, 0)).duration(Duration.ofHours(2)).build());
+        HttpResponse<String> response = taskClient.getWorkload("from=" + day + "&to=" + day.plusDays(2));
+
+        Assertions.assertEquals(200, response.statusCode());
+        List<DayWorkload> workload = gson.fromJson(response.body(), new DayWorkloadsListTypeToken().getType());
+        Assertions.assertEquals(List.of(new DayWorkload(day, Duration.ofHours(1), 1),
+                new DayWorkload(day.plusDays(1), Duration.ofHours(1), 1)), workload);
+    }
+
+    @Test
+    void getWorkloadWithoutRange() throws IOException, InterruptedException {
+        Assertions.assertEquals(400, taskClient.getWorkload("from=2024-03-01").statusCode());
+        Assertions.assertEquals(400, taskClient.getWorkload("from=2024-03-01&to=march").statusCode());
+    }
+
+    @Test
+    void getWorkloadOfTooLongRange() throws IOException, InterruptedException {
+        Assertions.assertEquals(200, taskClient.getWorkload("from=2024-01-01&to=2025-01-01").statusCode());
+        Assertions.assertEquals(400, taskClient.getWorkload("from=2024-01-01&to=2025-01-02").statusCode());
+        Assertions.assertEquals(400, taskClient.getWorkload("from=0001-01-01&to=9999-12-31").statusCode());
+    }
+
+    @Test
+    void postDependencyAndGetCriticalPath() throws IOException, InterruptedException {
+        LocalDateTime now = LocalDateTime.of(2024, 3, 1, 9, 0);
+        Task first = taskManager.createTask(new TaskBuilder(1).startTime(now).duration(Duration.ofHours(1)).build());
+        Task second = taskManager.createTask(new TaskBuilder(2).startTime(null).duration(Duration.ofHours(2))
+                .build());
+        HttpResponse<String> response = taskClient.postDependency(first.getId(), second.getId());
+
+        Assertions.assertEquals(201, response.statusCode());
+        response = taskClient.getDependencies(second.getId(), "path");
+        Assertions.assertEquals(200, response.statusCode());
+        CriticalPath path = gson.fromJson(response.body(), CriticalPath.class);
+        Assertions.assertEquals(new CriticalPath(List.of(first.getId(), second.getId()), Duration.ofHours(3),
+                now.plusHours(3)), path);
+        response = taskClient.getDependencies(second.getId(), "blockers");
+        List<Task> blockers = gson.fromJson(response.body(), new TasksListTypeToken().getType());
+        Assertions.assertEquals(List.of(first), blockers);
+    }
+
+    @Test
+    void deleteDependency() throws IOException, InterruptedException {
+        Task first = taskManager.createTask(new TaskBuilder(1).build());
+        Task second = taskManager.createTask(new TaskBuilder(2).build());
+        taskManager.addDependency(first.getId(), second.getId());
+        HttpResponse<String> response = taskClient.deleteDependency(first.getId(), second.getId());
+
+        Assertions.assertEquals(200, response.statusCode());
+        Assertions.assertTrue(taskManager.getBlocked(first.getId()).isEmpty());
+    }
+
+    @Test
+    void postInvalidDependency() throws IOException, InterruptedException {
+        Task first = taskManager.createTask(new TaskBuilder(1).build());
+        Task second = taskManager.createTask(new TaskBuilder(2).build());
+        Epic epic = taskManager.createEpic(new EpicBuilder(3).build());
+        taskManager.addDependency(first.getId(), second.getId());
+
+        Assertions.assertEquals(400, taskClient.postDependency(second.getId(), first.getId()).statusCode());
+        Assertions.assertEquals(400, taskClient.postDependency(epic.getId(), first.getId()).statusCode());
+        Assertions.assertEquals(404, taskClient.postDependency(first.getId(), 100).statusCode());
+        Assertions.assertEquals(404, taskClient.getDependencies(100, "path").statusCode());
+    }
+
+    @Test
+    void getTasksByCursor() throws IOException, InterruptedException {
+        for (int i = 1; i <= 3; i++) {
+            taskManager.createTask(new TaskBuilder(i).startTime(null).build());
+        }
+        HttpResponse<String> response = taskClient.getTasks("limit=2");
+
+        Assertions.assertEquals(200, response.statusCode());
+        List<Task> firstPage = gson.fromJson(response.body(), new TasksListTypeToken().getType());
+        Assertions.assertEquals(List.of(1, 2), firstPage.stream().map(Task::getId).toList());
+        String cursor = response.headers().firstValue("Next-Cursor").orElseThrow();
+        response = taskClient.getTasks("cursor=" + cursor + "&limit=2");
+        List<Task> secondPage = gson.fromJson(response.body(), new TasksListTypeToken().getType());
+        Assertions.assertEquals(List.of(3), secondPage.stream().map(Task::getId).toList());
+        Assertions.assertTrue(response.headers().firstValue("Next-Cursor").isEmpty());
+    }
+
+    @Test
+    void getEpicsAndSubtasksByCursor() throws IOException, InterruptedException {
+        Epic epic = taskManager.createEpic(new EpicBuilder(1).build());
+        taskManager.createSubtask(new SubtaskBuilder(2, epic.getId()).startTime(null).build());
+        taskManager.createEpic(new EpicBuilder(3).build());
+        HttpResponse<String> response = taskClient.getEpics("cursor=" + epic.getId());
+
+        List<Epic> epics = gson.fromJson(response.body(), new EpicsListTypeToken().getType());
+        Assertions.assertEquals(List.of(3), epics.stream().map(Task::getId).toList());
+        response = taskClient.getSubtasks("limit=1");
+        List<Subtask> subtasks = gson.fromJson(response.body(), new SubtasksListTypeToken().getType());
+        Assertions.assertEquals(List.of(2), subtasks.stream().map(Task::getId).toList());
+    }
+
+    @Test
+    void getPrioritizedByCursor() throws IOException, InterruptedException {
+        LocalDateTime now = LocalDateTime.of(2024, 3, 1, 9, 0);
+        for (int i = 1; i <= 3; i++) {
+            taskManager.createTask(new TaskBuilder(i).startTime(now.plusHours(i)).build());
+        }
+        HttpResponse<String> response = taskClient.getPrioritized("limit=2");
+        String cursor = response.headers().firstValue("Next-Cursor").orElseThrow();
+        response = taskClient.getPrioritized("limit=2&cursor=" + URLEncoder.encode(cursor, StandardCharsets.UTF_8));
+
+        List<Task> secondPage = gson.fromJson(response.body(), new TasksListTypeToken().getType());
+        Assertions.assertEquals(List.of(3), secondPage.stream().map(Task::getId).toList());
+    }
+
+    @Test
+    void getHistoryOfSession() throws IOException, InterruptedException {
+        taskServer.stop();
+        taskManager = new InMemoryTaskManager(Managers.getSessionHistory(100, Duration.ofHours(1)));
+        taskServer = new HttpTaskServer(taskManager);
+        taskServer.start();
+        for (int i = 1; i <= 3; i++) {
+            taskManager.createTask(new TaskBuilder(i).startTime(null).build());
+        }
+        taskClient.getTaskById(1, "alice");
+        taskClient.getTaskById(2, "bob");
+        taskClient.getTaskById(3, "alice");
+        taskClient.deleteTask(3);
+
+        List<Task> alice = gson.fromJson(taskClient.getSessionHistory("alice").body(),
+                new TasksListTypeToken().getType());
+        List<Task> bob = gson.fromJson(taskClient.getSessionHistory("bob").body(), new TasksListTypeToken().getType());
+        Assertions.assertEquals(List.of(1), alice.stream().map(Task::getId).toList());
+        Assertions.assertEquals(List.of(2), bob.stream().map(Task::getId).toList());
+        Assertions.assertEquals(400, taskClient.getSessionHistory("x".repeat(200)).statusCode());
+    }
+
+    @Test
+    void getHistoryByCursor() throws IOException, InterruptedException {
+        for (int i = 1; i <= 3; i++) {
+            taskManager.createTask(new TaskBuilder(i).startTime(null).build());
+            taskManager.getTask(i);
+        }
+        HttpResponse<String> response = taskClient.getHistory("limit=2");
+        String cursor = response.headers().firstValue("Next-Cursor").orElseThrow();
+        response = taskClient.getHistory("limit=2&cursor=" + cursor);
+
+        List<Task> secondPage = gson.fromJson(response.body(), new TasksListTypeToken().getType());
+        Assertions.assertEquals(List.of(1), secondPage.stream().map(Task::getId).toList());
+    }
+
+    @Test
+    void getPageWithInvalidParams() throws IOException, InterruptedException {
+        Assertions.assertEquals(400, taskClient.getTasks("limit=0").statusCode());
+        Assertions.assertEquals(400, taskClient.getTasks("cursor=first").statusCode());
+        Assertions.assertEquals(400, taskClient.getTasks("cursor=1&status=NEW").statusCode());
+        Assertions.assertEquals(400, taskClient.getHistory("cursor=first").statusCode());
+        Assertions.assertEquals(400, taskClient.getPrioritized("cursor=first").statusCode());
+    }
+
+    private static long historyThreads() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().equals("history-views") && thread.isAlive())
+                .count();
+    }
 }
@@ -0,0 +1,85 @@
+package ru.ikozlov.kanban.manager;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.ikozlov.kanban.manager.concurrent.AsyncHistoryManager;
+import ru.ikozlov.kanban.manager.inmemory.InMemoryHistoryManager;
+import ru.ikozlov.kanban.manager.inmemory.SessionHistoryManager;
+import ru.ikozlov.kanban.task.Task;
+import ru.ikozlov.kanban.testdata.TaskBuilder;
+
+import java.time.Duration;
+import java.util.List;
+
+class AsyncHistoryManagerTest extends HistoryManagerTest<AsyncHistoryManager> {
+
+    @BeforeEach
+    void setup() {
+        historyManager = AsyncHistoryManager.start(new InMemoryHistoryManager());
+    }
+
+    @AfterEach
+    void close() {
+        historyManager.close();
+    }
+
+    @Test
+    void moreViewsThanRingHoldsAreKept() {
+        for (int i = 0; i < 100_000; i++) {
+            historyManager.add(new TaskBuilder(i % 1000 + 1).build());
+        }
+        List<Task> records = historyManager.getHistory();
+
+        Assertions.assertEquals(1000, records.size());
+        Assertions.assertEquals(1000, records.getFirst().getId());
+        Assertions.assertEquals(1, records.getLast().getId());
+    }
+
+    @Test
+    void viewsAreAppliedInTheirSession() {
+        AsyncHistoryManager async = AsyncHistoryManager.start(new SessionHistoryManager(100, Duration.ofHours(1)));
+        String previous = HistorySession.enter("alice");
+        try {
+            async.add(new TaskBuilder(1).build());
+        } finally {
+            HistorySession.exit(previous);
+        }
+        List<Task> shared = async.getHistory();
+        previous = HistorySession.enter("alice");
+        try {
+            Assertions.assertEquals(List.of(1), async.getHistory().stream().map(Task::getId).toList());
+        } finally {
+            HistorySession.exit(previous);
+        }
+        async.close();
+
+        Assertions.assertTrue(shared.isEmpty());
+    }
+
+    @Test
+    void closeAppliesPendingViews() {
+        InMemoryHistoryManager delegate = new InMemoryHistoryManager();
+        AsyncHistoryManager async = AsyncHistoryManager.start(delegate);
+        for (int i = 1; i <= 10; i++) {
+            async.add(new TaskBuilder(i).build());
+        }
+        async.close();
+
+        Assertions.assertEquals(10, delegate.getHistory().size());
+        Assertions.assertThrows(IllegalStateException.class, () -> async.add(new TaskBuilder(11).build()));
+    }
+
+    @Test
+    void interruptedCloseKeepsInterruptFlag() {
+        for (int i = 1; i <= 10; i++) {
+            historyManager.add(new TaskBuilder(i).build());
+        }
+        Thread.currentThread().interrupt();
+        historyManager.close();
+
+        Assertions.assertTrue(Thread.interrupted());
+        Assertions.assertEquals(10, historyManager.getHistory().size());
+    }
+}
@@ -0,0 +1,73 @@
+package ru.ikozlov.kanban.manager;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.ikozlov.kanban.manager.event.AsyncTaskListener;
+import ru.ikozlov.kanban.task.Task;
+import ru.ikozlov.kanban.testdata.TaskBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+class AsyncTaskListenerTest {
+
+    @Test
+    void deliversQueuedEventsInBatchesOnClose() {
+        CountDownLatch release = new CountDownLatch(1);
+        List<List<TaskEvent>> batches = new ArrayList<>();
+        AsyncTaskListener listener = new AsyncTaskListener(events -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            batches.add(events);
+        });
+        TaskManager taskManager = Managers.getDefault();
+        taskManager.addListener(listener);
+        for (int i = 1; i <= 100; i++) {
+            taskManager.createTask(new TaskBuilder(i).startTime(null).build());
+        }
+        release.countDown();
+        listener.close();
+
+        List<Integer> ids = batches.stream().flatMap(List::stream).map(x -> x.getTask().getId()).toList();
+        Assertions.assertEquals(100, ids.size());
+        Assertions.assertEquals(ids.stream().sorted().toList(), ids);
+        Assertions.assertTrue(batches.size() < 100);
+    }
+
+    @Test
+    void closedListenerRejectsEvents() {
+        AsyncTaskListener listener = new AsyncTaskListener(events -> {
+        });
+        listener.close();
+        Task task = new TaskBuilder(1).build();
+
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> listener.onEvents(List.of(new TaskEvent(TaskEvent.Kind.CREATED, task))));
+    }
+
+    @Test
+    void interruptedCloseKeepsInterruptFlag() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch delivered = new CountDownLatch(1);
+        AsyncTaskListener listener = new AsyncTaskListener(events -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            delivered.countDown();
+        });
+        listener.onEvents(List.of(new TaskEvent(TaskEvent.Kind.CREATED, new TaskBuilder(1).build())));
+        Thread.currentThread().interrupt();
+        listener.close();
+
+        Assertions.assertTrue(Thread.interrupted());
+        release.countDown();
+        Assertions.assertTrue(delivered.await(5, TimeUnit.SECONDS));
+    }
+}
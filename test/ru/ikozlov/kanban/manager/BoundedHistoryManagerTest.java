@@ -0,0 +1,89 @@
+package ru.ikozlov.kanban.manager;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.ikozlov.kanban.manager.inmemory.BoundedHistoryManager;
+import ru.ikozlov.kanban.task.Epic;
+import ru.ikozlov.kanban.task.Subtask;
+import ru.ikozlov.kanban.task.Task;
+import ru.ikozlov.kanban.testdata.EpicBuilder;
+import ru.ikozlov.kanban.testdata.SubtaskBuilder;
+import ru.ikozlov.kanban.testdata.TaskBuilder;
+
+import java.util.List;
+
+class BoundedHistoryManagerTest extends HistoryManagerTest<BoundedHistoryManager> {
+
+    @BeforeEach
+    void setup() {
+        historyManager = new BoundedHistoryManager(100);
+    }
+
+    @Test
+    void evictsOldestViewOverCapacity() {
+        historyManager = new BoundedHistoryManager(3);
+        for (int i = 1; i <= 4; i++) {
+            historyManager.add(new TaskBuilder(i).build());
+        }
+        historyManager.add(new TaskBuilder(2).build());
+        historyManager.add(new TaskBuilder(5).build());
+
+        Assertions.assertEquals(List.of(5, 2, 4), ids(historyManager.getHistory()));
+    }
+
+    @Test
+    void removedSlotsAreReused() {
+        historyManager = new BoundedHistoryManager(2);
+        historyManager.add(new TaskBuilder(1).build());
+        historyManager.add(new TaskBuilder(2).build());
+        historyManager.remove(1);
+        historyManager.add(new TaskBuilder(3).build());
+        historyManager.remove(2);
+        historyManager.add(new TaskBuilder(4).build());
+
+        Assertions.assertEquals(List.of(4, 3), ids(historyManager.getHistory()));
+    }
+
+    @Test
+    void pagesContinueAfterCursorViewIsEvicted() {
+        historyManager = new BoundedHistoryManager(4);
+        for (int i = 1; i <= 4; i++) {
+            historyManager.add(new TaskBuilder(i).build());
+        }
+        Page<Task> firstPage = historyManager.getHistory(null, 3);
+        historyManager.add(new TaskBuilder(5).build());
+        historyManager.add(new TaskBuilder(6).build());
+        Page<Task> secondPage = historyManager.getHistory(firstPage.getNextCursor(), 3);
+
+        Assertions.assertEquals(List.of(4, 3, 2), ids(firstPage.getItems()));
+        Assertions.assertEquals(List.of(), ids(secondPage.getItems()));
+        Assertions.assertNull(secondPage.getNextCursor());
+    }
+
+    @Test
+    void recordsEpicWithSubtasks() {
+        Epic epic = new EpicBuilder(1).build();
+        Subtask first = new SubtaskBuilder(2, 1).status(Task.Status.DONE).build();
+        Subtask second = new SubtaskBuilder(3, 1).status(Task.Status.DONE).build();
+        epic.setSubtasks(List.of(first, second));
+        historyManager.add(epic);
+        epic.setSubtasks(List.of(first));
+        historyManager.add(first);
+        Epic record = (Epic) historyManager.getHistory().getLast();
+        Subtask subtaskRecord = (Subtask) historyManager.getHistory().getFirst();
+
+        Assertions.assertEquals(List.of(first, second), record.getSubtasks());
+        Assertions.assertEquals(Task.Status.DONE, record.getStatus());
+        Assertions.assertEquals(1, subtaskRecord.getEpicId());
+    }
+
+    @Test
+    void rejectsNonPositiveCapacity() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new BoundedHistoryManager(0));
+    }
+
+    private static List<Integer> ids(List<Task> tasks) {
+        return tasks.stream().map(Task::getId).toList();
+    }
+}
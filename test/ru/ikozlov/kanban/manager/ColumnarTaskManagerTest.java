@@ -0,0 +1,66 @@
+package ru.ikozlov.kanban.manager;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.ikozlov.kanban.manager.columnar.ColumnarTaskManager;
+import ru.ikozlov.kanban.task.Epic;
+import ru.ikozlov.kanban.task.Subtask;
+import ru.ikozlov.kanban.task.Task;
+import ru.ikozlov.kanban.testdata.EpicBuilder;
+import ru.ikozlov.kanban.testdata.SubtaskBuilder;
+import ru.ikozlov.kanban.testdata.TaskBuilder;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+class ColumnarTaskManagerTest extends TaskManagerTest<ColumnarTaskManager> {
+
+    @BeforeEach
+    void setup() {
+        taskManager = new ColumnarTaskManager();
+    }
+
+    @Test
+    @Override
+    void epicSubtasksResolvedFromStorage() {
+        Epic epic = new EpicBuilder(1).build();
+        taskManager.createEpic(epic);
+        Subtask subtask1 = taskManager.createSubtask(new SubtaskBuilder(3, epic.getId()).startTime(null).build());
+        Subtask subtask2 = taskManager.createSubtask(new SubtaskBuilder(2, epic.getId()).startTime(null).build());
+        List<Subtask> subtasks = taskManager.getEpicSubtasks(1);
+
+        Assertions.assertEquals(List.of(subtask1, subtask2), subtasks);
+        Assertions.assertEquals(taskManager.getSubtask(subtask1.getId()), subtasks.getFirst());
+        Assertions.assertThrows(UnsupportedOperationException.class, subtasks::removeFirst);
+    }
+
+    @Test
+    void epicAggregatesFollowSubtaskChanges() {
+        LocalDateTime now = LocalDateTime.now();
+        int first = taskManager.createEpic(new EpicBuilder(null).build()).getId();
+        int second = taskManager.createEpic(new EpicBuilder(null).build()).getId();
+        int early = taskManager.createSubtask(new SubtaskBuilder(null, first).status(Task.Status.DONE)
+                .startTime(now).duration(Duration.ofMinutes(10)).build()).getId();
+        int late = taskManager.createSubtask(new SubtaskBuilder(null, first).status(Task.Status.DONE)
+                .startTime(now.plusHours(2)).duration(Duration.ofMinutes(30)).build()).getId();
+        taskManager.createSubtask(new SubtaskBuilder(null, first).status(Task.Status.DONE)
+                .startTime(now.plusHours(1)).duration(Duration.ofMinutes(20)).build());
+
+        taskManager.deleteSubtask(early);
+        taskManager.updateSubtask(late, new SubtaskBuilder(late, second).status(Task.Status.NEW)
+                .startTime(now.plusHours(2)).duration(Duration.ofMinutes(30)).build());
+        Epic epic = taskManager.getEpic(first);
+        Epic other = taskManager.getEpic(second);
+
+        Assertions.assertEquals(Task.Status.DONE, epic.getStatus());
+        Assertions.assertEquals(now.plusHours(1), epic.getStartTime());
+        Assertions.assertEquals(now.plusHours(1).plusMinutes(20), epic.getEndTime());
+        Assertions.assertEquals(Duration.ofMinutes(20), epic.getDuration());
+        Assertions.assertEquals(Task.Status.NEW, other.getStatus());
+        Assertions.assertEquals(List.of(late), other.getSubtasks().stream().map(Task::getId).toList());
+        Assertions.assertEquals(List.of(other), taskManager.findTasks(new TaskQuery().type(TaskType.EPIC)
+                .status(Task.Status.NEW)));
+    }
+}
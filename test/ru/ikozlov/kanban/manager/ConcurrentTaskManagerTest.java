@@ -0,0 +1,223 @@
+package ru.ikozlov.kanban.manager;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.ikozlov.kanban.manager.concurrent.ConcurrentTaskManager;
+import ru.ikozlov.kanban.task.Epic;
+import ru.ikozlov.kanban.task.Subtask;
+import ru.ikozlov.kanban.task.Task;
+import ru.ikozlov.kanban.testdata.EpicBuilder;
+import ru.ikozlov.kanban.testdata.SubtaskBuilder;
+import ru.ikozlov.kanban.testdata.TaskBuilder;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class ConcurrentTaskManagerTest extends TaskManagerTest<ConcurrentTaskManager> {
+    private static final int THREADS = 8;
+    private static final int ITEMS_PER_THREAD = 200;
+
+    @BeforeEach
+    void setup() {
+        taskManager = new ConcurrentTaskManager();
+    }
+
+    @Test
+    void parallelCreationAllocatesUniqueIds() throws Exception {
+        runInParallel(thread -> {
+            for (int i = 0; i < ITEMS_PER_THREAD; i++) {
+                taskManager.createTask(new TaskBuilder(null).startTime(null).build());
+            }
+        });
+        List<Task> tasks = taskManager.getAllTasks();
+
+        Assertions.assertEquals(THREADS * ITEMS_PER_THREAD, tasks.size());
+        Assertions.assertEquals(tasks.size(), new HashSet<>(tasks).size());
+    }
+
+    @Test
+    void parallelSubtaskCreationKeepsEpicsConsistent() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        List<Epic> epics = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            epics.add(taskManager.createEpic(new EpicBuilder(null).build()));
+        }
+        runInParallel(thread -> {
+            int epicId = epics.get(thread).getId();
+            for (int i = 0; i < ITEMS_PER_THREAD; i++) {
+                taskManager.createSubtask(new SubtaskBuilder(null, epicId).status(Task.Status.DONE)
+                        .startTime(now.plusMinutes(thread * ITEMS_PER_THREAD + i)).build());
+            }
+        });
+
+        Assertions.assertEquals(THREADS * ITEMS_PER_THREAD, taskManager.getAllSubtasks().size());
+        for (Epic epic : epics) {
+            Assertions.assertEquals(ITEMS_PER_THREAD, taskManager.getEpicSubtasks(epic.getId()).size());
+            Assertions.assertEquals(Task.Status.DONE, taskManager.getEpic(epic.getId()).getStatus());
+        }
+    }
+
+    @Test
+    void deletesRacingWithMovesKeepEpicsConsistent() throws Exception {
+        int first = taskManager.createEpic(new EpicBuilder(null).build()).getId();
+        int second = taskManager.createEpic(new EpicBuilder(null).build()).getId();
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < ITEMS_PER_THREAD; i++) {
+            ids.add(taskManager.createSubtask(new SubtaskBuilder(null, first).startTime(null).build()).getId());
+        }
+        runInParallel(thread -> {
+            for (int i = 0; i < ITEMS_PER_THREAD; i++) {
+                int id = ids.get(i);
+                if (thread % 2 == 1 && i % THREADS == thread) {
+                    taskManager.deleteSubtask(id);
+                    continue;
+                }
+                try {
+                    taskManager.updateSubtask(id, new SubtaskBuilder(id, (i + thread) % 2 == 0 ? first : second)
+                            .startTime(null).build());
+                } catch (NotFoundException e) {
+                    // deleted by another thread
+                }
+            }
+        });
+
+        for (int epicId : List.of(first, second)) {
+            List<Integer> expected = taskManager.getAllSubtasks().stream()
+                    .filter(x -> x.getEpicId() == epicId).map(Task::getId).sorted().toList();
+            Assertions.assertEquals(expected, taskManager.getEpicSubtasks(epicId).stream().map(Task::getId).toList());
+        }
+    }
+
+    @Test
+    void epicReadsMatchTheirSubtasksWhileSubtasksChange() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        int epicId = taskManager.createEpic(new EpicBuilder(null).build()).getId();
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            ids.add(taskManager.createSubtask(new SubtaskBuilder(null, epicId)
+                    .startTime(now.plusHours(i)).duration(Duration.ofMinutes(10)).build()).getId());
+        }
+        runInParallel(thread -> {
+            for (int i = 0; i < 10 * ITEMS_PER_THREAD; i++) {
+                if (thread % 2 == 0) {
+                    int id = ids.get(thread);
+                    taskManager.updateSubtask(id, new SubtaskBuilder(id, epicId)
+                            .status(i % 2 == 0 ? Task.Status.DONE : Task.Status.NEW)
+                            .startTime(now.plusHours(thread).plusMinutes(i % 30))
+                            .duration(Duration.ofMinutes(10 + i % 20)).build());
+                    continue;
+                }
+                Epic epic = taskManager.getEpic(epicId);
+                List<Subtask> subtasks = epic.getSubtasks();
+                Set<Task.Status> statuses = new HashSet<>();
+                Duration duration = Duration.ZERO;
+                LocalDateTime start = null;
+                for (Subtask subtask : subtasks) {
+                    statuses.add(subtask.getStatus());
+                    duration = duration.plus(subtask.getDuration());
+                    if (start == null || subtask.getStartTime().isBefore(start)) {
+                        start = subtask.getStartTime();
+                    }
+                }
+                Task.Status status = statuses.size() == 1 ? statuses.iterator().next() : Task.Status.IN_PROGRESS;
+                Assertions.assertEquals(status, epic.getStatus());
+                Assertions.assertEquals(duration, epic.getDuration());
+                Assertions.assertEquals(start, epic.getStartTime());
+            }
+        });
+    }
+
+    @Test
+    void onlyOneOfConcurrentIntersectingTasksCreated() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        AtomicInteger rejected = new AtomicInteger();
+        runInParallel(thread -> {
+            for (int i = 0; i < ITEMS_PER_THREAD; i++) {
+                try {
+                    taskManager.createTask(new TaskBuilder(null).startTime(now.plusMinutes(i * 10))
+                            .duration(Duration.ofMinutes(5)).build());
+                } catch (TimeIntersectionException e) {
+                    rejected.incrementAndGet();
+                }
+            }
+        });
+
+        Assertions.assertEquals(ITEMS_PER_THREAD, taskManager.getPrioritizedTasks().size());
+        Assertions.assertEquals((THREADS - 1) * ITEMS_PER_THREAD, rejected.get());
+    }
+
+    @Test
+    void pagesStayOrderedWhileTasksChange() throws Exception {
+        List<Integer> kept = new ArrayList<>();
+        for (int i = 0; i < ITEMS_PER_THREAD; i++) {
+            kept.add(taskManager.createTask(new TaskBuilder(null).startTime(null).build()).getId());
+        }
+        List<Integer> seen = new ArrayList<>();
+        runInParallel(thread -> {
+            if (thread > 0) {
+                for (int i = 0; i < ITEMS_PER_THREAD; i++) {
+                    Task task = taskManager.createTask(new TaskBuilder(null).startTime(null).build());
+                    taskManager.deleteTask(task.getId());
+                }
+                return;
+            }
+            int cursor = 0;
+            for (List<Task> page = taskManager.getTasksAfter(cursor, 10); !page.isEmpty();
+                 page = taskManager.getTasksAfter(cursor, 10)) {
+                page.forEach(x -> seen.add(x.getId()));
+                cursor = page.getLast().getId();
+            }
+        });
+
+        Assertions.assertEquals(seen.stream().sorted().distinct().toList(), seen);
+        Assertions.assertTrue(seen.containsAll(kept));
+    }
+
+    @Test
+    void parallelViewsKeepHistoryUnique() throws Exception {
+        taskManager = new ConcurrentTaskManager(Managers.getAsyncHistory(1000));
+        for (int i = 0; i < ITEMS_PER_THREAD; i++) {
+            taskManager.createTask(new TaskBuilder(null).startTime(null).build());
+        }
+        runInParallel(thread -> {
+            for (int i = 0; i < 10 * ITEMS_PER_THREAD; i++) {
+                taskManager.getTask((thread * 31 + i * 7) % ITEMS_PER_THREAD + 1);
+            }
+        });
+        taskManager.deleteTask(1);
+        List<Integer> ids = taskManager.getHistory().stream().map(Task::getId).toList();
+
+        Assertions.assertEquals(ITEMS_PER_THREAD - 1, ids.size());
+        Assertions.assertEquals(ids.size(), new HashSet<>(ids).size());
+        Assertions.assertFalse(ids.contains(1));
+    }
+
+    private void runInParallel(ThreadBody body) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CyclicBarrier barrier = new CyclicBarrier(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            int thread = i;
+            futures.add(executor.submit(() -> {
+                barrier.await();
+                body.run(thread);
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+    }
+
+    private interface ThreadBody {
+        void run(int thread);
+    }
+}
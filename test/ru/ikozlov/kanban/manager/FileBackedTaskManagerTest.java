@@ -1,5 +1,6 @@
 package ru.ikozlov.kanban.manager;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,10 +15,16 @@ import ru.ikozlov.kanban.testdata.TaskBuilder;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 
 public class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
     File file;
+    final List<FileBackedTaskManager> loaded = new ArrayList<>();
 
     @BeforeEach
     void setup() throws IOException {
@@ -25,11 +32,17 @@ public class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskMan
         taskManager = new FileBackedTaskManager(file);
     }
 
+    @AfterEach
+    void close() {
+        taskManager.close();
+        loaded.forEach(FileBackedTaskManager::close);
+    }
+
     @Test
     void taskSavingAndLoading() {
         Task task = new TaskBuilder(1).build();
         taskManager.createTask(task);
-        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(file);
+        FileBackedTaskManager loadedManager = load();
         Task record = loadedManager.getTask(1);
 
         Assertions.assertEquals(task.getId(), record.getId());
@@ -43,7 +56,7 @@ public class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskMan
         Task task = new TaskBuilder(1).build();
         taskManager.createTask(task);
         taskManager.deleteTask(1);
-        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(file);
+        FileBackedTaskManager loadedManager = load();
 
         Assertions.assertEquals(0, loadedManager.getAllTasks().size());
         Assertions.assertThrows(NotFoundException.class, () -> loadedManager.getTask(1));
@@ -53,7 +66,7 @@ public class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskMan
     void epicSavingAndLoading() {
         Epic epic = new EpicBuilder(1).build();
         taskManager.createEpic(epic);
-        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(file);
+        FileBackedTaskManager loadedManager = load();
         Epic record = loadedManager.getEpic(1);
 
         Assertions.assertEquals(epic.getId(), record.getId());
@@ -68,7 +81,7 @@ public class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskMan
         Epic epic = new EpicBuilder(1).build();
         taskManager.createEpic(epic);
         taskManager.deleteEpic(1);
-        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(file);
+        FileBackedTaskManager loadedManager = load();
 
         Assertions.assertEquals(0, loadedManager.getAllEpics().size());
         Assertions.assertThrows(NotFoundException.class, () -> loadedManager.getEpic(1));
@@ -80,7 +93,7 @@ public class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskMan
         taskManager.createEpic(epic);
         Subtask subtask = new SubtaskBuilder(2, epic.getId()).build();
         taskManager.createSubtask(subtask);
-        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(file);
+        FileBackedTaskManager loadedManager = load();
         Subtask record = loadedManager.getSubtask(2);
 
         Assertions.assertEquals(2, subtask.getId());
@@ -97,7 +110,7 @@ public class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskMan
         Subtask subtask = new SubtaskBuilder(2, epic.getId()).build();
         taskManager.createSubtask(subtask);
         taskManager.deleteSubtask(2);
-        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(file);
+        FileBackedTaskManager loadedManager = load();
 
         Assertions.assertThrows(NotFoundException.class, () -> loadedManager.getSubtask(2));
         Assertions.assertEquals(0, loadedManager.getAllSubtasks().size());
@@ -113,7 +126,7 @@ public class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskMan
         Subtask subtask2 = new SubtaskBuilder(3, epic.getId()).build();
         taskManager.createSubtask(subtask1);
         taskManager.createSubtask(subtask2);
-        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(file);
+        FileBackedTaskManager loadedManager = load();
         Epic record = loadedManager.getEpic(1);
         List<Subtask> subtasks = record.getSubtasks();
 
@@ -131,7 +144,7 @@ public class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskMan
         taskManager.createSubtask(subtask1);
         taskManager.createSubtask(subtask2);
         taskManager.deleteEpic(1);
-        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(file);
+        FileBackedTaskManager loadedManager = load();
 
         Assertions.assertThrows(NotFoundException.class, () -> loadedManager.getEpic(1));
         Assertions.assertEquals(0, loadedManager.getAllEpics().size());
@@ -151,7 +164,7 @@ public class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskMan
         taskManager.createEpic(epic3);
         taskManager.createSubtask(new SubtaskBuilder(6, epic3.getId()).status(Task.Status.DONE).build());
         taskManager.createSubtask(new SubtaskBuilder(7, epic3.getId()).status(Task.Status.DONE).build());
-        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(file);
+        FileBackedTaskManager loadedManager = load();
 
         Assertions.assertEquals(Task.Status.NEW, loadedManager.getEpic(1).getStatus());
         Assertions.assertEquals(Task.Status.IN_PROGRESS, loadedManager.getEpic(2).getStatus());
@@ -160,7 +173,7 @@ public class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskMan
 
     @Test
     void emptyManagerLoading() {
-        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(file);
+        FileBackedTaskManager loadedManager = load();
 
         Assertions.assertTrue(loadedManager.getAllTasks().isEmpty());
         Assertions.assertTrue(loadedManager.getAllEpics().isEmpty());
@@ -184,7 +197,7 @@ public class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskMan
         taskManager.createSubtask(subtask2);
         taskManager.createSubtask(subtask3);
         taskManager.createSubtask(subtask4);
-        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(file);
+        FileBackedTaskManager loadedManager = load();
 
         Assertions.assertEquals(3, loadedManager.getAllTasks().size());
         Assertions.assertEquals(2, loadedManager.getAllEpics().size());
@@ -205,7 +218,7 @@ public class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskMan
         taskManager.createTask(task4);
         taskManager.deleteTask(4);
         taskManager.createTask(task5);
-        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(file);
+        FileBackedTaskManager loadedManager = load();
 
         Assertions.assertEquals(3, loadedManager.getAllTasks().size());
         Assertions.assertEquals(task1, loadedManager.getTask(1));
@@ -215,6 +228,17 @@ public class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskMan
         Assertions.assertEquals(task5, loadedManager.getTask(5));
     }
 
+    @Test
+    void timeIntersectionCheckedAfterLoading() {
+        Task task = new TaskBuilder(1).duration(Duration.ofHours(1)).build();
+        taskManager.createTask(task);
+        FileBackedTaskManager loadedManager = load();
+        Task other = new TaskBuilder(2).startTime(task.getStartTime().plusMinutes(30)).build();
+
+        Assertions.assertEquals(List.of(task), loadedManager.getPrioritizedTasks());
+        Assertions.assertThrows(TimeIntersectionException.class, () -> loadedManager.createTask(other));
+    }
+
     @Test
     void exceptionOnInvalidFileInConstructor() {
         File file = new File("Z:/folder/file.txt");
@@ -234,4 +258,146 @@ public class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskMan
         });
     }
 
+    @Test
+    void batchSavingAndLoading() {
+        Epic epic = taskManager.createEpic(new EpicBuilder(1).build());
+        taskManager.createTasks(List.of(new TaskBuilder(2).build(), new SubtaskBuilder(3, epic.getId()).build()));
+        taskManager.deleteIf(x -> x.getId() == 2);
+        FileBackedTaskManager loadedManager = load();
+
+        Assertions.assertTrue(loadedManager.getAllTasks().isEmpty());
+        Assertions.assertEquals(1, loadedManager.getEpicSubtasks(1).size());
+    }
+
+    @Test
+    void idAllocationResumedAfterLoading() {
+        taskManager.createTask(new TaskBuilder(1).build());
+        taskManager.createTask(new TaskBuilder(2).build());
+        taskManager.deleteTask(2);
+        FileBackedTaskManager loadedManager = load();
+        Task task = loadedManager.createTask(new TaskBuilder(3).build());
+
+        Assertions.assertEquals(3, task.getId());
+        Assertions.assertEquals(2, loadedManager.getAllTasks().size());
+    }
+
+    @Test
+    void idAllocationResumedAfterLoadingFileWithoutLastId() throws IOException {
+        Files.writeString(file.toPath(), FileBackedTaskManager.HEADER + "\n"
+                + "5,TASK,Task 5,NEW,Task 5 description, ,PT0S,null\n");
+        FileBackedTaskManager loadedManager = load();
+        Task task = loadedManager.createTask(new TaskBuilder(1).startTime(null).build());
+
+        Assertions.assertEquals(6, task.getId());
+    }
+
+    @Test
+    void dependencySavingAndLoading() {
+        Task first = taskManager.createTask(new TaskBuilder(1).startTime(null).duration(Duration.ofHours(1)).build());
+        Epic epic = taskManager.createEpic(new EpicBuilder(2).build());
+        Subtask second = taskManager.createSubtask(new SubtaskBuilder(3, epic.getId()).startTime(null)
+                .duration(Duration.ofHours(2)).build());
+        taskManager.addDependency(first.getId(), second.getId());
+        FileBackedTaskManager loadedManager = load();
+
+        Assertions.assertEquals(List.of(first), loadedManager.getBlockers(second.getId()));
+        Assertions.assertEquals(taskManager.getCriticalPath(second.getId()),
+                loadedManager.getCriticalPath(second.getId()));
+    }
+
+    @Test
+    void historySavingAndLoading() {
+        taskManager.createTask(new TaskBuilder(1).startTime(null).build());
+        Epic epic = taskManager.createEpic(new EpicBuilder(2).build());
+        Subtask subtask = taskManager.createSubtask(new SubtaskBuilder(3, epic.getId()).startTime(null).build());
+        Task task = taskManager.createTask(new TaskBuilder(4).startTime(null).build());
+        taskManager.getTask(1);
+        taskManager.getEpic(epic.getId());
+        taskManager.getSubtask(subtask.getId());
+        taskManager.getTask(task.getId());
+        taskManager.getTask(1);
+        taskManager.deleteTask(task.getId());
+        FileBackedTaskManager loadedManager = load();
+
+        Assertions.assertEquals(List.of(1, subtask.getId(), epic.getId()), ids(taskManager.getHistory()));
+        Assertions.assertEquals(ids(taskManager.getHistory()), ids(loadedManager.getHistory()));
+        Assertions.assertEquals(ids(taskManager.getHistory()),
+                ids(load().getHistory()));
+    }
+
+    @Test
+    void historyLogIsCompacted() throws IOException {
+        taskManager.createTask(new TaskBuilder(1).build());
+        for (int i = 0; i < 10_000; i++) {
+            taskManager.getTask(1);
+        }
+        FileBackedTaskManager loadedManager = load();
+
+        Assertions.assertTrue(Files.size(FileBackedTaskManager.historyLog(file)) < 5 * 10_000 / 2);
+        Assertions.assertEquals(List.of(1), ids(loadedManager.getHistory()));
+    }
+
+    @Test
+    void historyLogStaysOpenWhenCompactionFails() throws IOException {
+        taskManager.createTask(new TaskBuilder(1).build());
+        Path log = FileBackedTaskManager.historyLog(file);
+        Path temp = log.resolveSibling(log.getFileName() + ".tmp");
+        Files.createDirectory(temp);
+        try {
+            Assertions.assertThrows(ManagerSaveException.class, () -> {
+                for (int i = 0; i < 10_000; i++) {
+                    taskManager.getTask(1);
+                }
+            });
+            taskManager.getTask(1);
+        } finally {
+            Files.delete(temp);
+        }
+        taskManager.createTask(new TaskBuilder(2).build());
+        taskManager.getTask(2);
+
+        Assertions.assertEquals(List.of(2, 1), ids(load().getHistory()));
+    }
+
+    @Test
+    void historyLoadingSkipsUnfinishedRecord() throws IOException {
+        taskManager.createTask(new TaskBuilder(1).build());
+        taskManager.getTask(1);
+        Files.write(FileBackedTaskManager.historyLog(file), new byte[]{'V', 0}, StandardOpenOption.APPEND);
+        FileBackedTaskManager loadedManager = load();
+
+        Assertions.assertEquals(List.of(1), ids(loadedManager.getHistory()));
+    }
+
+    @Test
+    void newManagerStartsWithEmptyHistoryLog() {
+        taskManager.createTask(new TaskBuilder(1).build());
+        taskManager.getTask(1);
+        FileBackedTaskManager newManager = new FileBackedTaskManager(file);
+        loaded.add(newManager);
+        newManager.createTask(new TaskBuilder(1).build());
+
+        Assertions.assertTrue(load().getHistory().isEmpty());
+    }
+
+    @Test
+    void closedManagerKeepsItsHistoryLog() {
+        taskManager.createTask(new TaskBuilder(1).build());
+        taskManager.getTask(1);
+        taskManager.close();
+        taskManager.close();
+
+        Assertions.assertThrows(ManagerSaveException.class, () -> taskManager.getTask(1));
+        Assertions.assertEquals(List.of(1), ids(load().getHistory()));
+    }
+
+    private FileBackedTaskManager load() {
+        FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(file);
+        loaded.add(manager);
+        return manager;
+    }
+
+    private static List<Integer> ids(List<Task> tasks) {
+        return tasks.stream().map(Task::getId).toList();
+    }
 }
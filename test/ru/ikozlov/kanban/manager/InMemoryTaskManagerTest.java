@@ -1,7 +1,14 @@
 package ru.ikozlov.kanban.manager;
 
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
 import ru.ikozlov.kanban.manager.inmemory.InMemoryTaskManager;
+import ru.ikozlov.kanban.task.Epic;
+import ru.ikozlov.kanban.task.Task;
+import ru.ikozlov.kanban.testdata.EpicBuilder;
+import ru.ikozlov.kanban.testdata.SubtaskBuilder;
+import ru.ikozlov.kanban.testdata.TaskBuilder;
 
 class InMemoryTaskManagerTest extends TaskManagerTest<InMemoryTaskManager> {
 
@@ -10,4 +17,35 @@ class InMemoryTaskManagerTest extends TaskManagerTest<InMemoryTaskManager> {
         taskManager = new InMemoryTaskManager();
     }
 
-}
\ No newline at end of file
+    @Test
+    void historySharesStoredVersion() {
+        taskManager.createTask(new TaskBuilder(1).build());
+        Task version = taskManager.getTask(1);
+        Task updated = taskManager.updateTask(1, new TaskBuilder(1).title("Task 2").build());
+
+        Assertions.assertTrue(version.isFrozen());
+        Assertions.assertSame(version, taskManager.getHistory().getFirst());
+        Assertions.assertNotSame(version, updated);
+        Assertions.assertSame(updated, taskManager.getTask(1));
+        Assertions.assertThrows(IllegalStateException.class, () -> version.setTitle("Task 3"));
+    }
+
+    @Test
+    void historySharesStoredEpicVersion() {
+        taskManager.createEpic(new EpicBuilder(1).build());
+        taskManager.createSubtask(new SubtaskBuilder(2, 1).status(Task.Status.DONE).build());
+        Epic version = taskManager.getEpic(1);
+        taskManager.createSubtask(new SubtaskBuilder(3, 1).build());
+
+        Assertions.assertSame(version, taskManager.getHistory().getFirst());
+        Epic updated = taskManager.getEpic(1);
+        Assertions.assertTrue(version.isFrozen());
+        Assertions.assertEquals(Task.Status.DONE, version.getStatus());
+        Assertions.assertEquals(1, version.getSubtasksCount());
+        Assertions.assertNotSame(version, updated);
+        Assertions.assertEquals(Task.Status.IN_PROGRESS, updated.getStatus());
+        Assertions.assertEquals(2, updated.getSubtasksCount());
+        Assertions.assertThrows(IllegalStateException.class, () -> version.setTitle("Epic 2"));
+    }
+
+}
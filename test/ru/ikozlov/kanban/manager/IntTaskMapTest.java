@@ -0,0 +1,123 @@
+package ru.ikozlov.kanban.manager;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.ikozlov.kanban.manager.inmemory.IntTaskMap;
+import ru.ikozlov.kanban.task.Task;
+import ru.ikozlov.kanban.testdata.TaskBuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+class IntTaskMapTest {
+    IntTaskMap map;
+
+    @BeforeEach
+    void setup() {
+        map = new IntTaskMap();
+    }
+
+    @Test
+    void putAndGet() {
+        Task task1 = new TaskBuilder(1).build();
+        Task task2 = new TaskBuilder(2).build();
+        map.put(1, task1);
+        map.put(2, task2);
+
+        Assertions.assertEquals(2, map.size());
+        Assertions.assertSame(task1, map.get(1));
+        Assertions.assertSame(task2, map.get(2));
+        Assertions.assertNull(map.get(3));
+    }
+
+    @Test
+    void putReplacesValue() {
+        Task task1 = new TaskBuilder(1).build();
+        Task task2 = new TaskBuilder(1).build();
+        map.put(1, task1);
+
+        Assertions.assertSame(task1, map.put(1, task2));
+        Assertions.assertSame(task2, map.get(1));
+        Assertions.assertEquals(1, map.size());
+    }
+
+    @Test
+    void growsAndKeepsEntries() {
+        int count = 10_000;
+        for (int i = 1; i <= count; i++) {
+            map.put(i, new TaskBuilder(i).build());
+        }
+
+        Assertions.assertEquals(count, map.size());
+        for (int i = 1; i <= count; i++) {
+            Assertions.assertEquals(i, map.get(i).getId());
+        }
+    }
+
+    @Test
+    void removalKeepsCollidingKeysReachable() {
+        int[] keys = IntStream.range(0, 12).map(i -> i * 16).toArray();
+        for (int key : keys) {
+            map.put(key, new TaskBuilder(key).build());
+        }
+        map.remove(keys[0]);
+        map.remove(keys[5]);
+
+        Assertions.assertEquals(10, map.size());
+        Assertions.assertNull(map.get(keys[0]));
+        Assertions.assertNull(map.get(keys[5]));
+        for (int key : keys) {
+            if (key != keys[0] && key != keys[5]) {
+                Assertions.assertEquals(key, map.get(key).getId());
+            }
+        }
+    }
+
+    @Test
+    void keysAndClear() {
+        map.put(3, new TaskBuilder(3).build());
+        map.put(1, new TaskBuilder(1).build());
+        int[] keys = map.keys();
+        Arrays.sort(keys);
+
+        Assertions.assertArrayEquals(new int[]{1, 3}, keys);
+
+        map.clear();
+
+        Assertions.assertTrue(map.isEmpty());
+        Assertions.assertNull(map.get(1));
+    }
+
+    @Test
+    void spliteratorCoversAllValuesAfterSplits() {
+        for (int i = 1; i <= 1000; i++) {
+            map.put(i, new TaskBuilder(i).build());
+        }
+        Spliterator<Task> spliterator = map.spliterator();
+
+        Assertions.assertEquals(1000, spliterator.getExactSizeIfKnown());
+        Assertions.assertNotNull(spliterator.trySplit());
+        Assertions.assertEquals(500500, StreamSupport.stream(map.spliterator(), true).mapToInt(Task::getId).sum());
+    }
+
+    @Test
+    void iteratesInKeyOrder() {
+        for (int i = 200; i >= 1; i--) {
+            map.put(i, new TaskBuilder(i).build());
+        }
+        map.remove(100);
+        List<Integer> expected = IntStream.rangeClosed(1, 200).filter(x -> x != 100).boxed().toList();
+        List<Integer> visited = new ArrayList<>();
+        map.forEach(x -> visited.add(x.getId()));
+
+        Assertions.assertArrayEquals(expected.stream().mapToInt(Integer::intValue).toArray(), map.keys());
+        Assertions.assertEquals(expected, visited);
+        Assertions.assertEquals(expected, StreamSupport.stream(map.spliterator(), true).map(Task::getId).toList());
+        Assertions.assertEquals(List.of(101, 102), map.valuesAfter(99, 2).stream().map(Task::getId).toList());
+    }
+}
@@ -1,8 +1,14 @@
 package ru.ikozlov.kanban.manager;
 
 import org.junit.jupiter.api.Test;
+import ru.ikozlov.kanban.manager.columnar.ColumnarTaskManager;
+import ru.ikozlov.kanban.manager.concurrent.AsyncHistoryManager;
+import ru.ikozlov.kanban.manager.concurrent.ConcurrentTaskManager;
+import ru.ikozlov.kanban.manager.inmemory.BoundedHistoryManager;
 import ru.ikozlov.kanban.manager.inmemory.InMemoryHistoryManager;
 import ru.ikozlov.kanban.manager.inmemory.InMemoryTaskManager;
+import ru.ikozlov.kanban.manager.offheap.OffHeapTaskManager;
+import ru.ikozlov.kanban.manager.snapshot.SnapshotTaskManager;
 
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 
@@ -15,6 +21,34 @@ class ManagersTest {
         assertInstanceOf(InMemoryTaskManager.class, manager);
     }
 
+    @Test
+    void getConcurrentTaskManager() {
+        TaskManager manager = Managers.getConcurrent();
+
+        assertInstanceOf(ConcurrentTaskManager.class, manager);
+    }
+
+    @Test
+    void getSnapshotTaskManager() {
+        TaskManager manager = Managers.getSnapshot();
+
+        assertInstanceOf(SnapshotTaskManager.class, manager);
+    }
+
+    @Test
+    void getColumnarTaskManager() {
+        TaskManager manager = Managers.getColumnar();
+
+        assertInstanceOf(ColumnarTaskManager.class, manager);
+    }
+
+    @Test
+    void getOffHeapTaskManager() {
+        TaskManager manager = Managers.getOffHeap();
+
+        assertInstanceOf(OffHeapTaskManager.class, manager);
+    }
+
     @Test
     void getDefaultHistoryManager() {
         HistoryManager manager = Managers.getDefaultHistory();
@@ -22,4 +56,18 @@ class ManagersTest {
         assertInstanceOf(InMemoryHistoryManager.class, manager);
     }
 
+    @Test
+    void getBoundedHistoryManager() {
+        HistoryManager manager = Managers.getBoundedHistory(10);
+
+        assertInstanceOf(BoundedHistoryManager.class, manager);
+    }
+
+    @Test
+    void getAsyncHistoryManager() {
+        HistoryManager manager = Managers.getAsyncHistory(10);
+
+        assertInstanceOf(AsyncHistoryManager.class, manager);
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,14 @@
+package ru.ikozlov.kanban.manager;
+
+import org.junit.jupiter.api.BeforeEach;
+import ru.ikozlov.kanban.manager.offheap.OffHeapTaskManager;
+
+class OffHeapTaskManagerTest extends ColumnarTaskManagerTest {
+
+    @BeforeEach
+    @Override
+    void setup() {
+        taskManager = new OffHeapTaskManager();
+    }
+
+}
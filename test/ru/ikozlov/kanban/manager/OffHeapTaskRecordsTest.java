@@ -0,0 +1,38 @@
+package ru.ikozlov.kanban.manager;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.ikozlov.kanban.manager.offheap.OffHeapTaskRecords;
+
+class OffHeapTaskRecordsTest {
+
+    @Test
+    void growingAcrossChunksKeepsRecords() {
+        OffHeapTaskRecords records = new OffHeapTaskRecords();
+        int rows = 16;
+        records.grow(rows);
+        for (int size = 0; size < 50_000; size++) {
+            if (size == rows) {
+                rows *= 2;
+                records.grow(rows);
+            }
+            records.setId(size, size);
+            records.setStart(size, -size);
+            records.setHeight(size, (byte) size);
+        }
+
+        Assertions.assertTrue(records.capacity() >= 50_000);
+        for (int row = 0; row < 50_000; row++) {
+            Assertions.assertEquals(row, records.id(row));
+            Assertions.assertEquals(-row, records.start(row));
+            Assertions.assertEquals((byte) row, records.height(row));
+        }
+    }
+
+    @Test
+    void tooManyRowsAreRejected() {
+        OffHeapTaskRecords records = new OffHeapTaskRecords();
+
+        Assertions.assertThrows(IllegalStateException.class, () -> records.grow(records.maxCapacity() + 1));
+    }
+}
@@ -0,0 +1,109 @@
+package ru.ikozlov.kanban.manager;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.ikozlov.kanban.manager.inmemory.SessionHistoryManager;
+import ru.ikozlov.kanban.task.Task;
+import ru.ikozlov.kanban.testdata.TaskBuilder;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+class SessionHistoryManagerTest extends HistoryManagerTest<SessionHistoryManager> {
+    private Instant now = Instant.parse("2024-01-01T10:00:00Z");
+
+    @BeforeEach
+    void setup() {
+        historyManager = new SessionHistoryManager(100, Duration.ofMinutes(30), () -> now);
+    }
+
+    @Test
+    void sessionsHaveSeparateHistories() {
+        view("alice", 1);
+        view("bob", 2);
+        view("alice", 3);
+        view(null, 4);
+
+        Assertions.assertEquals(List.of(3, 1), history("alice"));
+        Assertions.assertEquals(List.of(2), history("bob"));
+        Assertions.assertEquals(List.of(4), history(null));
+        Assertions.assertEquals(List.of(), history("carol"));
+    }
+
+    @Test
+    void removePurgesTaskFromEverySession() {
+        view("alice", 1);
+        view("bob", 1);
+        view("bob", 2);
+        historyManager.remove(1);
+
+        Assertions.assertEquals(List.of(), history("alice"));
+        Assertions.assertEquals(List.of(2), history("bob"));
+        Assertions.assertEquals(1, historyManager.size());
+        Assertions.assertEquals(1, historyManager.getSessionsCount());
+    }
+
+    @Test
+    void budgetEvictsOldestViewOfLeastActiveSession() {
+        historyManager = new SessionHistoryManager(3, Duration.ofMinutes(30), () -> now);
+        view("alice", 1);
+        view("alice", 2);
+        view("bob", 3);
+        view("alice", 4);
+        view("bob", 5);
+
+        Assertions.assertEquals(List.of(4, 2), history("alice"));
+        Assertions.assertEquals(List.of(5), history("bob"));
+        Assertions.assertEquals(3, historyManager.size());
+    }
+
+    @Test
+    void idleSessionsAreDropped() {
+        view("alice", 1);
+        now = now.plus(Duration.ofMinutes(20));
+        view("bob", 2);
+        now = now.plus(Duration.ofMinutes(20));
+
+        Assertions.assertEquals(List.of(2), history("bob"));
+        Assertions.assertEquals(List.of(), history("alice"));
+        Assertions.assertEquals(1, historyManager.getSessionsCount());
+    }
+
+    @Test
+    void pagesStayWithinSession() {
+        for (int i = 1; i <= 4; i++) {
+            view(i % 2 == 0 ? "alice" : "bob", i);
+        }
+        String previous = HistorySession.enter("alice");
+        try {
+            Page<Task> firstPage = historyManager.getHistory(null, 1);
+            Page<Task> secondPage = historyManager.getHistory(firstPage.getNextCursor(), 1);
+
+            Assertions.assertEquals(4, firstPage.getItems().getFirst().getId());
+            Assertions.assertEquals(2, secondPage.getItems().getFirst().getId());
+            Assertions.assertNull(secondPage.getNextCursor());
+        } finally {
+            HistorySession.exit(previous);
+        }
+    }
+
+    private void view(String session, int id) {
+        String previous = HistorySession.enter(session);
+        try {
+            historyManager.add(new TaskBuilder(id).build());
+        } finally {
+            HistorySession.exit(previous);
+        }
+    }
+
+    private List<Integer> history(String session) {
+        String previous = HistorySession.enter(session);
+        try {
+            return historyManager.getHistory().stream().map(Task::getId).toList();
+        } finally {
+            HistorySession.exit(previous);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package ru.ikozlov.kanban.manager;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.ikozlov.kanban.manager.snapshot.SnapshotTaskManager;
+import ru.ikozlov.kanban.manager.snapshot.TaskSnapshot;
+import ru.ikozlov.kanban.task.Epic;
+import ru.ikozlov.kanban.task.Subtask;
+import ru.ikozlov.kanban.task.Task;
+import ru.ikozlov.kanban.testdata.EpicBuilder;
+import ru.ikozlov.kanban.testdata.SubtaskBuilder;
+import ru.ikozlov.kanban.testdata.TaskBuilder;
+
+import java.util.List;
+
+class SnapshotTaskManagerTest extends TaskManagerTest<SnapshotTaskManager> {
+
+    @BeforeEach
+    void setup() {
+        taskManager = new SnapshotTaskManager();
+    }
+
+    @Test
+    void snapshotNotAffectedByLaterWrites() {
+        taskManager.createTask(new TaskBuilder(1).build());
+        Epic epic = taskManager.createEpic(new EpicBuilder(2).build());
+        taskManager.createSubtask(new SubtaskBuilder(3, epic.getId()).build());
+        TaskSnapshot snapshot = taskManager.getSnapshot();
+        taskManager.updateTask(1, new TaskBuilder(1).title("Updated").build());
+        taskManager.updateSubtask(3, new SubtaskBuilder(3, epic.getId()).status(Task.Status.DONE).build());
+        taskManager.createTask(new TaskBuilder(4).build());
+        taskManager.deleteEpic(2);
+
+        Assertions.assertEquals(1, snapshot.getTasks().size());
+        Assertions.assertEquals("Task 1", snapshot.getTask(1).getTitle());
+        Assertions.assertEquals(Task.Status.NEW, snapshot.getEpic(2).getStatus());
+        Assertions.assertEquals(Task.Status.NEW, snapshot.getEpic(2).getSubtasks().getFirst().getStatus());
+        Assertions.assertEquals(2, taskManager.getSnapshot().getTasks().size());
+        Assertions.assertTrue(taskManager.getSnapshot().getSubtasks().isEmpty());
+    }
+
+    @Test
+    void snapshotEpicResolvesSubtasksOfItsVersion() {
+        Epic epic = taskManager.createEpic(new EpicBuilder(1).build());
+        taskManager.createSubtask(new SubtaskBuilder(2, epic.getId()).build());
+        taskManager.createSubtask(new SubtaskBuilder(3, epic.getId()).status(Task.Status.DONE).build());
+        TaskSnapshot snapshot = taskManager.getSnapshot();
+        Epic record = snapshot.getEpic(1);
+
+        Assertions.assertEquals(Task.Status.IN_PROGRESS, record.getStatus());
+        for (Subtask subtask : record.getSubtasks()) {
+            Assertions.assertSame(snapshot.getSubtask(subtask.getId()), subtask);
+        }
+    }
+
+    @Test
+    void batchRepublishesOnlyChangedEntries() {
+        taskManager.createEpic(new EpicBuilder(1).build());
+        taskManager.createSubtask(new SubtaskBuilder(2, 1).build());
+        taskManager.createEpic(new EpicBuilder(3).build());
+        TaskSnapshot snapshot = taskManager.getSnapshot();
+        taskManager.createTasks(List.of(new TaskBuilder(null).startTime(null).build(),
+                new SubtaskBuilder(null, 3).startTime(null).build()));
+        TaskSnapshot next = taskManager.getSnapshot();
+
+        Assertions.assertSame(snapshot.getEpic(1), next.getEpic(1));
+        Assertions.assertSame(snapshot.getSubtask(2), next.getSubtask(2));
+        Assertions.assertNotSame(snapshot.getEpic(3), next.getEpic(3));
+        Assertions.assertEquals(1, next.getEpic(3).getSubtasksCount());
+        Assertions.assertEquals(1, next.getTasks().size());
+    }
+
+    @Test
+    void snapshotListsAreReadOnly() {
+        taskManager.createTask(new TaskBuilder(1).build());
+
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> taskManager.getAllTasks().clear());
+    }
+}
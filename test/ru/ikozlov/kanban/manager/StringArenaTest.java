@@ -0,0 +1,59 @@
+package ru.ikozlov.kanban.manager;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.ikozlov.kanban.manager.offheap.StringArena;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+class StringArenaTest {
+
+    @Test
+    void storesNullEmptyAndNonAsciiStrings() {
+        StringArena arena = new StringArena();
+        int empty = arena.acquire("");
+        int text = arena.acquire("Задача ✓");
+
+        Assertions.assertEquals(StringArena.NULL, arena.acquire(null));
+        Assertions.assertNull(arena.get(StringArena.NULL));
+        Assertions.assertEquals("", arena.get(empty));
+        Assertions.assertEquals("Задача ✓", arena.get(text));
+        Assertions.assertEquals(2, arena.size());
+    }
+
+    @Test
+    void releasedBytesAreReclaimed() {
+        StringArena arena = new StringArena();
+        String text = "x".repeat(100);
+        for (int i = 0; i < 10_000; i++) {
+            arena.release(arena.acquire(text));
+        }
+        int handle = arena.acquire(text);
+
+        Assertions.assertEquals(text, arena.get(handle));
+        Assertions.assertEquals(1, arena.size());
+        Assertions.assertEquals(100, arena.liveBytes());
+    }
+
+    @Test
+    void keepsLiveStringsOnRandomOperations() {
+        Random random = new Random(42);
+        StringArena arena = new StringArena();
+        Map<Integer, String> expected = new HashMap<>();
+        for (int i = 0; i < 20_000; i++) {
+            if (expected.isEmpty() || random.nextInt(3) > 0) {
+                String text = "s" + i + "-".repeat(random.nextInt(200));
+                expected.put(arena.acquire(text), text);
+            } else {
+                int handle = expected.keySet().iterator().next();
+                expected.remove(handle);
+                arena.release(handle);
+            }
+        }
+
+        Assertions.assertEquals(expected.size(), arena.size());
+        expected.forEach((handle, text) -> Assertions.assertEquals(text, arena.get(handle)));
+    }
+}
@@ -0,0 +1,50 @@
+package ru.ikozlov.kanban.manager;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.ikozlov.kanban.manager.event.TaskEventPublisher;
+import ru.ikozlov.kanban.testdata.TaskBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class TaskEventPublisherTest {
+
+    @Test
+    void failedBatchKeepsItsExceptionAndDeliversEvents() {
+        TaskEventPublisher publisher = new TaskEventPublisher();
+        List<List<TaskEvent>> batches = new ArrayList<>();
+        IllegalStateException listenerFailure = new IllegalStateException("listener");
+        publisher.addListener(events -> {
+            throw listenerFailure;
+        });
+        publisher.addListener(batches::add);
+
+        IllegalArgumentException e = Assertions.assertThrows(IllegalArgumentException.class,
+                () -> publisher.batch(() -> {
+                    publisher.emit(TaskEvent.Kind.CREATED, new TaskBuilder(1).build());
+                    throw new IllegalArgumentException("change");
+                }));
+        Assertions.assertEquals("change", e.getMessage());
+        Assertions.assertArrayEquals(new Throwable[]{listenerFailure}, e.getSuppressed());
+        Assertions.assertEquals(1, batches.size());
+    }
+
+    @Test
+    void listenerFailuresAreThrownTogether() {
+        TaskEventPublisher publisher = new TaskEventPublisher();
+        IllegalStateException first = new IllegalStateException("first");
+        IllegalStateException second = new IllegalStateException("second");
+        publisher.addListener(events -> {
+            throw first;
+        });
+        publisher.addListener(events -> {
+            throw second;
+        });
+
+        IllegalStateException e = Assertions.assertThrows(IllegalStateException.class,
+                () -> publisher.batch(() -> publisher.emit(TaskEvent.Kind.CREATED, new TaskBuilder(1).build())));
+        Assertions.assertSame(first, e);
+        Assertions.assertArrayEquals(new Throwable[]{second}, e.getSuppressed());
+    }
+}
@@ -10,7 +10,10 @@ import ru.ikozlov.kanban.testdata.SubtaskBuilder;
 import ru.ikozlov.kanban.testdata.TaskBuilder;
 
 import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 abstract class TaskManagerTest<T extends TaskManager> {
@@ -51,6 +54,60 @@ abstract class TaskManagerTest<T extends TaskManager> {
         Assertions.assertThrows(NotFoundException.class, () -> taskManager.getTask(1));
     }
 
+    @Test
+    void taskWithoutDurationCreation() {
+        Task task = taskManager.createTask(new TaskBuilder(1).startTime(null).duration(null).build());
+        taskManager.updateTask(task.getId(), new TaskBuilder(task.getId()).startTime(null).duration(null)
+                .status(Task.Status.DONE).build());
+        Task record = taskManager.getTask(task.getId());
+
+        Assertions.assertNull(record.getDuration());
+        Assertions.assertNull(record.getStartTime());
+        Assertions.assertEquals(Task.Status.DONE, record.getStatus());
+        Assertions.assertEquals(List.of(record), taskManager.getAllTasks());
+    }
+
+    @Test
+    void returnedTasksAreFrozenVersions() {
+        taskManager.createTask(new TaskBuilder(1).build());
+        Epic epic = taskManager.createEpic(new EpicBuilder(2).build());
+        taskManager.createSubtask(new SubtaskBuilder(3, epic.getId()).build());
+
+        Assertions.assertThrows(IllegalStateException.class, () -> taskManager.getTask(1).setTitle("Changed"));
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> taskManager.getSubtask(3).setStatus(Task.Status.DONE));
+        Assertions.assertThrows(IllegalStateException.class, () -> taskManager.getEpic(2).setTitle("Changed"));
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> taskManager.getEpic(2).getSubtasks().getFirst().setStatus(Task.Status.DONE));
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> taskManager.getAllTasks().getFirst().setTitle("Changed"));
+
+        Task old = taskManager.getTask(1);
+        Task task = old.copy();
+        task.setTitle("Changed");
+        taskManager.updateTask(task.getId(), task);
+        Assertions.assertEquals("Changed", taskManager.getTask(1).getTitle());
+        Assertions.assertEquals("Task 1", old.getTitle());
+    }
+
+    @Test
+    void taskWithLongDurationIsStoredOrRejected() {
+        LocalDateTime now = LocalDateTime.of(2024, 3, 1, 9, 0);
+        Task first = taskManager.createTask(new TaskBuilder(1).startTime(now).build());
+        Duration duration = Duration.ofDays(200_000);
+        for (LocalDateTime start : Arrays.asList(null, now.plusDays(1))) {
+            try {
+                Task task = taskManager.createTask(new TaskBuilder(2).startTime(start).duration(duration).build());
+                Assertions.assertEquals(duration, taskManager.getTask(task.getId()).getDuration());
+                taskManager.deleteTask(task.getId());
+            } catch (IllegalArgumentException e) {
+                // a backend that keeps durations in nanoseconds can't hold this one
+            }
+        }
+        Assertions.assertEquals(List.of(first), taskManager.getAllTasks());
+        Assertions.assertEquals(List.of(first), taskManager.getPrioritizedTasks());
+    }
+
     @Test
     void epicCreation() {
         Epic epic = new EpicBuilder(1).build();
@@ -277,6 +334,26 @@ abstract class TaskManagerTest<T extends TaskManager> {
         Assertions.assertEquals(task, records.getLast());
     }
 
+    @Test
+    void historyKeepsStateAtViewTime() {
+        Epic epic = taskManager.createEpic(new EpicBuilder(1).build());
+        Subtask subtask = taskManager.createSubtask(new SubtaskBuilder(2, epic.getId()).build());
+        taskManager.createTask(new TaskBuilder(3).title("Draft plan").build());
+        taskManager.getTask(3);
+        taskManager.getEpic(epic.getId());
+        taskManager.updateTask(3, new TaskBuilder(3).title("Final plan").build());
+        taskManager.updateSubtask(subtask.getId(), new SubtaskBuilder(subtask.getId(), epic.getId())
+                .status(Task.Status.DONE).build());
+        List<Task> records = taskManager.getHistory();
+        Epic epicRecord = (Epic) records.getFirst();
+
+        Assertions.assertEquals(Task.Status.NEW, epicRecord.getStatus());
+        Assertions.assertEquals(Task.Status.NEW, epicRecord.getSubtasks().getFirst().getStatus());
+        Assertions.assertEquals("Draft plan", records.getLast().getTitle());
+        Assertions.assertEquals("Final plan", taskManager.getTask(3).getTitle());
+        Assertions.assertEquals(Task.Status.DONE, taskManager.getEpic(epic.getId()).getStatus());
+    }
+
     @Test
     void getPrioritizedTasks() {
         LocalDateTime now = LocalDateTime.now();
@@ -424,4 +501,855 @@ abstract class TaskManagerTest<T extends TaskManager> {
 
         Assertions.assertThrows(TimeIntersectionException.class, () -> taskManager.createSubtask(subtask1));
     }
+
+    @Test
+    void taskUpdatedIfIntersectsOnlyWithItself() {
+        LocalDateTime now = LocalDateTime.now();
+        taskManager.createTask(new TaskBuilder(1).startTime(now).duration(Duration.ofHours(1)).build());
+        Task update = new TaskBuilder(null).startTime(now.plusMinutes(30)).duration(Duration.ofHours(1)).build();
+        taskManager.updateTask(1, update);
+
+        Assertions.assertEquals(now.plusMinutes(30), taskManager.getTask(1).getStartTime());
+    }
+
+    @Test
+    void subtasksRemovedFromPrioritizedWithEpic() {
+        LocalDateTime now = LocalDateTime.now();
+        Epic epic = new EpicBuilder(1).build();
+        taskManager.createEpic(epic);
+        taskManager.createSubtask(new SubtaskBuilder(2, epic.getId()).startTime(now).build());
+        taskManager.deleteEpic(1);
+
+        Assertions.assertTrue(taskManager.getPrioritizedTasks().isEmpty());
+        Assertions.assertDoesNotThrow(() -> taskManager.createTask(new TaskBuilder(3).startTime(now).build()));
+    }
+
+    @Test
+    void getTasksAt() {
+        LocalDateTime now = LocalDateTime.now();
+        Task task1 = new TaskBuilder(1).startTime(now).duration(Duration.ofHours(1)).build();
+        Task task2 = new TaskBuilder(2).startTime(now.plusHours(2)).duration(Duration.ofHours(1)).build();
+        Epic epic = new EpicBuilder(3).build();
+        Subtask subtask = new SubtaskBuilder(4, epic.getId()).startTime(now.plusHours(4)).build();
+        taskManager.createTask(task1);
+        taskManager.createTask(task2);
+        taskManager.createEpic(epic);
+        taskManager.createSubtask(subtask);
+
+        Assertions.assertEquals(List.of(task1), taskManager.getTasksAt(now));
+        Assertions.assertEquals(List.of(task1), taskManager.getTasksAt(now.plusMinutes(59)));
+        Assertions.assertTrue(taskManager.getTasksAt(now.plusHours(1)).isEmpty());
+        Assertions.assertEquals(List.of(task2), taskManager.getTasksAt(now.plusMinutes(150)));
+        Assertions.assertEquals(List.of(subtask), taskManager.getTasksAt(now.plusHours(4)));
+        Assertions.assertTrue(taskManager.getTasksAt(now.minusMinutes(1)).isEmpty());
+    }
+
+    @Test
+    void getTasksOverlapping() {
+        LocalDateTime now = LocalDateTime.now();
+        Task task1 = new TaskBuilder(1).startTime(now).duration(Duration.ofHours(1)).build();
+        Task task2 = new TaskBuilder(2).startTime(now.plusHours(2)).duration(Duration.ofHours(1)).build();
+        Task task3 = new TaskBuilder(3).startTime(null).build();
+        Epic epic = new EpicBuilder(4).build();
+        Subtask subtask = new SubtaskBuilder(5, epic.getId()).startTime(now.plusHours(4)).build();
+        taskManager.createTask(task1);
+        taskManager.createTask(task2);
+        taskManager.createTask(task3);
+        taskManager.createEpic(epic);
+        taskManager.createSubtask(subtask);
+
+        Assertions.assertEquals(List.of(task1, task2, subtask),
+                taskManager.getTasksOverlapping(now.minusDays(1), now.plusDays(1)));
+        Assertions.assertEquals(List.of(task1, task2),
+                taskManager.getTasksOverlapping(now.plusMinutes(30), now.plusMinutes(150)));
+        Assertions.assertTrue(taskManager.getTasksOverlapping(now.plusHours(1), now.plusHours(2)).isEmpty());
+        Assertions.assertEquals(List.of(subtask), taskManager.getTasksOverlapping(now.plusHours(4), now.plusHours(5)));
+    }
+
+    @Test
+    void epicMetricsUpdateWhenSubtaskUpdates() {
+        LocalDateTime now = LocalDateTime.now();
+        Epic epic = new EpicBuilder(1).build();
+        taskManager.createEpic(epic);
+        Subtask subtask1 = new SubtaskBuilder(2, epic.getId()).startTime(now).duration(Duration.ofHours(1)).build();
+        Subtask subtask2 = new SubtaskBuilder(3, epic.getId()).startTime(now.plusHours(2))
+                .duration(Duration.ofHours(1)).build();
+        taskManager.createSubtask(subtask1);
+        taskManager.createSubtask(subtask2);
+        subtask1.setStartTime(now.plusHours(4));
+        subtask1.setDuration(Duration.ofHours(2));
+        taskManager.updateSubtask(2, subtask1);
+        Epic record = taskManager.getEpic(1);
+
+        Assertions.assertEquals(now.plusHours(2), record.getStartTime());
+        Assertions.assertEquals(now.plusHours(6), record.getEndTime());
+        Assertions.assertEquals(Duration.ofHours(3), record.getDuration());
+    }
+
+    @Test
+    void subtaskMovedToOtherEpic() {
+        Epic epic1 = new EpicBuilder(1).build();
+        Epic epic2 = new EpicBuilder(2).build();
+        taskManager.createEpic(epic1);
+        taskManager.createEpic(epic2);
+        Subtask subtask = new SubtaskBuilder(3, epic1.getId()).status(Task.Status.DONE).build();
+        taskManager.createSubtask(subtask);
+        subtask.setEpicId(epic2.getId());
+        taskManager.updateSubtask(3, subtask);
+
+        Assertions.assertTrue(taskManager.getEpicSubtasks(1).isEmpty());
+        Assertions.assertEquals(Task.Status.NEW, taskManager.getEpic(1).getStatus());
+        Assertions.assertEquals(List.of(subtask), taskManager.getEpicSubtasks(2));
+        Assertions.assertEquals(Task.Status.DONE, taskManager.getEpic(2).getStatus());
+    }
+
+    @Test
+    void subtaskNotMovedToNonexistentEpic() {
+        Epic epic = new EpicBuilder(1).build();
+        taskManager.createEpic(epic);
+        Subtask subtask = new SubtaskBuilder(2, epic.getId()).build();
+        taskManager.createSubtask(subtask);
+        subtask.setEpicId(99);
+
+        Assertions.assertThrows(NotFoundException.class, () -> taskManager.updateSubtask(2, subtask));
+        Assertions.assertEquals(epic.getId(), taskManager.getSubtask(2).getEpicId());
+    }
+
+    @Test
+    void epicUpdateKeepsSubtasks() {
+        Epic epic = new EpicBuilder(1).build();
+        taskManager.createEpic(epic);
+        taskManager.createSubtask(new SubtaskBuilder(2, epic.getId()).status(Task.Status.DONE).build());
+        taskManager.updateEpic(1, new EpicBuilder(1).title("Updated").build());
+        Epic record = taskManager.getEpic(1);
+
+        Assertions.assertEquals("Updated", record.getTitle());
+        Assertions.assertEquals(1, record.getSubtasks().size());
+        Assertions.assertEquals(Task.Status.DONE, record.getStatus());
+    }
+
+    @Test
+    void epicWithUnscheduledSubtasks() {
+        Epic epic = new EpicBuilder(1).build();
+        taskManager.createEpic(epic);
+        taskManager.createSubtask(new SubtaskBuilder(2, epic.getId()).startTime(null).build());
+        taskManager.createSubtask(new SubtaskBuilder(3, epic.getId()).startTime(null).build());
+        Epic record = taskManager.getEpic(1);
+
+        Assertions.assertEquals(2, record.getSubtasks().size());
+        Assertions.assertNull(record.getStartTime());
+        Assertions.assertNull(record.getEndTime());
+    }
+
+    @Test
+    void epicSubtasksResolvedFromStorage() {
+        Epic epic = new EpicBuilder(1).build();
+        taskManager.createEpic(epic);
+        Subtask subtask1 = taskManager.createSubtask(new SubtaskBuilder(3, epic.getId()).startTime(null).build());
+        Subtask subtask2 = taskManager.createSubtask(new SubtaskBuilder(2, epic.getId()).startTime(null).build());
+        List<Subtask> subtasks = taskManager.getEpicSubtasks(1);
+
+        Assertions.assertEquals(List.of(subtask1, subtask2), subtasks);
+        Assertions.assertSame(taskManager.getSubtask(subtask1.getId()), subtasks.getFirst());
+        Assertions.assertThrows(UnsupportedOperationException.class, subtasks::removeFirst);
+    }
+
+    @Test
+    void getPrioritizedTasksInWindow() {
+        LocalDateTime now = LocalDateTime.now();
+        taskManager.createTask(new TaskBuilder(1).startTime(now).build());
+        taskManager.createTask(new TaskBuilder(2).startTime(now.plusHours(2)).build());
+        taskManager.createTask(new TaskBuilder(3).startTime(now.plusHours(4)).build());
+        taskManager.createTask(new TaskBuilder(4).startTime(null).build());
+
+        Assertions.assertEquals(List.of(2, 3), ids(taskManager.getPrioritizedTasks(now.plusMinutes(1),
+                now.plusHours(5))));
+        Assertions.assertEquals(List.of(1), ids(taskManager.getPrioritizedTasks(now, now.plusHours(2))));
+        Assertions.assertTrue(taskManager.getPrioritizedTasks(now.plusHours(5), now.plusHours(6)).isEmpty());
+    }
+
+    @Test
+    void getPrioritizedTasksByPages() {
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 1; i <= 5; i++) {
+            taskManager.createTask(new TaskBuilder(i).startTime(now.plusHours(i * 2L)).build());
+        }
+        List<Task> firstPage = taskManager.getPrioritizedTasksAfter(null, 0, 2);
+        Task last = firstPage.getLast();
+        List<Task> secondPage = taskManager.getPrioritizedTasksAfter(last.getStartTime(), last.getId(), 2);
+        last = secondPage.getLast();
+        List<Task> thirdPage = taskManager.getPrioritizedTasksAfter(last.getStartTime(), last.getId(), 2);
+
+        Assertions.assertEquals(List.of(1, 2), ids(firstPage));
+        Assertions.assertEquals(List.of(3, 4), ids(secondPage));
+        Assertions.assertEquals(List.of(5), ids(thirdPage));
+    }
+
+    @Test
+    void getTasksByPagesWhileBoardChanges() {
+        for (int i = 1; i <= 5; i++) {
+            taskManager.createTask(new TaskBuilder(i).startTime(null).build());
+        }
+        List<Task> firstPage = taskManager.getTasksAfter(0, 2);
+        taskManager.deleteTask(3);
+        taskManager.createTask(new TaskBuilder(6).startTime(null).build());
+        List<Task> secondPage = taskManager.getTasksAfter(firstPage.getLast().getId(), 2);
+        List<Task> thirdPage = taskManager.getTasksAfter(secondPage.getLast().getId(), 2);
+
+        Assertions.assertEquals(List.of(1, 2), ids(firstPage));
+        Assertions.assertEquals(List.of(4, 5), ids(secondPage));
+        Assertions.assertEquals(List.of(6), ids(thirdPage));
+        Assertions.assertTrue(taskManager.getTasksAfter(6, 2).isEmpty());
+    }
+
+    @Test
+    void getEpicsAndSubtasksByPages() {
+        Epic first = taskManager.createEpic(new EpicBuilder(1).build());
+        Subtask subtask = taskManager.createSubtask(new SubtaskBuilder(2, first.getId()).startTime(null).build());
+        Epic second = taskManager.createEpic(new EpicBuilder(3).build());
+        taskManager.createTask(new TaskBuilder(4).startTime(null).build());
+
+        Assertions.assertEquals(List.of(first.getId()), taskManager.getEpicsAfter(0, 1).stream().map(Task::getId)
+                .toList());
+        Assertions.assertEquals(List.of(second.getId()), taskManager.getEpicsAfter(first.getId(), 10).stream()
+                .map(Task::getId).toList());
+        Assertions.assertEquals(List.of(subtask.getId()), taskManager.getSubtasksAfter(0, 10).stream()
+                .map(Task::getId).toList());
+        Assertions.assertEquals(List.of(subtask.getId()), taskManager.getEpicsAfter(0, 1).getFirst().getSubtasks()
+                .stream().map(Task::getId).toList());
+    }
+
+    @Test
+    void streamsMatchLists() {
+        Epic epic = taskManager.createEpic(new EpicBuilder(1).build());
+        List<Subtask> subtasks = new ArrayList<>();
+        for (int i = 2; i <= 6; i++) {
+            subtasks.add(taskManager.createSubtask(new SubtaskBuilder(i, epic.getId()).startTime(null)
+                    .duration(Duration.ofMinutes(i)).build()));
+            taskManager.createTask(new TaskBuilder(i + 10).startTime(null).build());
+        }
+        taskManager.deleteSubtask(subtasks.get(2).getId());
+
+        Assertions.assertEquals(taskManager.getAllTasks(), taskManager.streamTasks().toList());
+        Assertions.assertEquals(taskManager.getAllEpics(), taskManager.streamEpics().toList());
+        Assertions.assertEquals(taskManager.getAllSubtasks(), taskManager.streamSubtasks().toList());
+        Assertions.assertEquals(Duration.ofMinutes(16), taskManager.streamSubtasks().parallel()
+                .map(Task::getDuration).reduce(Duration.ZERO, Duration::plus));
+    }
+
+    @Test
+    void listsAreInIdOrder() {
+        Epic epic = taskManager.createEpic(new EpicBuilder(null).build());
+        for (int i = 0; i < 60; i++) {
+            taskManager.createTask(new TaskBuilder(null).startTime(null).build());
+            taskManager.createSubtask(new SubtaskBuilder(null, epic.getId()).startTime(null).build());
+        }
+        for (Task task : taskManager.getAllTasks()) {
+            if (task.getId() % 3 == 0) {
+                taskManager.deleteTask(task.getId());
+            }
+        }
+        for (int i = 0; i < 20; i++) {
+            taskManager.createTask(new TaskBuilder(null).startTime(null).build());
+            taskManager.createEpic(new EpicBuilder(null).build());
+        }
+        List<Integer> taskIds = ids(taskManager.getAllTasks());
+        List<Integer> epicIds = taskManager.getAllEpics().stream().map(Task::getId).toList();
+
+        Assertions.assertEquals(taskIds.stream().sorted().toList(), taskIds);
+        Assertions.assertEquals(epicIds.stream().sorted().toList(), epicIds);
+        Assertions.assertEquals(taskIds, ids(taskManager.streamTasks().toList()));
+        Assertions.assertEquals(taskIds, ids(taskManager.findTasks(new TaskQuery().type(TaskType.TASK)
+                .status(Task.Status.NEW))));
+        List<Integer> subtaskIds = taskManager.getAllSubtasks().stream().map(Task::getId).toList();
+        Assertions.assertEquals(subtaskIds.stream().sorted().toList(), subtaskIds);
+    }
+
+    @Test
+    void getHistoryByPages() {
+        for (int i = 1; i <= 5; i++) {
+            taskManager.createTask(new TaskBuilder(i).startTime(null).build());
+            taskManager.getTask(i);
+        }
+        Page<Task> firstPage = taskManager.getHistory(null, 2);
+        taskManager.getTask(5);
+        taskManager.getTask(1);
+        Page<Task> secondPage = taskManager.getHistory(firstPage.getNextCursor(), 2);
+
+        Assertions.assertEquals(List.of(5, 4), ids(firstPage.getItems()));
+        Assertions.assertEquals(List.of(3, 2), ids(secondPage.getItems()));
+        Assertions.assertNull(secondPage.getNextCursor());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> taskManager.getHistory("page 2", 2));
+    }
+
+    @Test
+    void createTasksInBatch() {
+        Epic epic = taskManager.createEpic(new EpicBuilder(1).build());
+        List<Task> created = taskManager.createTasks(List.of(
+                new TaskBuilder(2).build(),
+                new SubtaskBuilder(3, epic.getId()).status(Task.Status.DONE).build(),
+                new TaskBuilder(4).startTime(null).build()
+        ));
+
+        Assertions.assertEquals(List.of(2, 3, 4), ids(created));
+        Assertions.assertEquals(2, taskManager.getAllTasks().size());
+        Assertions.assertEquals(Task.Status.DONE, taskManager.getEpic(1).getStatus());
+        Assertions.assertEquals(List.of(2, 3), ids(taskManager.getPrioritizedTasks()));
+    }
+
+    @Test
+    void batchNotCreatedIfTasksIntersect() {
+        LocalDateTime now = LocalDateTime.now();
+        taskManager.createTask(new TaskBuilder(1).startTime(now).duration(Duration.ofHours(1)).build());
+        List<Task> intersectingEachOther = List.of(
+                new TaskBuilder(2).startTime(now.plusHours(3)).duration(Duration.ofHours(2)).build(),
+                new TaskBuilder(3).startTime(now.plusHours(2)).duration(Duration.ofMinutes(90)).build()
+        );
+        List<Task> intersectingTimeline = List.of(
+                new TaskBuilder(2).startTime(now.plusHours(2)).build(),
+                new TaskBuilder(3).startTime(now.plusMinutes(30)).build()
+        );
+
+        Assertions.assertThrows(TimeIntersectionException.class,
+                () -> taskManager.createTasks(intersectingEachOther));
+        Assertions.assertThrows(TimeIntersectionException.class,
+                () -> taskManager.createTasks(intersectingTimeline));
+        Assertions.assertEquals(1, taskManager.getAllTasks().size());
+    }
+
+    @Test
+    void batchNotCreatedIfEpicNotFound() {
+        List<Task> batch = List.of(new TaskBuilder(1).build(), new SubtaskBuilder(2, 99).build());
+
+        Assertions.assertThrows(NotFoundException.class, () -> taskManager.createTasks(batch));
+        Assertions.assertTrue(taskManager.getAllTasks().isEmpty());
+    }
+
+    @Test
+    void updateTasksInBatchSwapsTimeSlots() {
+        LocalDateTime now = LocalDateTime.now();
+        Task task1 = taskManager.createTask(new TaskBuilder(1).startTime(now).duration(Duration.ofHours(1)).build());
+        Task task2 = taskManager.createTask(new TaskBuilder(2).startTime(now.plusHours(2))
+                .duration(Duration.ofHours(1)).build());
+        Task update1 = new TaskBuilder(1).startTime(task2.getStartTime()).duration(Duration.ofHours(1)).build();
+        Task update2 = new TaskBuilder(2).startTime(task1.getStartTime()).duration(Duration.ofHours(1)).build();
+        taskManager.updateTasks(List.of(update1, update2));
+
+        Assertions.assertEquals(List.of(2, 1), ids(taskManager.getPrioritizedTasks()));
+        Assertions.assertEquals(now, taskManager.getTask(2).getStartTime());
+    }
+
+    @Test
+    void batchNotUpdatedIfTaskNotFound() {
+        taskManager.createTask(new TaskBuilder(1).build());
+        List<Task> batch = List.of(new TaskBuilder(1).title("Updated").build(), new TaskBuilder(99).build());
+
+        Assertions.assertThrows(NotFoundException.class, () -> taskManager.updateTasks(batch));
+        Assertions.assertEquals("Task 1", taskManager.getTask(1).getTitle());
+    }
+
+    @Test
+    void deleteDoneTasks() {
+        Epic epic = taskManager.createEpic(new EpicBuilder(1).build());
+        taskManager.createTasks(List.of(
+                new TaskBuilder(2).status(Task.Status.DONE).build(),
+                new TaskBuilder(3).build(),
+                new SubtaskBuilder(4, epic.getId()).status(Task.Status.DONE).build()
+        ));
+        List<Task> deleted = taskManager.deleteIf(x -> x.getStatus() == Task.Status.DONE);
+
+        Assertions.assertEquals(List.of(1, 2), ids(deleted));
+        Assertions.assertEquals(List.of(3), ids(taskManager.getAllTasks()));
+        Assertions.assertTrue(taskManager.getAllEpics().isEmpty());
+        Assertions.assertTrue(taskManager.getAllSubtasks().isEmpty());
+        Assertions.assertEquals(List.of(3), ids(taskManager.getPrioritizedTasks()));
+    }
+
+    @Test
+    void findTasksByStatusAndType() {
+        Epic epic = taskManager.createEpic(new EpicBuilder(1).build());
+        taskManager.createTask(new TaskBuilder(2).status(Task.Status.IN_PROGRESS).build());
+        taskManager.createTask(new TaskBuilder(3).build());
+        taskManager.createSubtask(new SubtaskBuilder(4, epic.getId()).status(Task.Status.IN_PROGRESS).build());
+        Task task = taskManager.getTask(3).copy();
+        task.setStatus(Task.Status.IN_PROGRESS);
+        taskManager.updateTask(3, task);
+
+        Assertions.assertEquals(List.of(2, 3), sortedIds(taskManager.findTasks(new TaskQuery()
+                .type(TaskType.TASK).status(Task.Status.IN_PROGRESS))));
+        Assertions.assertEquals(List.of(1, 2, 3, 4), sortedIds(taskManager.findTasks(new TaskQuery()
+                .status(Task.Status.IN_PROGRESS))));
+        Assertions.assertTrue(taskManager.findTasks(new TaskQuery().status(Task.Status.NEW)).isEmpty());
+    }
+
+    @Test
+    void findTasksFollowsEpicStatus() {
+        Epic epic = taskManager.createEpic(new EpicBuilder(1).build());
+        taskManager.createSubtask(new SubtaskBuilder(2, epic.getId()).status(Task.Status.DONE).build());
+        TaskQuery doneEpics = new TaskQuery().type(TaskType.EPIC).status(Task.Status.DONE);
+
+        Assertions.assertEquals(List.of(1), sortedIds(taskManager.findTasks(doneEpics)));
+        taskManager.deleteSubtask(2);
+        Assertions.assertTrue(taskManager.findTasks(doneEpics).isEmpty());
+        Assertions.assertEquals(List.of(1), sortedIds(taskManager.findTasks(new TaskQuery().type(TaskType.EPIC)
+                .status(Task.Status.NEW))));
+    }
+
+    @Test
+    void findSubtasksOfEpicInTimeRange() {
+        LocalDateTime now = LocalDateTime.now();
+        Epic epic1 = taskManager.createEpic(new EpicBuilder(1).build());
+        Epic epic2 = taskManager.createEpic(new EpicBuilder(2).build());
+        taskManager.createSubtask(new SubtaskBuilder(3, epic1.getId()).startTime(now).build());
+        taskManager.createSubtask(new SubtaskBuilder(4, epic1.getId()).startTime(now.plusHours(2)).build());
+        taskManager.createSubtask(new SubtaskBuilder(5, epic2.getId()).startTime(now.plusHours(1)).build());
+        taskManager.createTask(new TaskBuilder(6).startTime(now.plusHours(3)).build());
+
+        Assertions.assertEquals(List.of(3, 4), sortedIds(taskManager.findTasks(new TaskQuery()
+                .epicId(epic1.getId()))));
+        Assertions.assertEquals(List.of(4, 5), sortedIds(taskManager.findTasks(new TaskQuery()
+                .type(TaskType.SUBTASK).from(now.plusMinutes(1)))));
+        Assertions.assertEquals(List.of(2, 4, 5, 6), sortedIds(taskManager.findTasks(new TaskQuery()
+                .from(now.plusMinutes(1)).to(now.plusHours(4)))));
+        Assertions.assertEquals(List.of(4), ids(taskManager.findTasks(new TaskQuery()
+                .epicId(epic1.getId()).from(now.plusMinutes(1)))));
+    }
+
+    @Test
+    void findTasksAfterClear() {
+        Epic epic = taskManager.createEpic(new EpicBuilder(1).build());
+        taskManager.createSubtask(new SubtaskBuilder(2, epic.getId()).status(Task.Status.DONE).build());
+        taskManager.createTask(new TaskBuilder(3).status(Task.Status.DONE).build());
+        taskManager.clearSubtasks();
+        taskManager.clearTasks();
+
+        Assertions.assertTrue(taskManager.findTasks(new TaskQuery().status(Task.Status.DONE)).isEmpty());
+        Assertions.assertEquals(List.of(1), sortedIds(taskManager.findTasks(new TaskQuery()
+                .status(Task.Status.NEW))));
+    }
+
+    @Test
+    void searchByTermsAndPrefix() {
+        Epic epic = taskManager.createEpic(new EpicBuilder(1).title("Release").description("Quarterly release").build());
+        taskManager.createSubtask(new SubtaskBuilder(2, epic.getId()).title("Fix login bug")
+                .description("Users can't login after release").build());
+        taskManager.createTask(new TaskBuilder(3).title("Write release notes").description("Notes for users").build());
+        taskManager.createTask(new TaskBuilder(4).title("Refactor logging").description("Logger cleanup").build());
+
+        Assertions.assertEquals(List.of(1, 3, 2), ids(taskManager.search("release", 10)));
+        Assertions.assertEquals(List.of(2), ids(taskManager.search("Release LOGIN", 10)));
+        Assertions.assertEquals(List.of(2, 4), sortedIds(taskManager.search("log*", 10)));
+        Assertions.assertEquals(List.of(1), ids(taskManager.search("release", 1)));
+        Assertions.assertTrue(taskManager.search("release deploy", 10).isEmpty());
+        Assertions.assertTrue(taskManager.search("  ", 10).isEmpty());
+    }
+
+    @Test
+    void searchFollowsUpdatesAndDeletes() {
+        Epic epic = taskManager.createEpic(new EpicBuilder(1).title("Backlog").build());
+        taskManager.createSubtask(new SubtaskBuilder(2, epic.getId()).title("Draft design").build());
+        taskManager.createTask(new TaskBuilder(3).title("Draft plan").build());
+        Task task = taskManager.getTask(3).copy();
+        task.setTitle("Final plan");
+        taskManager.updateTask(3, task);
+        taskManager.updateEpic(1, new EpicBuilder(1).title("Design backlog").build());
+
+        Assertions.assertEquals(List.of(2), ids(taskManager.search("draft", 10)));
+        Assertions.assertEquals(List.of(3), ids(taskManager.search("final", 10)));
+        Assertions.assertEquals(List.of(1, 2), sortedIds(taskManager.search("design", 10)));
+        taskManager.deleteEpic(1);
+        taskManager.clearTasks();
+        Assertions.assertTrue(taskManager.search("design", 10).isEmpty());
+        Assertions.assertTrue(taskManager.search("plan", 10).isEmpty());
+    }
+
+    @Test
+    void findFreeSlotAfterTime() {
+        LocalDateTime now = LocalDateTime.now();
+        taskManager.createTask(new TaskBuilder(1).startTime(now).duration(Duration.ofHours(1)).build());
+        taskManager.createTask(new TaskBuilder(2).startTime(now.plusHours(2)).duration(Duration.ofHours(1)).build());
+        taskManager.createTask(new TaskBuilder(3).startTime(now.plusHours(5)).duration(Duration.ofHours(1)).build());
+        taskManager.createTask(new TaskBuilder(4).startTime(null).build());
+
+        Assertions.assertEquals(new TimeSlot(now.plusHours(1), now.plusHours(2)),
+                taskManager.findFreeSlot(now.plusMinutes(10), Duration.ofMinutes(30)));
+        Assertions.assertEquals(new TimeSlot(now.plusHours(1), now.plusHours(2)),
+                taskManager.findFreeSlot(now, Duration.ofHours(1)));
+        Assertions.assertEquals(new TimeSlot(now.plusHours(3).plusMinutes(30), now.plusHours(5)),
+                taskManager.findFreeSlot(now.plusHours(3).plusMinutes(30), Duration.ofHours(1)));
+        Assertions.assertEquals(new TimeSlot(now.plusHours(3), now.plusHours(5)),
+                taskManager.findFreeSlot(now, Duration.ofHours(2)));
+        Assertions.assertEquals(new TimeSlot(now.plusHours(6), null),
+                taskManager.findFreeSlot(now, Duration.ofHours(3)));
+        Assertions.assertEquals(new TimeSlot(now.minusDays(1), now),
+                taskManager.findFreeSlot(now.minusDays(1), Duration.ofHours(1)));
+    }
+
+    @Test
+    void taskMayStartWhenAnotherEnds() {
+        LocalDateTime now = LocalDateTime.of(2024, 3, 1, 10, 0);
+        taskManager.createTask(new TaskBuilder(1).startTime(now).duration(Duration.ofMinutes(30)).build());
+        LocalDateTime start = taskManager.findFreeSlot(now, Duration.ofMinutes(30)).getStart();
+        Task second = taskManager.createTask(new TaskBuilder(2).startTime(start).duration(Duration.ofMinutes(30))
+                .build());
+        Task milestone = new TaskBuilder(3).startTime(now.plusMinutes(30)).build();
+
+        Assertions.assertEquals(now.plusMinutes(30), second.getStartTime());
+        Assertions.assertThrows(TimeIntersectionException.class, () -> taskManager.createTask(milestone));
+        Assertions.assertDoesNotThrow(() -> taskManager.createTask(new TaskBuilder(3).startTime(now.plusHours(1))
+                .build()));
+        Assertions.assertEquals(new TimeSlot(now.plusHours(1).plusNanos(1), null),
+                taskManager.findFreeSlot(now, Duration.ZERO));
+        Assertions.assertEquals(List.of(1, 2, 3), ids(taskManager.getPrioritizedTasks()));
+    }
+
+    @Test
+    void freeSlotFitsTaskOfRequestedDuration() {
+        LocalDateTime now = LocalDateTime.now();
+        taskManager.createTask(new TaskBuilder(1).startTime(now).duration(Duration.ofHours(1)).build());
+        taskManager.createTask(new TaskBuilder(2).startTime(now.plusHours(2)).duration(Duration.ofHours(1)).build());
+        taskManager.createTask(new TaskBuilder(3).startTime(now.plusHours(4)).duration(Duration.ofHours(1)).build());
+
+        TimeSlot slot = taskManager.findFreeSlot(now, Duration.ofMinutes(50));
+        Task task = new TaskBuilder(4).startTime(slot.getStart()).duration(Duration.ofMinutes(50)).build();
+
+        Assertions.assertEquals(now.plusHours(1), slot.getStart());
+        Assertions.assertDoesNotThrow(() -> taskManager.createTask(task));
+        Assertions.assertEquals(new TimeSlot(now.plusHours(3), now.plusHours(4)),
+                taskManager.findFreeSlot(now, Duration.ofMinutes(50)));
+        Assertions.assertEquals(new TimeSlot(now.plusHours(5), null),
+                taskManager.findFreeSlot(now, Duration.ofMinutes(61)));
+        Task filling = new TaskBuilder(5).startTime(now.plusHours(3)).duration(Duration.ofHours(1)).build();
+        Assertions.assertDoesNotThrow(() -> taskManager.createTask(filling));
+    }
+
+    @Test
+    void findWidestFreeSlotsInWindow() {
+        LocalDateTime now = LocalDateTime.now();
+        taskManager.createTask(new TaskBuilder(1).startTime(now).duration(Duration.ofHours(1)).build());
+        taskManager.createTask(new TaskBuilder(2).startTime(now.plusHours(3)).duration(Duration.ofHours(1)).build());
+        Epic epic = new EpicBuilder(3).build();
+        taskManager.createEpic(epic);
+        taskManager.createSubtask(new SubtaskBuilder(4, epic.getId()).startTime(now.plusHours(5))
+                .duration(Duration.ofHours(1)).build());
+        taskManager.createSubtask(new SubtaskBuilder(5, epic.getId()).startTime(now.plusHours(10))
+                .duration(Duration.ofHours(1)).build());
+
+        Assertions.assertEquals(List.of(new TimeSlot(now.plusHours(1), now.plusHours(3)),
+                        new TimeSlot(now.plusHours(4), now.plusHours(5)),
+                        new TimeSlot(now.plusHours(6), now.plusHours(10))),
+                taskManager.findFreeSlots(now.minusMinutes(30), now.plusHours(12), Duration.ZERO, 3));
+        Assertions.assertEquals(List.of(new TimeSlot(now.plusHours(1), now.plusHours(3)),
+                        new TimeSlot(now.plusHours(6), now.plusHours(9))),
+                taskManager.findFreeSlots(now.plusMinutes(30), now.plusHours(9), Duration.ofHours(2), 5));
+        Assertions.assertEquals(List.of(new TimeSlot(now.plusHours(6), now.plusHours(9))),
+                taskManager.findFreeSlots(now.plusMinutes(30), now.plusHours(9), Duration.ofMinutes(121), 5));
+        Assertions.assertEquals(List.of(new TimeSlot(now.plusHours(1), now.plusHours(3)),
+                        new TimeSlot(now.plusHours(4), now.plusHours(5)),
+                        new TimeSlot(now.plusHours(6), now.plusHours(10))),
+                taskManager.findFreeSlots(now.plusMinutes(30), now.plusHours(11), Duration.ofHours(1), 5));
+        Assertions.assertTrue(taskManager.findFreeSlots(now, now.plusHours(1), Duration.ZERO, 5).isEmpty());
+        Assertions.assertTrue(taskManager.findFreeSlots(now, now.plusHours(12), Duration.ofHours(5), 5).isEmpty());
+    }
+
+    @Test
+    void scheduleTasksIntoFreeTime() {
+        LocalDateTime now = LocalDateTime.of(2024, 3, 1, 9, 0);
+        taskManager.createTask(new TaskBuilder(1).startTime(now.plusHours(1)).duration(Duration.ofHours(1)).build());
+        taskManager.createTask(new TaskBuilder(2).startTime(null).duration(Duration.ofMinutes(90)).build());
+        taskManager.createTask(new TaskBuilder(3).startTime(null).duration(Duration.ofMinutes(30)).build());
+        Epic epic = taskManager.createEpic(new EpicBuilder(4).build());
+        taskManager.createSubtask(new SubtaskBuilder(5, epic.getId()).startTime(null)
+                .duration(Duration.ofMinutes(20)).build());
+        List<Task> scheduled = taskManager.scheduleTasks(List.of(2, 3, 5), now, now.plusHours(4));
+
+        Assertions.assertEquals(List.of(2, 3, 5), ids(scheduled));
+        Assertions.assertEquals(now.plusHours(2), taskManager.getTask(2).getStartTime());
+        Assertions.assertEquals(now, taskManager.getTask(3).getStartTime());
+        Assertions.assertEquals(now.plusMinutes(30), taskManager.getSubtask(5).getStartTime());
+        Assertions.assertEquals(now.plusMinutes(30), taskManager.getEpic(epic.getId()).getStartTime());
+        Assertions.assertEquals(List.of(3, 5, 1, 2), ids(taskManager.getPrioritizedTasks()));
+    }
+
+    @Test
+    void scheduleTasksLeavesWhatDoesNotFit() {
+        LocalDateTime now = LocalDateTime.of(2024, 3, 1, 9, 0);
+        taskManager.createTask(new TaskBuilder(1).startTime(now.minusHours(1)).duration(Duration.ofHours(1)).build());
+        taskManager.createTask(new TaskBuilder(2).startTime(null).duration(Duration.ofHours(3)).build());
+        taskManager.createTask(new TaskBuilder(3).startTime(null).duration(Duration.ofMinutes(50)).build());
+        taskManager.createTask(new TaskBuilder(4).startTime(now.plusHours(1)).duration(Duration.ofHours(1)).build());
+        List<Task> scheduled = taskManager.scheduleTasks(List.of(2, 4, 3), now, now.plusHours(2));
+
+        Assertions.assertEquals(List.of(3), ids(scheduled));
+        Assertions.assertEquals(now, taskManager.getTask(3).getStartTime());
+        Assertions.assertNull(taskManager.getTask(2).getStartTime());
+        Assertions.assertEquals(now.plusHours(1), taskManager.getTask(4).getStartTime());
+    }
+
+    @Test
+    void scheduleTasksSkipsTasksWithoutDurationAndPlacesRepeatedIdsOnce() {
+        LocalDateTime now = LocalDateTime.of(2024, 3, 1, 9, 0);
+        taskManager.createTask(new TaskBuilder(1).startTime(now).duration(Duration.ofHours(1)).build());
+        taskManager.createTask(new TaskBuilder(2).startTime(null).duration(null).build());
+        taskManager.createTask(new TaskBuilder(3).startTime(null).duration(Duration.ofMinutes(30)).build());
+        List<Task> scheduled = taskManager.scheduleTasks(List.of(2, 3, 2, 3), now, now.plusHours(2));
+
+        Assertions.assertEquals(List.of(3), ids(scheduled));
+        Assertions.assertNull(taskManager.getTask(2).getStartTime());
+        Assertions.assertEquals(now.plusHours(1), taskManager.getTask(3).getStartTime());
+    }
+
+    @Test
+    void epicsAreNotScheduled() {
+        Epic epic = taskManager.createEpic(new EpicBuilder(1).build());
+        LocalDateTime now = LocalDateTime.now();
+
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> taskManager.scheduleTasks(List.of(epic.getId()), now, now.plusHours(1)));
+        Assertions.assertThrows(NotFoundException.class,
+                () -> taskManager.scheduleTasks(List.of(100), now, now.plusHours(1)));
+    }
+
+    @Test
+    void workloadSplitsTasksAcrossDays() {
+        LocalDate day = LocalDate.of(2024, 3, 1);
+        taskManager.createTask(new TaskBuilder(1).startTime(day.atTime(9, 0)).duration(Duration.ofHours(2)).build());
+        taskManager.createTask(new TaskBuilder(2).startTime(day.atTime(22, 0)).duration(Duration.ofHours(27)).build());
+        Epic epic = taskManager.createEpic(new EpicBuilder(3).build());
+        taskManager.createSubtask(new SubtaskBuilder(4, epic.getId()).startTime(day.plusDays(3).atTime(10, 0))
+                .duration(Duration.ofMinutes(30)).build());
+        taskManager.createTask(new TaskBuilder(5).startTime(null).duration(Duration.ofHours(1)).build());
+
+        Assertions.assertEquals(List.of(new DayWorkload(day.minusDays(1), Duration.ZERO, 0),
+                new DayWorkload(day, Duration.ofHours(4), 2),
+                new DayWorkload(day.plusDays(1), Duration.ofHours(24), 1),
+                new DayWorkload(day.plusDays(2), Duration.ofHours(1), 1),
+                new DayWorkload(day.plusDays(3), Duration.ofMinutes(30), 1)),
+                taskManager.getWorkload(day.minusDays(1), day.plusDays(4)));
+        Assertions.assertTrue(taskManager.getWorkload(day, day).isEmpty());
+    }
+
+    @Test
+    void workloadFollowsScheduleChanges() {
+        LocalDate day = LocalDate.of(2024, 3, 1);
+        taskManager.createTask(new TaskBuilder(1).startTime(day.atTime(9, 0)).duration(Duration.ofHours(2)).build());
+        taskManager.createTask(new TaskBuilder(2).startTime(day.atTime(12, 0)).duration(Duration.ofHours(1)).build());
+        taskManager.updateTask(1, new TaskBuilder(1).startTime(day.plusDays(1).atTime(9, 0))
+                .duration(Duration.ofHours(3)).build());
+        taskManager.deleteTask(2);
+        Epic epic = taskManager.createEpic(new EpicBuilder(3).build());
+        taskManager.createSubtask(new SubtaskBuilder(4, epic.getId()).startTime(day.atTime(15, 0))
+                .duration(Duration.ofHours(1)).build());
+
+        Assertions.assertEquals(List.of(new DayWorkload(day, Duration.ofHours(1), 1),
+                new DayWorkload(day.plusDays(1), Duration.ofHours(3), 1)),
+                taskManager.getWorkload(day, day.plusDays(2)));
+
+        taskManager.clearEpics();
+        taskManager.clearTasks();
+
+        Assertions.assertEquals(List.of(new DayWorkload(day, Duration.ZERO, 0)),
+                taskManager.getWorkload(day, day.plusDays(1)));
+    }
+
+    @Test
+    void taskChangesArePublished() {
+        List<List<TaskEvent>> batches = new ArrayList<>();
+        taskManager.addListener(batches::add);
+        taskManager.createTask(new TaskBuilder(1).startTime(null).build());
+        taskManager.updateTask(1, new TaskBuilder(1).title("Updated").startTime(null).build());
+        taskManager.deleteTask(1);
+
+        Assertions.assertEquals(List.of(List.of(TaskEvent.Kind.CREATED), List.of(TaskEvent.Kind.UPDATED),
+                List.of(TaskEvent.Kind.DELETED)), kinds(batches));
+        Assertions.assertEquals("Task 1", batches.get(0).getFirst().getTask().getTitle());
+        Assertions.assertEquals("Updated", batches.get(2).getFirst().getTask().getTitle());
+        Assertions.assertEquals(TaskType.TASK, batches.get(0).getFirst().getType());
+    }
+
+    @Test
+    void subtaskChangesPublishEpicStatus() {
+        Epic epic = taskManager.createEpic(new EpicBuilder(1).build());
+        List<List<TaskEvent>> batches = new ArrayList<>();
+        taskManager.addListener(batches::add);
+        taskManager.createSubtask(new SubtaskBuilder(2, epic.getId()).status(Task.Status.DONE).build());
+        taskManager.createSubtask(new SubtaskBuilder(3, epic.getId()).status(Task.Status.DONE).build());
+        taskManager.deleteSubtask(2);
+        taskManager.updateSubtask(3, new SubtaskBuilder(3, epic.getId()).status(Task.Status.NEW).build());
+
+        Assertions.assertEquals(List.of(List.of(TaskEvent.Kind.CREATED, TaskEvent.Kind.STATUS_CHANGED),
+                List.of(TaskEvent.Kind.CREATED), List.of(TaskEvent.Kind.DELETED),
+                List.of(TaskEvent.Kind.UPDATED, TaskEvent.Kind.STATUS_CHANGED)), kinds(batches));
+        TaskEvent statusChange = batches.get(3).get(1);
+        Assertions.assertEquals(TaskType.EPIC, statusChange.getType());
+        Assertions.assertEquals(Task.Status.DONE, statusChange.getPreviousStatus());
+        Assertions.assertEquals(Task.Status.NEW, statusChange.getTask().getStatus());
+    }
+
+    @Test
+    void epicCascadesArePublished() {
+        Epic epic1 = taskManager.createEpic(new EpicBuilder(1).build());
+        Epic epic2 = taskManager.createEpic(new EpicBuilder(2).build());
+        taskManager.createSubtask(new SubtaskBuilder(3, epic1.getId()).startTime(null).build());
+        taskManager.createSubtask(new SubtaskBuilder(4, epic1.getId()).startTime(null).build());
+        taskManager.createSubtask(new SubtaskBuilder(5, epic2.getId()).startTime(null).build());
+        List<List<TaskEvent>> batches = new ArrayList<>();
+        taskManager.addListener(batches::add);
+        taskManager.deleteEpic(1);
+        taskManager.clearEpics();
+
+        Assertions.assertEquals(2, batches.size());
+        Assertions.assertEquals(List.of(1, 3, 4), batches.get(0).stream().map(x -> x.getTask().getId()).toList());
+        Assertions.assertEquals(2, ((Epic) batches.get(0).getFirst().getTask()).getSubtasksCount());
+        Assertions.assertEquals(List.of(2, 5), batches.get(1).stream().map(x -> x.getTask().getId()).toList());
+        Assertions.assertTrue(batches.stream().flatMap(List::stream)
+                .allMatch(x -> x.getKind() == TaskEvent.Kind.DELETED));
+    }
+
+    @Test
+    void batchChangesArePublishedTogether() {
+        List<List<TaskEvent>> batches = new ArrayList<>();
+        taskManager.addListener(batches::add);
+        taskManager.createTasks(List.of(new TaskBuilder(1).build(), new TaskBuilder(2).build()));
+        taskManager.deleteIf(x -> true);
+
+        Assertions.assertEquals(List.of(List.of(TaskEvent.Kind.CREATED, TaskEvent.Kind.CREATED),
+                List.of(TaskEvent.Kind.DELETED, TaskEvent.Kind.DELETED)), kinds(batches));
+    }
+
+    @Test
+    void removedListenerIsNotCalled() {
+        List<List<TaskEvent>> batches = new ArrayList<>();
+        TaskListener listener = batches::add;
+        taskManager.addListener(listener);
+        taskManager.removeListener(listener);
+        taskManager.createTask(new TaskBuilder(1).build());
+
+        Assertions.assertTrue(batches.isEmpty());
+    }
+
+    @Test
+    void failingListenerDoesNotStopOthers() {
+        List<List<TaskEvent>> batches = new ArrayList<>();
+        taskManager.addListener(events -> {
+            throw new IllegalStateException("listener");
+        });
+        taskManager.addListener(batches::add);
+
+        IllegalStateException e = Assertions.assertThrows(IllegalStateException.class,
+                () -> taskManager.createTask(new TaskBuilder(1).build()));
+        Assertions.assertEquals("listener", e.getMessage());
+        Assertions.assertEquals(1, batches.size());
+        Assertions.assertNotNull(taskManager.getTask(1));
+    }
+
+    @Test
+    void dependenciesFormCriticalPath() {
+        LocalDateTime now = LocalDateTime.of(2024, 3, 1, 9, 0);
+        Task first = taskManager.createTask(new TaskBuilder(1).startTime(now).duration(Duration.ofHours(1)).build());
+        Task second = taskManager.createTask(new TaskBuilder(2).startTime(null).duration(Duration.ofHours(2)).build());
+        Epic epic = taskManager.createEpic(new EpicBuilder(3).build());
+        Subtask third = taskManager.createSubtask(new SubtaskBuilder(4, epic.getId()).startTime(null)
+                .duration(Duration.ofMinutes(30)).build());
+        taskManager.addDependency(first.getId(), second.getId());
+        taskManager.addDependency(second.getId(), third.getId());
+        taskManager.addDependency(first.getId(), third.getId());
+
+        Assertions.assertEquals(List.of(first.getId(), second.getId()), ids(taskManager.getBlockers(third.getId())));
+        Assertions.assertEquals(List.of(second.getId(), third.getId()), ids(taskManager.getBlocked(first.getId())));
+        Assertions.assertEquals(new CriticalPath(List.of(first.getId(), second.getId(), third.getId()),
+                Duration.ofMinutes(210), now.plusMinutes(210)), taskManager.getCriticalPath(third.getId()));
+        Assertions.assertEquals(new CriticalPath(List.of(first.getId()), Duration.ofHours(1), now.plusHours(1)),
+                taskManager.getCriticalPath(first.getId()));
+    }
+
+    @Test
+    void invalidDependenciesAreRejected() {
+        Task first = taskManager.createTask(new TaskBuilder(1).build());
+        Task second = taskManager.createTask(new TaskBuilder(2).build());
+        Task third = taskManager.createTask(new TaskBuilder(3).build());
+        Epic epic = taskManager.createEpic(new EpicBuilder(4).build());
+        taskManager.addDependency(first.getId(), second.getId());
+        taskManager.addDependency(second.getId(), third.getId());
+
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> taskManager.addDependency(third.getId(), first.getId()));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> taskManager.addDependency(first.getId(), first.getId()));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> taskManager.addDependency(epic.getId(), first.getId()));
+        Assertions.assertThrows(NotFoundException.class, () -> taskManager.addDependency(first.getId(), 100));
+        Assertions.assertEquals(List.of(first.getId()), ids(taskManager.getBlockers(second.getId())));
+        Assertions.assertTrue(taskManager.getBlockers(first.getId()).isEmpty());
+    }
+
+    @Test
+    void criticalPathFollowsDurationChanges() {
+        Task first = taskManager.createTask(new TaskBuilder(1).startTime(null).duration(Duration.ofHours(1)).build());
+        Task second = taskManager.createTask(new TaskBuilder(2).startTime(null).duration(Duration.ofHours(3)).build());
+        Task last = taskManager.createTask(new TaskBuilder(3).startTime(null).duration(Duration.ofHours(1)).build());
+        taskManager.addDependency(first.getId(), last.getId());
+        taskManager.addDependency(second.getId(), last.getId());
+
+        Assertions.assertEquals(new CriticalPath(List.of(second.getId(), last.getId()), Duration.ofHours(4), null),
+                taskManager.getCriticalPath(last.getId()));
+        LocalDateTime now = LocalDateTime.of(2024, 3, 1, 9, 0);
+        taskManager.updateTask(second.getId(), new TaskBuilder(second.getId()).startTime(now)
+                .duration(Duration.ofMinutes(30)).build());
+        Assertions.assertEquals(new CriticalPath(List.of(first.getId(), last.getId()), Duration.ofHours(2),
+                now.plusMinutes(90)), taskManager.getCriticalPath(last.getId()));
+        taskManager.removeDependency(first.getId(), last.getId());
+        Assertions.assertEquals(new CriticalPath(List.of(second.getId(), last.getId()), Duration.ofMinutes(90),
+                now.plusMinutes(90)), taskManager.getCriticalPath(last.getId()));
+    }
+
+    @Test
+    void dependenciesAcceptTasksWithoutDuration() {
+        LocalDateTime now = LocalDateTime.of(2024, 3, 1, 9, 0);
+        Task first = taskManager.createTask(new TaskBuilder(1).startTime(now).duration(Duration.ofHours(1)).build());
+        Task second = taskManager.createTask(new TaskBuilder(2).startTime(null).duration(null).build());
+        taskManager.addDependency(first.getId(), second.getId());
+
+        Assertions.assertEquals(new CriticalPath(List.of(first.getId(), second.getId()), Duration.ofHours(1),
+                now.plusHours(1)), taskManager.getCriticalPath(second.getId()));
+        taskManager.updateTask(first.getId(), new TaskBuilder(first.getId()).startTime(null).duration(null).build());
+        Assertions.assertNull(taskManager.getTask(first.getId()).getStartTime());
+        Assertions.assertTrue(taskManager.getPrioritizedTasks().isEmpty());
+        Assertions.assertEquals(new CriticalPath(List.of(first.getId(), second.getId()), Duration.ZERO, null),
+                taskManager.getCriticalPath(second.getId()));
+        Task third = taskManager.createTask(new TaskBuilder(3).startTime(null).duration(null).build());
+        Assertions.assertEquals(new CriticalPath(List.of(third.getId()), Duration.ZERO, null),
+                taskManager.getCriticalPath(third.getId()));
+    }
+
+    @Test
+    void deletedTasksLeaveDependencies() {
+        Task first = taskManager.createTask(new TaskBuilder(1).startTime(null).duration(Duration.ofHours(1)).build());
+        Task second = taskManager.createTask(new TaskBuilder(2).startTime(null).duration(Duration.ofHours(1)).build());
+        Epic epic = taskManager.createEpic(new EpicBuilder(3).build());
+        Subtask third = taskManager.createSubtask(new SubtaskBuilder(4, epic.getId()).startTime(null)
+                .duration(Duration.ofHours(1)).build());
+        taskManager.addDependency(first.getId(), second.getId());
+        taskManager.addDependency(second.getId(), third.getId());
+        taskManager.deleteTask(second.getId());
+
+        Assertions.assertTrue(taskManager.getBlockers(third.getId()).isEmpty());
+        Assertions.assertEquals(new CriticalPath(List.of(third.getId()), Duration.ofHours(1), null),
+                taskManager.getCriticalPath(third.getId()));
+        taskManager.addDependency(first.getId(), third.getId());
+        taskManager.clearEpics();
+        Assertions.assertTrue(taskManager.getBlocked(first.getId()).isEmpty());
+    }
+
+    private static List<Integer> sortedIds(List<Task> tasks) {
+        return tasks.stream().map(Task::getId).sorted().toList();
+    }
+
+    private static List<List<TaskEvent.Kind>> kinds(List<List<TaskEvent>> batches) {
+        return batches.stream().map(x -> x.stream().map(TaskEvent::getKind).toList()).toList();
+    }
+
+    private static List<Integer> ids(List<Task> tasks) {
+        return tasks.stream().map(Task::getId).toList();
+    }
 }
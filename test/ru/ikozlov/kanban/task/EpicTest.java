@@ -72,4 +72,129 @@ class EpicTest {
         Assertions.assertEquals(0, epic1.compareTo(epic2));
         Assertions.assertTrue(epic1.compareTo(epic3) < 0);
     }
-}
\ No newline at end of file
+
+    @Test
+    void epicAggregatesUpdateIncrementally() {
+        LocalDateTime startTime = LocalDateTime.now();
+        Epic epic = new Epic("Epic 1", "Epic 1 description");
+        epic.setId(999);
+        Subtask subtask1 = new Subtask("Subtask 1", "Subtask 1 description", Task.Status.DONE, 999,
+                Duration.ofHours(1), startTime);
+        subtask1.setId(1);
+        Subtask subtask2 = new Subtask("Subtask 2", "Subtask 2 description", Task.Status.NEW, 999,
+                Duration.ofHours(2), startTime.plusHours(5));
+        subtask2.setId(2);
+        epic.addSubtask(subtask1);
+        epic.addSubtask(subtask2);
+
+        Assertions.assertEquals(Task.Status.IN_PROGRESS, epic.getStatus());
+        Assertions.assertEquals(Duration.ofHours(3), epic.getDuration());
+        Assertions.assertEquals(startTime, epic.getStartTime());
+        Assertions.assertEquals(startTime.plusHours(7), epic.getEndTime());
+
+        subtask2.setStatus(Task.Status.DONE);
+        subtask2.setStartTime(startTime.minusHours(2));
+        epic.addSubtask(subtask2);
+
+        Assertions.assertEquals(Task.Status.DONE, epic.getStatus());
+        Assertions.assertEquals(startTime.minusHours(2), epic.getStartTime());
+        Assertions.assertEquals(startTime.plusHours(1), epic.getEndTime());
+
+        epic.removeSubtask(subtask1);
+
+        Assertions.assertEquals(List.of(subtask2), epic.getSubtasks());
+        Assertions.assertEquals(Duration.ofHours(2), epic.getDuration());
+        Assertions.assertEquals(startTime, epic.getEndTime());
+
+        epic.removeSubtask(subtask2);
+
+        Assertions.assertEquals(Task.Status.NEW, epic.getStatus());
+        Assertions.assertEquals(Duration.ZERO, epic.getDuration());
+        Assertions.assertNull(epic.getStartTime());
+        Assertions.assertNull(epic.getEndTime());
+    }
+
+    @Test
+    void epicWithUnscheduledSubtask() {
+        Epic epic = new Epic("Epic 1", "Epic 1 description");
+        epic.setId(999);
+        Subtask subtask = new Subtask("Subtask 1", "Subtask 1 description", Task.Status.IN_PROGRESS, 999,
+                Duration.ofHours(1), null);
+        subtask.setId(1);
+        epic.addSubtask(subtask);
+
+        Assertions.assertEquals(Task.Status.IN_PROGRESS, epic.getStatus());
+        Assertions.assertEquals(Duration.ofHours(1), epic.getDuration());
+        Assertions.assertNull(epic.getStartTime());
+        Assertions.assertNull(epic.getEndTime());
+    }
+
+    @Test
+    void epicSubtasksAreReadOnly() {
+        Epic epic = new Epic("Epic 1", "Epic 1 description");
+        epic.setId(999);
+        Subtask subtask = new Subtask("Subtask 1", "Subtask 1 description", Task.Status.NEW, 999,
+                Duration.ofHours(1), null);
+        subtask.setId(1);
+        List<Subtask> subtasks = epic.getSubtasks();
+
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> subtasks.add(subtask));
+        epic.addSubtask(subtask);
+        Assertions.assertTrue(subtasks.isEmpty());
+        Assertions.assertEquals(List.of(subtask), epic.getSubtasks());
+        Assertions.assertTrue(epic.hasSubtask(1));
+        Assertions.assertEquals(1, epic.getSubtasksCount());
+    }
+
+    @Test
+    void epicVersionKeepsSubtasksOfItsTime() {
+        Epic epic = new Epic("Epic 1", "Epic 1 description");
+        epic.setId(999);
+        Subtask subtask = new Subtask("Subtask 1", "Subtask 1 description", Task.Status.DONE, 999,
+                Duration.ofHours(1), LocalDateTime.now());
+        subtask.setId(1);
+        epic.addSubtask(subtask);
+        Epic version = epic.version();
+        Subtask next = new Subtask("Subtask 2", "Subtask 2 description", Task.Status.NEW, 999,
+                Duration.ofHours(2), null);
+        next.setId(2);
+        epic.addSubtask(next);
+        subtask.setTitle("Subtask 3");
+
+        Assertions.assertEquals(Task.Status.DONE, version.getStatus());
+        Assertions.assertEquals(Duration.ofHours(1), version.getDuration());
+        Assertions.assertEquals(List.of(subtask), version.getSubtasks());
+        Assertions.assertEquals("Subtask 1", version.getSubtasks().getFirst().getTitle());
+        Assertions.assertTrue(version.getSubtasks().getFirst().isFrozen());
+        Assertions.assertThrows(IllegalStateException.class, () -> version.addSubtask(next));
+    }
+
+    @Test
+    void nextEpicVersionTakesOverAggregates() {
+        Epic epic = new Epic("Epic 1", "Epic 1 description");
+        epic.setId(999);
+        Subtask subtask = new Subtask("Subtask 1", "Subtask 1 description", Task.Status.DONE, 999,
+                Duration.ofHours(1), LocalDateTime.now());
+        subtask.setId(1);
+        epic.addSubtask(subtask);
+        Epic next = epic.next();
+        Subtask other = new Subtask("Subtask 2", "Subtask 2 description", Task.Status.DONE, 999,
+                Duration.ofHours(2), null);
+        other.setId(2);
+        next.addSubtask(other);
+
+        Assertions.assertTrue(epic.isFrozen());
+        Assertions.assertThrows(IllegalStateException.class, () -> epic.addSubtask(other));
+        Assertions.assertEquals(List.of(subtask), epic.getSubtasks());
+        Assertions.assertEquals(Duration.ofHours(1), epic.getDuration());
+        Assertions.assertEquals(Task.Status.DONE, next.getStatus());
+        Assertions.assertEquals(Duration.ofHours(3), next.getDuration());
+        Assertions.assertEquals(List.of(subtask, other), next.getSubtasks());
+
+        Epic fromOlder = epic.next();
+        fromOlder.removeSubtask(subtask);
+
+        Assertions.assertEquals(Duration.ZERO, fromOlder.getDuration());
+        Assertions.assertEquals(Duration.ofHours(3), next.getDuration());
+    }
+}
@@ -44,4 +44,20 @@ class TaskTest {
         Assertions.assertEquals(0, task1.compareTo(task2));
         Assertions.assertTrue(task1.compareTo(task3) < 0);
     }
-}
\ No newline at end of file
+
+    @Test
+    void frozenTaskRejectsChanges() {
+        Task task = new Task("Task 1", "Task 1 description", Task.Status.NEW, Duration.ofHours(1),
+                LocalDateTime.now());
+        task.setId(1);
+        Task version = task.version();
+        task.setTitle("Task 2");
+
+        Assertions.assertNotSame(task, version);
+        Assertions.assertEquals("Task 1", version.getTitle());
+        Assertions.assertSame(version, version.version());
+        Assertions.assertThrows(IllegalStateException.class, () -> version.setTitle("Task 3"));
+        Assertions.assertThrows(IllegalStateException.class, () -> version.setStatus(Task.Status.DONE));
+        Assertions.assertThrows(IllegalStateException.class, () -> version.setStartTime(null));
+    }
+}
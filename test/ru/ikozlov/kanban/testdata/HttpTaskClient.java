@@ -31,6 +31,13 @@ public class HttpTaskClient {
         return client.send(request, bodyHandler);
     }
 
+    public HttpResponse<String> getTasks(String query) throws IOException, InterruptedException {
+        URI url = URI.create(host + "/tasks?" + query);
+        HttpRequest request = HttpRequest.newBuilder().uri(url).GET().build();
+
+        return client.send(request, bodyHandler);
+    }
+
     public HttpResponse<String> getTaskById(int taskId) throws IOException, InterruptedException {
         URI url = URI.create(host + "/tasks/" + taskId);
         HttpRequest request = HttpRequest.newBuilder().uri(url).GET().build();
@@ -38,6 +45,13 @@ public class HttpTaskClient {
         return client.send(request, bodyHandler);
     }
 
+    public HttpResponse<String> getTaskById(int taskId, String session) throws IOException, InterruptedException {
+        URI url = URI.create(host + "/tasks/" + taskId);
+        HttpRequest request = HttpRequest.newBuilder().uri(url).header("Session-Id", session).GET().build();
+
+        return client.send(request, bodyHandler);
+    }
+
     public HttpResponse<String> postTask(Task task) throws IOException, InterruptedException {
         URI url = URI.create(host + "/tasks");
         String json = gson.toJson(task);
@@ -62,6 +76,13 @@ public class HttpTaskClient {
         return client.send(request, bodyHandler);
     }
 
+    public HttpResponse<String> getSubtasks(String query) throws IOException, InterruptedException {
+        URI url = URI.create(host + "/subtasks?" + query);
+        HttpRequest request = HttpRequest.newBuilder().uri(url).GET().build();
+
+        return client.send(request, bodyHandler);
+    }
+
     public HttpResponse<String> getSubtaskById(int subtaskId) throws IOException, InterruptedException {
         URI url = URI.create(host + "/subtasks/" + subtaskId);
         HttpRequest request = HttpRequest.newBuilder().uri(url).GET().build();
@@ -93,6 +114,13 @@ public class HttpTaskClient {
         return client.send(request, bodyHandler);
     }
 
+    public HttpResponse<String> getEpics(String query) throws IOException, InterruptedException {
+        URI url = URI.create(host + "/epics?" + query);
+        HttpRequest request = HttpRequest.newBuilder().uri(url).GET().build();
+
+        return client.send(request, bodyHandler);
+    }
+
     public HttpResponse<String> getEpicById(int epicId) throws IOException, InterruptedException {
         URI url = URI.create(host + "/epics/" + epicId);
         HttpRequest request = HttpRequest.newBuilder().uri(url).GET().build();
@@ -131,10 +159,75 @@ public class HttpTaskClient {
         return client.send(request, bodyHandler);
     }
 
+    public HttpResponse<String> getSessionHistory(String session) throws IOException, InterruptedException {
+        URI url = URI.create(host + "/history");
+        HttpRequest request = HttpRequest.newBuilder().uri(url).header("Session-Id", session).GET().build();
+
+        return client.send(request, bodyHandler);
+    }
+
+    public HttpResponse<String> getHistory(String query) throws IOException, InterruptedException {
+        URI url = URI.create(host + "/history?" + query);
+        HttpRequest request = HttpRequest.newBuilder().uri(url).GET().build();
+
+        return client.send(request, bodyHandler);
+    }
+
     public HttpResponse<String> getPrioritized() throws IOException, InterruptedException {
         URI url = URI.create(host + "/prioritized");
         HttpRequest request = HttpRequest.newBuilder().uri(url).GET().build();
 
         return client.send(request, bodyHandler);
     }
+
+    public HttpResponse<String> getPrioritized(String query) throws IOException, InterruptedException {
+        URI url = URI.create(host + "/prioritized?" + query);
+        HttpRequest request = HttpRequest.newBuilder().uri(url).GET().build();
+
+        return client.send(request, bodyHandler);
+    }
+
+    public HttpResponse<String> search(String query) throws IOException, InterruptedException {
+        URI url = URI.create(host + "/search?" + query);
+        HttpRequest request = HttpRequest.newBuilder().uri(url).GET().build();
+
+        return client.send(request, bodyHandler);
+    }
+
+    public HttpResponse<String> getSlots(String query) throws IOException, InterruptedException {
+        URI url = URI.create(host + "/slots?" + query);
+        HttpRequest request = HttpRequest.newBuilder().uri(url).GET().build();
+
+        return client.send(request, bodyHandler);
+    }
+
+    public HttpResponse<String> getWorkload(String query) throws IOException, InterruptedException {
+        URI url = URI.create(host + "/workload?" + query);
+        HttpRequest request = HttpRequest.newBuilder().uri(url).GET().build();
+
+        return client.send(request, bodyHandler);
+    }
+
+    public HttpResponse<String> postDependency(int blockerId, int blockedId) throws IOException, InterruptedException {
+        URI url = URI.create(host + "/dependencies?blockerId=" + blockerId + "&blockedId=" + blockedId);
+        HttpRequest request = HttpRequest.newBuilder().uri(url).POST(HttpRequest.BodyPublishers.noBody()).build();
+
+        return client.send(request, bodyHandler);
+    }
+
+    public HttpResponse<String> deleteDependency(int blockerId, int blockedId) throws IOException,
+            InterruptedException {
+        URI url = URI.create(host + "/dependencies?blockerId=" + blockerId + "&blockedId=" + blockedId);
+        HttpRequest request = HttpRequest.newBuilder().uri(url).DELETE().build();
+
+        return client.send(request, bodyHandler);
+    }
+
+    public HttpResponse<String> getDependencies(int taskId, String relation) throws IOException,
+            InterruptedException {
+        URI url = URI.create(host + "/dependencies/" + taskId + "/" + relation);
+        HttpRequest request = HttpRequest.newBuilder().uri(url).GET().build();
+
+        return client.send(request, bodyHandler);
+    }
 }
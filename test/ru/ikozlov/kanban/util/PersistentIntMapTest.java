@@ -0,0 +1,90 @@
+package ru.ikozlov.kanban.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+
+class PersistentIntMapTest {
+
+    @Test
+    void putDoesNotChangePreviousVersion() {
+        PersistentIntMap<String> empty = PersistentIntMap.empty();
+        PersistentIntMap<String> first = empty.put(1, "one");
+        PersistentIntMap<String> second = first.put(1, "uno").put(2, "two");
+
+        Assertions.assertEquals(0, empty.size());
+        Assertions.assertEquals("one", first.get(1));
+        Assertions.assertNull(first.get(2));
+        Assertions.assertEquals("uno", second.get(1));
+        Assertions.assertEquals(List.of("uno", "two"), second.values());
+    }
+
+    @Test
+    void removeDoesNotChangePreviousVersion() {
+        PersistentIntMap<String> map = PersistentIntMap.<String>empty().put(1, "one").put(2, "two");
+        PersistentIntMap<String> removed = map.remove(1);
+
+        Assertions.assertSame(removed, removed.remove(1));
+        Assertions.assertEquals(List.of("two"), removed.values());
+        Assertions.assertEquals(List.of("one", "two"), map.values());
+    }
+
+    @Test
+    void ofSortedBuildsMapThatKeepsUpdating() {
+        List<Integer> keys = IntStream.range(0, 100).map(x -> x * 2).boxed().toList();
+        PersistentIntMap<Integer> map = PersistentIntMap.ofSorted(keys, x -> x);
+        PersistentIntMap<Integer> updated = map.put(7, 7).remove(0);
+
+        Assertions.assertEquals(keys, map.values());
+        Assertions.assertEquals(42, map.get(42));
+        Assertions.assertNull(map.get(7));
+        Assertions.assertEquals(100, updated.size());
+        Assertions.assertEquals(List.of(2, 4, 6, 7, 8), updated.values().subList(0, 5));
+    }
+
+    @Test
+    void matchesTreeMapOnRandomOperations() {
+        Random random = new Random(42);
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        PersistentIntMap<Integer> map = PersistentIntMap.empty();
+        for (int i = 0; i < 10_000; i++) {
+            int key = random.nextInt(500);
+            if (random.nextBoolean()) {
+                expected.put(key, i);
+                map = map.put(key, i);
+            } else {
+                expected.remove(key);
+                map = map.remove(key);
+            }
+        }
+
+        Assertions.assertEquals(expected.size(), map.size());
+        Assertions.assertEquals(new ArrayList<>(expected.values()), map.values());
+        Assertions.assertEquals(expected.lastEntry().getValue(), map.values().get(map.size() - 1));
+    }
+
+    @Test
+    void spliteratorSplitsIntoExactlySizedHalves() {
+        PersistentIntMap<Integer> map = PersistentIntMap.empty();
+        for (int i = 1; i <= 1000; i++) {
+            map = map.put(i, i);
+        }
+        Spliterator<Integer> suffix = map.values().spliterator();
+        Spliterator<Integer> prefix = suffix.trySplit();
+        long prefixSize = prefix.getExactSizeIfKnown();
+        List<Integer> values = new ArrayList<>();
+        prefix.forEachRemaining(values::add);
+        suffix.forEachRemaining(values::add);
+
+        Assertions.assertTrue(suffix.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED));
+        Assertions.assertEquals(500, prefixSize);
+        Assertions.assertEquals(IntStream.rangeClosed(1, 1000).boxed().toList(), values);
+        Assertions.assertEquals(500500, map.values().parallelStream().mapToInt(x -> x).sum());
+    }
+}